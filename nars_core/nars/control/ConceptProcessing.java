@@ -1,7 +1,7 @@
 package nars.control;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collection;
 import java.util.List;
 import nars.main.Parameters;
 import nars.entity.*;
@@ -52,16 +52,16 @@ public class ConceptProcessing {
         char type = task.sentence.punctuation;
         switch (type) {
             case Symbols.JUDGMENT_MARK:
-                //memory.logic.JUDGMENT_PROCESS.commit();
+                nal.memory.logic.JUDGMENT_PROCESS.commit();
                 processJudgment(concept, nal, task);
                 break;
             case Symbols.GOAL_MARK:
-                //memory.logic.GOAL_PROCESS.commit();
+                nal.memory.logic.GOAL_PROCESS.commit();
                 processGoal(concept, nal, task, true);
                 break;
             case Symbols.QUESTION_MARK:
             case Symbols.QUEST_MARK:
-                //memory.logic.QUESTION_PROCESS.commit();
+                nal.memory.logic.QUESTION_PROCESS.commit();
                 processQuestion(concept, nal, task);
                 break;
             default:
@@ -71,7 +71,7 @@ public class ConceptProcessing {
         maintainDisappointedAnticipations(concept);
 
         if (task.aboveThreshold()) {    // still need to be processed
-            //memory.logic.LINK_TO_TASK.commit();
+            nal.memory.logic.LINK_TO_TASK.commit();
             concept.linkToTask(task,nal);
         }
 
@@ -119,7 +119,7 @@ public class ConceptProcessing {
             } else if (revisible(judg, oldBelief)) {
 
                 nal.setTheNewStamp(newStamp, oldStamp, concept.memory.time());
-                Sentence projectedBelief = oldBelief.projection(concept.memory.time(), newStamp.getOccurrenceTime());
+                Sentence projectedBelief = oldBelief.getProjection(concept.memory.time(), newStamp.getOccurrenceTime());
                 if (projectedBelief!=null) {
                     if (projectedBelief.getOccurenceTime()!=oldBelief.getOccurenceTime()) {
                         // nal.singlePremiseTask(projectedBelief, task.budget);
@@ -140,7 +140,7 @@ public class ConceptProcessing {
                 trySolution(judg, concept.desires.get(i), nal, true);
             }
 
-            concept.addToTable(task, false, concept.beliefs, Parameters.CONCEPT_BELIEFS_MAX, Events.ConceptBeliefAdd.class, Events.ConceptBeliefRemove.class);
+            concept.addToTable(task, concept.beliefs, Parameters.CONCEPT_BELIEFS_MAX, Events.ConceptBeliefAdd.class, Events.ConceptBeliefRemove.class);
             
             //if taskLink predicts this concept then add to predictive
             Task target = task;
@@ -166,22 +166,16 @@ public class ConceptProcessing {
 
                             //we do not add the target, instead the strongest belief in the target concept
                             if(concept.beliefs.size() > 0) {
-                                Task strongest_target = null; //beliefs.get(0);
                                 //get the first eternal:
-                                for(Task t : concept.beliefs) {
-                                    if(t.sentence.isEternal()) {
-                                        strongest_target = t;
-                                        break;
-                                    }
-                                }
+                                Task strongest_target = concept.beliefs.firstEternal();
 
                                 int a = pred_conc.executable_preconditions.size();
 
                                 //at first we have to remove the last one with same content from table
                                 int i_delete = -1;
                                 for(int i=0; i < pred_conc.executable_preconditions.size(); i++) {
-                                    if(CompoundTerm.replaceIntervals(pred_conc.executable_preconditions.get(i).getTerm()).equals(
-                                            CompoundTerm.replaceIntervals(strongest_target.getTerm()))) {
+                                    if(pred_conc.executable_preconditions.get(i).getTerm().getConceptKey().equals(
+                                            strongest_target.getTerm().getConceptKey())) {
                                         i_delete = i; //even these with same term but different intervals are removed here
                                         break;
                                     }
@@ -198,7 +192,7 @@ public class ConceptProcessing {
                                 }
 
                                 //this way the strongest confident result of this content is put into table but the table ranked according to truth expectation
-                                pred_conc.addToTable(strongest_target, true, pred_conc.executable_preconditions, Parameters.CONCEPT_BELIEFS_MAX, Events.EnactableExplainationAdd.class, Events.EnactableExplainationRemove.class);
+                                pred_conc.addToTable(strongest_target, pred_conc.executable_preconditions, Parameters.CONCEPT_BELIEFS_MAX, Events.EnactableExplainationAdd.class, Events.EnactableExplainationRemove.class);
                             }
                         }
                     }
@@ -299,27 +293,14 @@ public class ConceptProcessing {
 
                 questionFromGoal(task, nal);
 
-                concept.addToTable(task, false, concept.desires, Parameters.CONCEPT_GOALS_MAX, Events.ConceptGoalAdd.class, Events.ConceptGoalRemove.class);
+                concept.addToTable(task, concept.desires, Parameters.CONCEPT_GOALS_MAX, Events.ConceptGoalAdd.class, Events.ConceptGoalRemove.class);
 
                 InternalExperience.InternalExperienceFromTask(concept.memory,task,false);
 
                 if(projectedGoal.truth.getExpectation() > nal.memory.param.decisionThreshold.get() && nal.memory.time() >= concept.memory.decisionBlock) {
                     //see whether the goal evidence is fully included in the old goal, if yes don't execute
                     //as execution for this reason already happened (or did not since there was evidence against it)
-                    HashSet<Long> oldEvidence = new HashSet<Long>();
-                    boolean Subset=false;
-                    if(oldGoalT != null) {
-                        Subset = true;
-                        for(Long l: oldGoalT.sentence.stamp.evidentialBase) {
-                            oldEvidence.add(l);
-                        }
-                        for(Long l: task.sentence.stamp.evidentialBase) {
-                            if(!oldEvidence.contains(l)) {
-                                Subset = false;
-                                break;
-                            }
-                        }
-                    }
+                    boolean Subset = oldGoalT != null && task.sentence.stamp.evidenceIncludedIn(oldGoalT.sentence.stamp);
                     if(!Subset && !executeDecision(nal, task)) {
                         concept.memory.emit(Events.UnexecutableGoal.class, task, concept, nal);
                         return true; //it was made true by itself
@@ -442,17 +423,11 @@ public class ConceptProcessing {
                 Term precondition = Conjunction.make(newprec,TemporalRules.ORDER_FORWARD);
 
                 Concept preconc = nal.memory.concept(precondition);
-                long newesttime = -1;
                 Task bestsofar = null;
                 if(preconc != null) { //ok we can look now how much it is fullfilled
 
-                    //check recent events in event bag
-                    for(Task p : concept.memory.seq_current) {
-                        if(p.sentence.term.equals(preconc.term) && p.sentence.isJudgment() && !p.sentence.isEternal() && p.sentence.getOccurenceTime() > newesttime  && p.sentence.getOccurenceTime() <= concept.memory.time()) {
-                            newesttime = p.sentence.getOccurenceTime();
-                            bestsofar = p; //we use the newest for now
-                        }
-                    }
+                    //check recent events in event bag, we use the newest for now
+                    bestsofar = concept.memory.seq_current.getNewest(preconc.term, concept.memory.time());
                     if(bestsofar == null) {
                         continue;
                     }
@@ -461,13 +436,13 @@ public class ConceptProcessing {
                     //and the truth of the hypothesis:
                     TruthValue Hyp = t.sentence.truth;
                     //overlap will almost never happen, but to make sure
-                    if(Stamp.baseOverlap(projectedGoal.stamp.evidentialBase, t.sentence.stamp.evidentialBase)) {
+                    if(Stamp.baseOverlap(projectedGoal.stamp, t.sentence.stamp)) {
                         continue; //base overlap
                     }
-                    if(Stamp.baseOverlap(bestsofar.sentence.stamp.evidentialBase, t.sentence.stamp.evidentialBase)) {
+                    if(Stamp.baseOverlap(bestsofar.sentence.stamp, t.sentence.stamp)) {
                         continue; //base overlap
                     }
-                    if(Stamp.baseOverlap(projectedGoal.stamp.evidentialBase, bestsofar.sentence.stamp.evidentialBase)) {
+                    if(Stamp.baseOverlap(projectedGoal.stamp, bestsofar.sentence.stamp)) {
                         continue; //base overlap
                     }
                     //and the truth of the precondition:
@@ -617,7 +592,7 @@ public class ConceptProcessing {
         for(TaskLink tl : concept.taskLinks) { //search for input in tasklinks (beliefs alone can not take temporality into account as the eternals will win)
             Task t = tl.targetTask;
             if(t!= null && t.sentence.isJudgment() && t.isInput() && !t.sentence.isEternal() && t.sentence.truth.getExpectation() > Parameters.DEFAULT_CONFIRMATION_EXPECTATION &&
-                    CompoundTerm.replaceIntervals(t.sentence.term).equals(CompoundTerm.replaceIntervals(concept.getTerm()))) {
+                    t.sentence.term.getConceptKey().equals(concept.getTerm().getConceptKey())) {
                 if(t.sentence.getOccurenceTime() >= concept.negConfirm_abort_mintime && t.sentence.getOccurenceTime() <= concept.negConfirm_abort_maxtime) {
                     cancelled = true;
                     break;
@@ -646,14 +621,15 @@ public class ConceptProcessing {
     
     public static void ProcessWhatQuestionAnswer(Concept concept, Task t, DerivationContext nal) {
         if(!t.sentence.term.hasVarQuery() && t.sentence.isJudgment() || t.sentence.isGoal()) { //ok query var, search
-            for(TaskLink quess: concept.taskLinks) {
+            final Collection<TaskLink> queryLinks = concept.taskLinks.getQueryLinks();
+            for(TaskLink quess: queryLinks.toArray(new TaskLink[queryLinks.size()])) { //only links to questions, goals and quests with query variables
                 Task ques = quess.getTarget();
                 if(((ques.sentence.isQuestion() && t.sentence.isJudgment()) ||
                     (ques.sentence.isGoal()     && t.sentence.isJudgment()) ||
                     (ques.sentence.isQuest()    && t.sentence.isGoal())) && ques.getTerm().hasVarQuery()) {
                     boolean newAnswer = false;
                     Term[] u = new Term[] { ques.getTerm(), t.getTerm() };
-                    if(ques.sentence.term.hasVarQuery() && !t.getTerm().hasVarQuery() && Variables.unify(Symbols.VAR_QUERY, u)) {
+                    if(ques.sentence.term.hasVarQuery() && !t.getTerm().hasVarQuery() && Variables.unify(Symbols.VAR_QUERY, u, nal.memory)) {
                         Concept c = nal.memory.concept(t.getTerm());
                         List<Task> answers = ques.sentence.isQuest() ? c.desires : c.beliefs;
                         if(c != null && answers.size() > 0) {
@@ -675,11 +651,12 @@ public class ConceptProcessing {
         if(!(ques.sentence.isJudgment()) && ques.getTerm().hasVarQuery()) { //ok query var, search
             boolean newAnswer = false;
             
-            for(TaskLink t : concept.taskLinks) {
+            final Collection<Term> contents = concept.taskLinks.getContents();
+            for(Term content : contents.toArray(new Term[contents.size()])) { //each different content of the task links once
                 
-                Term[] u = new Term[] { ques.getTerm(), t.getTerm() };
-                if(!t.getTerm().hasVarQuery() && Variables.unify(Symbols.VAR_QUERY, u)) {
-                    Concept c = nal.memory.concept(t.getTerm());
+                Term[] u = new Term[] { ques.getTerm(), content };
+                if(!content.hasVarQuery() && Variables.unify(Symbols.VAR_QUERY, u, nal.memory)) {
+                    Concept c = nal.memory.concept(content);
                     List<Task> answers = ques.sentence.isQuest() ? c.desires : c.beliefs;
                     if(c != null && answers.size() > 0) {
                         final Task taskAnswer = answers.get(0);
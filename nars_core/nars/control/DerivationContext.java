@@ -6,7 +6,6 @@ package nars.control;
 
 import java.util.ArrayList;
 import java.util.List;
-import nars.io.events.Events;
 import nars.storage.Memory;
 import nars.main.NAR;
 import nars.main.Parameters;
@@ -19,6 +18,8 @@ import nars.entity.Task;
 import nars.entity.TaskLink;
 import nars.entity.TermLink;
 import nars.entity.TruthValue;
+import nars.inference.RuleProfiler;
+import nars.inference.RuleProfiler.Rule;
 import nars.inference.TruthFunctions;
 import nars.language.CompoundTerm;
 import nars.language.Equivalence;
@@ -42,6 +43,9 @@ public class DerivationContext {
     protected Sentence currentBelief;
     protected Stamp newStamp;
     public StampBuilder newStampBuilder;
+    /* the rule the inference is attributed to, and since when, for the rule profiler */
+    protected Rule rule = null;
+    protected long ruleStart = 0;
     
     public DerivationContext(Memory mem) {
         super();
@@ -52,6 +56,28 @@ public class DerivationContext {
         memory.emit(c, o);
     }
 
+    /**
+     * Attributes the inference from now on to the given rule, or to none,
+     * charging the time since the last switch to the previous rule when the
+     * rule profiler of the memory is enabled
+     */
+    public void rule(final Rule next) {
+        final RuleProfiler profiler = memory.profiler;
+        if (profiler.isEnabled()) {
+            final long now = System.nanoTime();
+            if (rule != null && ruleStart != 0) {
+                profiler.time(rule, now - ruleStart);
+            }
+            if (next != null) {
+                profiler.call(next);
+            }
+            ruleStart = now;
+        } else {
+            ruleStart = 0;
+        }
+        rule = next;
+    }
+
     /**
      * Derived task comes from the inference rules.
      *
@@ -62,13 +88,16 @@ public class DerivationContext {
         return derivedTask(task, revised, single, overlapAllowed, true);
     }
     public boolean derivedTask(final Task task, final boolean revised, final boolean single, boolean overlapAllowed, boolean addToMemory) {                        
+        memory.profiler.derived(rule);
 
         if((task.sentence.isGoal() || task.sentence.isQuest()) && (task.sentence.term instanceof Implication ||
                                       task.sentence.term instanceof Equivalence)) {
+            memory.profiler.discarded(rule);
             return false; //implication and equivalence goals and quests are not supported anymore
         }
 
         if (!task.budget.aboveThreshold()) {
+            memory.profiler.discarded(rule);
             memory.removeTask(task, "Insufficient Budget");
             return false;
         } 
@@ -76,6 +105,7 @@ public class DerivationContext {
             float conf = task.sentence.truth.getConfidence();
             if (conf < Parameters.TRUTH_EPSILON) {
                 //no confidence - we can delete the wrongs out that way.
+                memory.profiler.discarded(rule);
                 memory.removeTask(task, "Ignored (zero confidence)");
                 return false;
             }
@@ -83,6 +113,7 @@ public class DerivationContext {
         if (task.sentence.term instanceof Operation) {
             Operation op = (Operation) task.sentence.term;
             if (op.getSubject() instanceof Variable || op.getPredicate() instanceof Variable) {
+                memory.profiler.discarded(rule);
                 memory.removeTask(task, "Operation with variable as subject or predicate");
                 return false;
             }
@@ -92,17 +123,11 @@ public class DerivationContext {
         
         //its revision, of course its cyclic, apply evidental base policy
         if(!overlapAllowed) { //todo reconsider
-            final int stampLength = stamp.baseLength;
-            for (int i = 0; i < stampLength; i++) {
-                final long baseI = stamp.evidentialBase[i];
-                for (int j = 0; j < stampLength; j++) {
-                    //!single since the derivation shouldn't depend on whether there is a current belief or not!!
-                    if ((!single && this.evidentalOverlap) || ((i != j) && (baseI == stamp.evidentialBase[j]))) {
-                        memory.removeTask(task, "Overlapping Evidenctal Base");
-                        //"(i=" + i + ",j=" + j +')' /* + " in " + stamp.toString()*/
-                        return false;
-                    }
-                }
+            //!single since the derivation shouldn't depend on whether there is a current belief or not!!
+            if ((!single && this.evidentalOverlap) || stamp.evidenceIsCyclic()) {
+                memory.profiler.discarded(rule);
+                memory.removeTask(task, "Overlapping Evidenctal Base");
+                return false;
             }
         }
         
@@ -119,8 +144,8 @@ public class DerivationContext {
             task.getBudget().setDurability(task.getBudget().getDurability()*Parameters.DERIVATION_DURABILITY_LEAK);
             task.getBudget().setPriority(task.getBudget().getPriority()*Parameters.DERIVATION_PRIORITY_LEAK);
         }
-        memory.event.emit(Events.TaskDerive.class, task, revised, single);
-        //memory.logic.TASK_DERIVED.commit(task.budget.getPriority());
+        memory.onTaskDerive.emit(task, revised, single);
+        memory.logic.TASK_DERIVED.commit(task.budget.getPriority());
         
         if(addToMemory) {
             addTask(task, "Derived");
@@ -6,10 +6,10 @@ package nars.control;
 
 import nars.main.Parameters;
 import nars.entity.Concept;
-import nars.io.events.Events;
 import nars.entity.Task;
 import nars.entity.TermLink;
 import nars.inference.BudgetFunctions;
+import nars.inference.RuleProfiler.Rule;
 import nars.inference.RuleTables;
 import nars.storage.Memory;
 
@@ -38,14 +38,22 @@ public class GeneralInferenceControl {
     }
     
     public static void fireConcept(DerivationContext nal, int numTaskLinks) {     
+        if (fireTaskLinks(nal, numTaskLinks)) {
+            putBackConcept(nal.memory, nal.currentConcept);
+        }
+    }
+    
+    /** fires task links of the current concept without touching the concept bag
+     *  @return false if the concept ran out of task links and should not be put back */
+    public static boolean fireTaskLinks(DerivationContext nal, int numTaskLinks) {
         for (int i = 0; i < numTaskLinks; i++) {
 
             if (nal.currentConcept.taskLinks.size() == 0) 
-                return;
+                return false;
 
             nal.currentTaskLink = nal.currentConcept.taskLinks.takeNext();                    
             if (nal.currentTaskLink == null)
-                return;
+                return false;
 
             if (nal.currentTaskLink.budget.aboveThreshold()) {
                 fireTaskLink(nal, Parameters.TERMLINK_MAX_REASONED);                    
@@ -53,9 +61,13 @@ public class GeneralInferenceControl {
 
             nal.currentConcept.taskLinks.putBack(nal.currentTaskLink, nal.memory.cycles(nal.memory.param.taskLinkForgetDurations), nal.memory);
         }
-        float forgetCycles = nal.memory.cycles(nal.memory.param.conceptForgetDurations);
-        nal.currentConcept.setQuality(BudgetFunctions.or(nal.currentConcept.getQuality(),nal.memory.emotion.happy()));
-        nal.memory.concepts.putBack(nal.currentConcept, forgetCycles, nal.memory);
+        return true;
+    }
+    
+    public static void putBackConcept(Memory mem, Concept concept) {
+        float forgetCycles = mem.cycles(mem.param.conceptForgetDurations);
+        concept.setQuality(BudgetFunctions.or(concept.getQuality(),mem.emotion.happy()));
+        mem.concepts.putBack(concept, forgetCycles, mem);
     }
     
     protected static void fireTaskLink(DerivationContext nal, int termLinks) {
@@ -71,7 +83,9 @@ public class GeneralInferenceControl {
             nal.setCurrentBelief(null);
             //TermLink tasklink_as_termlink = new TermLink(nal.currentTaskLink.getTerm(), TermLink.TRANSFORM, nal.getCurrentTaskLink().index);
             //if(nal.currentTaskLink.novel(tasklink_as_termlink, nal.memory.time(), true)) { //then record yourself, but also here novelty counts
+                nal.rule(Rule.DISPATCH);
                 RuleTables.transformTask(nal.currentTaskLink, nal); // to turn this into structural inference as below?
+                nal.rule(null);
             //}
             
         } else {            
@@ -86,21 +100,23 @@ public class GeneralInferenceControl {
             }
         }
                 
-        nal.memory.emit(Events.ConceptFire.class, nal);
-        //memory.logic.TASKLINK_FIRE.commit(currentTaskLink.budget.getPriority());
+        nal.memory.onConceptFire.emit(nal);
+        nal.memory.logic.TASKLINK_FIRE.commit(nal.currentTaskLink.budget.getPriority());
     }
 
     public static boolean fireTermlink(final TermLink termLink, DerivationContext nal) {
         nal.setCurrentBeliefLink(termLink);
         try {
+            nal.rule(Rule.DISPATCH);
             RuleTables.reason(nal.currentTaskLink, termLink, nal);
         } catch(Exception ex) {
             if(Parameters.DEBUG) {
                 System.out.println("issue in inference");
             }
         }
-        nal.memory.emit(Events.TermLinkSelect.class, termLink, nal.currentConcept, nal);
-        //memory.logic.REASON.commit(termLink.getPriority());                    
+        nal.rule(null);
+        nal.memory.onTermLinkSelect.emit(termLink, nal.currentConcept, nal);
+        nal.memory.logic.REASON.commit(termLink.getPriority());
         return true;
     }
 }
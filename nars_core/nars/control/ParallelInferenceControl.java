@@ -0,0 +1,194 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.control;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import nars.entity.Concept;
+import nars.entity.Task;
+import nars.language.Term;
+import nars.storage.Memory;
+
+/**
+ * Fires several concepts per cycle on a pool of worker threads.
+ * <p>
+ * Concepts are handed off by ownership: the cycle thread takes them out of
+ * Memory.concepts before any worker starts, so no Concept (with its task links,
+ * term links and beliefs) is ever fired by two workers at once, and puts them
+ * back once every worker is done. Meanwhile Memory.concept still finds them
+ * through firingConcept, so the beliefs of a concept fired at the same time
+ * are used as they would be sequentially. Tasks added to memory while the workers run
+ * are collected in a concurrent queue and merged into Memory.newTasks afterwards,
+ * and events emitted by the workers are delivered one at a time.
+ */
+public class ParallelInferenceControl {
+
+    /** a task added during parallel firing, with the reason to report when merged */
+    static class DeferredTask {
+        final Task task;
+        final String reason;
+
+        DeferredTask(final Task task, final String reason) {
+            this.task = task;
+            this.reason = reason;
+        }
+    }
+
+    /* how long an idle worker is kept, so that many idle NARs do not each hold a pool */
+    private static final long WORKER_KEEP_ALIVE_S = 10;
+
+    final Memory memory;
+    private final Queue<DeferredTask> deferred = new ConcurrentLinkedQueue<>();
+    private volatile boolean firing = false;
+    /* the concepts out of the bag while firing, by term; only read by the workers */
+    private final Map<Term, Concept> firingConcepts = new HashMap<>();
+
+    /* the workers of this memory, only used by the thread cycling it */
+    private ThreadPoolExecutor workers;
+
+    /** the pool for the given number of threads, replaced between two cycles when the number changes */
+    private ThreadPoolExecutor workers(final int threads) {
+        if (workers == null || workers.getMaximumPoolSize() != threads) {
+            if (workers != null) {
+                workers.shutdown();
+            }
+            workers = new ThreadPoolExecutor(threads, threads, WORKER_KEEP_ALIVE_S, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                int n = 0;
+                @Override public synchronized Thread newThread(final Runnable r) {
+                    Thread t = new Thread(r, "Inference worker " + (n++));
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+            workers.allowCoreThreadTimeOut(true);
+        }
+        return workers;
+    }
+
+    public ParallelInferenceControl(final Memory memory) {
+        this.memory = memory;
+    }
+
+    /** whether worker threads are currently firing concepts of this memory */
+    public boolean isFiring() {
+        return firing;
+    }
+
+    /**
+     * A concept taken out of Memory.concepts to be fired in the current
+     * parallel step, for Memory.concept
+     *
+     * @return The concept, or null if it is not being fired
+     */
+    public Concept firingConcept(final Term key) {
+        return firingConcepts.get(key);
+    }
+
+    /** called instead of adding to Memory.newTasks while firing */
+    public void defer(final Task task, final String reason) {
+        deferred.add(new DeferredTask(task, reason));
+    }
+
+    /**
+     * Takes up to the given number of concepts and fires one task link of each
+     * concurrently; the calling thread fires one of them itself.
+     */
+    public void fireConcepts(final int threads) {
+        final Concept[] selected = new Concept[threads];
+        int n = 0;
+        while (n < threads) {
+            final Concept c = memory.concepts.takeNext();
+            if (c == null) {
+                break;
+            }
+            if (c.taskLinks.size() == 0 || c.termLinks.size() == 0) { //remove concepts without tasklinks and without termlinks
+                memory.conceptRemoved(c);
+                continue;
+            }
+            selected[n++] = c;
+            firingConcepts.put(c.term, c);
+        }
+        if (n == 0) {
+            return;
+        }
+
+        final boolean[] active = new boolean[n];
+        final Future[] running = new Future[n];
+        firing = true;
+        memory.event.setConcurrent(true);
+        try {
+            final ThreadPoolExecutor pool = workers(threads);
+            for (int i = 1; i < n; i++) {
+                final int k = i;
+                running[i] = pool.submit(new Runnable() {
+                    @Override public void run() {
+                        active[k] = fire(selected[k]);
+                    }
+                });
+            }
+            Throwable failure = null;
+            try {
+                active[0] = fire(selected[0]);
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+            //wait for every worker before the concepts are put back, even if one failed
+            boolean interrupted = false;
+            for (int i = 1; i < n; i++) {
+                boolean done = false;
+                while (!done) {
+                    try {
+                        running[i].get();
+                        done = true;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    } catch (ExecutionException e) {
+                        if (failure == null) {
+                            failure = e.getCause();
+                        }
+                        done = true;
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            if (failure != null) {
+                throw new RuntimeException(failure);
+            }
+        } finally {
+            firing = false;
+            firingConcepts.clear();
+            memory.event.setConcurrent(false);
+            for (int i = 0; i < n; i++) {
+                if (active[i]) {
+                    GeneralInferenceControl.putBackConcept(memory, selected[i]);
+                }
+            }
+            DeferredTask d;
+            while ((d = deferred.poll()) != null) {
+                memory.addNewTask(d.task, d.reason);
+            }
+        }
+    }
+
+    private boolean fire(final Concept concept) {
+        DerivationContext cont = new DerivationContext(memory);
+        cont.setCurrentConcept(concept);
+        return GeneralInferenceControl.fireTaskLinks(cont, 1);
+    }
+}
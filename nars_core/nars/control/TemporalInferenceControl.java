@@ -16,11 +16,9 @@ import nars.entity.Task;
 import nars.inference.BudgetFunctions;
 import nars.inference.TemporalRules;
 import nars.io.Symbols;
-import nars.language.CompoundTerm;
 import nars.operator.Operation;
-import nars.storage.LevelBag;
+import nars.storage.ArrayBag;
 import nars.storage.Memory;
-import nars.io.events.Events;
 
 /**
  *
@@ -60,7 +58,7 @@ public class TemporalInferenceControl {
             return false;
        }
 
-        nal.emit(Events.InduceSucceedingEvent.class, newEvent, nal);
+        nal.memory.onInduceSucceedingEvent.emit(newEvent, nal);
 
         if (!newEvent.sentence.isJudgment() || newEvent.sentence.isEternal() || !newEvent.isInput()) {
             return false;
@@ -76,8 +74,8 @@ public class TemporalInferenceControl {
             }
 
             if(already_attempted.contains(takeout) || 
-                    Stamp.baseOverlap(newEvent.sentence.stamp.evidentialBase,
-                            takeout.sentence.stamp.evidentialBase)) {
+                    Stamp.baseOverlap(newEvent.sentence.stamp,
+                            takeout.sentence.stamp)) {
                 nal.memory.seq_current.putBack(takeout, nal.memory.cycles(nal.memory.param.eventForgetDurations), nal.memory);
                 continue;
             }
@@ -111,7 +109,7 @@ public class TemporalInferenceControl {
                 Concept opc = nal.memory.concept(Toperation.getTerm());
                 if(opc != null) {
                     if(opc.seq_before == null) {
-                        opc.seq_before = new LevelBag<>(Parameters.SEQUENCE_BAG_LEVELS, Parameters.SEQUENCE_BAG_SIZE);
+                        opc.seq_before = new ArrayBag<>(Parameters.SEQUENCE_BAG_LEVELS, Parameters.SEQUENCE_BAG_SIZE);
                     }
                     for(int i = 0; i<Parameters.CONDITION_BAG_ATTEMPTS; i++) {
                         Task takeout = opc.seq_before.takeNext();
@@ -162,27 +160,25 @@ public class TemporalInferenceControl {
     public static void addToSequenceTasks(DerivationContext nal, final Task newEvent) {
         //multiple versions are necessary, but we do not allow duplicates
         List<Task> removals = new LinkedList<Task>();
-        for(Task s : nal.memory.seq_current) {
-            if(CompoundTerm.replaceIntervals(s.getTerm()).equals(
-                    CompoundTerm.replaceIntervals(newEvent.getTerm()))) {
-                    // && //-- new outcommented
-                    //s.sentence.stamp.equals(newEvent.sentence.stamp,false,true,true,false) ) {
-                //&& newEvent.sentence.getOccurenceTime()>s.sentence.getOccurenceTime() ) { 
-                //check term indices
-                if(s.getTerm().term_indices != null && newEvent.getTerm().term_indices != null) {
-                    boolean differentTermIndices = false;
-                    for(int i=0;i<s.getTerm().term_indices.length;i++) {
-                       if(s.getTerm().term_indices[i] != newEvent.getTerm().term_indices[i]) {
-                           differentTermIndices = true;
-                       }
-                    }
-                    if(differentTermIndices) {
-                        continue;
-                    }
+        //the events with the same interval-free term, from the index of the bag
+        for(Task s : nal.memory.seq_current.getSameKey(newEvent.getTerm().getConceptKey())) {
+            // && //-- new outcommented
+            //s.sentence.stamp.equals(newEvent.sentence.stamp,false,true,true,false) ) {
+            //&& newEvent.sentence.getOccurenceTime()>s.sentence.getOccurenceTime() ) { 
+            //check term indices
+            if(s.getTerm().term_indices != null && newEvent.getTerm().term_indices != null) {
+                boolean differentTermIndices = false;
+                for(int i=0;i<s.getTerm().term_indices.length;i++) {
+                   if(s.getTerm().term_indices[i] != newEvent.getTerm().term_indices[i]) {
+                       differentTermIndices = true;
+                   }
+                }
+                if(differentTermIndices) {
+                    continue;
                 }
-                removals.add(s);
-                break;
             }
+            removals.add(s);
+            break;
         }
         for(Task removal : removals) {
             nal.memory.seq_current.take(removal);
@@ -219,12 +215,10 @@ public class TemporalInferenceControl {
         Concept c = (Concept) mem.concept(task.getTerm());
         if(c != null) {
             if(c.seq_before == null) {
-                c.seq_before = new LevelBag<>(Parameters.SEQUENCE_BAG_LEVELS, Parameters.SEQUENCE_BAG_SIZE);
+                c.seq_before = new ArrayBag<>(Parameters.SEQUENCE_BAG_LEVELS, Parameters.SEQUENCE_BAG_SIZE);
             }
-            for(Task t : mem.seq_current) {
-                if(task.sentence.getOccurenceTime() > t.sentence.getOccurenceTime()) {
-                    c.seq_before.putIn(t);
-                }
+            for(Task t : mem.seq_current.getBefore(task.sentence.getOccurenceTime())) {
+                c.seq_before.putIn(t);
             }
         }
         mem.seq_current.clear();
@@ -26,11 +26,6 @@ import java.util.Collections;
 import java.util.List;
 
 import nars.control.ConceptProcessing;
-import nars.io.events.Events.BeliefSelect;
-import nars.io.events.Events.TaskLinkAdd;
-import nars.io.events.Events.TaskLinkRemove;
-import nars.io.events.Events.TermLinkAdd;
-import nars.io.events.Events.TermLinkRemove;
 import nars.storage.Memory;
 import nars.main.Shell;
 import nars.main.Parameters;
@@ -42,7 +37,9 @@ import nars.io.Symbols.NativeOperator;
 import nars.language.CompoundTerm;
 import nars.language.Term;
 import nars.storage.Bag;
-import nars.storage.LevelBag;
+import nars.storage.ArrayBag;
+import nars.storage.BeliefTable;
+import nars.storage.TaskLinkBag;
 import static nars.inference.UtilityFunctions.or;
 
 public class Concept extends Item<Term> implements Serializable {
@@ -60,7 +57,7 @@ public class Concept extends Item<Term> implements Serializable {
     /**
      * Task links for indirect processing
      */
-    public final Bag<TaskLink,Task> taskLinks;
+    public final TaskLinkBag taskLinks;
 
     /**
      * Term links between the term and its components and compounds; beliefs
@@ -88,16 +85,16 @@ public class Concept extends Item<Term> implements Serializable {
     public final List<Task> quests;
 
     /**
-     * Judgments directly made about the term Use ArrayList because of access
-     * and insertion in the middle
+     * Judgments directly made about the term, ranked by confidence
      */
-    public final ArrayList<Task> beliefs;
-    public final ArrayList<Task> executable_preconditions;
+    public final BeliefTable beliefs;
+    /** ranked by truth expectation */
+    public final BeliefTable executable_preconditions;
 
     /**
      * Desire values on the term, similar to the above one
      */
-    public final ArrayList<Task> desires;
+    public final BeliefTable desires;
 
     /**
      * Reference to the memory to which the Concept belongs
@@ -125,13 +122,13 @@ public class Concept extends Item<Term> implements Serializable {
         this.memory = memory;
 
         this.questions = new ArrayList<>();
-        this.beliefs = new ArrayList<>();
-        this.executable_preconditions = new ArrayList<>();
+        this.beliefs = new BeliefTable(false);
+        this.executable_preconditions = new BeliefTable(true);
         this.quests = new ArrayList<>();
-        this.desires = new ArrayList<>();
+        this.desires = new BeliefTable(false);
 
-        this.taskLinks = new LevelBag<>(Parameters.TASK_LINK_BAG_LEVELS, Parameters.TASK_LINK_BAG_SIZE);
-        this.termLinks = new LevelBag<>(Parameters.TERM_LINK_BAG_LEVELS, Parameters.TERM_LINK_BAG_SIZE);
+        this.taskLinks = new TaskLinkBag(Parameters.TASK_LINK_BAG_LEVELS, Parameters.TASK_LINK_BAG_SIZE);
+        this.termLinks = new ArrayBag<>(Parameters.TERM_LINK_BAG_LEVELS, Parameters.TERM_LINK_BAG_SIZE);
                 
         if (tm instanceof CompoundTerm) {
             this.termLinkTemplates = ((CompoundTerm) tm).prepareComponentLinks();
@@ -157,12 +154,12 @@ public class Concept extends Item<Term> implements Serializable {
 
 
 
-    public void addToTable(final Task task, final boolean rankTruthExpectation, final ArrayList<Task> table, final int max, final Class eventAdd, final Class eventRemove, final Object... extraEventArguments) {
+    public void addToTable(final Task task, final BeliefTable table, final int max, final Class eventAdd, final Class eventRemove, final Object... extraEventArguments) {
         
         int preSize = table.size();
         Task removedT;
         Sentence removed = null;
-        removedT = addToTable(task, table, max, rankTruthExpectation);
+        removedT = addToTable(task, table, max);
         if(removedT != null) {
             removed=removedT.sentence;
         }
@@ -229,22 +226,18 @@ public class Concept extends Item<Term> implements Serializable {
      * @param capacity The capacity of the table
      * @return whether table was modified
      */
-    public static Task addToTable(final Task newTask, final List<Task> table, final int capacity, boolean rankTruthExpectation) {
+    public static Task addToTable(final Task newTask, final BeliefTable table, final int capacity) {
         Sentence newSentence = newTask.sentence;
-        final float rank1 = rankBelief(newSentence, rankTruthExpectation);    // for the new isBelief
-        float rank2;        
-        int i;
-        for (i = 0; i < table.size(); i++) {
+        final float rank1 = rankBelief(newSentence, table.rankTruthExpectation);    // for the new isBelief
+        //the first entry ranked at or below the new one
+        final int i = table.indexOfRank(rank1);
+        if (i < table.size()) {
             Sentence judgment2 = table.get(i).sentence;
-            rank2 = rankBelief(judgment2, rankTruthExpectation);
-            if (rank1 >= rank2) {
-                if (newSentence.truth.equals(judgment2.truth) && newSentence.stamp.equals(judgment2.stamp,false,true,true)) {
-                    //System.out.println(" ---------- Equivalent Belief: " + newSentence + " == " + judgment2);
-                    return null;
-                }
-                table.add(i, newTask);
-                break;
-            }            
+            if (newSentence.truth.equals(judgment2.truth) && newSentence.stamp.equals(judgment2.stamp,false,true,true)) {
+                //System.out.println(" ---------- Equivalent Belief: " + newSentence + " == " + judgment2);
+                return null;
+            }
+            table.add(i, newTask);
         }
         
         if (table.size() == capacity) {
@@ -276,8 +269,13 @@ public class Concept extends Item<Term> implements Serializable {
         float beliefQuality;
         Task candidate = null;
         boolean rateByConfidence = true; //table vote, yes/no question / local processing
+        //the quality by confidence is at most the confidence, the rank in these tables
+        final BeliefTable byConfidence = (list instanceof BeliefTable && !((BeliefTable) list).rankTruthExpectation) ? (BeliefTable) list : null;
         synchronized (list) {            
             for (int i = 0; i < list.size(); i++) {
+                if (byConfidence != null && byConfidence.rank(i) <= currentBest) {
+                    break; //no entry from here on can be better
+                }
                 Task judgT = list.get(i);
                 Sentence judg = judgT.sentence;
                 beliefQuality = LocalRules.solutionQuality(rateByConfidence, query, judg, memory); //makes revision explicitly search for 
@@ -320,21 +318,23 @@ public class Concept extends Item<Term> implements Serializable {
         int nSameContent = 0;
         float lowest_priority = Float.MAX_VALUE;
         TaskLink lowest = null;
-        for(TaskLink tl : taskLinks) {
+        for(TaskLink tl : taskLinks.getSameContent(taskLink.getTerm())) { //only the links with the same content, from the bag's index
             Sentence s = tl.getTarget().sentence;
-            if(s.getTerm().equals(taskLink.getTerm()) && s.isEternal() == isEternal) {
+            if(s.isEternal() == isEternal) {
                 nSameContent++; //same content and occurrence-type, so count +1
                 if(tl.getPriority() < lowest_priority) { //the current one has lower priority so save as lowest
                     lowest_priority = tl.getPriority();
                     lowest = tl;
                 }
                 if(nSameContent > Parameters.TASKLINK_PER_CONTENT) { //ok we reached the maximum so lets delete the lowest
-                    taskLinks.take(lowest);
-                    memory.emit(TaskLinkRemove.class, lowest, this);
                     break;
                 }
             }
         }
+        if(nSameContent > Parameters.TASKLINK_PER_CONTENT) {
+            taskLinks.take(lowest);
+            memory.onTaskLinkRemove.emit(lowest, this);
+        }
         //END HANDLE MAX PER CONTENT
         
         
@@ -342,16 +342,16 @@ public class Concept extends Item<Term> implements Serializable {
         
         if (removed!=null) {
             if (removed == taskLink) {
-                memory.emit(TaskLinkRemove.class, taskLink, this);
+                memory.onTaskLinkRemove.emit(taskLink, this);
                 return false;
             }
             else {
-                memory.emit(TaskLinkRemove.class, removed, this);
+                memory.onTaskLinkRemove.emit(removed, this);
             }
             
             removed.end();
         }
-        memory.emit(TaskLinkAdd.class, taskLink, this);
+        memory.onTaskLinkAdd.emit(taskLink, this);
         return true;
     }
 
@@ -407,14 +407,14 @@ public class Concept extends Item<Term> implements Serializable {
         TermLink removed = termLinks.putIn(termLink);
         if (removed!=null) {
             if (removed == termLink) {
-                memory.emit(TermLinkRemove.class, termLink, this);
+                memory.onTermLinkRemove.emit(termLink, this);
                 return false;
             }
             else {
-                memory.emit(TermLinkRemove.class, removed, this);
+                memory.onTermLinkRemove.emit(removed, this);
             }
         }
-        memory.emit(TermLinkAdd.class, termLink, this);
+        memory.onTermLinkAdd.emit(termLink, this);
         return true;        
     }
 
@@ -506,10 +506,10 @@ public class Concept extends Item<Term> implements Serializable {
 
         for (final Task beliefT : beliefs) {  
             Sentence belief = beliefT.sentence;
-            nal.emit(BeliefSelect.class, belief);
+            memory.onBeliefSelect.emit(belief);
             nal.setTheNewStamp(taskStamp, belief.stamp, currentTime);
             
-            Sentence projectedBelief = belief.projection(taskStamp.getOccurrenceTime(), memory.time());
+            Sentence projectedBelief = belief.getProjection(taskStamp.getOccurrenceTime(), currentTime);
             /*if (projectedBelief.getOccurenceTime() != belief.getOccurenceTime()) {
                nal.singlePremiseTask(projectedBelief, task.budget);
             }*/
@@ -595,10 +595,12 @@ public class Concept extends Item<Term> implements Serializable {
             for (final Task t : beliefs) {
                 t.sentence.discountConfidence();
             }
+            beliefs.truthChanged();
         } else {
             for (final Task t : desires) {
                 t.sentence.discountConfidence();
             }
+            desires.truthChanged();
         }
     }
 
@@ -22,7 +22,7 @@ package nars.entity;
 
 import java.io.Serializable;
 import java.util.Comparator;
-import nars.storage.Memory;
+import java.util.Random;
 
 /**
  * An item is an object that can be put into a Bag,
@@ -48,6 +48,9 @@ public abstract class Item<K> implements Serializable {
     
     /** The budget of the Item, consisting of 3 numbers */
     public final BudgetValue budget;
+    
+    /** cycle in which a bag with lazy forgetting last applied forgetting to this item, -1 if never */
+    public long lastForgetTime = -1;
 
     public Item() { // items that do not need budget
         this.budget = null;
@@ -254,12 +257,12 @@ public abstract class Item<K> implements Serializable {
     }
     
     /** randomly selects an item from a collection, weighted by priority */
-    public static <E extends Item> E selectRandomByPriority(Iterable<E> c) {
+    public static <E extends Item> E selectRandomByPriority(Iterable<E> c, Random random) {
         float totalPriority = getPrioritySum(c);
         
         if (totalPriority == 0) return null;
         
-        float r = Memory.randomNumber.nextFloat() * totalPriority;
+        float r = random.nextFloat() * totalPriority;
                 
         E s = null;
         for (E i : c) {
@@ -31,6 +31,7 @@ import nars.main.Parameters;
 import nars.inference.TemporalRules;
 import nars.inference.TruthFunctions;
 import nars.inference.TruthFunctions.EternalizedTruthValue;
+import nars.inference.UtilityFunctions;
 import nars.io.Symbols;
 import nars.io.Texts;
 import nars.language.CompoundTerm;
@@ -82,6 +83,9 @@ public class Sentence<T extends Term> implements Cloneable, Serializable {
     /** caches the 'getKey()' result */
     private CharSequence key;
 
+    /** caches the last 'getProjection()' result */
+    private transient Projection projected;
+
     private final int hash;
     
     
@@ -97,8 +101,10 @@ public class Sentence<T extends Term> implements Cloneable, Serializable {
      * @param truth The truth value of the sentence, null for question
      * @param stamp The stamp of the sentence indicating its derivation time and
      * base
+     * @param normalize Whether variable names still have to be normalized;
+     * false for the term of a sentence that was already created once
      */
-    private Sentence(T _content, final char punctuation, final TruthValue truth, final Stamp stamp, boolean normalize) {
+    public Sentence(T _content, final char punctuation, final TruthValue truth, final Stamp stamp, boolean normalize) {
         
         //cut interval at end for sentence in serial conjunction, and inbetween for parallel
         if(punctuation!=Symbols.TERM_NORMALIZING_WORKAROUND_MARK) {
@@ -375,6 +381,66 @@ public class Sentence<T extends Term> implements Cloneable, Serializable {
     }
 
     
+    /** a projection of the sentence with the times it was made for, replaced as a whole */
+    private static final class Projection {
+        final long targetTime, currentTime, occurrenceTime;
+        final double decay;
+        final Sentence sentence;
+
+        Projection(final long targetTime, final long currentTime, final long occurrenceTime, final double decay, final Sentence sentence) {
+            this.targetTime = targetTime;
+            this.currentTime = currentTime;
+            this.occurrenceTime = occurrenceTime;
+            this.decay = decay;
+            this.sentence = sentence;
+        }
+    }
+
+    /**
+     * The projection of the sentence to an occurrence time, shared by the
+     * callers asking for the same times: the belief of a concept is projected
+     * to the same task time for every termlink fired in a cycle. The result
+     * must not be modified, use projection for a copy that may be. The cache
+     * is keyed by the times only: a change of the truth in place must go
+     * through discountConfidence, which forgets it.
+     *
+     * @param targetTime The time to be projected into
+     * @param currentTime The current time as a reference
+     * @return The projected sentence
+     */
+    public Sentence getProjection(final long targetTime, final long currentTime) {
+        final Projection p = projected;
+        final long occurrenceTime = stamp.getOccurrenceTime();
+        final double decay = Parameters.projectionDecay.get();
+        if (p != null && p.targetTime == targetTime && p.currentTime == currentTime
+                && p.occurrenceTime == occurrenceTime && p.decay == decay) {
+            return p.sentence;
+        }
+        final Sentence s = projection(targetTime, currentTime);
+        projected = new Projection(targetTime, currentTime, occurrenceTime, decay, s);
+        return s;
+    }
+
+    /**
+     * The truth value of the projection to an occurrence time, written into
+     * a given truth value instead of a new one
+     *
+     * @param result The truth value to overwrite
+     * @return result, with the analytic flag of the sentence's truth if it
+     * was not changed by the projection
+     */
+    public TruthValue projectionTruth(final long targetTime, final long currentTime, final TruthValue result) {
+        if (stamp.isEternal()) {
+            return result.set(truth.getFrequency(), truth.getConfidence()).setAnalytic(truth.getAnalytic());
+        }
+        float confidence = UtilityFunctions.w2c(truth.getConfidence());
+        if (targetTime != Stamp.ETERNAL) {
+            final float factor = TruthFunctions.temporalProjection(stamp.getOccurrenceTime(), targetTime, currentTime);
+            confidence = Math.max(confidence, factor * truth.getConfidence());
+        }
+        return result.set(truth.getFrequency(), confidence).setAnalytic(false);
+    }
+
     public TruthValue projectionTruth(final long targetTime, final long currentTime) {
         TruthValue newTruth = null;
                         
@@ -568,6 +634,8 @@ public class Sentence<T extends Term> implements Cloneable, Serializable {
      */
     public void discountConfidence() {
         truth.setConfidence(truth.getConfidence() * Parameters.DISCOUNT_RATE).setAnalytic(false);
+        //the cached projection has the truth before
+        projected = null;
     }
 
     public boolean isEternal() {
@@ -22,7 +22,6 @@ package nars.entity;
 
 import java.io.Serializable;
 import java.util.Arrays;
-import java.util.HashSet;
 import nars.storage.Memory;
 import nars.main.Parameters;
 import nars.inference.TemporalRules;
@@ -49,6 +48,8 @@ public class Stamp implements Cloneable, Serializable {
     public static final long ETERNAL = Integer.MIN_VALUE;
     /** caches evidentialBase as a set for comparisons and hashcode, stores the unique Long's in-order for efficiency*/    
     private long[] evidentialSet = null;
+    /** Bloom-style summary of evidentialSet: bit (serial mod 64) set for each serial; 0 until computed */
+    private long evidentialMask = 0;
     /*Tense of the item*/
     private Tense tense;
     /*True when its a neg confirmation task that was already checked:*/
@@ -127,6 +128,10 @@ public class Stamp implements Cloneable, Serializable {
     public Stamp(final Stamp old, final long creationTime, final Stamp useEvidentialBase) {        
         this.evidentialBase = useEvidentialBase.evidentialBase;
         this.baseLength = useEvidentialBase.baseLength;
+        if (useEvidentialBase.evidentialSet != null) { //same base, same set
+            this.evidentialSet = useEvidentialBase.evidentialSet;
+            this.evidentialHash = useEvidentialBase.evidentialHash;
+        }
         this.creationTime = creationTime;
 
         this.occurrenceTime = old.getOccurrenceTime();
@@ -164,6 +169,24 @@ public class Stamp implements Cloneable, Serializable {
                 evidentialBase[j++] = firstBase[i1++];
             }
         }
+        
+        if (baseLength == firstLength + secondLength) {
+            //nothing was cut off, so the set is the union of the parents' sets
+            setEvidentialSet(union(first.toSet(), second.toSet()));
+        }
+    }
+
+    /**
+     * Restore a stamp from its fields, when a memory snapshot is loaded
+     *
+     * @param evidentialBase The serial numbers, in the original order
+     */
+    public Stamp(final long[] evidentialBase, final long creationTime, final long occurrenceTime, final Tense tense) {
+        this.evidentialBase = evidentialBase;
+        this.baseLength = evidentialBase.length;
+        this.creationTime = creationTime;
+        this.occurrenceTime = occurrenceTime;
+        this.tense = tense;
     }
 
     public Stamp(final Memory memory, final Tense tense) {
@@ -175,34 +198,105 @@ public class Stamp implements Cloneable, Serializable {
         this(memory, Tense.Present);
     }
     
-    /** Detects evidental base overlaps **/
-    public static boolean baseOverlap(long[] base1, long[] base2) {
-        HashSet<Long> task_base = new HashSet<>(base1.length + base2.length);
-        for(int i=0; i < base1.length; i++) {
-            if(task_base.contains(base1[i])) { //can have an overlap in itself already
-                return true;
-            }
-            task_base.add(base1[i]);
+    /** Detects evidental base overlaps, including a base overlapping with itself **/
+    public static boolean baseOverlap(final Stamp a, final Stamp b) {
+        if (a.evidenceIsCyclic() || b.evidenceIsCyclic()) { //can have an overlap in itself already
+            return true;
         }
-        for(int i=0; i < base2.length; i++) {
-            if(task_base.contains(base2[i])) {
-                return true;
+        if ((a.evidentialMask() & b.evidentialMask()) == 0) { //no serial in common for sure
+            return false;
+        }
+        return intersects(a.toSet(), b.toSet());
+    }
+    
+    /** Detects evidental base overlaps of bases which are not part of a Stamp **/
+    public static boolean baseOverlap(final long[] base1, final long[] base2) {
+        final int n = base1.length + base2.length;
+        if (n > 64) {
+            final long[] set1 = toSetArray(base1), set2 = toSetArray(base2);
+            return set1.length < base1.length || set2.length < base2.length || intersects(set1, set2);
+        }
+        for (int i = 0; i < n; i++) { //small bases: compare all pairs, without allocating
+            final long x = i < base1.length ? base1[i] : base2[i - base1.length];
+            for (int j = 0; j < i; j++) {
+                if (x == (j < base1.length ? base1[j] : base2[j - base1.length])) {
+                    return true;
+                }
             }
-            task_base.add(base2[i]); //also add to detect collision with itself
         }
         return false;
-     }
+    }
     
+    /** whether a serial appears more than once in the evidential base */
     public boolean evidenceIsCyclic() {
-        HashSet<Long> task_base = new HashSet<Long>(this.evidentialBase.length);
-        for(int i=0; i < this.evidentialBase.length; i++) {
-            if(task_base.contains(Long.valueOf(this.evidentialBase[i]))) { //can have an overlap in itself already
+        return toSet().length < evidentialBase.length;
+    }
+    
+    /** whether all the evidence of this stamp is also in the given one */
+    public boolean evidenceIncludedIn(final Stamp s) {
+        final long m = evidentialMask();
+        if ((m & s.evidentialMask()) != m) {
+            return false;
+        }
+        final long[] x = toSet(), y = s.toSet();
+        int j = 0;
+        for (int i = 0; i < x.length; i++) {
+            while (j < y.length && y[j] < x[i]) {
+                j++;
+            }
+            if (j == y.length || y[j] != x[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /** whether two sorted arrays have an element in common */
+    static boolean intersects(final long[] x, final long[] y) {
+        int i = 0, j = 0;
+        while (i < x.length && j < y.length) {
+            final long a = x[i], b = y[j];
+            if (a == b) {
                 return true;
             }
-            task_base.add(this.evidentialBase[i]);
+            if (a < b) {
+                i++;
+            } else {
+                j++;
+            }
         }
         return false;
     }
+    
+    /** the sorted union of two sorted arrays without duplicates */
+    static long[] union(final long[] x, final long[] y) {
+        final long[] u = new long[x.length + y.length];
+        int i = 0, j = 0, k = 0;
+        while (i < x.length || j < y.length) {
+            final long v;
+            if (j == y.length || (i < x.length && x[i] < y[j])) {
+                v = x[i++];
+            } else if (i == x.length || y[j] < x[i]) {
+                v = y[j++];
+            } else {
+                v = x[i++];
+                j++;
+            }
+            u[k++] = v;
+        }
+        return k == u.length ? u : Arrays.copyOf(u, k);
+    }
+    
+    private long evidentialMask() {
+        long m = evidentialMask;
+        if (m == 0) {
+            for (final long serial : toSet()) {
+                m |= 1L << (serial & 63);
+            }
+            evidentialMask = m;
+        }
+        return m;
+    }
 
     public boolean isEternal() {
         boolean eternalOccurrence = occurrenceTime == ETERNAL;
@@ -291,12 +385,18 @@ public class Stamp implements Cloneable, Serializable {
      * @return The TreeSet representation of the evidential base
      */
     private long[] toSet() {        
-        if (evidentialSet == null) {        
-            evidentialSet = toSetArray(evidentialBase);
-            evidentialHash = Arrays.hashCode(evidentialSet);
+        long[] set = evidentialSet;
+        if (set == null) {        
+            set = toSetArray(evidentialBase);
+            setEvidentialSet(set);
         }
         
-        return evidentialSet;
+        return set;
+    }
+    
+    private void setEvidentialSet(final long[] set) {
+        evidentialHash = Arrays.hashCode(set);
+        evidentialSet = set;
     }
 
     
@@ -397,6 +497,10 @@ public class Stamp implements Cloneable, Serializable {
         }        
     }
 
+    public Tense getTense() {
+        return tense;
+    }
+
     public void setOccurrenceTime(final long time) {
         if (occurrenceTime!=time) {
             occurrenceTime = time;
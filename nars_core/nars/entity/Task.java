@@ -134,6 +134,10 @@ public class Task<T extends Term> extends Item<Sentence<T>> implements Serializa
     public boolean isInput() {
         return isInput;
     }
+
+    public void setInput(boolean b) {
+        this.isInput = b;
+    }
     
     public boolean aboveThreshold() {
         return budget.aboveThreshold();
@@ -87,17 +87,30 @@ public class TaskLink extends Item<Task> implements TLink<Task>, Serializable {
      * @param v The budget
      */
     public TaskLink(final Task t, final TermLink template, final BudgetValue v, int recordLength) {
-        super(v);
-        this.type =
+        this(t,
                 template == null ? 
                         TermLink.SELF : 
-                        template.type;
-        this.index =
-                
+                        template.type,
                 template == null ?
                         null : 
-                        template.index
-        ;
+                        template.index,
+                v, recordLength);
+    }
+
+    /**
+     * Constructor for a TaskLink of known type and component index
+     * <p>
+     * called when a memory snapshot is loaded
+     *
+     * @param t The target Task
+     * @param type The link type
+     * @param index The component index, null for SELF links
+     * @param v The budget
+     */
+    public TaskLink(final Task t, final short type, final short[] index, final BudgetValue v, int recordLength) {
+        super(v);
+        this.type = type;
+        this.index = index;
         
         this.targetTask = t;
         
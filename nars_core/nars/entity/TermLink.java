@@ -121,6 +121,23 @@ public class TermLink extends Item<TermLink> implements TLink<Term>, Serializabl
         hash = init();
     }
 
+    /**
+     * Constructor for a TermLink of known type and component index
+     * <p>
+     * called when a memory snapshot is loaded
+     * @param t Target Term
+     * @param type Link type
+     * @param index Component index, as in the template the link was built from
+     * @param v Budget value of the link
+     */
+    public TermLink(final Term t, final short type, final short[] index, final BudgetValue v) {
+        super(v);
+        this.target = t;
+        this.type = type;
+        this.index = index;
+        hash = init();
+    }
+
     @Override public TermLink name() { return this; }
     
 //    @Override
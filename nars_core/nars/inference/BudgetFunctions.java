@@ -199,6 +199,28 @@ public final class BudgetFunctions extends UtilityFunctions {
         return quality;
     }
 
+    /**
+     * Forgetting of an item that has not been put back for the given number of
+     * cycles, in one step: p-q is multiplied by d^(cycles/(c*p)). The rate is
+     * that of the priority at the start of the gap, so for more than one cycle
+     * this decays less than putting the item back once per cycle, where the
+     * rate grows as p falls.
+     *
+     * @param budget The previous budget value
+     * @param forgetCycles The budget for the new item
+     * @param relativeThreshold The relative threshold of the bag
+     * @param cycles The number of cycles passed since the last forgetting
+     */
+    public static float applyForgetting(final BudgetValue budget, final float forgetCycles, final float relativeThreshold, final long cycles) {
+        float quality = budget.getQuality() * relativeThreshold;      // re-scaled quality
+        final float p = budget.getPriority() - quality;                     // priority above quality
+        if (p > 0) {
+            quality += p * pow(budget.getDurability(), cycles / (forgetCycles * p));
+        }    // priority Durability
+        budget.setPriority(quality);
+        return quality;
+    }
+
     
     /**
      * Merge an item into another one in a bag, when the two are identical
@@ -726,7 +726,7 @@ OUT: <lock1 --> lock>.
         if (figure == 21) {
             res1.clear();
             res2.clear();
-            Variables.findSubstitute(Symbols.VAR_INDEPENDENT, P1, S2, res1, res2); //this part is 
+            Variables.findSubstitute(Symbols.VAR_INDEPENDENT, P1, S2, res1, res2, nal.memory); //this part is 
             T1 = (Statement) T1.applySubstitute(res2); //independent, the rule works if it unifies
             if(T1==null) {
                 return;
@@ -745,7 +745,7 @@ OUT: <lock1 --> lock>.
                 for (final Term s1 : ((CompoundTerm) S1).term) {
                     res3.clear();
                     res4.clear(); //here the dependent part matters, see example of Issue40
-                    if (Variables.findSubstitute(Symbols.VAR_DEPENDENT, s1, P2, res3, res4)) {
+                    if (Variables.findSubstitute(Symbols.VAR_DEPENDENT, s1, P2, res3, res4, nal.memory)) {
                         for (Term s2 : ((CompoundTerm) S1).term) {
                             if (!(s2 instanceof CompoundTerm)) {
                                 continue;
@@ -768,7 +768,7 @@ OUT: <lock1 --> lock>.
                 for (final Term s1 : ((CompoundTerm) P2).term) {
                     res3.clear();
                     res4.clear(); //here the dependent part matters, see example of Issue40
-                    if (Variables.findSubstitute(Symbols.VAR_DEPENDENT, s1, S1, res3, res4)) {
+                    if (Variables.findSubstitute(Symbols.VAR_DEPENDENT, s1, S1, res3, res4, nal.memory)) {
                         for (Term s2 : ((CompoundTerm) P2).term) {
                             if (!(s2 instanceof CompoundTerm)) {
                                 continue;
@@ -791,7 +791,7 @@ OUT: <lock1 --> lock>.
         if (figure == 12) {
             res1.clear();
             res2.clear();
-            Variables.findSubstitute(Symbols.VAR_INDEPENDENT, S1, P2, res1, res2); //this part is 
+            Variables.findSubstitute(Symbols.VAR_INDEPENDENT, S1, P2, res1, res2, nal.memory); //this part is 
             T1 = (Statement) T1.applySubstitute(res2); //independent, the rule works if it unifies
             if(T1==null) {
                 return;
@@ -810,7 +810,7 @@ OUT: <lock1 --> lock>.
                 for (final Term s1 : ((CompoundTerm) S2).term) {
                     res3.clear();
                     res4.clear(); //here the dependent part matters, see example of Issue40
-                    if (Variables.findSubstitute(Symbols.VAR_DEPENDENT, s1, P1, res3, res4)) {
+                    if (Variables.findSubstitute(Symbols.VAR_DEPENDENT, s1, P1, res3, res4, nal.memory)) {
                         for (Term s2 : ((CompoundTerm) S2).term) {
                             if (!(s2 instanceof CompoundTerm)) {
                                 continue;
@@ -833,7 +833,7 @@ OUT: <lock1 --> lock>.
                 for (final Term s1 : ((CompoundTerm) P1).term) {
                     res3.clear();
                     res4.clear(); //here the dependent part matters, see example of Issue40
-                    if (Variables.findSubstitute(Symbols.VAR_DEPENDENT, s1, S2, res3, res4)) {
+                    if (Variables.findSubstitute(Symbols.VAR_DEPENDENT, s1, S2, res3, res4, nal.memory)) {
                         for (Term s2 : ((CompoundTerm) P1).term) {
                             if (!(s2 instanceof CompoundTerm)) {
                                 continue;
@@ -856,7 +856,7 @@ OUT: <lock1 --> lock>.
         if (figure == 11) {
             res1.clear();
             res2.clear();
-            Variables.findSubstitute(Symbols.VAR_INDEPENDENT, S1, S2, res1, res2); //this part is 
+            Variables.findSubstitute(Symbols.VAR_INDEPENDENT, S1, S2, res1, res2, nal.memory); //this part is 
             T1 = (Statement) T1.applySubstitute(res2); //independent, the rule works if it unifies
             if(T1==null) {
                 return;
@@ -875,7 +875,7 @@ OUT: <lock1 --> lock>.
                 for (final Term s1 : ((CompoundTerm) P1).term) {
                     res3.clear();
                     res4.clear(); //here the dependent part matters, see example of Issue40
-                    if (Variables.findSubstitute(Symbols.VAR_DEPENDENT, s1, P2, res3, res4)) {
+                    if (Variables.findSubstitute(Symbols.VAR_DEPENDENT, s1, P2, res3, res4, nal.memory)) {
                         for (Term s2 : ((CompoundTerm) P1).term) {
                             if (!(s2 instanceof CompoundTerm)) {
                                 continue;
@@ -898,7 +898,7 @@ OUT: <lock1 --> lock>.
                 for (final Term s1 : ((CompoundTerm) P2).term) {
                     res3.clear();
                     res4.clear(); //here the dependent part matters, see example of Issue40
-                    if (Variables.findSubstitute(Symbols.VAR_DEPENDENT, s1, P1, res3, res4)) {
+                    if (Variables.findSubstitute(Symbols.VAR_DEPENDENT, s1, P1, res3, res4, nal.memory)) {
                         for (Term s2 : ((CompoundTerm) P2).term) {
                             if (!(s2 instanceof CompoundTerm)) {
                                 continue;
@@ -921,7 +921,7 @@ OUT: <lock1 --> lock>.
         if (figure == 22) {
             res1.clear();
             res2.clear();
-            Variables.findSubstitute(Symbols.VAR_INDEPENDENT, P1, P2, res1, res2); //this part is 
+            Variables.findSubstitute(Symbols.VAR_INDEPENDENT, P1, P2, res1, res2, nal.memory); //this part is 
             T1 = (Statement) T1.applySubstitute(res2); //independent, the rule works if it unifies
             if(T1==null) {
                 return;
@@ -940,7 +940,7 @@ OUT: <lock1 --> lock>.
                 for (final Term s1 : ((CompoundTerm) S1).term) {
                     res3.clear();
                     res4.clear(); //here the dependent part matters, see example of Issue40
-                    if (Variables.findSubstitute(Symbols.VAR_DEPENDENT, s1, S2, res3, res4)) {
+                    if (Variables.findSubstitute(Symbols.VAR_DEPENDENT, s1, S2, res3, res4, nal.memory)) {
                         for (Term s2 : ((CompoundTerm) S1).term) {
                             if (!(s2 instanceof CompoundTerm)) {
                                 continue;
@@ -963,7 +963,7 @@ OUT: <lock1 --> lock>.
                 for (final Term s1 : ((CompoundTerm) S2).term) {
                     res3.clear();
                     res4.clear(); //here the dependent part matters, see example of Issue40
-                    if (Variables.findSubstitute(Symbols.VAR_DEPENDENT, s1, S1, res3, res4)) {
+                    if (Variables.findSubstitute(Symbols.VAR_DEPENDENT, s1, S1, res3, res4, nal.memory)) {
                         for (Term s2 : ((CompoundTerm) S2).term) {
                             if (!(s2 instanceof CompoundTerm)) {
                                 continue;
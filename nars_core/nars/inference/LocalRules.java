@@ -41,7 +41,6 @@ import nars.io.events.OutputHandler;
 import nars.io.Symbols;
 import nars.language.CompoundTerm;
 import static nars.language.CompoundTerm.extractIntervals;
-import static nars.language.CompoundTerm.replaceIntervals;
 import nars.language.Equivalence;
 import nars.language.Inheritance;
 import nars.language.Similarity;
@@ -62,6 +61,13 @@ import nars.language.Variables;
  */
 public class LocalRules {
 
+    /* the projected truth of a solution, only read within solutionQuality */
+    private static final ThreadLocal<TruthValue> projectedTruth = new ThreadLocal<TruthValue>() {
+        @Override protected TruthValue initialValue() {
+            return new TruthValue();
+        }
+    };
+
     /* -------------------- same contents -------------------- */
     /**
      * The task and belief have the same content
@@ -82,7 +88,7 @@ public class LocalRules {
         } else {
             if (matchingOrder(sentence, belief)) {
                 Term[] u = new Term[] { sentence.term, belief.term };
-                if (Variables.unify(Symbols.VAR_QUERY, u)) {
+                if (Variables.unify(Symbols.VAR_QUERY, u, nal.memory)) {
                     trySolution(belief, task, nal, true);
                 }
             }
@@ -110,8 +116,8 @@ public class LocalRules {
         }
         return (s1.getRevisible() && 
                 matchingOrder(s1.getTemporalOrder(), s2.getTemporalOrder()) &&
-                CompoundTerm.replaceIntervals(s1.term).equals(CompoundTerm.replaceIntervals(s2.term)) &&
-                !Stamp.baseOverlap(s1.stamp.evidentialBase, s2.stamp.evidentialBase));
+                s1.term.getConceptKey().equals(s2.term.getConceptKey()) &&
+                !Stamp.baseOverlap(s1.stamp, s2.stamp));
     }
 
     /**
@@ -135,27 +141,29 @@ public class LocalRules {
         boolean useNewBeliefTerm = false;
         
         if(newBelief.getTerm().hasInterval()) {
-            Term cterm = replaceIntervals(newBelief.getTerm());
+            Term cterm = newBelief.getTerm().getConceptKey();
             Concept c = nal.memory.concept(cterm);
             ArrayList<Long> ivalOld = extractIntervals(nal.memory, oldBelief.getTerm());
-            if(c.recent_intervals.size() == 0) {
-                for(Long l : ivalOld) {
-                    c.recent_intervals.add((float) l);
-                }
-            }
             ArrayList<Long> ivalNew = extractIntervals(nal.memory, newBelief.getTerm());
-            for(int i=0;i<ivalNew.size();i++) {
-                float Inbetween = (c.recent_intervals.get(i)+ivalNew.get(i)) / 2.0f; //vote as one new entry, turtle style
-                float speed = 1.0f / (float) (Parameters.INTERVAL_ADAPT_SPEED*(1.0f-newBelief.getTruth().getExpectation())); //less truth expectation, slower
-                c.recent_intervals.set(i,c.recent_intervals.get(i)+speed*(Inbetween - c.recent_intervals.get(i)));
-            }
             long AbsDiffSumNew = 0;
-            for(int i=0;i<ivalNew.size();i++) {
-                AbsDiffSumNew += Math.abs(ivalNew.get(i) - c.recent_intervals.get(i));
-            }
             long AbsDiffSumOld = 0;
-            for(int i=0;i<ivalNew.size();i++) {
-                AbsDiffSumOld += Math.abs(ivalOld.get(i) - c.recent_intervals.get(i));
+            synchronized (c.recent_intervals) { //c may be another concept than the one being fired
+                if(c.recent_intervals.size() == 0) {
+                    for(Long l : ivalOld) {
+                        c.recent_intervals.add((float) l);
+                    }
+                }
+                for(int i=0;i<ivalNew.size();i++) {
+                    float Inbetween = (c.recent_intervals.get(i)+ivalNew.get(i)) / 2.0f; //vote as one new entry, turtle style
+                    float speed = 1.0f / (float) (Parameters.INTERVAL_ADAPT_SPEED*(1.0f-newBelief.getTruth().getExpectation())); //less truth expectation, slower
+                    c.recent_intervals.set(i,c.recent_intervals.get(i)+speed*(Inbetween - c.recent_intervals.get(i)));
+                }
+                for(int i=0;i<ivalNew.size();i++) {
+                    AbsDiffSumNew += Math.abs(ivalNew.get(i) - c.recent_intervals.get(i));
+                }
+                for(int i=0;i<ivalNew.size();i++) {
+                    AbsDiffSumOld += Math.abs(ivalOld.get(i) - c.recent_intervals.get(i));
+                }
             }
             long AbsDiffSum = 0;
             for(int i=0;i<ivalNew.size();i++) {
@@ -175,7 +183,7 @@ public class LocalRules {
         
         if (budget.aboveThreshold()) {
             if (nal.doublePremiseTaskRevised(useNewBeliefTerm ? newBelief.term : oldBelief.term, truth, budget)) {
-                //nal.mem().logic.BELIEF_REVISION.commit();
+                nal.mem().logic.BELIEF_REVISION.commit();
                 return true;
             }
         }
@@ -209,7 +217,7 @@ public class LocalRules {
             }
         }
         task.setBestSolution(memory,belief);
-        //memory.logic.SOLUTION_BEST.commit(task.getPriority());
+        memory.logic.SOLUTION_BEST.commit(task.getPriority());
         
         BudgetValue budget = solutionEval(task, belief, task, nal);
         if ((budget != null) && budget.aboveThreshold()) {                       
@@ -250,7 +258,7 @@ public class LocalRules {
         
         TruthValue truth = solution.truth;
         if (problem.getOccurenceTime()!=solution.getOccurenceTime()) {
-            truth = solution.projectionTruth(problem.getOccurenceTime(), memory.time());            
+            truth = solution.projectionTruth(problem.getOccurenceTime(), memory.time(), projectedTruth.get());            
         }
         
         //when the solutions are comparable, we have to use confidence!! else truth expectation.
@@ -0,0 +1,180 @@
+package nars.inference;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Attributes the work of inference to the rules RuleTables dispatches to:
+ * how often each rule was applied, the wall time spent in it, the tasks it
+ * derived, and how many of those DerivationContext.derivedTask discarded
+ * right away (insufficient budget, zero confidence, overlapping evidence...),
+ * ranked by time so that expensive rules of low yield stand out.
+ * <p>
+ * Profiling is off by default, costing a field write per rule application.
+ * When enabled, DerivationContext.rule switches the rule the inference is
+ * attributed to before every rule call of RuleTables; the time between two
+ * switches is charged to the first rule, so the little dispatch code running
+ * after a rule returned counts towards it. Unification done by RuleTables
+ * to choose the first rule for a premise pair is charged to Rule.DISPATCH,
+ * the rest of the dispatch to the rule applied before. Tasks derived outside
+ * of RuleTables (revision and choice while processing a task, temporal
+ * induction) are counted for Rule.OTHER, without time. Like Metrics, worker
+ * threads of parallel firing update the counts without synchronization.
+ */
+public class RuleProfiler {
+
+    /** the rule entry points called by RuleTables */
+    public enum Rule {
+        DISPATCH("RuleTables (dispatch)"),
+        MATCH("LocalRules.match"),
+        MATCH_REVERSE("LocalRules.matchReverse"),
+        MATCH_ASYM_SYM("LocalRules.matchAsymSym"),
+        GOAL_FROM_QUESTION("RuleTables.goalFromQuestion"),
+        GOAL_FROM_WANT_BELIEF("RuleTables.goalFromWantBelief"),
+        DETACHMENT("SyllogisticRules.detachment"),
+        CONDITIONAL_DED_IND("SyllogisticRules.conditionalDedInd"),
+        CONDITIONAL_ANA("SyllogisticRules.conditionalAna"),
+        CONDITIONAL_ABD("SyllogisticRules.conditionalAbd"),
+        DED_EXE("SyllogisticRules.dedExe"),
+        ABD_IND_COM("SyllogisticRules.abdIndCom"),
+        ANALOGY("SyllogisticRules.analogy"),
+        RESEMBLANCE("SyllogisticRules.resemblance"),
+        ELIMI_VAR_DEP("SyllogisticRules.elimiVarDep"),
+        COMPOSE_COMPOUND("CompositionalRules.composeCompound"),
+        DECOMPOSE_STATEMENT("CompositionalRules.decomposeStatement"),
+        INTRO_VAR_OUTER("CompositionalRules.introVarOuter"),
+        INTRO_VAR_INNER("CompositionalRules.introVarInner"),
+        INTRO_VAR_SAME_SUBJECT_OR_PREDICATE("CompositionalRules.IntroVarSameSubjectOrPredicate"),
+        ELIMINATE_VARIABLE_OF_CONDITION_ABDUCTIVE("CompositionalRules.eliminateVariableOfConditionAbductive"),
+        TRANSFORM_NEGATION("StructuralRules.transformNegation"),
+        STRUCTURAL_COMPOUND("StructuralRules.structuralCompound"),
+        STRUCTURAL_COMPOSE1("StructuralRules.structuralCompose1"),
+        STRUCTURAL_COMPOSE2("StructuralRules.structuralCompose2"),
+        STRUCTURAL_DECOMPOSE1("StructuralRules.structuralDecompose1"),
+        STRUCTURAL_DECOMPOSE2("StructuralRules.structuralDecompose2"),
+        TRANSFORM_SET_RELATION("StructuralRules.transformSetRelation"),
+        CONTRAPOSITION("StructuralRules.contraposition"),
+        TRANSFORM_PRODUCT_IMAGE("StructuralRules.transformProductImage"),
+        OTHER("(outside RuleTables)");
+
+        public final String label;
+
+        Rule(final String label) {
+            this.label = label;
+        }
+    }
+
+    /** what one rule did */
+    public static class Entry {
+        public final Rule rule;
+        public final long calls, nanos, derived, discarded;
+
+        Entry(final Rule rule, final long calls, final long nanos, final long derived, final long discarded) {
+            this.rule = rule;
+            this.calls = calls;
+            this.nanos = nanos;
+            this.derived = derived;
+            this.discarded = discarded;
+        }
+
+        /** derived tasks not discarded, per millisecond spent in the rule */
+        public double getYield() {
+            return nanos == 0 ? 0 : (derived - discarded) / (nanos / 1.0e6);
+        }
+
+        @Override
+        public String toString() {
+            return rule.label + ": " + calls + " calls, " + nanos / 1000 + " us, " + derived + " derived, " + discarded + " discarded";
+        }
+    }
+
+    private volatile boolean enabled = false;
+
+    private final long[] calls = new long[Rule.values().length];
+    private final long[] nanos = new long[calls.length];
+    private final long[] derived = new long[calls.length];
+    private final long[] discarded = new long[calls.length];
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void call(final Rule rule) {
+        calls[rule.ordinal()]++;
+    }
+
+    public void time(final Rule rule, final long nanos) {
+        this.nanos[rule.ordinal()] += nanos;
+    }
+
+    /** a task derived by the rule, or by none */
+    public void derived(final Rule rule) {
+        if (enabled) {
+            derived[(rule == null ? Rule.OTHER : rule).ordinal()]++;
+        }
+    }
+
+    /** a task derived by the rule, or by none, discarded right away */
+    public void discarded(final Rule rule) {
+        if (enabled) {
+            discarded[(rule == null ? Rule.OTHER : rule).ordinal()]++;
+        }
+    }
+
+    public Entry get(final Rule rule) {
+        final int i = rule.ordinal();
+        return new Entry(rule, calls[i], nanos[i], derived[i], discarded[i]);
+    }
+
+    /** the rules applied or deriving anything, most time consuming first */
+    public List<Entry> ranked() {
+        final List<Entry> entries = new ArrayList<>();
+        for (final Rule r : Rule.values()) {
+            final Entry e = get(r);
+            if (e.calls != 0 || e.derived != 0) {
+                entries.add(e);
+            }
+        }
+        Collections.sort(entries, new Comparator<Entry>() {
+            @Override public int compare(final Entry a, final Entry b) {
+                return a.nanos != b.nanos ? Long.compare(b.nanos, a.nanos) : Long.compare(b.derived, a.derived);
+            }
+        });
+        return entries;
+    }
+
+    /** writes the ranked rules as a table */
+    public void report(final PrintWriter out) {
+        long total = 0;
+        for (final long n : nanos) {
+            total += n;
+        }
+        out.printf("%-58s %10s %10s %6s %9s %9s %9s%n", "rule", "calls", "ms", "time%", "derived", "discarded", "kept/ms");
+        for (final Entry e : ranked()) {
+            out.printf("%-58s %10d %10.1f %6.1f %9d %9d %9.1f%n", e.rule.label, e.calls, e.nanos / 1.0e6,
+                    total == 0 ? 0 : 100.0 * e.nanos / total, e.derived, e.discarded, e.getYield());
+        }
+        out.flush();
+    }
+
+    public void reset() {
+        for (int i = 0; i < calls.length; i++) {
+            calls[i] = nanos[i] = derived[i] = discarded[i] = 0;
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringWriter s = new StringWriter();
+        report(new PrintWriter(s));
+        return s.toString();
+    }
+}
@@ -20,7 +20,6 @@
  */
 package nars.inference;
 
-import nars.io.events.Events;
 import nars.storage.Memory;
 import nars.main.Parameters;
 import nars.control.DerivationContext;
@@ -33,6 +32,7 @@ import nars.entity.Task;
 import nars.entity.TaskLink;
 import nars.entity.TermLink;
 import nars.entity.TruthValue;
+import nars.inference.RuleProfiler.Rule;
 import nars.io.Symbols;
 import static nars.io.Symbols.VAR_DEPENDENT;
 import static nars.io.Symbols.VAR_INDEPENDENT;
@@ -90,7 +90,7 @@ public class RuleTables {
           /*Sentence belief_event = beliefConcept.getBeliefForTemporalInference(task);
             if(belief_event != null) {
                 boolean found_overlap = false;
-                if(Stamp.baseOverlap(task.sentence.stamp.evidentialBase, belief_event.stamp.evidentialBase)) {
+                if(Stamp.baseOverlap(task.sentence.stamp, belief_event.stamp)) {
                     found_overlap = true;
                 }
                 if(!found_overlap) { //temporal rules are inductive so no chance to succeed if there is an overlap
@@ -105,13 +105,14 @@ public class RuleTables {
             }*/
             
             //too restrictive, its checked for non-deductive inference rules in derivedTask (also for single prem)
-            nal.evidentalOverlap = Stamp.baseOverlap(task.sentence.stamp.evidentialBase, belief.stamp.evidentialBase);
+            nal.evidentalOverlap = Stamp.baseOverlap(task.sentence.stamp, belief.stamp);
             if(nal.evidentalOverlap && (!task.sentence.isEternal() || !belief.isEternal())) {
                 return; //only allow for eternal reasoning for now to prevent derived event floods
             }
             
-            nal.emit(Events.BeliefReason.class, belief, beliefTerm, taskTerm, nal);
+            nal.memory.onBeliefReason.emit(belief, beliefTerm, taskTerm, nal);
             
+            nal.rule(Rule.MATCH);
             if (LocalRules.match(task, belief, nal)) { //new tasks resulted from the match, so return
                 return;
             }
@@ -131,6 +132,7 @@ public class RuleTables {
         
         final short tIndex = tLink.getIndex(0);
         short bIndex = bLink.getIndex(0);
+        memory.logic.rule(tLink.type, bLink.type);
         switch (tLink.type) {          // dispatch first by TaskLink type
             case TermLink.SELF:
                 switch (bLink.type) {
@@ -143,13 +145,16 @@ public class RuleTables {
                     case TermLink.COMPONENT_STATEMENT:
                         if (belief != null) {
                             if (taskTerm instanceof Statement) {
+                                nal.rule(Rule.DETACHMENT);
                                 SyllogisticRules.detachment(taskSentence, belief, bIndex, nal);
                             }
                         } //else {
                         if(taskSentence.term instanceof Inheritance || taskSentence.term instanceof Similarity) {
+                            nal.rule(Rule.TRANSFORM_NEGATION);
                             StructuralRules.transformNegation((CompoundTerm) Negation.make(taskSentence.term), nal);
                         }
                         try {
+                            nal.rule(Rule.GOAL_FROM_QUESTION);
                             goalFromQuestion(task, taskTerm, nal); 
                         }catch(Exception ex) {
                             if(Parameters.DEBUG) {
@@ -160,18 +165,21 @@ public class RuleTables {
                         break;
                     case TermLink.COMPOUND_STATEMENT:
                         if (belief != null) {
+                            nal.rule(Rule.DETACHMENT);
                             SyllogisticRules.detachment(belief, taskSentence, bIndex, nal);
                         }
                         break;
                     case TermLink.COMPONENT_CONDITION:
                         if ((belief != null) && (taskTerm instanceof Implication)) {
                             bIndex = bLink.getIndex(1);
+                            nal.rule(Rule.CONDITIONAL_DED_IND);
                             SyllogisticRules.conditionalDedInd(task.sentence,(Implication) taskTerm, bIndex, beliefTerm, tIndex, nal);
                         }
                         break;
                     case TermLink.COMPOUND_CONDITION:
                         if ((belief != null) && (taskTerm instanceof Implication) && (beliefTerm instanceof Implication)) {
                             bIndex = bLink.getIndex(1);
+                            nal.rule(Rule.CONDITIONAL_DED_IND);
                             SyllogisticRules.conditionalDedInd(belief,(Implication) beliefTerm, bIndex, taskTerm, tIndex, nal);
                         }
                         break;
@@ -189,15 +197,17 @@ public class RuleTables {
                         if (belief != null) {
                             if (beliefTerm instanceof Implication) {
                                 Term[] u = new Term[] { beliefTerm, taskTerm };
-                                if (Variables.unify(VAR_INDEPENDENT, ((Statement) beliefTerm).getSubject(), taskTerm, u, true)) { //only secure place that
+                                if (Variables.unify(VAR_INDEPENDENT, ((Statement) beliefTerm).getSubject(), taskTerm, u, true, nal.memory)) { //only secure place that
                                     Sentence newBelief = belief.clone(u[0]);                                                //allows partial match
                                     Sentence newTaskSentence = taskSentence.clone(u[1]);
                                     detachmentWithVar(newBelief, newTaskSentence, bIndex, false, nal);
                                 } else {
+                                    nal.rule(Rule.CONDITIONAL_DED_IND);
                                     SyllogisticRules.conditionalDedInd(belief, (Implication) beliefTerm, bIndex, taskTerm, -1, nal);
                                 }                                
                                 
                             } else if (beliefTerm instanceof Equivalence) {
+                                nal.rule(Rule.CONDITIONAL_ANA);
                                 SyllogisticRules.conditionalAna((Equivalence) beliefTerm, bIndex, taskTerm, -1, nal);
                             }
                         }
@@ -208,6 +218,7 @@ public class RuleTables {
                 switch (bLink.type) {
                     case TermLink.COMPONENT:
                         if (taskTerm instanceof Statement) {
+                            nal.rule(Rule.GOAL_FROM_WANT_BELIEF);
                             goalFromWantBelief(task, tIndex, bIndex, taskTerm, nal, beliefTerm);
                             componentAndStatement((CompoundTerm) nal.getCurrentTerm(), bIndex, (Statement) taskTerm, tIndex, nal);
                         }
@@ -432,7 +443,7 @@ public class RuleTables {
         Term[] u = new Term[] { taskStatement, beliefStatement };
         switch (figure) {
             case 11:    // induction                
-                if (Variables.unify(VAR_INDEPENDENT, taskStatement.getSubject(), beliefStatement.getSubject(), u)) {                    
+                if (Variables.unify(VAR_INDEPENDENT, taskStatement.getSubject(), beliefStatement.getSubject(), u, nal.memory)) {                    
                     taskStatement = (Statement) u[0];
                     beliefStatement = (Statement) u[1];
                     if (taskStatement.equals(beliefStatement)) {
@@ -440,20 +451,24 @@ public class RuleTables {
                     }
                     t1 = beliefStatement.getPredicate();
                     t2 = taskStatement.getPredicate();
+                    nal.rule(Rule.ABD_IND_COM);
                     boolean sensational = SyllogisticRules.abdIndCom(t1, t2, taskSentence, belief, figure, nal);
                     if(sensational) {
                         return;
                     }
+                    nal.rule(Rule.COMPOSE_COMPOUND);
                     CompositionalRules.composeCompound(taskStatement, beliefStatement, 0, nal);
                     //if(taskSentence.getOccurenceTime()==Stamp.ETERNAL && belief.getOccurenceTime()==Stamp.ETERNAL)
+                    nal.rule(Rule.INTRO_VAR_OUTER);
                     CompositionalRules.introVarOuter(taskStatement, beliefStatement, 0, nal);//introVarImage(taskContent, beliefContent, index, memory);             
+                    nal.rule(Rule.ELIMINATE_VARIABLE_OF_CONDITION_ABDUCTIVE);
                     CompositionalRules.eliminateVariableOfConditionAbductive(figure,taskSentence,belief,nal);
                     
                 }
 
                 break;
             case 12:    // deduction                
-                if (Variables.unify(VAR_INDEPENDENT, taskStatement.getSubject(), beliefStatement.getPredicate(), u)) {
+                if (Variables.unify(VAR_INDEPENDENT, taskStatement.getSubject(), beliefStatement.getPredicate(), u, nal.memory)) {
                     taskStatement = (Statement) u[0];
                     beliefStatement = (Statement) u[1];
                     if (taskStatement.equals(beliefStatement)) {
@@ -461,15 +476,17 @@ public class RuleTables {
                     }
                     t1 = beliefStatement.getSubject();
                     t2 = taskStatement.getPredicate();
-                    if (Variables.unify(VAR_QUERY, t1, t2, new Term[] { taskStatement, beliefStatement })) {
+                    if (Variables.unify(VAR_QUERY, t1, t2, new Term[] { taskStatement, beliefStatement }, nal.memory)) {
+                        nal.rule(Rule.MATCH_REVERSE);
                         LocalRules.matchReverse(nal);
                     } else {
+                        nal.rule(Rule.DED_EXE);
                         SyllogisticRules.dedExe(t1, t2, taskSentence, belief, nal);
                     }
                 }
                 break;
             case 21:    // exemplification
-                if (Variables.unify(VAR_INDEPENDENT, taskStatement.getPredicate(), beliefStatement.getSubject(), u)) {
+                if (Variables.unify(VAR_INDEPENDENT, taskStatement.getPredicate(), beliefStatement.getSubject(), u, nal.memory)) {
                     taskStatement = (Statement) u[0];
                     beliefStatement = (Statement) u[1];
                     if (taskStatement.equals(beliefStatement)) {
@@ -479,15 +496,17 @@ public class RuleTables {
                     t2 = beliefStatement.getPredicate();
                     
                     
-                    if (Variables.unify(VAR_QUERY, t1, t2, new Term[] { taskStatement, beliefStatement })) {
+                    if (Variables.unify(VAR_QUERY, t1, t2, new Term[] { taskStatement, beliefStatement }, nal.memory)) {
+                        nal.rule(Rule.MATCH_REVERSE);
                         LocalRules.matchReverse(nal);
                     } else {
+                        nal.rule(Rule.DED_EXE);
                         SyllogisticRules.dedExe(t1, t2, taskSentence, belief, nal);
                     }
                 }
                 break;
             case 22:    // abduction
-                if (Variables.unify(VAR_INDEPENDENT, taskStatement.getPredicate(), beliefStatement.getPredicate(), u)) {
+                if (Variables.unify(VAR_INDEPENDENT, taskStatement.getPredicate(), beliefStatement.getPredicate(), u, nal.memory)) {
                     taskStatement = (Statement) u[0];
                     beliefStatement = (Statement) u[1];
                     
@@ -496,16 +515,21 @@ public class RuleTables {
                     }
                     t1 = taskStatement.getSubject();
                     t2 = beliefStatement.getSubject();
+                    nal.rule(Rule.CONDITIONAL_ABD);
                     if (!SyllogisticRules.conditionalAbd(t1, t2, taskStatement, beliefStatement, nal)) {         // if conditional abduction, skip the following
+                        nal.rule(Rule.ABD_IND_COM);
                         boolean sensational = SyllogisticRules.abdIndCom(t1, t2, taskSentence, belief, figure, nal);
                         if(sensational) {
                             return;
                         }
+                        nal.rule(Rule.COMPOSE_COMPOUND);
                         CompositionalRules.composeCompound(taskStatement, beliefStatement, 1, nal);
+                        nal.rule(Rule.INTRO_VAR_OUTER);
                         CompositionalRules.introVarOuter(taskStatement, beliefStatement, 1, nal);// introVarImage(taskContent, beliefContent, index, memory);
 
                     }
 
+                    nal.rule(Rule.ELIMINATE_VARIABLE_OF_CONDITION_ABDUCTIVE);
                     CompositionalRules.eliminateVariableOfConditionAbductive(figure,taskSentence,belief,nal);
                     
                 }
@@ -530,59 +554,67 @@ public class RuleTables {
         Term[] u = new Term[] { asymSt, symSt };
         switch (figure) {
             case 11:
-                if (Variables.unify(VAR_INDEPENDENT, asymSt.getSubject(), symSt.getSubject(), u)) {
+                if (Variables.unify(VAR_INDEPENDENT, asymSt.getSubject(), symSt.getSubject(), u, nal.memory)) {
                     asymSt = (Statement) u[0];
                     symSt = (Statement) u[1];
                     t1 = asymSt.getPredicate();
                     t2 = symSt.getPredicate();
                     
-                    if (Variables.unify(VAR_QUERY, t1, t2, u)) {                        
+                    if (Variables.unify(VAR_QUERY, t1, t2, u, nal.memory)) {                        
+                        nal.rule(Rule.MATCH_ASYM_SYM);
                         LocalRules.matchAsymSym(asym, sym, figure, nal);
                         
                     } else {
+                        nal.rule(Rule.ANALOGY);
                         SyllogisticRules.analogy(t2, t1, asym, sym, figure, nal);
                     }
                     
                 }
                 break;
             case 12:
-                if (Variables.unify(VAR_INDEPENDENT, asymSt.getSubject(), symSt.getPredicate(), u)) {
+                if (Variables.unify(VAR_INDEPENDENT, asymSt.getSubject(), symSt.getPredicate(), u, nal.memory)) {
                     asymSt = (Statement) u[0];
                     symSt = (Statement) u[1];
                     t1 = asymSt.getPredicate();
                     t2 = symSt.getSubject();
                     
-                    if (Variables.unify(VAR_QUERY, t1, t2, u)) {
+                    if (Variables.unify(VAR_QUERY, t1, t2, u, nal.memory)) {
+                        nal.rule(Rule.MATCH_ASYM_SYM);
                         LocalRules.matchAsymSym(asym, sym, figure, nal);
                     } else {
+                        nal.rule(Rule.ANALOGY);
                         SyllogisticRules.analogy(t2, t1, asym, sym, figure, nal);
                     }
                 }
                 break;
             case 21:
-                if (Variables.unify(VAR_INDEPENDENT, asymSt.getPredicate(), symSt.getSubject(), u)) {
+                if (Variables.unify(VAR_INDEPENDENT, asymSt.getPredicate(), symSt.getSubject(), u, nal.memory)) {
                     asymSt = (Statement) u[0];
                     symSt = (Statement) u[1];
                     t1 = asymSt.getSubject();
                     t2 = symSt.getPredicate();
                     
-                    if (Variables.unify(VAR_QUERY, t1, t2, u)) {                        
+                    if (Variables.unify(VAR_QUERY, t1, t2, u, nal.memory)) {                        
+                        nal.rule(Rule.MATCH_ASYM_SYM);
                         LocalRules.matchAsymSym(asym, sym, figure, nal);
                     } else {
+                        nal.rule(Rule.ANALOGY);
                         SyllogisticRules.analogy(t1, t2, asym, sym, figure, nal);
                     }
                 }
                 break;
             case 22:
-                if (Variables.unify(VAR_INDEPENDENT, asymSt.getPredicate(), symSt.getPredicate(), u)) {
+                if (Variables.unify(VAR_INDEPENDENT, asymSt.getPredicate(), symSt.getPredicate(), u, nal.memory)) {
                     asymSt = (Statement) u[0];
                     symSt = (Statement) u[1];
                     t1 = asymSt.getSubject();
                     t2 = symSt.getSubject();                    
                     
-                    if (Variables.unify(VAR_QUERY, t1, t2, u)) {                        
+                    if (Variables.unify(VAR_QUERY, t1, t2, u, nal.memory)) {                        
+                        nal.rule(Rule.MATCH_ASYM_SYM);
                         LocalRules.matchAsymSym(asym, sym, figure, nal);
                     } else {
+                        nal.rule(Rule.ANALOGY);
                         SyllogisticRules.analogy(t1, t2, asym, sym, figure, nal);
                     }
                 }
@@ -635,7 +667,7 @@ public class RuleTables {
         }
         
         Term[] u = new Term[] { s1, s2 };
-        if (Variables.unify(VAR_INDEPENDENT, ut1, ut2, u)) {
+        if (Variables.unify(VAR_INDEPENDENT, ut1, ut2, u, nal.memory)) {
             //recalculate rt1, rt2 from above:
             switch (figure) {
                 case 11: rt1 = s1.getPredicate();   rt2 = s2.getPredicate(); break;
@@ -644,8 +676,10 @@ public class RuleTables {
                 case 22: rt1 = s1.getSubject();     rt2 = s2.getSubject();   break;
             }
             
+            nal.rule(Rule.RESEMBLANCE);
             SyllogisticRules.resemblance(rt1, rt2, belief, taskSentence, figure, nal);
 
+            nal.rule(Rule.ELIMINATE_VARIABLE_OF_CONDITION_ABDUCTIVE);
             CompositionalRules.eliminateVariableOfConditionAbductive(
                     figure, taskSentence, belief, nal);
             
@@ -685,18 +719,23 @@ public class RuleTables {
             Term[] u = new Term[] { statement, content };
             
             if (!component.hasVarIndep() && !component.hasVarDep()) { //because of example: <<(*,w1,#2) --> [good]> ==> <w1 --> TRANSLATE>>. <(*,w1,w2) --> [good]>.
+                nal.rule(Rule.DETACHMENT);
                 SyllogisticRules.detachment(mainSentence, subSentence, index, checkTermAgain, nal);
-            } else if (Variables.unify(VAR_INDEPENDENT, component, content, u)) { //happens through syllogisms
+            } else if (Variables.unify(VAR_INDEPENDENT, component, content, u, nal.memory)) { //happens through syllogisms
                 mainSentence = mainSentence.clone(u[0]);
                 subSentence = subSentence.clone(u[1]);
+                nal.rule(Rule.DETACHMENT);
                 SyllogisticRules.detachment(mainSentence, subSentence, index, false, nal);
             } else if ((statement instanceof Implication) && (statement.getPredicate() instanceof Statement) && (nal.getCurrentTask().sentence.isJudgment())) {
                 Statement s2 = (Statement) statement.getPredicate();
                 if ((content instanceof Statement) && (s2.getSubject().equals(((Statement) content).getSubject()))) {
+                    nal.rule(Rule.INTRO_VAR_INNER);
                     CompositionalRules.introVarInner((Statement) content, s2, statement, nal);
                 }
+                nal.rule(Rule.INTRO_VAR_SAME_SUBJECT_OR_PREDICATE);
                 CompositionalRules.IntroVarSameSubjectOrPredicate(originalMainSentence,subSentence,component,content,index,nal);
             } else if ((statement instanceof Equivalence) && (statement.getPredicate() instanceof Statement) && (nal.getCurrentTask().sentence.isJudgment())) {
+                nal.rule(Rule.INTRO_VAR_SAME_SUBJECT_OR_PREDICATE);
                 CompositionalRules.IntroVarSameSubjectOrPredicate(originalMainSentence,subSentence,component,content,index,nal);                
             }
         }
@@ -738,9 +777,10 @@ public class RuleTables {
 
         if (component2 != null) {
             Term[] u = new Term[] { conditional, statement };
-            if (Variables.unify(VAR_INDEPENDENT, component, component2, u)) {
+            if (Variables.unify(VAR_INDEPENDENT, component, component2, u, nal.memory)) {
                 conditional = (Implication) u[0];
                 statement = (Statement) u[1];
+                nal.rule(Rule.CONDITIONAL_DED_IND);
                 SyllogisticRules.conditionalDedInd(conditionalSentence, conditional, index, statement, side, nal);
             }
         }
@@ -759,16 +799,21 @@ public class RuleTables {
         if ((compound instanceof Conjunction) || (compound instanceof Disjunction)) {
             if (nal.getCurrentBelief() != null) {
                 if(compound.containsTerm(component)) {
+                    nal.rule(Rule.STRUCTURAL_COMPOUND);
                     StructuralRules.structuralCompound(compound, component, compoundTask, index, nal);
                 }
+                nal.rule(Rule.DECOMPOSE_STATEMENT);
                 CompositionalRules.decomposeStatement(compound, component, compoundTask, index, nal);
             } else if (compound.containsTerm(component)) {
+                nal.rule(Rule.STRUCTURAL_COMPOUND);
                 StructuralRules.structuralCompound(compound, component, compoundTask, index, nal);
             }
         } else if (compound instanceof Negation) {
             if (compoundTask) {
-                if (compound.term[0] instanceof CompoundTerm)
+                if (compound.term[0] instanceof CompoundTerm) {
+                    nal.rule(Rule.TRANSFORM_NEGATION);
                     StructuralRules.transformNegation((CompoundTerm)compound.term[0], nal);
+                }
             }
         }
     }
@@ -812,28 +857,33 @@ public class RuleTables {
             if ((compound instanceof Conjunction) && (nal.getCurrentBelief() != null)) {
                 Conjunction conj = (Conjunction) compound;
                 Term[] u = new Term[] { compound, statement };
-                if (Variables.unify(VAR_DEPENDENT, component, statement, u)) {
+                if (Variables.unify(VAR_DEPENDENT, component, statement, u, nal.memory)) {
                     compound = (Conjunction) u[0];
                     statement = (Statement) u[1];
                     if(conj.isSpatial || compound.getTemporalOrder() != TemporalRules.ORDER_FORWARD || //only allow dep var elimination
                             index == 0) { //for (&/ on first component!!
+                        nal.rule(Rule.ELIMI_VAR_DEP);
                         SyllogisticRules.elimiVarDep(compound, component, 
                                 statement.equals(beliefTerm),
                                 nal);
                     }
                 } else if (task.sentence.isJudgment()) { // && !compound.containsTerm(component)) {
+                    nal.rule(Rule.INTRO_VAR_INNER);
                     CompositionalRules.introVarInner(statement, (Statement) component, compound, nal);
                 }
             }
         } else {
             if (task.sentence.isJudgment()) {
                 if (statement instanceof Inheritance) {
+                    nal.rule(Rule.STRUCTURAL_COMPOSE1);
                     StructuralRules.structuralCompose1(compound, index, statement, nal);
                     if (!(compound instanceof SetExt || compound instanceof SetInt || compound instanceof Negation
                             || compound instanceof Conjunction || compound instanceof Disjunction)) {
+                        nal.rule(Rule.STRUCTURAL_COMPOSE2);
                         StructuralRules.structuralCompose2(compound, index, statement, side, nal);
                     }    // {A --> B, A @ (A&C)} |- (A&C) --> (B&C)
                 } else if (!(compound instanceof Negation || compound instanceof Conjunction || compound instanceof Disjunction)) {
+                    nal.rule(Rule.STRUCTURAL_COMPOSE2);
                     StructuralRules.structuralCompose2(compound, index, statement, side, nal);
                 }       // {A <-> B, A @ (A&C)} |- (A&C) <-> (B&C)
             }
@@ -851,23 +901,30 @@ public class RuleTables {
      */
     private static void componentAndStatement(CompoundTerm compound, short index, Statement statement, short side, DerivationContext nal) {
         if (statement instanceof Inheritance) {
+            nal.rule(Rule.STRUCTURAL_DECOMPOSE1);
             StructuralRules.structuralDecompose1(compound, index, statement, nal);
             if (!(compound instanceof SetExt) && !(compound instanceof SetInt)) {
+                nal.rule(Rule.STRUCTURAL_DECOMPOSE2);
                 StructuralRules.structuralDecompose2(statement, index, nal);    // {(C-B) --> (C-A), A @ (C-A)} |- A --> B
             } else {
+                nal.rule(Rule.TRANSFORM_SET_RELATION);
                 StructuralRules.transformSetRelation(compound, statement, side, nal);
             }
         } else if (statement instanceof Similarity) {
+            nal.rule(Rule.STRUCTURAL_DECOMPOSE2);
             StructuralRules.structuralDecompose2(statement, index, nal);        // {(C-B) --> (C-A), A @ (C-A)} |- A --> B
             if ((compound instanceof SetExt) || (compound instanceof SetInt)) {
+                nal.rule(Rule.TRANSFORM_SET_RELATION);
                 StructuralRules.transformSetRelation(compound, statement, side, nal);
             }            
         } 
         
         else if ((statement instanceof Implication) && (compound instanceof Negation)) {
             if (index == 0) {
+                nal.rule(Rule.CONTRAPOSITION);
                 StructuralRules.contraposition(statement, nal.getCurrentTask().sentence, nal);
             } else {
+                nal.rule(Rule.CONTRAPOSITION);
                 StructuralRules.contraposition(statement, nal.getCurrentBelief(), nal);
             }        
         }
@@ -906,6 +963,7 @@ public class RuleTables {
             }
         }
         if (inh instanceof Inheritance) {
+            nal.rule(Rule.TRANSFORM_PRODUCT_IMAGE);
             StructuralRules.transformProductImage((Inheritance) inh, content, indices, nal);
         }
     }
@@ -289,7 +289,7 @@ public final class SyllogisticRules {
             budget = BudgetFunctions.forward(truth, nal);
         }
         
-        //nal.mem().logic.ANALOGY.commit();
+        nal.mem().logic.ANALOGY.commit();
         nal.doublePremiseTask( Statement.make(st, subj, pred, order), truth, budget,false, false); //(allow overlap) but not needed here, isn't detachment
     }
 
@@ -511,7 +511,7 @@ public final class SyllogisticRules {
         Sentence taskSentence = task.sentence;
         Sentence belief = nal.getCurrentBelief();
         boolean deduction = (side != 0);
-        boolean conditionalTask = Variables.hasSubstitute(Symbols.VAR_INDEPENDENT, premise2, belief.term);
+        boolean conditionalTask = Variables.hasSubstitute(Symbols.VAR_INDEPENDENT, premise2, belief.term, nal.memory);
         Term commonComponent;
         Term newComponent = null;
         if (side == 0) {
@@ -536,7 +536,7 @@ public final class SyllogisticRules {
             index = (short) index2;
         } else {
             Term[] u = new Term[] { premise1, premise2 };            
-            boolean match = Variables.unify(Symbols.VAR_INDEPENDENT, oldCondition.term[index], commonComponent, u);
+            boolean match = Variables.unify(Symbols.VAR_INDEPENDENT, oldCondition.term[index], commonComponent, u, nal.memory);
             premise1 = (Implication) u[0]; premise2 = u[1];
             
             if (!match && (commonComponent.getClass() == oldCondition.getClass())) {
@@ -548,7 +548,7 @@ public final class SyllogisticRules {
                     match = Variables.unify(Symbols.VAR_INDEPENDENT, 
                             oldCondition.term[index], 
                             compoundCommonComponent.term[index], 
-                            u);
+                            u, nal.memory);
                     premise1 = (Implication) u[0]; premise2 = u[1];
                 }
                 
@@ -670,7 +670,7 @@ public final class SyllogisticRules {
         Task task = nal.getCurrentTask();
         Sentence taskSentence = task.sentence;
         Sentence belief = nal.getCurrentBelief();
-        boolean conditionalTask = Variables.hasSubstitute(Symbols.VAR_INDEPENDENT, premise2, belief.term);
+        boolean conditionalTask = Variables.hasSubstitute(Symbols.VAR_INDEPENDENT, premise2, belief.term, nal.memory);
         Term commonComponent;
         Term newComponent = null;
         if (side == 0) {
@@ -690,12 +690,12 @@ public final class SyllogisticRules {
         Conjunction oldCondition = (Conjunction) tm;
 
         Term[] u = new Term[] { premise1, premise2 };
-        boolean match = Variables.unify(Symbols.VAR_DEPENDENT, oldCondition.term[index], commonComponent, u);
+        boolean match = Variables.unify(Symbols.VAR_DEPENDENT, oldCondition.term[index], commonComponent, u, nal.memory);
         premise1 = (Equivalence) u[0]; premise2 = u[1];
         
         if (!match && (commonComponent.getClass() == oldCondition.getClass())) {
             u = new Term[] { premise1, premise2 };
-            match = Variables.unify(Symbols.VAR_DEPENDENT, oldCondition.term[index], ((CompoundTerm) commonComponent).term[index], u);
+            match = Variables.unify(Symbols.VAR_DEPENDENT, oldCondition.term[index], ((CompoundTerm) commonComponent).term[index], u, nal.memory);
             premise1 = (Equivalence) u[0]; premise2 = u[1];
         }
         if (!match) {
@@ -795,7 +795,7 @@ public final class SyllogisticRules {
         TruthValue value2 = belief.truth;
         Term content;
         
-        boolean keepOrder = Variables.hasSubstitute(Symbols.VAR_INDEPENDENT, st1, task.getTerm());
+        boolean keepOrder = Variables.hasSubstitute(Symbols.VAR_INDEPENDENT, st1, task.getTerm(), nal.memory);
         
         TruthValue truth = null;
         BudgetValue budget;
@@ -868,11 +868,11 @@ public final class SyllogisticRules {
         Term comp = null;
         for(Term t : compound) {
             Term[] unify = new Term[] { t, component };
-            if(Variables.unify(Symbols.VAR_DEPENDENT, unify)) {
+            if(Variables.unify(Symbols.VAR_DEPENDENT, unify, nal.memory)) {
                 comp = t;
                 break;
             }
-            if(Variables.unify(Symbols.VAR_QUERY, unify)) {
+            if(Variables.unify(Symbols.VAR_QUERY, unify, nal.memory)) {
                 comp = t;
                 break;
             }
@@ -0,0 +1,262 @@
+package nars.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import nars.control.DerivationContext;
+import nars.entity.Concept;
+import nars.entity.Task;
+import nars.io.Narsese.InvalidInputException;
+import nars.io.events.Events;
+import nars.main.Parameters;
+import nars.storage.Memory;
+
+/**
+ * Loads .nal files of background knowledge into a memory in bulk.
+ * <p>
+ * Each file is memory-mapped and cut into lines without copying them. The
+ * lines are parsed in batches, each batch in parallel on a fork-join pool
+ * with a NarseseParser per worker thread. The tasks of a batch are then put
+ * into the memory in file order, without running any cycles: identical
+ * sentences (same content, punctuation, truth and tense, whatever their
+ * budget) are only loaded once, and comments, echo lines, commands and cycle
+ * counts are skipped.
+ * <p>
+ * By default the tasks are input as by NAR.addInput. With prefill, judgments
+ * and goals are instead added to the belief and desire tables of their
+ * concepts right away, and linked to them and their components, so the
+ * knowledge is in place
+ * before the first cycle; questions and quests are still input.
+ * <p>
+ * The memory must not be cycled while loading.
+ */
+public class KnowledgeLoader {
+
+    /** what happened to the lines of one file */
+    public static class Report {
+        public final File file;
+        /** lines in the file */
+        public int lines;
+        /** tasks put into the memory */
+        public int tasks;
+        /** tasks dropped as identical to a task loaded before */
+        public int duplicates;
+        /** empty lines, comments and commands */
+        public int skipped;
+        /** "line: message" of each line that could not be parsed */
+        public final List<String> errors = new ArrayList<>();
+        /** time taken to load the file */
+        public long nanos;
+
+        Report(final File file) {
+            this.file = file;
+        }
+
+        public double getLinesPerSecond() {
+            return lines / (nanos / 1.0e9);
+        }
+
+        @Override
+        public String toString() {
+            return file + ": " + lines + " lines, " + tasks + " tasks, " + duplicates + " duplicates, "
+                    + skipped + " skipped, " + errors.size() + " errors, " + (long) getLinesPerSecond() + " lines/sec";
+        }
+    }
+
+    public final Memory memory;
+    private final ForkJoinPool pool;
+    private final int batchSize;
+    private final boolean prefill;
+
+    private final DerivationContext context;
+
+    /* keys of the sentences loaded so far */
+    private final Set<String> loaded = new HashSet<>();
+
+    /**
+     * @param memory The memory to load into
+     * @param pool The pool parsing the lines
+     * @param batchSize The number of lines parsed before their tasks are loaded
+     * @param prefill Whether to add judgments and goals to their concepts' tables directly
+     */
+    public KnowledgeLoader(final Memory memory, final ForkJoinPool pool, final int batchSize, final boolean prefill) {
+        this.memory = memory;
+        this.pool = pool;
+        this.batchSize = batchSize;
+        this.prefill = prefill;
+        this.context = new DerivationContext(memory);
+    }
+
+    public KnowledgeLoader(final Memory memory, final boolean prefill) {
+        this(memory, ForkJoinPool.commonPool(), 8192, prefill);
+    }
+
+    /** load the files in the given order, returning a report for each */
+    public List<Report> load(final File... files) throws IOException {
+        final List<Report> reports = new ArrayList<>(files.length);
+        for (final File f : files) {
+            reports.add(load(f));
+        }
+        return reports;
+    }
+
+    public Report load(final File file) throws IOException {
+        final Report report = new Report(file);
+        final long start = System.nanoTime();
+
+        final CharBuffer text;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            text = StandardCharsets.UTF_8.decode(bytes);
+        }
+        final List<CharSequence> lines = lines(text);
+        report.lines = lines.size();
+
+        final Task[] tasks = new Task[Math.min(batchSize, lines.size())];
+        final String[] keys = new String[tasks.length];
+        final String[] errors = new String[tasks.length];
+        for (int from = 0; from < lines.size(); from += batchSize) {
+            final int n = Math.min(batchSize, lines.size() - from);
+            Arrays.fill(tasks, null);
+            Arrays.fill(errors, null);
+            pool.invoke(new Parse(lines.subList(from, from + n), tasks, keys, errors, 0, n));
+            for (int i = 0; i < n; i++) {
+                if (errors[i] != null) {
+                    report.errors.add((from + i + 1) + ": " + errors[i]);
+                } else if (tasks[i] == null) {
+                    report.skipped++;
+                } else if (!loaded.add(keys[i])) {
+                    report.duplicates++;
+                } else {
+                    input(tasks[i]);
+                    report.tasks++;
+                }
+            }
+        }
+        report.nanos = System.nanoTime() - start;
+        return report;
+    }
+
+    /** the trimmed lines of the text, as views of it */
+    static List<CharSequence> lines(final CharBuffer text) {
+        final List<CharSequence> lines = new ArrayList<>();
+        final int length = text.length();
+        int start = 0;
+        while (start < length) {
+            int end = start;
+            while (end < length && text.charAt(end) != '\n') {
+                end++;
+            }
+            int from = start, to = end;
+            while (from < to && text.charAt(from) <= ' ') {
+                from++;
+            }
+            while (to > from && text.charAt(to - 1) <= ' ') {
+                to--;
+            }
+            lines.add(text.subSequence(from, to));
+            start = end + 1;
+        }
+        return lines;
+    }
+
+    /** whether the line is no task: empty, a comment, an echo, a command or a number of cycles */
+    static boolean skip(final CharSequence line) {
+        if (line.length() == 0) {
+            return true;
+        }
+        final char c = line.charAt(0);
+        if (c == Symbols.ECHO_MARK || c == '*' || (c == Symbols.COMMENT_MARK && line.length() > 1 && line.charAt(1) == Symbols.COMMENT_MARK)) {
+            return true;
+        }
+        for (int i = 0; i < line.length(); i++) {
+            if (!Character.isDigit(line.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** sentences with the same key are identical as knowledge */
+    static String key(final Task task) {
+        return task.sentence.getKey() + " " + task.sentence.stamp.getTense();
+    }
+
+    private void input(final Task task) {
+        final char punctuation = task.sentence.punctuation;
+        if (!prefill || (punctuation != Symbols.JUDGMENT_MARK && punctuation != Symbols.GOAL_MARK)) {
+            memory.inputTask(task);
+            return;
+        }
+        task.sentence.stamp.setCreationTime(memory.time(), Parameters.DURATION);
+        final Concept c = memory.conceptualize(task.budget, task.getTerm());
+        if (c == null) {
+            return;
+        }
+        if (punctuation == Symbols.JUDGMENT_MARK) {
+            c.addToTable(task, c.beliefs, Parameters.CONCEPT_BELIEFS_MAX, Events.ConceptBeliefAdd.class, Events.ConceptBeliefRemove.class);
+        } else {
+            c.addToTable(task, c.desires, Parameters.CONCEPT_GOALS_MAX, Events.ConceptGoalAdd.class, Events.ConceptGoalRemove.class);
+        }
+        c.linkToTask(task, context);
+    }
+
+    /** parses lines[from, to) into tasks[from, to) and their keys, or the errors */
+    private class Parse extends RecursiveAction {
+        static final int THRESHOLD = 256;
+
+        final List<CharSequence> lines;
+        final Task[] tasks;
+        final String[] keys;
+        final String[] errors;
+        final int from, to;
+
+        Parse(final List<CharSequence> lines, final Task[] tasks, final String[] keys, final String[] errors, final int from, final int to) {
+            this.lines = lines;
+            this.tasks = tasks;
+            this.keys = keys;
+            this.errors = errors;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > THRESHOLD) {
+                final int mid = (from + to) >>> 1;
+                invokeAll(new Parse(lines, tasks, keys, errors, from, mid), new Parse(lines, tasks, keys, errors, mid, to));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                final CharSequence line = lines.get(i);
+                if (skip(line)) {
+                    continue;
+                }
+                try {
+                    tasks[i] = NarseseParser.parseTask(memory, line);
+                    if (tasks[i] == null) {
+                        errors[i] = "no task";
+                    } else {
+                        keys[i] = key(tasks[i]);
+                        keys[i].hashCode(); //cached for the loading thread
+                    }
+                } catch (InvalidInputException e) {
+                    errors[i] = e.getMessage();
+                } catch (RuntimeException e) {
+                    errors[i] = e.toString();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,550 @@
+package nars.io;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import nars.entity.BudgetValue;
+import nars.entity.Sentence;
+import nars.entity.Stamp;
+import nars.entity.Task;
+import nars.entity.TruthValue;
+import static nars.inference.BudgetFunctions.truthToQuality;
+import nars.io.Narsese.InvalidInputException;
+import static nars.io.Symbols.ARGUMENT_SEPARATOR;
+import static nars.io.Symbols.BUDGET_VALUE_MARK;
+import static nars.io.Symbols.GOAL_MARK;
+import static nars.io.Symbols.JUDGMENT_MARK;
+import nars.io.Symbols.NativeOperator;
+import static nars.io.Symbols.QUESTION_MARK;
+import static nars.io.Symbols.QUEST_MARK;
+import static nars.io.Symbols.QUOTE;
+import static nars.io.Symbols.TRUTH_VALUE_MARK;
+import static nars.io.Symbols.VALUE_SEPARATOR;
+import static nars.io.Symbols.getCloser;
+import static nars.io.Symbols.getOpener;
+import nars.language.Interval;
+import nars.language.SetExt;
+import nars.language.SetInt;
+import nars.language.Statement;
+import nars.language.Tense;
+import nars.language.Term;
+import nars.language.Terms;
+import nars.language.Variable;
+import static nars.language.Variables.containVar;
+import nars.main.Parameters;
+import nars.operator.Operation;
+import nars.operator.Operator;
+import nars.storage.Memory;
+
+/**
+ * Single-pass parser for Narsese tasks and terms.
+ * <p>
+ * Produces the same Tasks and Terms as Narsese for valid input, but reads the
+ * input CharSequence once, with a cursor, instead of cutting it into
+ * substrings and scanning them again on each level for the top-level relation
+ * or separator. The arguments of compound terms are collected on a stack
+ * shared by all levels. Strings are only made for the names of atomic terms
+ * and operators, and for the numbers.
+ * <p>
+ * A parser keeps state while parsing and is not thread safe; it can be
+ * reused for any number of inputs by the same thread. Input from any thread
+ * can be parsed with the static parseTask, which uses a parser per thread.
+ */
+public class NarseseParser {
+
+    private Memory memory;
+
+    /* the input being parsed, and the cursor in s[pos, end) */
+    private CharSequence s;
+    private int pos, end;
+
+    /* arguments of the compound terms being parsed, innermost last */
+    private Term[] args = new Term[16];
+    private int argCount = 0;
+
+    private static final NativeOperator[] relations;
+
+    static {
+        final List<NativeOperator> r = new ArrayList<>();
+        for (final NativeOperator o : NativeOperator.values()) {
+            if (o.relation) {
+                r.add(o);
+            }
+        }
+        relations = r.toArray(new NativeOperator[r.size()]);
+    }
+
+    /* the parser of each thread, only referring to a memory while parsing for it */
+    private static final ThreadLocal<NarseseParser> parsers = new ThreadLocal<NarseseParser>() {
+        @Override protected NarseseParser initialValue() {
+            return new NarseseParser(null);
+        }
+    };
+
+    public NarseseParser(final Memory memory) {
+        this.memory = memory;
+    }
+
+    /**
+     * Parse a line of input into a task for the memory, with the parser of
+     * the calling thread; threads do not keep the memory alive afterwards
+     */
+    public static Task parseTask(final Memory memory, final CharSequence text) throws InvalidInputException {
+        final NarseseParser p = parsers.get();
+        p.memory = memory;
+        try {
+            return p.parseTask(text);
+        } finally {
+            p.memory = null;
+        }
+    }
+
+    /**
+     * Parse a line of input into a task, as Narsese.parseTask
+     *
+     * @param text The line to be parsed
+     * @return An experienced task
+     */
+    public Task parseTask(final CharSequence text) throws InvalidInputException {
+        s = hasQuote(text) ? Texts.escape(text) : text;
+        argCount = 0;
+        try {
+            return task(0, s.length());
+        } finally {
+            s = null;
+            Arrays.fill(args, 0, argCount, null);
+        }
+    }
+
+    /**
+     * Parse a term, as Narsese.parseTerm
+     *
+     * @param text The term to be parsed
+     * @return the Term, or null if the text is empty
+     */
+    public Term parseTerm(final CharSequence text) throws InvalidInputException {
+        s = text;
+        argCount = 0;
+        try {
+            return term(0, s.length());
+        } finally {
+            s = null;
+            Arrays.fill(args, 0, argCount, null);
+        }
+    }
+
+    private static boolean hasQuote(final CharSequence t) {
+        for (int i = 0; i < t.length(); i++) {
+            if (t.charAt(i) == QUOTE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* ---------- ranges ---------- */
+
+    private int trimStart(int from, final int to) {
+        while (from < to && s.charAt(from) <= ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private int trimEnd(final int from, int to) {
+        while (to > from && s.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        return to;
+    }
+
+    private int indexOf(final char c, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            if (s.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private String string(final int from, final int to) {
+        return s.subSequence(from, to).toString();
+    }
+
+    /* ---------- task ---------- */
+
+    private Task task(int from, int to) throws InvalidInputException {
+        if (trimStart(from, to) == to) {
+            throw new InvalidInputException("empty input");
+        }
+
+        //budget prefix
+        int budgetFrom = -1, budgetTo = -1;
+        if (s.charAt(from) == BUDGET_VALUE_MARK) {
+            final int i = indexOf(BUDGET_VALUE_MARK, from + 1, to);
+            if (i < 0) {
+                throw new InvalidInputException("missing budget closer");
+            }
+            budgetFrom = trimStart(from + 1, i);
+            budgetTo = trimEnd(budgetFrom, i);
+            if (budgetFrom == budgetTo) {
+                throw new InvalidInputException("empty budget");
+            }
+            from = i + 1;
+        }
+
+        //truth postfix
+        int truthFrom = -1, truthTo = -1;
+        final int last = to - 1;
+        if (s.charAt(last) == TRUTH_VALUE_MARK) {
+            final int first = indexOf(TRUTH_VALUE_MARK, from, to);
+            if (first == last) {
+                throw new InvalidInputException("missing truth mark");
+            }
+            truthFrom = trimStart(first + 1, last);
+            truthTo = trimEnd(truthFrom, last);
+            if (truthFrom == truthTo) {
+                throw new InvalidInputException("empty truth");
+            }
+            to = first;
+        }
+
+        //tense
+        Tense tense = Tense.Eternal;
+        final int t = indexOf(Symbols.TENSE_MARK.charAt(0), from, to);
+        if (t > from) {
+            tense = tense(t, to);
+            to = t;
+        }
+
+        from = trimStart(from, to);
+        to = trimEnd(from, to);
+        if (from == to) {
+            throw new InvalidInputException("missing punctuation");
+        }
+        final char punc = s.charAt(to - 1);
+
+        final Stamp stamp = new Stamp(-1 /* if -1, will be set right before the Task is input */,
+                tense, memory.newStampSerial(), Parameters.DURATION);
+
+        final TruthValue truth = truth(truthFrom, truthTo, punc);
+        final Term content = term(from, to - 1);
+        if (content == null) {
+            throw new InvalidInputException("Content term missing");
+        }
+
+        final Sentence sentence = new Sentence(content, punc, truth, stamp);
+        final BudgetValue budget = budget(budgetFrom, budgetTo, punc, truth);
+        return new Task(sentence, budget, true);
+    }
+
+    private Tense tense(final int from, final int to) {
+        final int f = trimStart(from, to);
+        final int t = trimEnd(f, to);
+        for (final Tense tense : Tense.values()) {
+            if (regionMatches(tense.symbol, f, t)) {
+                return tense;
+            }
+        }
+        return Tense.Eternal;
+    }
+
+    private boolean regionMatches(final String x, final int from, final int to) {
+        if (x.length() != to - from) {
+            return false;
+        }
+        for (int i = 0; i < x.length(); i++) {
+            if (x.charAt(i) != s.charAt(from + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private TruthValue truth(final int from, final int to, final char type) {
+        if ((type == QUESTION_MARK) || (type == QUEST_MARK)) {
+            return null;
+        }
+        float frequency = 1.0f;
+        float confidence = Parameters.DEFAULT_JUDGMENT_CONFIDENCE;
+        if (type == GOAL_MARK) {
+            confidence = Parameters.DEFAULT_GOAL_CONFIDENCE;
+        }
+        if (from >= 0) {
+            final int i = indexOf(VALUE_SEPARATOR, from, to);
+            if (i < 0) {
+                frequency = Float.parseFloat(string(from, to));
+            } else {
+                frequency = Float.parseFloat(string(from, i));
+                confidence = Float.parseFloat(string(i + 1, to));
+            }
+        }
+        return new TruthValue(frequency, confidence);
+    }
+
+    private BudgetValue budget(final int from, final int to, final char punctuation, final TruthValue truth) throws InvalidInputException {
+        float priority, durability;
+        switch (punctuation) {
+            case JUDGMENT_MARK:
+                priority = Parameters.DEFAULT_JUDGMENT_PRIORITY;
+                durability = Parameters.DEFAULT_JUDGMENT_DURABILITY;
+                break;
+            case QUESTION_MARK:
+                priority = Parameters.DEFAULT_QUESTION_PRIORITY;
+                durability = Parameters.DEFAULT_QUESTION_DURABILITY;
+                break;
+            case GOAL_MARK:
+                priority = Parameters.DEFAULT_GOAL_PRIORITY;
+                durability = Parameters.DEFAULT_GOAL_DURABILITY;
+                break;
+            case QUEST_MARK:
+                priority = Parameters.DEFAULT_QUEST_PRIORITY;
+                durability = Parameters.DEFAULT_QUEST_DURABILITY;
+                break;
+            default:
+                throw new InvalidInputException("unknown punctuation: '" + punctuation + "'");
+        }
+        if (from >= 0) { // overrite default
+            final int i = indexOf(VALUE_SEPARATOR, from, to);
+            if (i < 0) {        // default durability
+                priority = Float.parseFloat(string(from, to));
+            } else {
+                int i2 = indexOf(VALUE_SEPARATOR, i + 1, to);
+                if (i2 == -1) {
+                    i2 = to;
+                }
+                priority = Float.parseFloat(string(from, i));
+                durability = Float.parseFloat(string(i + 1, i2));
+            }
+        }
+        final float quality = (truth == null) ? 1 : truthToQuality(truth);
+        return new BudgetValue(priority, durability, quality);
+    }
+
+    /* ---------- terms ---------- */
+
+    /** parse the term in s[from, to), which must hold nothing else */
+    private Term term(final int from, final int to) throws InvalidInputException {
+        pos = from;
+        end = to;
+        skipSpace();
+        if (pos == end) {
+            return null;
+        }
+        final Term t = term();
+        skipSpace();
+        if (pos != end) {
+            throw new InvalidInputException("invalid term: unexpected '" + s.charAt(pos) + "'");
+        }
+        return t;
+    }
+
+    private void skipSpace() {
+        while (pos < end && s.charAt(pos) <= ' ') {
+            pos++;
+        }
+    }
+
+    private boolean at(final char c) {
+        return pos < end && s.charAt(pos) == c;
+    }
+
+    private void expect(final char c, final String missing) throws InvalidInputException {
+        if (!at(c)) {
+            throw new InvalidInputException("missing " + missing);
+        }
+        pos++;
+    }
+
+    /**
+     * Parse the term at the cursor and move the cursor behind it.
+     * <p>
+     * There are 5 valid cases: 1. (Op, A1, ..., An) is a CompoundTerm if Op is
+     * a built-in operator or a registered Operator; 2. {A1, ..., An} is a
+     * SetExt; 3. [A1, ..., An] is a SetInt; 4. &lt;T1 Re T2&gt; is a Statement
+     * (including higher-order Statement); 5. otherwise it is an atomic term or
+     * an operation in functional format, op(A1, ..., An).
+     */
+    private Term term() throws InvalidInputException {
+        if (pos == end) {
+            throw new InvalidInputException("missing term");
+        }
+        switch (s.charAt(pos)) {
+            case '(':
+                pos++;
+                return compound();
+            case '{':
+                pos++;
+                return SetExt.make(arguments(NativeOperator.SET_EXT_CLOSER.ch, "ExtensionSet closer"));
+            case '[':
+                pos++;
+                return SetInt.make(arguments(NativeOperator.SET_INT_CLOSER.ch, "IntensionSet closer"));
+            case '<':
+                pos++;
+                return statement();
+            default:
+                return atomic();
+        }
+    }
+
+    private Term atomic() throws InvalidInputException {
+        final int start = pos;
+        while (pos < end) {
+            final char c = s.charAt(pos);
+            if (c <= ' ' || c == ARGUMENT_SEPARATOR || getCloser(c) != null || relation(pos) != null) {
+                break;
+            }
+            if (c == '(' && Parameters.FUNCTIONAL_OPERATIONAL_FORMAT) {
+                return operation(start);
+            }
+            if (getOpener(c) != null) {
+                //a bracket inside the name, as in p[1,2], is part of it
+                skipGroup();
+            } else {
+                pos++;
+            }
+        }
+        if (pos == start) {
+            throw new InvalidInputException("missing term");
+        }
+        final String name = string(start, pos);
+        final Operator op = memory.getOperator(name);
+        if (op != null) {
+            return op;
+        }
+        if (name.charAt(0) == Symbols.INTERVAL_PREFIX) {
+            return Interval.interval(name);
+        }
+        if (containVar(name) && !name.equals("#")) {
+            return new Variable(name);
+        }
+        return Term.get(name);
+    }
+
+    /** move the cursor behind the bracket group starting at it */
+    private void skipGroup() throws InvalidInputException {
+        int levelCounter = 0;
+        do {
+            final char c = s.charAt(pos++);
+            if (getOpener(c) != null) {
+                levelCounter++;
+            } else if (getCloser(c) != null) {
+                levelCounter--;
+            }
+        } while (levelCounter > 0 && pos < end);
+        if (levelCounter > 0) {
+            throw new InvalidInputException("missing closer in term");
+        }
+    }
+
+    /** an operation in functional format, function(), function(a), function(a,b) */
+    private Term operation(final int start) throws InvalidInputException {
+        final String operatorString = Operator.addPrefixIfMissing(string(start, pos));
+        final Operator operator = memory.getOperator(operatorString);
+        if (operator == null) {
+            throw new InvalidInputException("Unknown operator: " + operatorString);
+        }
+        pos++;
+        final Term[] a;
+        if (at(NativeOperator.COMPOUND_TERM_CLOSER.ch)) {
+            //void "()" arguments, default to (SELF)
+            pos++;
+            a = Operation.SELF_TERM_ARRAY;
+        } else {
+            a = arguments(NativeOperator.COMPOUND_TERM_CLOSER.ch, "operation closer");
+        }
+        return Operation.make(operator, a, true);
+    }
+
+    private Statement statement() throws InvalidInputException {
+        skipSpace();
+        final Term subject = term();
+        skipSpace();
+        final NativeOperator relation = pos + 3 <= end ? relation(pos) : null;
+        if (relation == null) {
+            throw new InvalidInputException("invalid statement: missing relation");
+        }
+        pos += 3;
+        skipSpace();
+        final Term predicate = term();
+        skipSpace();
+        expect(NativeOperator.STATEMENT_CLOSER.ch, "Statement closer");
+        final Statement t = Statement.make(relation, subject, predicate, false, 0);
+        if (t == null) {
+            throw new InvalidInputException("invalid statement: statement unable to create: " + relation + " " + subject + " " + predicate);
+        }
+        return t;
+    }
+
+    private Term compound() throws InvalidInputException {
+        skipSpace();
+        final int opStart = pos;
+        while (pos < end && s.charAt(pos) != ARGUMENT_SEPARATOR && s.charAt(pos) != NativeOperator.COMPOUND_TERM_CLOSER.ch) {
+            pos++;
+        }
+        if (!at(ARGUMENT_SEPARATOR)) {
+            throw new InvalidInputException("Invalid compound term (missing ARGUMENT_SEPARATOR)");
+        }
+        final String op = string(opStart, trimEnd(opStart, pos));
+        final NativeOperator oNative = Symbols.getOperator(op);
+        final Operator oRegistered = memory.getOperator(op);
+        if ((oRegistered == null) && (oNative == null)) {
+            throw new InvalidInputException("Unknown operator: " + op);
+        }
+        pos++;
+
+        final Term[] argA = arguments(NativeOperator.COMPOUND_TERM_CLOSER.ch, "CompoundTerm closer");
+        if (oNative != null) {
+            return Terms.term(oNative, argA);
+        }
+        return Operation.make(oRegistered, argA, true);
+    }
+
+    /**
+     * Parse the arguments at the cursor up to the closer, and move the cursor
+     * behind the closer; a separator before the closer is allowed
+     */
+    private Term[] arguments(final char closer, final String missing) throws InvalidInputException {
+        skipSpace();
+        if (at(closer) || at(ARGUMENT_SEPARATOR)) {
+            throw new InvalidInputException("null argument");
+        }
+        final int base = argCount;
+        while (true) {
+            final Term t = term();     // recursive call
+            if (argCount == args.length) {
+                args = Arrays.copyOf(args, args.length * 2);
+            }
+            args[argCount++] = t;
+            skipSpace();
+            if (at(ARGUMENT_SEPARATOR)) {
+                pos++;
+                skipSpace();
+                if (!at(closer)) {
+                    continue;
+                }
+            }
+            expect(closer, missing);
+            break;
+        }
+        final Term[] a = Arrays.copyOfRange(args, base, argCount);
+        Arrays.fill(args, base, argCount, null);
+        argCount = base;
+        return a;
+    }
+
+    /** the relation whose symbol starts at i, or null */
+    private NativeOperator relation(final int i) {
+        final char c = s.charAt(i);
+        if ((c != '-' && c != '<' && c != '{' && c != '=') || i + 3 > end) {
+            return null;
+        }
+        for (final NativeOperator r : relations) {
+            final String x = r.symbol;
+            if (x.charAt(0) == c && x.charAt(1) == s.charAt(i + 1) && x.charAt(2) == s.charAt(i + 2)) {
+                return r;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,160 @@
+package nars.io;
+
+import java.util.Arrays;
+import nars.entity.BudgetValue;
+import nars.entity.Sentence;
+import nars.entity.Stamp;
+import nars.entity.Task;
+import nars.entity.TruthValue;
+import nars.language.Tense;
+import nars.language.Term;
+import nars.main.NAR;
+import nars.main.Parameters;
+import static nars.inference.BudgetFunctions.truthToQuality;
+
+/**
+ * Typed input of present events from a sensor, without Narsese text.
+ * <p>
+ * The event terms are registered once, each as a sensor with the index
+ * register returns. Every cycle the values of the sensors that fired are set
+ * and submitted as one batch: the tasks are built from the registered terms,
+ * the batch takes its stamp serials in one reservation, and the tasks enter
+ * the input queue together. A submitted event is the task that NAR.addInput
+ * would make of "term punctuation %frequency;confidence% :|:" with the
+ * default budget, except that sensory channels are not consulted.
+ * <p>
+ * A stream is fed by one thread at a time; any number of streams can feed
+ * the same NAR.
+ */
+public class SensorStream {
+
+    public final NAR nar;
+
+    private Term[] terms = new Term[0];
+    private char[] punctuations = new char[0];
+
+    /* the values set since the last submit, NaN frequency for none */
+    private float[] frequency = new float[0], confidence = new float[0];
+    private int[] fired = new int[0];
+    private int firedCount = 0;
+    private Task[] batch = new Task[0];
+
+    public SensorStream(final NAR nar) {
+        this.nar = nar;
+    }
+
+    /**
+     * Add a sensor of events of a term
+     *
+     * @param term The term, shared by all events of the sensor
+     * @param punctuation Symbols.JUDGMENT_MARK or Symbols.GOAL_MARK
+     * @return The index of the sensor
+     */
+    public int register(final Term term, final char punctuation) {
+        if (punctuation != Symbols.JUDGMENT_MARK && punctuation != Symbols.GOAL_MARK) {
+            throw new IllegalArgumentException("sensor events are judgments or goals: " + punctuation);
+        }
+        final int n = terms.length + 1;
+        terms = Arrays.copyOf(terms, n);
+        terms[n - 1] = term;
+        punctuations = Arrays.copyOf(punctuations, n);
+        punctuations[n - 1] = punctuation;
+        frequency = Arrays.copyOf(frequency, n);
+        confidence = Arrays.copyOf(confidence, n);
+        frequency[n - 1] = Float.NaN;
+        fired = Arrays.copyOf(fired, n);
+        batch = new Task[n];
+        return n - 1;
+    }
+
+    /** adds a sensor of judgments of the term, given in Narsese */
+    public int register(final String term) throws Narsese.InvalidInputException {
+        return register(term, Symbols.JUDGMENT_MARK);
+    }
+
+    public int register(final String term, final char punctuation) throws Narsese.InvalidInputException {
+        return register(new Narsese(nar).parseTerm(term), punctuation);
+    }
+
+    public Term getTerm(final int sensor) {
+        return terms[sensor];
+    }
+
+    /** the number of registered sensors */
+    public int size() {
+        return terms.length;
+    }
+
+    /**
+     * Set the value of a sensor for the next submit, replacing a value set
+     * before
+     *
+     * @param confidence The confidence, NaN for the default one
+     */
+    public void set(final int sensor, final float frequency, final float confidence) {
+        if (Float.isNaN(this.frequency[sensor])) {
+            fired[firedCount++] = sensor;
+        }
+        this.frequency[sensor] = frequency;
+        this.confidence[sensor] = confidence;
+    }
+
+    /** sets the value of a sensor with the default confidence */
+    public void set(final int sensor, final float frequency) {
+        set(sensor, frequency, Float.NaN);
+    }
+
+    /**
+     * Submit the values of all sensors at once
+     *
+     * @param frequency The frequency of each sensor, NaN for those that did
+     * not fire
+     * @param confidence The confidence of each sensor, NaN or null for the
+     * default one
+     * @return The number of events queued
+     */
+    public int submit(final float[] frequency, final float[] confidence) {
+        for (int i = 0; i < frequency.length; i++) {
+            if (!Float.isNaN(frequency[i])) {
+                set(i, frequency[i], confidence != null ? confidence[i] : Float.NaN);
+            }
+        }
+        return submit();
+    }
+
+    /**
+     * Input the values set since the last submit as events happening now, in
+     * the order they were first set
+     *
+     * @return The number of events queued
+     */
+    public int submit() {
+        final int n = firedCount;
+        if (n == 0) {
+            return 0;
+        }
+        long serial = nar.memory.newStampSerials(n);
+        for (int i = 0; i < n; i++) {
+            final int sensor = fired[i];
+            final char punctuation = punctuations[sensor];
+            final boolean goal = punctuation == Symbols.GOAL_MARK;
+            float c = confidence[sensor];
+            if (Float.isNaN(c)) {
+                c = goal ? Parameters.DEFAULT_GOAL_CONFIDENCE : Parameters.DEFAULT_JUDGMENT_CONFIDENCE;
+            }
+            final TruthValue truth = new TruthValue(frequency[sensor], c);
+            //the creation time is set when the task leaves the input queue
+            final Stamp stamp = new Stamp(-1, Tense.Present, serial++, Parameters.DURATION);
+            final Sentence sentence = new Sentence(terms[sensor], punctuation, truth, stamp);
+            final BudgetValue budget = goal
+                    ? new BudgetValue(Parameters.DEFAULT_GOAL_PRIORITY, Parameters.DEFAULT_GOAL_DURABILITY, truthToQuality(truth))
+                    : new BudgetValue(Parameters.DEFAULT_JUDGMENT_PRIORITY, Parameters.DEFAULT_JUDGMENT_DURABILITY, truthToQuality(truth));
+            batch[i] = new Task(sentence, budget, true);
+            frequency[sensor] = Float.NaN;
+        }
+        firedCount = 0;
+        final int queued = nar.addInput(batch, n);
+        Arrays.fill(batch, 0, n, null);
+        return queued;
+    }
+}
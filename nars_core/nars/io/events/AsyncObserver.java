@@ -0,0 +1,226 @@
+package nars.io.events;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import nars.io.events.EventEmitter.EventObserver;
+
+/**
+ * Delivers events to a slow observer (GUI panel, socket writer...) on an
+ * executor instead of the emitting reasoner thread.
+ * <p>
+ * Events are appended to a ring buffer of the subscriber; a batch task on
+ * the executor hands everything buffered so far to the observer, in order.
+ * The Overflow policy decides what happens when the observer falls so far
+ * behind that the buffer is full. The executor must not be the emitting
+ * thread itself (ex: a direct executor) when blocking.
+ */
+public class AsyncObserver implements EventObserver {
+
+    /** what happens to an event emitted while the buffer is full */
+    public enum Overflow {
+        /** forget the oldest buffered event */
+        DROP_OLDEST,
+        /**
+         * replace the last buffered event of the same class, so the observer
+         * gets the latest state rather than every intermediate one (ex: one
+         * CycleEnd per batch); events without a buffered sibling drop the
+         * oldest
+         */
+        COALESCE,
+        /** make the emitting thread wait until the observer caught up */
+        BLOCK
+    }
+
+    public final EventObserver observer;
+    private final Executor executor;
+    private final Overflow overflow;
+
+    private final Class[] events;
+    private final Object[][] args;
+    private final long[] times;
+    /* buffered events are [head, tail), modulo the capacity */
+    private long head = 0, tail = 0;
+    private boolean scheduled = false;
+    private boolean delivering = false;
+
+    private long delivered = 0, dropped = 0, coalesced = 0, batches = 0;
+    private int maxLag = 0;
+    private long blockedNanos = 0;
+
+    private final Runnable batch = new Runnable() {
+        @Override public void run() {
+            deliver();
+        }
+    };
+
+    /**
+     * @param observer The observer to call off the emitting thread
+     * @param executor Runs the deliveries
+     * @param capacity The number of events buffered before overflow applies
+     * @param overflow What to do with events emitted while the buffer is full
+     */
+    public AsyncObserver(final EventObserver observer, final Executor executor, final int capacity, final Overflow overflow) {
+        this.observer = observer;
+        this.executor = executor;
+        this.overflow = overflow;
+        this.events = new Class[capacity];
+        this.args = new Object[capacity][];
+        this.times = new long[capacity];
+    }
+
+    @Override
+    public void event(final Class event, final Object[] a) {
+        final boolean schedule;
+        synchronized (this) {
+            if (tail - head == events.length && !overflow(event, a)) {
+                return;
+            }
+            final int i = (int) (tail++ % events.length);
+            events[i] = event;
+            args[i] = a;
+            times[i] = System.nanoTime();
+            maxLag = Math.max(maxLag, (int) (tail - head));
+            schedule = !scheduled;
+            scheduled = true;
+        }
+        if (schedule) {
+            executor.execute(batch);
+        }
+    }
+
+    /** makes room for the event in the full buffer, or returns false if it must not be appended */
+    private boolean overflow(final Class event, final Object[] a) {
+        switch (overflow) {
+            case BLOCK:
+                final long start = System.nanoTime();
+                try {
+                    while (tail - head == events.length) {
+                        wait();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped++;
+                    return false;
+                } finally {
+                    blockedNanos += System.nanoTime() - start;
+                }
+                return true;
+            case COALESCE:
+                for (long j = tail - 1; j >= head; j--) {
+                    final int i = (int) (j % events.length);
+                    if (events[i] == event) {
+                        args[i] = a;
+                        coalesced++;
+                        return false;
+                    }
+                }
+                //fall through
+            default:
+                head++;
+                dropped++;
+                return true;
+        }
+    }
+
+    private void deliver() {
+        while (true) {
+            final Class[] e;
+            final Object[][] a;
+            final int n;
+            synchronized (this) {
+                n = (int) (tail - head);
+                if (n == 0) {
+                    scheduled = false;
+                    notifyAll();
+                    return;
+                }
+                e = new Class[n];
+                a = new Object[n][];
+                for (int k = 0; k < n; k++) {
+                    final int i = (int) ((head + k) % events.length);
+                    e[k] = events[i];
+                    a[k] = args[i];
+                    events[i] = null;
+                    args[i] = null;
+                }
+                head = tail;
+                delivering = true;
+                batches++;
+                notifyAll();
+            }
+            try {
+                for (int k = 0; k < n; k++) {
+                    try {
+                        observer.event(e[k], a[k]);
+                    } catch (Exception ex) { }
+                }
+            } finally {
+                synchronized (this) {
+                    delivered += n;
+                    delivering = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Wait until every event emitted so far was delivered
+     *
+     * @return Whether that happened within the timeout
+     */
+    public synchronized boolean flush(final long timeout, final TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (scheduled || delivering) {
+            final long left = deadline - System.nanoTime();
+            if (left <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, left);
+        }
+        return true;
+    }
+
+    /** events buffered but not delivered yet */
+    public synchronized int getLag() {
+        return (int) (tail - head);
+    }
+
+    /** how long the oldest buffered event has been waiting, in nanoseconds */
+    public synchronized long getLagNanos() {
+        return tail == head ? 0 : System.nanoTime() - times[(int) (head % events.length)];
+    }
+
+    /** the most events ever buffered at once */
+    public synchronized int getMaxLag() {
+        return maxLag;
+    }
+
+    public synchronized long getDelivered() {
+        return delivered;
+    }
+
+    /** events lost to DROP_OLDEST or COALESCE, or interrupted while blocking */
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    /** events merged into a buffered one by COALESCE */
+    public synchronized long getCoalesced() {
+        return coalesced;
+    }
+
+    public synchronized long getBatches() {
+        return batches;
+    }
+
+    /** time emitting threads spent waiting with BLOCK */
+    public synchronized long getBlockedNanos() {
+        return blockedNanos;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return observer + ": lag " + getLag() + " (max " + maxLag + "), " + delivered + " delivered in " + batches
+                + " batches, " + dropped + " dropped, " + coalesced + " coalesced";
+    }
+}
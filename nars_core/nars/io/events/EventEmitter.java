@@ -2,10 +2,9 @@
 package nars.io.events;
 
 import java.util.ArrayDeque;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Deque;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -20,8 +19,88 @@ public class EventEmitter {
         public void event(Class<? extends C> event, Object[] args);
     }
 
-    private final Map<Class<?>, List<EventObserver>> events;
+    /**
+     * The observers of one event class. Callers that emit an event often
+     * resolve its channel once and keep it: an emit with nobody listening
+     * is then one field read, and the argument array is only allocated
+     * when there are observers.
+     */
+    public static final class Channel {
+        public final Class event;
+        private final EventEmitter emitter;
+        
+        /* copied on write, so emitting never locks */
+        private volatile EventObserver[] observers = NONE;
+
+        Channel(final EventEmitter emitter, final Class event) {
+            this.emitter = emitter;
+            this.event = event;
+        }
+
+        public boolean isEmpty() {
+            return observers.length == 0;
+        }
+
+        public void emit() {
+            if (observers.length != 0)
+                emitter.deliver(this, NO_ARGS);
+        }
+
+        public void emit(final Object a) {
+            if (observers.length != 0)
+                emitter.deliver(this, new Object[] { a });
+        }
+
+        public void emit(final Object a, final Object b) {
+            if (observers.length != 0)
+                emitter.deliver(this, new Object[] { a, b });
+        }
+
+        public void emit(final Object a, final Object b, final Object c) {
+            if (observers.length != 0)
+                emitter.deliver(this, new Object[] { a, b, c });
+        }
+
+        public void emit(final Object a, final Object b, final Object c, final Object d) {
+            if (observers.length != 0)
+                emitter.deliver(this, new Object[] { a, b, c, d });
+        }
+
+        synchronized void add(final EventObserver o) {
+            final EventObserver[] a = Arrays.copyOf(observers, observers.length + 1);
+            a[a.length - 1] = o;
+            observers = a;
+        }
+
+        synchronized void remove(final EventObserver o) {
+            final EventObserver[] a = observers;
+            for (int i = 0; i < a.length; i++) {
+                if (a[i] == o) {
+                    final EventObserver[] b = new EventObserver[a.length - 1];
+                    System.arraycopy(a, 0, b, 0, i);
+                    System.arraycopy(a, i + 1, b, i, b.length - i);
+                    observers = b;
+                    return;
+                }
+            }
+        }
+
+        void notify(final Object[] args) {
+            for (final EventObserver m : observers) {
+                try {
+                    m.event(event, args);
+                } catch (Exception ex) { }
+            }
+        }
+    }
+
+    private static final EventObserver[] NONE = new EventObserver[0];
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private final Map<Class<?>, Channel> events;
             
+    /* whether observers may be called from several threads at once */
+    private volatile boolean concurrent = false;
     
     private Deque<Object[]> pendingOps = new ArrayDeque();
     
@@ -41,21 +120,31 @@ public class EventEmitter {
     public EventEmitter(Class... knownEventClasses) {
         events = new HashMap(knownEventClasses.length);
         for (Class c : knownEventClasses) {
-            events.put(c, newObserverList());
+            channel(c);
         }
     }
 
-    protected List<EventObserver> newObserverList() {
-        return new ArrayList();
-        /*return Parameters.THREADS == 1 ? 
-                new ArrayList() : Collections.synchronizedList(new ArrayList());*/
+    /** the channel of the event class, created on first use */
+    public synchronized Channel channel(final Class<?> event) {
+        Channel c = events.get(event);
+        if (c == null) {
+            c = new Channel(this, event);
+            events.put(event, c);
+        }
+        return c;
     }
     
     public final boolean isActive(final Class event) {
-        if (events.get(event)!=null)
-            if (!events.get(event).isEmpty())
-                return true;
-        return false;
+        final Channel c = events.get(event);
+        return c != null && !c.isEmpty();
+    }
+
+    /**
+     * While set, observers are called one event at a time, for emitters
+     * emitting from several threads (ex: concept firing on worker threads)
+     */
+    public void setConcurrent(final boolean concurrent) {
+        this.concurrent = concurrent;
     }
     
     //apply pending on/off changes when synchronizing, ex: in-between memory cycles
@@ -77,13 +166,7 @@ public class EventEmitter {
         }
     }  
     public void on(final Class<?> event, final EventObserver o) {
-        if (events.containsKey(event))
-            events.get(event).add(o);
-        else {
-            List<EventObserver> a = newObserverList();
-            a.add(o);
-            events.put(event, a);
-        }       
+        channel(event).add(o);
     }
  
     /**
@@ -98,9 +181,7 @@ public class EventEmitter {
         if (!events.containsKey(event))
             throw new RuntimeException("Unknown event: " + event);
         
-        try {
         events.get(event).remove(o);
-        } catch(Exception ex) { }
         /*if (!removed) {
             throw new RuntimeException("EventObserver " + o + " was not registered for events");
         }*/        
@@ -118,17 +199,20 @@ public class EventEmitter {
     
 
     public void emit(final Class eventClass, final Object... params) {
-        List<EventObserver> observers = events.get(eventClass);
-        
-        if ((observers == null) || (observers.isEmpty())) return;
-
-        int n = observers.size();
-        for (int i = 0; i < n; i++) {
-            try{
-            EventObserver m = observers.get(i);
-            m.event(eventClass, params);
-            }catch(Exception ex){}
+        final Channel c = events.get(eventClass);
+        if ((c == null) || (c.isEmpty())) return;
+
+        deliver(c, params);
+    }
+
+    private void deliver(final Channel c, final Object[] args) {
+        if (concurrent) {
+            //observers are not thread-safe, deliver one event at a time
+            synchronized (this) {
+                c.notify(args);
+            }
+            return;
         }
-        
+        c.notify(args);
     }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package nars.io.events;
 
+import java.util.concurrent.Executor;
+import nars.io.events.EventEmitter.EventObserver;
 import nars.main.NAR;
 
 /**
@@ -9,6 +11,8 @@ public abstract class EventHandler implements EventEmitter.EventObserver {
     protected final EventEmitter source;
     protected boolean active = false;
     private final Class[] events;
+    /* what is registered with the source: this, or an AsyncObserver calling this */
+    private EventObserver subscriber = this;
 
     public EventHandler(NAR n, boolean active, Class... events) {
         this(n.memory.event, active, events);
@@ -24,7 +28,22 @@ public abstract class EventHandler implements EventEmitter.EventObserver {
         if (this.active == b) return;
         
         this.active = b;
-        source.set(this, b, events);
+        source.set(subscriber, b, events);
+    }
+
+    /**
+     * Receive the events on the executor from now on, so a slow handler does
+     * not hold up the emitting thread
+     *
+     * @return The subscription, for its lag metrics
+     */
+    public AsyncObserver async(final Executor executor, final int capacity, final AsyncObserver.Overflow overflow) {
+        final boolean wasActive = active;
+        setActive(false);
+        final AsyncObserver a = new AsyncObserver(this, executor, capacity, overflow);
+        subscriber = a;
+        setActive(wasActive);
+        return a;
     }
 
     public boolean isActive() {
@@ -20,6 +20,8 @@
  */
 package nars.language;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.common.collect.Iterators;
 import java.nio.CharBuffer;
 import java.util.*;
@@ -59,6 +61,16 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
     int hash;
     private boolean normalized;
     
+    /** this term without intervals, computed on first use and forgotten when the term changes */
+    private transient Term conceptKey;
+    
+    /**
+     * canonical names of all compounds alive: structurally equal compounds share
+     * one name instance, so that equality of compound terms is a reference comparison.
+     * weak, so names of forgotten terms can be collected; concurrent, for parallel inference
+     */
+    private static final Interner<String> names = Interners.newWeakInterner();
+    
 
     /**
      * Abstract method to get the operator of the compound
@@ -168,6 +180,7 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
     
     public void invalidateName() {        
         this.name = null; //invalidate name so it will be (re-)created lazily        
+        this.conceptKey = null;
         for (Term t : term) {
             if (t.hasVar())
                 if (t instanceof CompoundTerm)
@@ -189,6 +202,10 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
             throw new UnableToCloneException("cloneDeep resulted in different class: " + c + " from " + this);
         if (isNormalized())
             ((CompoundTerm)c).setNormalized(true);
+        if (!hasVar() && !isCommutative() && this.name != null) {
+            //a constant copy has the same name, no need to build it again (commutative ones may be re-sorted)
+            ((CompoundTerm)c).name = this.name;
+        }
         
         return (CompoundTerm)c;
     }
@@ -207,19 +224,25 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
         }
     }
     
-    static Interval conceptival = new Interval(1);
-    private static void ReplaceIntervals(CompoundTerm comp) {
+    static final Interval conceptival = new Interval(1); //immutable, so shared by all memories
+    private static boolean ReplaceIntervals(CompoundTerm comp) {
+        boolean replaced = false;
         for(int i=0; i<comp.term.length; i++) {
             Term t = comp.term[i];
             if(t instanceof Interval) {
                 comp.term[i] = conceptival;
                 comp.invalidateName();
+                replaced = true;
             }
             else
             if(t instanceof CompoundTerm) {
-                ReplaceIntervals((CompoundTerm) t);
+                if(ReplaceIntervals((CompoundTerm) t)) {
+                    comp.name = null; //the name of a copy may have been taken over from the original
+                    replaced = true;
+                }
             }
         }
+        return replaced;
     }
 
     public static Term replaceIntervals(Term T) {
@@ -230,6 +253,24 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
         return T;
     }
     
+    /**
+     * The term naming the concept of this term: a copy with all intervals
+     * replaced, as by replaceIntervals, but made only once per term.
+     * The key is shared by all callers and must not be modified.
+     */
+    @Override
+    public Term getConceptKey() {
+        Term k = conceptKey;
+        if (k == null) {
+            k = replaceIntervals(this);
+            if (k instanceof CompoundTerm) {
+                ((CompoundTerm)k).conceptKey = k; //has no intervals left
+            }
+            conceptKey = k;
+        }
+        return k;
+    }
+    
     private static void ExtractIntervals(Memory mem, ArrayList<Long> ivals, CompoundTerm comp) {
         for(int i=0; i<comp.term.length; i++) {
             Term t = comp.term[i];
@@ -355,7 +396,7 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
     @Override
     public CharSequence name() {
         if (this.name == null) {            
-            this.name = makeName();
+            this.name = names.intern(makeName().toString());
         }
         return this.name;
     }
@@ -546,17 +587,23 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
     
     static void shuffle(final Term[] ar,final Random randomNumber)
     {
-        if (ar.length < 2)  {
+        shuffle(ar, 0, ar.length, randomNumber);
+    }
+
+    /** shuffles the n terms from the given index on, as shuffle does a whole array */
+    static void shuffle(final Term[] ar, final int from, final int n, final Random randomNumber)
+    {
+        if (n < 2)  {
             return;
         }
 
-      for (int i = ar.length - 1; i > 0; i--)
+      for (int i = n - 1; i > 0; i--)
       {
         int index = randomNumber.nextInt(i + 1);
         // Simple swap
-        Term a = ar[index];
-        ar[index] = ar[i];
-        ar[i] = a;
+        Term a = ar[from + index];
+        ar[from + index] = ar[from + i];
+        ar[from + i] = a;
       }
     }
     
@@ -791,6 +838,10 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
             return false;
         if (Parameters.TERM_ELEMENT_EQUIVALENCY)
             return equalsByTerm(that);
+        if (that instanceof CompoundTerm) {
+            //compound names are interned
+            return name() == ((Term)that).name();
+        }
         return name().equals(((Term)that).name());
     }
     
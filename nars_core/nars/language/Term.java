@@ -20,6 +20,7 @@
  */
 package nars.language;
 
+import com.google.common.collect.MapMaker;
 import java.io.Serializable;
 import java.util.*;
 
@@ -43,7 +44,8 @@ import nars.operator.Operator;
  */
 public class Term implements AbstractTerm, Serializable {
     public ImaginationSpace imagination;
-    private static final Map<CharSequence,Term> atoms = new HashMap();
+    /* atoms by name, shared by all memories; weak so the atoms of discarded NARs are collected */
+    private static final Map<CharSequence,Term> atoms = new MapMaker().weakValues().makeMap();
 
     final public static Term SELF = SetExt.make(Term.get("SELF"));
     final public static Term SEQ_SPATIAL = Term.get("#");
@@ -183,6 +185,14 @@ public class Term implements AbstractTerm, Serializable {
     public Term cloneDeep() {
         return clone();
     }
+    
+    /**
+     * The term naming the concept of this term, see CompoundTerm.getConceptKey
+     * @return this term, as an atomic term contains no intervals
+     */
+    public Term getConceptKey() {
+        return this;
+    }
 
     /**
      * Equal terms have identical name, though not necessarily the same
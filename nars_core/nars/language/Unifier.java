@@ -0,0 +1,390 @@
+package nars.language;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import nars.inference.TemporalRules;
+import nars.io.Symbols;
+
+/**
+ * The bindings of a unification in progress, for Variables.findSubstitute
+ * and unify.
+ * <p>
+ * The bindings of the variables of each term are kept in preallocated arrays,
+ * and every change is recorded on a trail, so a failed attempt, of a
+ * component of a commutative term or an offset of a partial conjunction, is
+ * undone back to its mark instead of being tried on a copy of the bindings.
+ * Maps are only made of the bindings when the caller asks for them, once the
+ * unification is over. A binding is found by the hash and equality of its
+ * variable, as in the HashMap it replaces.
+ * <p>
+ * Each thread reuses its own unifier, see acquire.
+ */
+final class Unifier {
+
+    private static final ThreadLocal<Unifier> current = new ThreadLocal<Unifier>() {
+        @Override protected Unifier initialValue() {
+            return new Unifier();
+        }
+    };
+
+    /** the unifier of this thread, or a new one if that one is in use; to be released */
+    static Unifier acquire() {
+        Unifier u = current.get();
+        if (u.busy) {
+            u = new Unifier();
+        }
+        u.busy = true;
+        return u;
+    }
+
+    private boolean busy = false;
+
+    /* the bindings of the variables of the first (0) and the second (1) term */
+    private final Term[][] keys = { new Term[8], new Term[8] };
+    private final Term[][] values = { new Term[8], new Term[8] };
+    private final int[][] hashes = { new int[8], new int[8] };
+    private final int[] count = new int[2];
+
+    /* the changes, in order: slot * 2 + side, and the value replaced, null if the binding was added */
+    private int[] trailSlot = new int[16];
+    private Term[] trailValue = new Term[16];
+    private int trail = 0;
+
+    /* the components of the commutative terms being matched, in the order they are tried, by depth */
+    private Term[] order = new Term[16];
+    private boolean[] matched = new boolean[16];
+    private int orderSize = 0;
+
+    /* the bindings collected for an offset of a partial conjunction */
+    private int[] pendingSide = new int[16];
+    private Term[] pendingKey = new Term[16], pendingValue = new Term[16];
+    private int pending = 0;
+
+    /** forgets all bindings and lets the unifier be acquired again */
+    void release() {
+        for (int side = 0; side < 2; side++) {
+            Arrays.fill(keys[side], 0, count[side], null);
+            Arrays.fill(values[side], 0, count[side], null);
+            count[side] = 0;
+        }
+        Arrays.fill(trailValue, 0, trail, null);
+        trail = 0;
+        clearPending(0);
+        busy = false;
+    }
+
+    Term get(final int side, final Term key) {
+        final int i = indexOf(side, key, key.hashCode());
+        return i < 0 ? null : values[side][i];
+    }
+
+    private int indexOf(final int side, final Term key, final int hash) {
+        final Term[] k = keys[side];
+        final int[] h = hashes[side];
+        for (int i = count[side] - 1; i >= 0; i--) {
+            if (h[i] == hash && (k[i] == key || key.equals(k[i]))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    void put(final int side, final Term key, final Term value) {
+        final int hash = key.hashCode();
+        int i = indexOf(side, key, hash);
+        final Term replaced;
+        if (i >= 0) {
+            replaced = values[side][i];
+        } else {
+            i = count[side]++;
+            if (i == keys[side].length) {
+                keys[side] = Arrays.copyOf(keys[side], i * 2);
+                values[side] = Arrays.copyOf(values[side], i * 2);
+                hashes[side] = Arrays.copyOf(hashes[side], i * 2);
+            }
+            keys[side][i] = key;
+            hashes[side][i] = hash;
+            replaced = null;
+        }
+        values[side][i] = value;
+        if (trail == trailSlot.length) {
+            trailSlot = Arrays.copyOf(trailSlot, trail * 2);
+            trailValue = Arrays.copyOf(trailValue, trail * 2);
+        }
+        trailSlot[trail] = i * 2 + side;
+        trailValue[trail++] = replaced;
+    }
+
+    /** the position to undo back to */
+    int mark() {
+        return trail;
+    }
+
+    /** undoes the changes made since the mark, latest first */
+    void undo(final int mark) {
+        while (trail > mark) {
+            final int slot = trailSlot[--trail];
+            final int side = slot & 1, i = slot >> 1;
+            final Term replaced = trailValue[trail];
+            trailValue[trail] = null;
+            if (replaced != null) {
+                values[side][i] = replaced;
+            } else {
+                //added last, so it is the last binding of its side
+                count[side]--;
+                keys[side][i] = null;
+                values[side][i] = null;
+            }
+        }
+    }
+
+    boolean isEmpty(final int side) {
+        return count[side] == 0;
+    }
+
+    /** binds what the map binds */
+    void load(final int side, final Map<Term, Term> map) {
+        if (map.isEmpty()) {
+            return;
+        }
+        for (final Map.Entry<Term, Term> e : map.entrySet()) {
+            put(side, e.getKey(), e.getValue());
+        }
+    }
+
+    /** puts the bindings into the map */
+    void store(final int side, final Map<Term, Term> map) {
+        for (int i = 0; i < count[side]; i++) {
+            map.put(keys[side][i], values[side][i]);
+        }
+    }
+
+    /** a new map of the bindings, null if there are none */
+    Map<Term, Term> bindings(final int side) {
+        if (count[side] == 0) {
+            return null;
+        }
+        final Map<Term, Term> map = new HashMap<>(count[side] * 2);
+        store(side, map);
+        return map;
+    }
+
+    /**
+     * Find the bindings that unify two terms, on top of those already made;
+     * the bindings made before a failure are kept, as they were in the maps
+     */
+    boolean match(final char type, final Term term1, final Term term2, final boolean allowPartial, final Random random) {
+
+        boolean term1HasVar = term1.hasVar(type);
+        if (type == Symbols.VAR_INDEPENDENT) {
+            term1HasVar |= term1.hasVarDep();
+            term1HasVar |= term1.hasVarQuery();
+        }
+        if (type == Symbols.VAR_DEPENDENT) {
+            term1HasVar |= term1.hasVarQuery();
+        }
+        final boolean term2HasVar = term2.hasVar(type);
+
+        final boolean term1Var = term1 instanceof Variable;
+        final boolean term2Var = term2 instanceof Variable;
+
+        if (allowPartial && term1 instanceof Conjunction && term2 instanceof Conjunction) {
+            final Conjunction c1 = (Conjunction) term1;
+            final Conjunction c2 = (Conjunction) term2;
+            //more effective matching for NLP
+            if (c1.getTemporalOrder() == TemporalRules.ORDER_FORWARD
+                    && c2.getTemporalOrder() == TemporalRules.ORDER_FORWARD
+                    && c1.size() < c2.size()) {
+                //find an offset that works
+                for (int k = 0; k < (c2.term.length - c1.term.length); k++) {
+                    if (matchAtOffset(type, c1, c2, k, random)) {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        final boolean termsEqual = term1.equals(term2);
+        if (!term1Var && !term2Var && termsEqual) {
+            return true;
+        }
+
+        //variable "renaming" to variable of same type is always valid
+        if (term1Var && term2Var) {
+            final Variable v1 = (Variable) term1;
+            final Variable v2 = (Variable) term2;
+            if (v1.getType() == v2.getType()) {
+                final Variable commonVar = Variables.makeCommonVariable(term1, term2);
+                put(0, v1, commonVar);
+                put(1, v2, commonVar);
+                return true;
+            }
+        }
+        if (term1Var && Variables.allowUnification(((Variable) term1).getType(), type)) {
+            final Variable var1 = (Variable) term1;
+            final Term t = get(0, var1);
+            if (t != null) {
+                return match(type, t, term2, false, random);
+            }
+            if (term2Var && Variables.allowUnification(((Variable) term2).getType(), type)) {
+                final Variable commonVar = Variables.makeCommonVariable(term1, term2);
+                put(0, var1, commonVar);
+                put(1, term2, commonVar);
+            } else {
+                if (term2Var && ((((Variable) term2).getType() == Symbols.VAR_QUERY && var1.getType() != Symbols.VAR_QUERY)
+                        || (((Variable) term2).getType() != Symbols.VAR_QUERY && var1.getType() == Symbols.VAR_QUERY))) {
+                    return false;
+                }
+                put(0, var1, term2);
+                if (var1.isCommon()) {
+                    put(1, var1, term2);
+                }
+            }
+            return true;
+        } else if (term2Var && Variables.allowUnification(((Variable) term2).getType(), type)) {
+            final Variable var2 = (Variable) term2;
+            final Term t = get(1, var2);
+            if (t != null) {
+                return match(type, term1, t, false, random);
+            }
+            put(1, var2, term1);
+            if (var2.isCommon()) {
+                put(0, var2, term1);
+            }
+            return true;
+        } else if ((term1HasVar || term2HasVar) && (term1 instanceof CompoundTerm) && term1.getClass().equals(term2.getClass())) {
+            final CompoundTerm cTerm1 = (CompoundTerm) term1;
+            final CompoundTerm cTerm2 = (CompoundTerm) term2;
+
+            //consider temporal order on term matching
+            if (term1 instanceof Conjunction && term2 instanceof Conjunction) {
+                if (((Conjunction) term1).getTemporalOrder() != ((Conjunction) term2).getTemporalOrder()
+                        || ((Conjunction) term1).getIsSpatial() != ((Conjunction) term2).getIsSpatial()) {
+                    return false;
+                }
+            }
+            if (term1 instanceof Implication && term2 instanceof Implication) {
+                if (((Implication) term1).getTemporalOrder() != ((Implication) term2).getTemporalOrder()) {
+                    return false;
+                }
+            }
+            if (term1 instanceof Equivalence && term2 instanceof Equivalence) {
+                if (((Equivalence) term1).getTemporalOrder() != ((Equivalence) term2).getTemporalOrder()) {
+                    return false;
+                }
+            }
+
+            if (cTerm1.size() != cTerm2.size()) {
+                return false;
+            }
+            if ((cTerm1 instanceof ImageExt) && (((ImageExt) cTerm1).relationIndex != ((ImageExt) cTerm2).relationIndex) || (cTerm1 instanceof ImageInt) && (((ImageInt) cTerm1).relationIndex != ((ImageInt) cTerm2).relationIndex)) {
+                return false;
+            }
+            if (cTerm1.isCommutative()) {
+                return matchCommutative(type, cTerm1, cTerm2, random);
+            }
+            for (int i = 0; i < cTerm1.term.length; i++) {
+                if (!match(type, cTerm1.term[i], cTerm2.term[i], false, random)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        return termsEqual;
+    }
+
+    /**
+     * Match the components of a commutative term, in a random order, each to
+     * the one of the other term at its place; a component of the other term
+     * used by a match is not tried again
+     */
+    private boolean matchCommutative(final char type, final CompoundTerm cTerm1, final CompoundTerm cTerm2, final Random random) {
+        final int n = cTerm1.term.length;
+        final int from = orderSize;
+        orderSize += n;
+        if (orderSize > order.length) {
+            order = Arrays.copyOf(order, orderSize * 2);
+            matched = Arrays.copyOf(matched, orderSize * 2);
+        }
+        System.arraycopy(cTerm1.term, 0, order, from, n);
+        CompoundTerm.shuffle(order, from, n, random);
+        try {
+            for (int i = 0; i < n; i++) {
+                boolean succeeded = false;
+                for (int j = 0; j < n; j++) {
+                    if (matched[from + j]) { //this one already was used to match one of the i's
+                        continue;
+                    }
+                    final int mark = mark();
+                    //every attempt is made again, as each draws from random in the commutative terms within
+                    if (match(type, order[from + i], cTerm2.term[i], false, random)) {
+                        succeeded = true;
+                        matched[from + j] = true;
+                        break;
+                    }
+                    undo(mark);
+                }
+                if (!succeeded) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            Arrays.fill(order, from, from + n, null);
+            Arrays.fill(matched, from, from + n, false);
+            orderSize = from;
+        }
+    }
+
+    /**
+     * Match a forward conjunction to the components of a longer one from an
+     * offset on. Each component is matched to the bindings made before, and
+     * on success all of its bindings are kept, in the order of the
+     * components, so a later component rebinds the variables an earlier one
+     * bound to what they were bound to before.
+     */
+    private boolean matchAtOffset(final char type, final Conjunction c1, final Conjunction c2, final int k, final Random random) {
+        final int from = pending;
+        for (int j = k; j < k + c1.term.length; j++) {
+            final int mark = mark();
+            final boolean succeeded = match(type, c1.term[j - k], c2.term[j], false, random);
+            if (succeeded) {
+                for (int side = 0; side < 2; side++) {
+                    for (int i = 0; i < count[side]; i++) {
+                        addPending(side, keys[side][i], values[side][i]);
+                    }
+                }
+            }
+            undo(mark);
+            if (!succeeded) { //another offset k is needed
+                clearPending(from);
+                return false;
+            }
+        }
+        for (int p = from; p < pending; p++) {
+            put(pendingSide[p], pendingKey[p], pendingValue[p]);
+        }
+        clearPending(from);
+        return true;
+    }
+
+    private void addPending(final int side, final Term key, final Term value) {
+        if (pending == pendingSide.length) {
+            pendingSide = Arrays.copyOf(pendingSide, pending * 2);
+            pendingKey = Arrays.copyOf(pendingKey, pending * 2);
+            pendingValue = Arrays.copyOf(pendingValue, pending * 2);
+        }
+        pendingSide[pending] = side;
+        pendingKey[pending] = key;
+        pendingValue[pending++] = value;
+    }
+
+    private void clearPending(final int from) {
+        Arrays.fill(pendingKey, from, pending, null);
+        Arrays.fill(pendingValue, from, pending, null);
+        pending = from;
+    }
+}
@@ -1,19 +1,35 @@
 package nars.language;
 
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
-import nars.inference.TemporalRules;
-import nars.storage.Memory;
+import java.util.Random;
 import nars.io.Symbols;
+import nars.storage.Memory;
 
 /**
  * Static utility class for static methods related to Variables
  */
 public class Variables {
     
-    public static boolean findSubstitute(final char type, final Term term1, final Term term2, final Map<Term, Term> map1, final Map<Term, Term> map2) {
-        return findSubstitute(type, term1, term2, new Map[] { map1, map2 });
+    /** as findSubstitute with the random source of the memory, counting the attempt in its metrics */
+    public static boolean findSubstitute(final char type, final Term term1, final Term term2, final Map<Term, Term> map1, final Map<Term, Term> map2, final Memory memory) {
+        memory.logic.UNIFY.commit();
+        return findSubstitute(type, term1, term2, map1, map2, memory.randomNumber);
+    }
+    
+    public static boolean findSubstitute(final char type, final Term term1, final Term term2, final Map<Term, Term> map1, final Map<Term, Term> map2, final Random random) {
+        final Unifier u = Unifier.acquire();
+        try {
+            u.load(0, map1);
+            u.load(1, map2);
+            final boolean found = u.match(type, term1, term2, false, random);
+            //the bindings made before a failure are left in the maps too
+            u.store(0, map1);
+            u.store(1, map2);
+            return found;
+        } finally {
+            u.release();
+        }
     }
     
     public static boolean allowUnification(final char type, final char uniType)
@@ -44,242 +60,32 @@ public class Variables {
      * the maps will be instantiated as necessary.  
      * this is to delay the instantiation of the 2 HashMap until necessary to avoid
      * wasting them if they are not used.
+     * the bindings are found by a Unifier and put into the maps once it is done.
      */
-    public static boolean findSubstitute(final char type, final Term term1, final Term term2, final Map<Term, Term>[] map) {
-        return findSubstitute(type, term1, term2, map, false);
+    public static boolean findSubstitute(final char type, final Term term1, final Term term2, final Map<Term, Term>[] map, final Random random) {
+        return findSubstitute(type, term1, term2, map, false, random);
     }
-    public static boolean findSubstitute(final char type, final Term term1, final Term term2, final Map<Term, Term>[] map, boolean allowPartial) {
-
-        boolean term1HasVar = term1.hasVar(type);
-        if(type == Symbols.VAR_INDEPENDENT) {
-            term1HasVar |= term1.hasVarDep();
-            term1HasVar |= term1.hasVarQuery();
-        }
-        if(type == Symbols.VAR_DEPENDENT) {
-            term1HasVar |= term1.hasVarQuery();
-        }
-        final boolean term2HasVar = term2.hasVar(type);
-        
-        
-        final boolean term1Var = term1 instanceof Variable;
-        final boolean term2Var = term2 instanceof Variable;
-        
-        if(allowPartial && term1 instanceof Conjunction && term2 instanceof Conjunction) {
-            Conjunction c1 = (Conjunction) term1;
-            Conjunction c2 = (Conjunction) term2;
-            //more effective matching for NLP
-            if(c1.getTemporalOrder() == TemporalRules.ORDER_FORWARD &&
-                    c2.getTemporalOrder() == TemporalRules.ORDER_FORWARD) {
-                int size_smaller = c1.size();
-                if(c1.size() < c2.size()) {
-                    //find an offset that works
-                    for(int k=0;k<(c2.term.length - c1.term.length);k++) {
-                        Map<Term, Term>[] mapk = (Map<Term, Term>[]) new HashMap<?,?>[2];
-                        mapk[0] = new HashMap<Term,Term>();
-                        mapk[1] = new HashMap<Term,Term>();
-                        if(map[0] == null) {
-                            map[0] = new HashMap<Term,Term>();
-                        }
-                        if(map[1] == null) {
-                            map[1] = new HashMap<Term,Term>();
-                        }
-                        for(Term c : map[0].keySet()) {
-                            mapk[0].put(c, map[0].get(c));
-                        }
-                        for(Term c : map[1].keySet()) {
-                            mapk[1].put(c, map[1].get(c));
-                        }
-                        boolean succeeded = true;
-                        for(int j=k;j<k+size_smaller;j++) {
-                            int i = j-k;
-                            Map<Term, Term>[] mapNew = (Map<Term, Term>[]) new HashMap<?,?>[2];
-                            mapNew[0] = new HashMap<Term,Term>();
-                            mapNew[1] = new HashMap<Term,Term>();
-                            for(Term c : map[0].keySet()) {
-                                mapNew[0].put(c, map[0].get(c));
-                            }
-                            for(Term c : map[1].keySet()) {
-                                mapNew[1].put(c, map[1].get(c));
-                            }
-                            //attempt unification:
-                            if(findSubstitute(type,c1.term[i],c2.term[j],mapNew)) {
-                                for(Term c : mapNew[0].keySet()) { //ok put back the unifications that were necessary
-                                    mapk[0].put(c, mapNew[0].get(c));
-                                }
-                                for(Term c : mapNew[1].keySet()) {
-                                    mapk[1].put(c, mapNew[1].get(c));
-                                }
-                            } else { //another shift k is needed
-                                succeeded = false;
-                                break;
-                            }
-                        }
-                        if(succeeded) {
-                            for(Term c : mapk[0].keySet()) { //ok put back the unifications that were necessary
-                                map[0].put(c, mapk[0].get(c));
-                            }
-                            for(Term c : mapk[1].keySet()) {
-                                map[1].put(c, mapk[1].get(c));
-                            }
-                            return true;
-                        }
-                    }
-                }
-            }
-        }
-        
-        final boolean termsEqual = term1.equals(term2);
-        if (!term1Var && !term2Var && termsEqual)  {
-            return true;
-        }
-        
-        
-        /*if (termsEqual) {
-            return true;
-        }*/
-        
-        Term t;  
-        //variable "renaming" to variable of same type is always valid
-        if(term1 instanceof Variable && term2 instanceof Variable) {
-            Variable v1 = (Variable) term1;
-            Variable v2 = (Variable) term2;
-            if(v1.getType() == v2.getType()) {
-                Variable CommonVar = makeCommonVariable(term1, term2);    
-                if (map[0] == null) {  map[0] = new HashMap(); map[1] = new HashMap(); }                
-                map[0].put(v1, CommonVar);
-                map[1].put(v2, CommonVar);
-                return true;
-            }
-        }
-        if (term1Var && allowUnification(((Variable) term1).getType(), type)) {
-            final Variable var1 = (Variable) term1;            
-            t = map[0]!=null ? map[0].get(var1) : null;
-            
-            if (t != null) {
-                return findSubstitute(type, t, term2, map);
-            } else {
-                
-                if (map[0] == null) {  map[0] = new HashMap(); map[1] = new HashMap(); }
-                
-                if ((term2 instanceof Variable) && allowUnification(((Variable) term2).getType(), type)) {
-                    Variable CommonVar = makeCommonVariable(term1, term2);                    
-                    map[0].put(var1, CommonVar);
-                    map[1].put(term2, CommonVar);
-                } else {
-                    if(term2 instanceof Variable && ((((Variable)term2).getType()==Symbols.VAR_QUERY && ((Variable)term1).getType()!=Symbols.VAR_QUERY) ||
-                                                     (((Variable)term2).getType()!=Symbols.VAR_QUERY && ((Variable)term1).getType()==Symbols.VAR_QUERY))) {
-                        return false;
-                    }
-                    map[0].put(var1, term2);
-                    if (var1.isCommon()) {
-                        map[1].put(var1, term2);
-                    }
-                }
-                return true;
-            }
-        } else if (term2Var && allowUnification(((Variable) term2).getType(), type)) {
-            final Variable var2 = (Variable) term2;            
-            t = map[1]!=null ? map[1].get(var2) : null;
-            
-            if (t != null) {
-                return findSubstitute(type, term1, t, map);
-            } else {
-                
-                if (map[0] == null) {  map[0] = new HashMap(); map[1] = new HashMap(); }
-                
-                map[1].put(var2, term1);
-                if (var2.isCommon()) {
-                    map[0].put(var2, term1);
+    public static boolean findSubstitute(final char type, final Term term1, final Term term2, final Map<Term, Term>[] map, boolean allowPartial, final Random random) {
+        final Unifier u = Unifier.acquire();
+        try {
+            for (int side = 0; side < 2; side++) {
+                if (map[side] != null) {
+                    u.load(side, map[side]);
                 }
-                return true;
-            }
-        } else if ((term1HasVar || term2HasVar) && (term1 instanceof CompoundTerm) && term1.getClass().equals(term2.getClass())) {
-            final CompoundTerm cTerm1 = (CompoundTerm) term1;
-            final CompoundTerm cTerm2 = (CompoundTerm) term2;
-            
-            //consider temporal order on term matching
-            if(term1 instanceof Conjunction && term2 instanceof Conjunction) {
-                if(((Conjunction)term1).getTemporalOrder() != ((Conjunction)term2).getTemporalOrder() ||
-                   ((Conjunction)term1).getIsSpatial() != ((Conjunction)term2).getIsSpatial())
-                    return false;
-            }
-            if(term1 instanceof Implication && term2 instanceof Implication) {
-                if(((Implication)term1).getTemporalOrder() != ((Implication)term2).getTemporalOrder())
-                    return false;
-            }
-            if(term1 instanceof Equivalence && term2 instanceof Equivalence) {
-                if(((Equivalence)term1).getTemporalOrder() != ((Equivalence)term2).getTemporalOrder())
-                    return false;
-            }
-            
-            if (cTerm1.size() != cTerm2.size()) {
-                return false;
-            }
-            if ((cTerm1 instanceof ImageExt) && (((ImageExt) cTerm1).relationIndex != ((ImageExt) cTerm2).relationIndex) || (cTerm1 instanceof ImageInt) && (((ImageInt) cTerm1).relationIndex != ((ImageInt) cTerm2).relationIndex)) {
-                return false;
             }
-            Term[] list = cTerm1.cloneTerms();
-            if (cTerm1.isCommutative()) {
-                CompoundTerm.shuffle(list, Memory.randomNumber);
-                HashSet<Integer> alreadyMatched = new HashSet<Integer>();
-                //ok attempt unification
-                if(cTerm2 == null || list == null || cTerm2.term == null || list.length != cTerm2.term.length) {
-                    return false;
-                }
-                HashSet<Integer> matchedJ = new HashSet<Integer>(list.length*2);
-                for(int i = 0; i < list.length; i++) {
-                    boolean succeeded = false;
-                    for(int j = 0; j < list.length; j++) {
-                        if(matchedJ.contains(j)) { //this one already was used to match one of the i's
-                            continue;
-                        }
-                        Term ti = list[i].clone();
-                        //clone map also:
-                        Map<Term, Term>[] mapNew = (Map<Term, Term>[]) new HashMap<?,?>[2];
-                        mapNew[0] = new HashMap<Term,Term>();
-                        mapNew[1] = new HashMap<Term,Term>();
-                        if(map[0] == null) {
-                            map[0] = new HashMap<Term,Term>();
-                        }
-                        if(map[1] == null) {
-                            map[1] = new HashMap<Term,Term>();
-                        }
-                        for(Term c : map[0].keySet()) {
-                            mapNew[0].put(c, map[0].get(c));
-                        }
-                        for(Term c : map[1].keySet()) {
-                            mapNew[1].put(c, map[1].get(c));
-                        }
-                        //attempt unification:
-                        if(findSubstitute(type,ti,cTerm2.term[i],mapNew)) {
-                            for(Term c : mapNew[0].keySet()) { //ok put back the unifications that were necessary
-                                map[0].put(c, mapNew[0].get(c));
-                            }
-                            for(Term c : mapNew[1].keySet()) {
-                                map[1].put(c, mapNew[1].get(c));
-                            }
-                            succeeded = true;
-                            matchedJ.add(j);
-                            break;
-                        }
+            final boolean found = u.match(type, term1, term2, allowPartial, random);
+            if (!u.isEmpty(0) || !u.isEmpty(1)) {
+                for (int side = 0; side < 2; side++) {
+                    if (map[side] == null) {
+                        map[side] = new HashMap<>();
                     }
-                    if(!succeeded) {
-                        return false;
-                    }
-                }
-                return true;
-            }
-            for (int i = 0; i < cTerm1.size(); i++) {
-                Term t1 = list[i];
-                Term t2 = cTerm2.term[i];
-                if (!findSubstitute(type, t1, t2, map)) {
-                    return false;
+                    u.store(side, map[side]);
                 }
             }
-            return true;
+            return found;
+        } finally {
+            u.release();
         }
-        
-        return termsEqual;        
     }
 
 
@@ -317,10 +123,16 @@ public class Variables {
      *
      * @param type The type of variable that can be substituted
      * @param t The first and second term as an array, which will have been modified upon returning true
+     * @param random The random source of the memory, to try the components of commutative terms in any order
      * @return Whether the unification is possible.  't' will refer to the unified terms
      */
-    public static boolean unify(final char type, final Term[] t) {
-        return unify(type, t[0], t[1], t);
+    public static boolean unify(final char type, final Term[] t, final Random random) {
+        return unify(type, t[0], t[1], t, random);
+    }
+    
+    /** as unify with the random source of the memory, counting the attempt in its metrics */
+    public static boolean unify(final char type, final Term[] t, final Memory memory) {
+        return unify(type, t[0], t[1], t, false, memory);
     }
 
  
@@ -331,19 +143,30 @@ public class Variables {
      * @param compound1 The compound containing the first term, possibly modified
      * @param compound2 The compound containing the second term, possibly modified
      * @param t The first and second term as an array, which will have been modified upon returning true
+     * @param random The random source of the memory, to try the components of commutative terms in any order
      * @return Whether the unification is possible.  't' will refer to the unified terms
      */
-    public static boolean unify(final char type, final Term t1, final Term t2, final Term[] compound) { 
-        return unify(type, t1, t2, compound, false);
+    public static boolean unify(final char type, final Term t1, final Term t2, final Term[] compound, final Random random) { 
+        return unify(type, t1, t2, compound, false, random);
     }
-    public static boolean unify(final char type, final Term t1, final Term t2, final Term[] compound, boolean allowPartial) {        
-        final Map<Term, Term> map[] = new Map[2]; //begins empty: null,null
-        
-        final boolean hasSubs = findSubstitute(type, t1, t2, map, allowPartial);
-        if (hasSubs) {
-            final Term a = applySubstituteAndRenameVariables(((CompoundTerm)compound[0]), map[0]);
+    /** as unify with the random source of the memory, counting the attempt in its metrics */
+    public static boolean unify(final char type, final Term t1, final Term t2, final Term[] compound, final Memory memory) {
+        return unify(type, t1, t2, compound, false, memory);
+    }
+    public static boolean unify(final char type, final Term t1, final Term t2, final Term[] compound, boolean allowPartial, final Memory memory) {
+        memory.logic.UNIFY.commit();
+        return unify(type, t1, t2, compound, allowPartial, memory.randomNumber);
+    }
+    public static boolean unify(final char type, final Term t1, final Term t2, final Term[] compound, boolean allowPartial, final Random random) {        
+        final Unifier u = Unifier.acquire();
+        try {
+            if (!u.match(type, t1, t2, allowPartial, random)) {
+                return false;
+            }
+            //the substitutions are applied once, when the unification is found
+            final Term a = applySubstituteAndRenameVariables(((CompoundTerm)compound[0]), u.bindings(0));
             if (a == null) return false;
-            final Term b = applySubstituteAndRenameVariables(((CompoundTerm)compound[1]), map[1]);
+            final Term b = applySubstituteAndRenameVariables(((CompoundTerm)compound[1]), u.bindings(1));
             if (b == null) return false;
             //only set the values if it will return true, otherwise if it returns false the callee can expect its original values untouched
             if(compound[0] instanceof Variable && ((Variable)compound[0]).hasVarQuery() && (((Variable)a).hasVarIndep() || ((Variable)a).hasVarIndep()) ) {
@@ -355,8 +178,9 @@ public class Variables {
             compound[0] = a;
             compound[1] = b;
             return true;
+        } finally {
+            u.release();
         }
-        return false;
     }
 
     /** appliesSubstitute and renameVariables, resulting in a cloned object, 
@@ -409,16 +233,28 @@ public class Variables {
         return T.hasVarIndep();
     }
 
+    /** as hasSubstitute with the random source of the memory, counting the attempt in its metrics */
+    public static boolean hasSubstitute(final char type, final Term term1, final Term term2, final Memory memory) {
+        memory.logic.UNIFY.commit();
+        return hasSubstitute(type, term1, term2, memory.randomNumber);
+    }
+
     /**
      * Check if two terms can be unified
      *
      * @param type The type of variable that can be substituted
      * @param term1 The first term to be unified
      * @param term2 The second term to be unified
+     * @param random The random source of the memory
      * @return Whether there is a substitution
      */
-    public static boolean hasSubstitute(final char type, final Term term1, final Term term2) {
-        return findSubstitute(type, term1, term2, new HashMap<>(), new HashMap<>());
+    public static boolean hasSubstitute(final char type, final Term term1, final Term term2, final Random random) {
+        final Unifier u = Unifier.acquire();
+        try {
+            return u.match(type, term1, term2, false, random);
+        } finally {
+            u.release();
+        }
     }
     
 }
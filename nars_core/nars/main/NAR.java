@@ -1,23 +1,19 @@
 package nars.main;
 
 import java.io.BufferedReader;
+import java.io.File;
 import nars.plugin.Plugin;
 import nars.storage.Memory;
 import nars.io.events.Events;
-import nars.io.events.EventEmitter;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import nars.io.events.EventEmitter.EventObserver;
@@ -31,12 +27,16 @@ import nars.io.events.AnswerHandler;
 import nars.io.events.OutputHandler.ERR;
 import nars.io.Symbols;
 import nars.io.Narsese;
+import nars.io.NarseseParser;
 import nars.io.Narsese.InvalidInputException;
 import nars.language.Tense;
 import nars.operator.Operator;
 import nars.plugin.perception.SensoryChannel;
 import nars.language.Term;
-import nars.storage.LevelBag;
+import nars.storage.ArrayBag;
+import nars.storage.EventBag;
+import nars.storage.InputQueue;
+import nars.storage.MemorySnapshot;
 import nars.io.events.Events.CyclesEnd;
 import nars.io.events.Events.CyclesStart;
 import nars.io.events.OutputHandler;
@@ -79,22 +79,14 @@ public class NAR extends SensoryChannel implements Serializable,Runnable {
         }
     }
     
-    public void SaveToFile(String name) throws FileNotFoundException, IOException {
-        FileOutputStream outStream = new FileOutputStream(name);
-        ObjectOutputStream stream = new ObjectOutputStream(outStream);
-        stream.writeObject(this);
-        outStream.close();
+    /** writes the memory as a MemorySnapshot; operators and plugins are those of any new NAR */
+    public void SaveToFile(String name) throws IOException {
+        MemorySnapshot.save(memory, new File(name));
     }
     
-    public static NAR LoadFromFile(String name) throws FileNotFoundException, IOException, ClassNotFoundException {
-        FileInputStream inStream = new FileInputStream(name);
-        ObjectInputStream stream = new ObjectInputStream(inStream);
-        NAR ret = (NAR) stream.readObject();
-        ret.memory.event = new EventEmitter();
-        ret.plugins = new ArrayList<>(); 
-        for (Operator o : Operators.get(ret))
-            ret.memory.addOperator(o);
-        new Plugins().init(ret);
+    public static NAR LoadFromFile(String name) throws IOException {
+        NAR ret = new NAR();
+        MemorySnapshot.load(ret.memory, new File(name));
         return ret;
     }
 
@@ -136,6 +128,22 @@ public class NAR extends SensoryChannel implements Serializable,Runnable {
         public float doubleValue() {return (float)this.VAL;}
         public int intValue() {return (int)this.VAL;}
     }
+    public static class PortableBoolean implements Serializable {
+        Lock lock = new Lock();
+        public PortableBoolean(){}
+        boolean VAL = false;
+        public PortableBoolean(boolean VAL){synchronized(lock){this.VAL = VAL;}}
+        public void set(boolean VAL){synchronized(lock){this.VAL = VAL;}}
+        public boolean get() {return this.VAL;}
+    }
+    public static class PortableObject<T> implements Serializable {
+        Lock lock = new Lock();
+        public PortableObject(){}
+        T VAL = null;
+        public PortableObject(T VAL){synchronized(lock){this.VAL = VAL;}}
+        public void set(T VAL){synchronized(lock){this.VAL = VAL;}}
+        public T get() {return this.VAL;}
+    }
     /*NAR Parameters which can be changed during runtime.*/
    public class RuntimeParameters implements Serializable {
        public RuntimeParameters() {    }
@@ -145,6 +153,11 @@ public class NAR extends SensoryChannel implements Serializable,Runnable {
        public final PortableDouble taskLinkForgetDurations = new PortableDouble(Parameters.TASKLINK_FORGET_DURATIONS);
        public final PortableDouble eventForgetDurations = new PortableDouble(Parameters.EVENT_FORGET_DURATIONS);
        public final PortableDouble decisionThreshold = new PortableDouble(Parameters.DECISION_THRESHOLD);
+       public final PortableBoolean lazyForgetting = new PortableBoolean(Parameters.LAZY_FORGETTING);
+       public final PortableInteger threads = new PortableInteger(Parameters.THREADS);
+       public final PortableInteger inputQueueSize = new PortableInteger(Parameters.INPUT_QUEUE_SIZE);
+       public final PortableObject<InputQueue.Overflow> inputOverflow = new PortableObject<>(Parameters.INPUT_OVERFLOW);
+       public final PortableInteger inputPerCycle = new PortableInteger(Parameters.INPUT_PER_CYCLE);
    }
     public RuntimeParameters param;
 
@@ -176,19 +189,21 @@ public class NAR extends SensoryChannel implements Serializable,Runnable {
 
     protected transient List<PluginState> plugins = new ArrayList<>(); //was CopyOnWriteArrayList
 
-    /** Flag for running continuously  */
-    private boolean running = false;
+    /** Flag for running continuously, read by producers waiting for room in the input queue */
+    private volatile boolean running = false;
     /** used by stop() to signal that a running loop should be interrupted */
     private boolean stopped = false;
     private boolean threadYield;
+    /** how long a producer waits for room under BLOCK before checking whether anything still cycles */
+    private static final long BLOCK_WAIT_MS = 10;
 
     public NAR() {
         Plugins b = new Plugins();
         Memory m = new Memory(new RuntimeParameters(),
-                new LevelBag(Parameters.CONCEPT_BAG_LEVELS, Parameters.CONCEPT_BAG_SIZE),
-                new LevelBag<>(Parameters.NOVEL_TASK_BAG_LEVELS, Parameters.NOVEL_TASK_BAG_SIZE),
-                new LevelBag<>(Parameters.SEQUENCE_BAG_LEVELS, Parameters.SEQUENCE_BAG_SIZE),
-                new LevelBag<>(Parameters.OPERATION_BAG_LEVELS, Parameters.OPERATION_BAG_SIZE));
+                new ArrayBag(Parameters.CONCEPT_BAG_LEVELS, Parameters.CONCEPT_BAG_SIZE),
+                new ArrayBag<>(Parameters.NOVEL_TASK_BAG_LEVELS, Parameters.NOVEL_TASK_BAG_SIZE),
+                new EventBag(Parameters.SEQUENCE_BAG_LEVELS, Parameters.SEQUENCE_BAG_SIZE),
+                new ArrayBag<>(Parameters.OPERATION_BAG_LEVELS, Parameters.OPERATION_BAG_SIZE));
         this.memory = m;
         this.param = m.param;
         for (Operator o : Operators.get(this))
@@ -241,6 +256,9 @@ public class NAR extends SensoryChannel implements Serializable,Runnable {
             param.noiseLevel.set(value);
             return true;
         }
+        if (text.isEmpty() || !Character.isDigit(text.charAt(text.length() - 1))) {
+            return false;
+        }
         try {
             Integer retVal = Integer.parseInt(text);
             if(!running) {
@@ -254,7 +272,6 @@ public class NAR extends SensoryChannel implements Serializable,Runnable {
     }
     
     public void addInput(final String text) {
-        Narsese narsese = new Narsese(this);
         if(addMultiLineInput(text)) {
             return;
         }
@@ -262,7 +279,7 @@ public class NAR extends SensoryChannel implements Serializable,Runnable {
             if(addCommand(text)) {
                 return;
             }
-            Task task = narsese.parseTask(text.trim());
+            Task task = NarseseParser.parseTask(memory, text.trim());
             //check if it should go to a sensory channel instead:
             Term t = ((Task) task).getTerm();
             if(t != null && t instanceof Inheritance) {
@@ -288,7 +305,7 @@ public class NAR extends SensoryChannel implements Serializable,Runnable {
                 }
             }
             //else input into NARS directly:
-            this.memory.inputTask(task);
+            queueInput(task);
         } catch (Exception ex) {
             //Logger.getLogger(NAR.class.getName()).log(Level.SEVERE, null, ex);
         }
@@ -362,10 +379,68 @@ public class NAR extends SensoryChannel implements Serializable,Runnable {
     }
 
     public NAR addInput(final Task t) {
-        this.memory.inputTask(t);
+        queueInput(t);
         return this;
     }
 
+    /**
+     * Hand the first n tasks of a batch over to the reasoner at once, from
+     * any thread, in the order of the array
+     *
+     * @return The number of tasks queued
+     */
+    public int addInput(final Task[] batch, final int n) {
+        final InputQueue input = memory.input;
+        if (input.getOverflow() == InputQueue.Overflow.BLOCK) {
+            if (input.offerAllAtOnce(batch, n)) {
+                return n;
+            }
+            //wait for room task by task, as queueInput does
+            int queued = 0;
+            for (int i = 0; i < n; i++) {
+                if (queueInput(batch[i])) {
+                    queued++;
+                }
+            }
+            return queued;
+        }
+        return input.offerAll(batch, n);
+    }
+
+    /**
+     * Hand a parsed task over to the reasoner, from any thread. It enters
+     * memory at the start of one of the next cycles.
+     */
+    private boolean queueInput(final Task t) {
+        final InputQueue input = memory.input;
+        if (input.getOverflow() != InputQueue.Overflow.BLOCK) {
+            return input.offer(t);
+        }
+        try {
+            while (!input.offer(t, 0, TimeUnit.MILLISECONDS)) {
+                if (memory.isCycleThread()) {
+                    //nobody else would make room, so the cycle drains the queue itself
+                    memory.processInput(input.size());
+                } else if (!running && memory.tryEnterCycles()) {
+                    //nothing cycles, so the producer is the only user of memory
+                    //and hands the queued tasks over to it
+                    try {
+                        memory.processInput(input.size());
+                    } finally {
+                        memory.leaveCycles(null);
+                    }
+                } else if (input.offer(t, BLOCK_WAIT_MS, TimeUnit.MILLISECONDS)) {
+                    break;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            input.reject(t);
+            return false;
+        }
+    }
+
     /** attach event handler */
     public void on(Class c, EventObserver o) {
         memory.event.on(c, o);
@@ -431,34 +506,44 @@ public class NAR extends SensoryChannel implements Serializable,Runnable {
     /** Execute a fixed number of cycles.*/
     public void cycles(final int cycles) {
         memory.allowExecution = true;
-        emit(CyclesStart.class);
-        final boolean wasRunning = running;
-        running = true;
-        stopped = false;
-        for(int i=0;i<cycles;i++) {
-            cycle();
+        final Thread previous = memory.enterCycles();
+        try {
+            emit(CyclesStart.class);
+            final boolean wasRunning = running;
+            running = true;
+            stopped = false;
+            for(int i=0;i<cycles;i++) {
+                cycle();
+            }
+            running = wasRunning;
+            emit(CyclesEnd.class);
+        } finally {
+            memory.leaveCycles(previous);
         }
-        running = wasRunning;
-        emit(CyclesEnd.class);
     }
 
     /** Main loop executed by the Thread.  Should not be called directly. */
     @Override public void run() {
         stopped = false;
 
-        while (running && !stopped) {
-            emit(CyclesStart.class);
-            cycle();
-            emit(CyclesEnd.class);
-
-            if (minCyclePeriodMS > 0) {
-                try {
-                    Thread.sleep(minCyclePeriodMS);
-                } catch (InterruptedException e) { }
-            }
-            else if (threadYield) {
-                Thread.yield();
+        final Thread previous = memory.enterCycles();
+        try {
+            while (running && !stopped) {
+                emit(CyclesStart.class);
+                cycle();
+                emit(CyclesEnd.class);
+
+                if (minCyclePeriodMS > 0) {
+                    try {
+                        Thread.sleep(minCyclePeriodMS);
+                    } catch (InterruptedException e) { }
+                }
+                else if (threadYield) {
+                    Thread.yield();
+                }
             }
+        } finally {
+            memory.leaveCycles(previous);
         }
     }
 
@@ -502,6 +587,15 @@ public class NAR extends SensoryChannel implements Serializable,Runnable {
         return running;
     }
     
+    /**
+     * Marks the NAR as cycled by an outside loop, such as a NARScheduler,
+     * instead of its own thread. While running, input is only queued, and
+     * multi-line or numeric input does not run cycles itself.
+     */
+    public void setRunning(final boolean running) {
+        this.running = running;
+    }
+    
     public long getMinCyclePeriodMS() {
         return minCyclePeriodMS;
     }
@@ -0,0 +1,244 @@
+package nars.main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import nars.io.events.Events.CyclesEnd;
+import nars.io.events.Events.CyclesStart;
+import nars.storage.InputQueue;
+
+/**
+ * Runs the cycles of many NARs on a fixed pool of worker threads, instead of
+ * a thread per NAR.
+ * <p>
+ * Each added NAR becomes a Session, which takes turns on the workers: a turn
+ * runs up to the session's cycles per turn, then the session waits for its
+ * next turn behind the others that are due, so a session with a larger
+ * budget gets a larger share of the workers. A minimum cycle period limits
+ * the rate of a session, as NAR.start does. A session without any new input
+ * for its idle cycles is parked, taking no turns, until it is woken by the
+ * next input.
+ */
+public class NARScheduler {
+
+    /** a NAR run by the scheduler */
+    public class Session implements Runnable {
+        public final NAR nar;
+        private volatile int cyclesPerTurn;
+        private volatile long cyclePeriodNS;
+        private volatile long idleCycles;
+
+        /* whether a turn is queued or running, so a session never runs on two workers */
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean parked = false, closed = false;
+
+        /* only changed by the worker running a turn */
+        private long idle = 0, lastAccepted = -1;
+        private volatile long cycles = 0;
+
+        /* cycles per second, measured over windows of about a second */
+        private long windowStart = System.nanoTime(), windowCycles = 0;
+        private volatile double rate = 0;
+
+        Session(final NAR nar, final int cyclesPerTurn, final long minCyclePeriodMS) {
+            this.nar = nar;
+            setCyclesPerTurn(cyclesPerTurn);
+            setMinCyclePeriodMS(minCyclePeriodMS);
+            this.idleCycles = NARScheduler.this.idleCycles;
+        }
+
+        /** runs a turn, called by the workers */
+        @Override
+        public void run() {
+            if (closed) {
+                return;
+            }
+            final InputQueue input = nar.memory.input;
+            final long start = System.nanoTime();
+            final int turn = cyclesPerTurn;
+            int done = 0;
+            final Thread previous = nar.memory.enterCycles();
+            try {
+                nar.emit(CyclesStart.class);
+                while (done < turn) {
+                    final long accepted = input.getAccepted();
+                    if (accepted != lastAccepted || !input.isEmpty()) {
+                        lastAccepted = accepted;
+                        idle = 0;
+                    } else if (idle >= idleCycles) {
+                        parked = true;
+                        break;
+                    }
+                    nar.cycle();
+                    idle++;
+                    done++;
+                }
+                nar.emit(CyclesEnd.class);
+            } finally {
+                nar.memory.leaveCycles(previous);
+            }
+            cycles += done;
+            measure(done);
+
+            if (parked) {
+                scheduled.set(false);
+                //input offered while parking would not have been seen
+                if (!input.isEmpty()) {
+                    wake();
+                }
+            } else if (!closed) {
+                final long delay = Math.max(0, done * cyclePeriodNS - (System.nanoTime() - start));
+                try {
+                    workers.schedule(this, delay, TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    //the scheduler was shut down during the turn
+                }
+            }
+        }
+
+        private void measure(final int done) {
+            windowCycles += done;
+            final long now = System.nanoTime();
+            final long window = now - windowStart;
+            if (window >= 1000000000L || parked) {
+                rate = windowCycles * 1.0e9 / Math.max(window, 1);
+                windowStart = now;
+                windowCycles = 0;
+            }
+        }
+
+        /** gives the session turns again, if it was parked; call after adding input */
+        public void wake() {
+            if (closed) {
+                return;
+            }
+            parked = false;
+            if (scheduled.compareAndSet(false, true)) {
+                windowStart = System.nanoTime();
+                windowCycles = 0;
+                workers.execute(this);
+            }
+        }
+
+        /** removes the session from the scheduler; a running turn is finished */
+        public void close() {
+            closed = true;
+            parked = true;
+            sessions.remove(this);
+            nar.setRunning(false);
+        }
+
+        public boolean isParked() {
+            return parked;
+        }
+
+        public boolean isClosed() {
+            return closed;
+        }
+
+        /** cycles run so far */
+        public long getCycles() {
+            return cycles;
+        }
+
+        /** cycles per second over the last second of turns, 0 when parked */
+        public double getCycleRate() {
+            return parked ? 0 : rate;
+        }
+
+        public int getCyclesPerTurn() {
+            return cyclesPerTurn;
+        }
+
+        /** the budget of the session: cycles run on a worker before the next session's turn */
+        public void setCyclesPerTurn(final int cyclesPerTurn) {
+            if (cyclesPerTurn < 1) {
+                throw new IllegalArgumentException("cyclesPerTurn must be at least 1");
+            }
+            this.cyclesPerTurn = cyclesPerTurn;
+        }
+
+        public long getMinCyclePeriodMS() {
+            return TimeUnit.NANOSECONDS.toMillis(cyclePeriodNS);
+        }
+
+        /** the minimum time per cycle, 0 to cycle whenever a worker is free */
+        public void setMinCyclePeriodMS(final long ms) {
+            this.cyclePeriodNS = TimeUnit.MILLISECONDS.toNanos(Math.max(ms, 0));
+        }
+
+        public long getIdleCycles() {
+            return idleCycles;
+        }
+
+        /** the cycles without new input after which the session is parked */
+        public void setIdleCycles(final long idleCycles) {
+            this.idleCycles = idleCycles;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %d cycles, %.1f cycles/s%s", nar.memory, cycles, getCycleRate(), parked ? ", parked" : "");
+        }
+    }
+
+    private final ScheduledThreadPoolExecutor workers;
+    private final List<Session> sessions = new CopyOnWriteArrayList<>();
+
+    /** cycles without new input after which new sessions are parked */
+    public volatile long idleCycles = 1000;
+
+    /**
+     * @param threads The number of worker threads, shared by all sessions
+     */
+    public NARScheduler(final int threads) {
+        workers = new ScheduledThreadPoolExecutor(threads, new ThreadFactory() {
+            int n = 0;
+            @Override public synchronized Thread newThread(final Runnable r) {
+                Thread t = new Thread(r, "NAR scheduler " + (n++));
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
+    /** a scheduler with a worker per processor */
+    public NARScheduler() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Starts running a NAR, which must not be started otherwise
+     *
+     * @param cyclesPerTurn The cycles run on a worker before another session's turn
+     * @param minCyclePeriodMS The minimum time per cycle, 0 for none
+     */
+    public Session add(final NAR nar, final int cyclesPerTurn, final long minCyclePeriodMS) {
+        final Session s = new Session(nar, cyclesPerTurn, minCyclePeriodMS);
+        nar.setRunning(true);
+        sessions.add(s);
+        s.wake();
+        return s;
+    }
+
+    public List<Session> getSessions() {
+        return new ArrayList<>(sessions);
+    }
+
+    public int getThreads() {
+        return workers.getCorePoolSize();
+    }
+
+    /** closes all sessions and stops the workers */
+    public void shutdown() {
+        for (final Session s : sessions) {
+            s.close();
+        }
+        workers.shutdown();
+    }
+}
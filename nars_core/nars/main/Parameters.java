@@ -21,6 +21,7 @@
 package nars.main;
 
 import nars.main.NAR.PortableDouble;
+import nars.storage.InputQueue;
 
 
 /**
@@ -122,6 +123,10 @@ public class Parameters {
     /** (see its use in budgetfunctions iterative forgetting) */
     public static float FORGET_QUALITY_RELATIVE = 0.1f;
     
+    /** default forgetting mode of a memory's bags (RuntimeParameters.lazyForgetting): false applies forgetting
+     *  on every putBack, true decays items by the cycles passed since they were last put back (see Bag.putBack) */
+    public static final boolean LAZY_FORGETTING = false;
+    
     public static int REVISION_MAX_OCCURRENCE_DISTANCE = 10;
 
     /** Size of ConceptBag and level amount */
@@ -229,7 +234,20 @@ public class Parameters {
     /** equivalency based on Term contents; experimental mode - not ready yet, leave FALSE */
     public static boolean TERM_ELEMENT_EQUIVALENCY = false;
     
-    //temporary parameter for setting #threads to use, globally
+    /** default number of concepts fired concurrently per cycle (RuntimeParameters.threads), each on its own thread;
+     *  1 keeps the sequential reasoner */
+    public static final int THREADS = 1;
+    
+    /** default number of parsed input tasks that can wait for the reasoner before the overflow policy applies
+     *  (RuntimeParameters.inputQueueSize) */
+    public static final int INPUT_QUEUE_SIZE = 10000;
+    
+    /** default of what addInput does while the input queue is full (RuntimeParameters.inputOverflow) */
+    public static final InputQueue.Overflow INPUT_OVERFLOW = InputQueue.Overflow.BLOCK;
+    
+    /** default maximum number of queued input tasks taken into memory per cycle (RuntimeParameters.inputPerCycle) */
+    public static final int INPUT_PER_CYCLE = 1000;
+    
     public static boolean IMMEDIATE_ETERNALIZATION=true;
     
     
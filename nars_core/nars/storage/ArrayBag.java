@@ -0,0 +1,490 @@
+/*
+ * ArrayBag.java
+ *
+ * Copyright (C) 2008  Pei Wang
+ *
+ * This file is part of Open-NARS.
+ *
+ * Open-NARS is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * Open-NARS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Open-NARS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package nars.storage;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import nars.main.Parameters;
+import nars.entity.Item;
+
+/**
+ * Level bag with the same selection policy as LevelBag, but stored in
+ * preallocated primitive arrays so that take, putIn and takeNext do not
+ * allocate.
+ * <p>
+ * Every item occupies a fixed slot; the slots of one level are chained
+ * into a FIFO by the next/prev arrays, and the key index is an open
+ * addressing table of slot numbers (linear probing, backward-shift delete).
+ */
+public class ArrayBag<E extends Item<K>,K> extends Bag<E,K> implements Serializable {
+
+    /**
+     * priority levels
+     */
+    public final int levels;
+    /**
+     * firing threshold
+     */
+    public final int fireCompleteLevelThreshold;
+
+    /**
+     * shared DISTRIBUTOR that produce the probability distribution
+     */
+    final short[] DISTRIBUTOR;
+    final int distributorLength;
+
+    /**
+     * defined in different bags
+     */
+    final int capacity;
+
+    /** item stored in each slot, null if the slot is free */
+    final Object[] items;
+    /** level each slot was inserted into */
+    final int[] slotLevel;
+    /** priority each slot was inserted with, for exact mass bookkeeping */
+    final float[] slotPriority;
+    /** hash of the key of each slot */
+    final int[] slotHash;
+    /** intrusive per-level FIFO links, -1 terminated */
+    final int[] next, prev;
+
+    /** first and last slot of each level, -1 if the level is empty */
+    final int[] levelHead, levelTail;
+    final int[] levelSize;
+    /** one bit per non-empty level */
+    final long[] levelOccupied;
+
+    /** stack of free slots */
+    final int[] free;
+    int freeCount;
+
+    /** key index: slot+1 of the item whose key hashes there, 0 if empty */
+    final int[] index;
+    final int indexMask;
+
+    int size;
+    /**
+     * current sum of occupied level
+     */
+    private float mass;
+    /**
+     * index to get next level, kept in individual objects
+     */
+    int levelIndex;
+    /**
+     * current take out level
+     */
+    int currentLevel;
+    /**
+     * maximum number of items to be taken out at current level
+     */
+    int currentCounter;
+
+    public ArrayBag(int levels, int capacity) {
+        this(levels, capacity, (int) (Parameters.BAG_THRESHOLD * levels));
+    }
+
+    /** thresholdLevel = 0 disables "fire level completely" threshold effect */
+    public ArrayBag(int levels, int capacity, int thresholdLevel) {
+        this.levels = levels;
+        this.fireCompleteLevelThreshold = thresholdLevel;
+        this.capacity = capacity;
+
+        items = new Object[capacity];
+        slotLevel = new int[capacity];
+        slotPriority = new float[capacity];
+        slotHash = new int[capacity];
+        next = new int[capacity];
+        prev = new int[capacity];
+        free = new int[capacity];
+
+        levelHead = new int[levels];
+        levelTail = new int[levels];
+        levelSize = new int[levels];
+        levelOccupied = new long[(levels + 63) >> 6];
+
+        int indexSize = 2;
+        while (indexSize < capacity * 2) {
+            indexSize <<= 1;
+        }
+        index = new int[indexSize];
+        indexMask = indexSize - 1;
+
+        DISTRIBUTOR = Distributor.get(this.levels).order;
+        distributorLength = DISTRIBUTOR.length;
+        clear();
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(items, null);
+        Arrays.fill(index, 0);
+        Arrays.fill(levelHead, -1);
+        Arrays.fill(levelTail, -1);
+        Arrays.fill(levelSize, 0);
+        Arrays.fill(levelOccupied, 0);
+        for (int i = 0; i < capacity; i++) {
+            free[i] = capacity - 1 - i;
+        }
+        freeCount = capacity;
+        size = 0;
+        currentLevel = levels - 1;
+        levelIndex = capacity % levels; // so that different bags start at different point
+        mass = 0;
+        currentCounter = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public float getMass() {
+        return mass;
+    }
+
+    /**
+     * Get the average priority of Items
+     *
+     * @return The average priority of Items in the bag
+     */
+    @Override
+    public float getAveragePriority() {
+        if (size == 0) {
+            return 0.01f;
+        }
+        float f = mass / size;
+        if (f > 1) {
+            return 1.0f;
+        }
+        return f;
+    }
+
+    /* ---------- key index ---------- */
+
+    private static int spread(final int h) {
+        return h ^ (h >>> 16);
+    }
+
+    /** position in the index holding the key, or -1 */
+    private int indexOf(final K key, final int hash) {
+        int i = spread(hash) & indexMask;
+        int s;
+        while ((s = index[i]) != 0) {
+            s--;
+            if ((slotHash[s] == hash) && key.equals(((E) items[s]).name())) {
+                return i;
+            }
+            i = (i + 1) & indexMask;
+        }
+        return -1;
+    }
+
+    private void indexAdd(final int slot, final int hash) {
+        int i = spread(hash) & indexMask;
+        while (index[i] != 0) {
+            i = (i + 1) & indexMask;
+        }
+        index[i] = slot + 1;
+    }
+
+    /** removes the entry at position i, shifting back the entries of its probe run */
+    private void indexRemove(int i) {
+        index[i] = 0;
+        int j = i;
+        while (true) {
+            j = (j + 1) & indexMask;
+            final int s = index[j];
+            if (s == 0) {
+                return;
+            }
+            final int home = spread(slotHash[s - 1]) & indexMask;
+            //move the entry back if its home position is not cyclically within (i, j]
+            if (((j - home) & indexMask) >= ((j - i) & indexMask)) {
+                index[i] = s;
+                index[j] = 0;
+                i = j;
+            }
+        }
+    }
+
+    /* ---------- level lists ---------- */
+
+    private boolean levelEmpty(final int l) {
+        return levelSize[l] == 0;
+    }
+
+    private int lowestOccupiedLevel() {
+        for (int w = 0; w < levelOccupied.length; w++) {
+            final long bits = levelOccupied[w];
+            if (bits != 0) {
+                return (w << 6) + Long.numberOfTrailingZeros(bits);
+            }
+        }
+        return -1;
+    }
+
+    private void link(final int slot, final int l) {
+        final int tail = levelTail[l];
+        prev[slot] = tail;
+        next[slot] = -1;
+        if (tail == -1) {
+            levelHead[l] = slot;
+            levelOccupied[l >> 6] |= (1L << l);
+        } else {
+            next[tail] = slot;
+        }
+        levelTail[l] = slot;
+        levelSize[l]++;
+    }
+
+    private void unlink(final int slot) {
+        final int l = slotLevel[slot];
+        final int p = prev[slot], n = next[slot];
+        if (p == -1) {
+            levelHead[l] = n;
+        } else {
+            next[p] = n;
+        }
+        if (n == -1) {
+            levelTail[l] = p;
+        } else {
+            prev[n] = p;
+        }
+        if (--levelSize[l] == 0) {
+            levelOccupied[l >> 6] &= ~(1L << l);
+        }
+    }
+
+    /** detaches the item in a slot from the level lists and the key index */
+    private E release(final int slot, final int indexPos) {
+        final E item = (E) items[slot];
+        unlink(slot);
+        indexRemove(indexPos);
+        items[slot] = null;
+        free[freeCount++] = slot;
+        mass -= slotPriority[slot];
+        size--;
+        return item;
+    }
+
+    private E releaseFirst(final int l) {
+        final int slot = levelHead[l];
+        if (slot == -1) {
+            throw new RuntimeException("Attempt to remove item from empty level: " + l);
+        }
+        final E item = (E) items[slot];
+        return release(slot, indexOf(item.name(), slotHash[slot]));
+    }
+
+    /**
+     * Decide the put-in level according to priority
+     *
+     * @param item The Item to put in
+     * @return The put-in level
+     */
+    private int getLevel(final E item) {
+        final float fl = item.getPriority() * levels;
+        final int level = (int) Math.ceil(fl) - 1;
+        if (level < 0) return 0;
+        if (level >= levels) return levels-1;
+        return level;
+    }
+
+    /* ---------- Bag operations ---------- */
+
+    @Override
+    public E get(final K key) {
+        final int i = indexOf(key, key.hashCode());
+        if (i == -1) {
+            return null;
+        }
+        return (E) items[index[i] - 1];
+    }
+
+    @Override
+    public E take(final K key) {
+        final int i = indexOf(key, key.hashCode());
+        if (i == -1) {
+            return null;
+        }
+        return release(index[i] - 1, i);
+    }
+
+    /**
+     * Insert an item into the itemTable, and return the overflow
+     *
+     * @param newItem The Item to put in
+     * @return null if nothing overflowed, non-null if an overflow Item, which
+     * may be the attempted input item (in which case it was not inserted)
+     */
+    @Override
+    protected E addItem(final E newItem) {
+        if (newItem == null) {
+            throw new RuntimeException("Bag requires non-null items");
+        }
+        E oldItem = null;
+        final int inLevel = getLevel(newItem);
+        if (size >= capacity) {
+            final int outLevel = lowestOccupiedLevel();
+            if (outLevel > inLevel) {           // ignore the item and exit
+                return newItem;
+            } else {                            // remove an old item in the lowest non-empty level
+                oldItem = releaseFirst(outLevel);
+            }
+        }
+        final int slot = free[--freeCount];
+        final int hash = newItem.name().hashCode();
+        final float priority = newItem.getPriority();
+        items[slot] = newItem;
+        slotLevel[slot] = inLevel;
+        slotPriority[slot] = priority;
+        slotHash[slot] = hash;
+        link(slot, inLevel);                // FIFO
+        indexAdd(slot, hash);
+        mass += priority;
+        size++;
+        return oldItem;
+    }
+
+    /** look for a non-empty level */
+    protected void nextNonEmptyLevel() {
+        int cl;
+        do {
+        } while (levelEmpty(cl = DISTRIBUTOR[(levelIndex++) % distributorLength]));
+        currentLevel = cl;
+        if (currentLevel < fireCompleteLevelThreshold) { // for dormant levels, take one item
+            currentCounter = 1;
+        } else {                  // for active levels, take all current items
+            currentCounter = levelSize[currentLevel];
+        }
+    }
+
+    @Override
+    public E takeNext() {
+        if (size == 0) {
+            return null; // empty bag
+        }
+        if (levelEmpty(currentLevel) || (currentCounter == 0)) { // done with the current level
+            nextNonEmptyLevel();
+        }
+        final E selected = releaseFirst(currentLevel); // take out the first item in the level
+        currentCounter--;
+        return selected;
+    }
+
+    @Override
+    public E peekNext() {
+        if (size == 0)
+            return null; // empty bag
+        E e = takeNext();
+        putIn(e);
+        return e;
+    }
+
+    public int getLevelSize(final int level) {
+        return levelSize[level];
+    }
+
+    public int numEmptyLevels() {
+        int empty = 0;
+        for (int i = 0; i < levels; i++) {
+            if (levelEmpty(i)) {
+                empty++;
+            }
+        }
+        return empty;
+    }
+
+    /* ---------- views ---------- */
+
+    @Override
+    public Set<K> keySet() {
+        return new AbstractSet<K>() {
+            @Override public int size() { return size; }
+
+            @Override public boolean contains(final Object o) {
+                return get((K) o) != null;
+            }
+
+            @Override public Iterator<K> iterator() {
+                final Iterator<E> i = ArrayBag.this.iterator();
+                return new Iterator<K>() {
+                    @Override public boolean hasNext() { return i.hasNext(); }
+                    @Override public K next() { return i.next().name(); }
+                    @Override public void remove() { throw new UnsupportedOperationException(); }
+                };
+            }
+        };
+    }
+
+    @Override
+    public Iterable<E> values() {
+        return this;
+    }
+
+    /** iterates from the highest level down, each level in FIFO order */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            int l = levels - 1;
+            int s = advance(-1);
+
+            private int advance(int slot) {
+                if (slot != -1) {
+                    slot = next[slot];
+                }
+                while (slot == -1 && l >= 0) {
+                    slot = levelHead[l--];
+                }
+                return slot;
+            }
+
+            @Override public boolean hasNext() {
+                return s != -1;
+            }
+
+            @Override public E next() {
+                if (s == -1) {
+                    throw new NoSuchElementException();
+                }
+                final E e = (E) items[s];
+                s = advance(s);
+                return e;
+            }
+
+            @Override public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
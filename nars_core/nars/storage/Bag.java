@@ -137,13 +137,34 @@ public abstract class Bag<E extends Item<K>,K> implements Iterable<E> {
      * Put an item back into the itemTable
      * <p>
      * The only place where the forgetting rate is applied
+     * <p>
+     * With the memory's lazyForgetting parameter set, an item is decayed by
+     * the number of cycles passed since it was last put back (Memory.time()),
+     * instead of once per putBack, so an item put back several times in one
+     * cycle is forgotten only once. Decay is still only applied here: an item
+     * which is not selected keeps the priority it was put back with, and is
+     * selected by it, until it is put back again. The gap is then decayed in
+     * one step of BudgetFunctions.applyForgetting, which is cheaper but decays
+     * less than one step per cycle would. An item selected in every cycle
+     * costs the same as with eager forgetting.
      *
      * @param oldItem The Item to put back
+     * @param m The memory whose time and parameters apply, or null for eager forgetting
      * @return the item which was removed, or null if none removed
      */    
     public E putBack(final E oldItem, final float forgetCycles, final Memory m) {
         float relativeThreshold = Parameters.FORGET_QUALITY_RELATIVE;
-        BudgetFunctions.applyForgetting(oldItem.budget, getForgetCycles(forgetCycles, oldItem), relativeThreshold);
+        if (m != null && m.param.lazyForgetting.get()) {
+            final long now = m.time();
+            final long elapsed = oldItem.lastForgetTime < 0 ? 1 : now - oldItem.lastForgetTime;
+            if (elapsed > 0) {
+                BudgetFunctions.applyForgetting(oldItem.budget, getForgetCycles(forgetCycles, oldItem), relativeThreshold, elapsed);
+                oldItem.lastForgetTime = now;
+            }
+        }
+        else {
+            BudgetFunctions.applyForgetting(oldItem.budget, getForgetCycles(forgetCycles, oldItem), relativeThreshold);
+        }
         return putIn(oldItem);
     }
     
@@ -0,0 +1,154 @@
+package nars.storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import nars.entity.Task;
+import static nars.inference.BudgetFunctions.rankBelief;
+
+/**
+ * A table of beliefs or desires of a concept (Concept.beliefs, desires,
+ * executable_preconditions), in the order of their rank, highest first.
+ * <p>
+ * The rank of each entry is cached beside it, so an insertion finds its
+ * place by binary search without ranking the table again, and the best
+ * eternal and event entries are found without scanning it again until the
+ * table changes. Concept.addToTable keeps the order; a task added otherwise,
+ * as when a memory snapshot is restored, must not break it, and a change of
+ * the truth of an entry in place must be followed by truthChanged.
+ */
+public class BeliefTable extends ArrayList<Task> {
+
+    /** whether the entries are ranked by truth expectation instead of confidence */
+    public final boolean rankTruthExpectation;
+
+    /* ranks[i] is the rank of ranked[i], valid while ranked[i] is the i-th entry;
+       add and remove at an index shift them along, other changes are detected */
+    private float[] ranks = new float[8];
+    private Task[] ranked = new Task[8];
+
+    /* the first eternal and event entries, valid while the table is unchanged */
+    private int splitModCount = -1, firstEternal, firstEvent;
+
+    public BeliefTable(final boolean rankTruthExpectation) {
+        this.rankTruthExpectation = rankTruthExpectation;
+    }
+
+    /** the rank of the i-th entry, see BudgetFunctions.rankBelief */
+    public float rank(final int i) {
+        final Task t = get(i);
+        ensureRankCapacity(i + 1);
+        if (ranked[i] != t) {
+            ranks[i] = rankBelief(t.sentence, rankTruthExpectation);
+            ranked[i] = t;
+        }
+        return ranks[i];
+    }
+
+    /** the index of the first entry ranked at or below the given rank, size() if none */
+    public int indexOfRank(final float rank) {
+        int low = 0, high = size();
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (rank(mid) > rank) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** the k entries of highest rank, or all if fewer; a view of the table */
+    public List<Task> top(final int k) {
+        return subList(0, Math.min(k, size()));
+    }
+
+    /** the eternal entry of highest rank, null if none */
+    public Task firstEternal() {
+        split();
+        return firstEternal < size() ? get(firstEternal) : null;
+    }
+
+    /** the event entry of highest rank, null if none */
+    public Task firstEvent() {
+        split();
+        return firstEvent < size() ? get(firstEvent) : null;
+    }
+
+    private void split() {
+        if (splitModCount == modCount) {
+            return;
+        }
+        final int n = size();
+        firstEternal = firstEvent = n;
+        for (int i = 0; i < n && (firstEternal == n || firstEvent == n); i++) {
+            if (get(i).sentence.isEternal()) {
+                if (firstEternal == n) {
+                    firstEternal = i;
+                }
+            } else if (firstEvent == n) {
+                firstEvent = i;
+            }
+        }
+        splitModCount = modCount;
+    }
+
+    /**
+     * To be called when the truth of entries was changed in place, as by
+     * Concept.discountConfidence: the cached ranks are forgotten and the
+     * entries put back in the order of their new ranks, those of equal rank
+     * keeping their order
+     */
+    public void truthChanged() {
+        Arrays.fill(ranked, null);
+        sort(new Comparator<Task>() {
+            @Override public int compare(final Task a, final Task b) {
+                return Float.compare(rankBelief(b.sentence, rankTruthExpectation), rankBelief(a.sentence, rankTruthExpectation));
+            }
+        });
+        Arrays.fill(ranked, null);
+    }
+
+    private void ensureRankCapacity(final int n) {
+        if (ranks.length < n) {
+            final int capacity = Math.max(n, ranks.length * 2);
+            ranks = Arrays.copyOf(ranks, capacity);
+            ranked = Arrays.copyOf(ranked, capacity);
+        }
+    }
+
+    @Override
+    public void add(final int index, final Task t) {
+        super.add(index, t);
+        final int n = size();
+        ensureRankCapacity(n);
+        System.arraycopy(ranks, index, ranks, index + 1, n - 1 - index);
+        System.arraycopy(ranked, index, ranked, index + 1, n - 1 - index);
+        ranked[index] = null;
+    }
+
+    @Override
+    public Task remove(final int index) {
+        final Task t = super.remove(index);
+        final int n = size();
+        ensureRankCapacity(n + 1);
+        System.arraycopy(ranks, index + 1, ranks, index, n - index);
+        System.arraycopy(ranked, index + 1, ranked, index, n - index);
+        ranked[n] = null;
+        return t;
+    }
+
+    @Override
+    public Task set(final int index, final Task t) {
+        splitModCount = -1;
+        return super.set(index, t);
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        Arrays.fill(ranked, null);
+    }
+}
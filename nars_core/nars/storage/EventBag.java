@@ -0,0 +1,151 @@
+package nars.storage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import nars.entity.Sentence;
+import nars.entity.Task;
+import nars.language.Term;
+
+/**
+ * The bag of recent events (Memory.seq_current), which also indexes its
+ * events by the interval-free key of their term and by occurrence time, so
+ * that deduplication on insertion and the search for the newest occurrence
+ * of a term do not scan the bag, and the events before a time are found in
+ * O(log n).
+ * <p>
+ * As in TaskLinkBag, the index follows every change of the bag's contents:
+ * take, takeNext, addItem (including the item it displaces) and clear. The
+ * occurrence time of an event must not change while it is in the bag.
+ */
+public class EventBag extends ArrayBag<Task<Term>,Sentence<Term>> {
+
+    /** events in the bag by the concept key of their term */
+    private final Map<Term,List<Task<Term>>> byKey = new HashMap<>();
+
+    /** events in the bag by occurrence time, eternal ones excluded */
+    private final NavigableMap<Long,List<Task<Term>>> byTime = new TreeMap<>();
+
+    public EventBag(int levels, int capacity) {
+        super(levels, capacity);
+    }
+
+    /**
+     * The events whose term has the given concept key
+     * @param key The interval-free term, see Term.getConceptKey
+     * @return the events, empty if none; not to be modified
+     */
+    public List<Task<Term>> getSameKey(final Term key) {
+        final List<Task<Term>> l = byKey.get(key);
+        return l != null ? l : Collections.<Task<Term>>emptyList();
+    }
+
+    /**
+     * The newest judgment of the given term occurring at or before a time,
+     * the first one added among those occurring at the same time
+     * @return the event, null if none
+     */
+    public Task<Term> getNewest(final Term term, final long time) {
+        Task<Term> newest = null;
+        for (final Task<Term> t : getSameKey(term.getConceptKey())) {
+            final Sentence s = t.sentence;
+            if (s.term.equals(term) && s.isJudgment() && !s.isEternal() && s.getOccurenceTime() <= time
+                    && (newest == null || s.getOccurenceTime() > newest.sentence.getOccurenceTime())) {
+                newest = t;
+            }
+        }
+        return newest;
+    }
+
+    /**
+     * The events occurring before a time, oldest first
+     * @param time The time, excluded
+     */
+    public List<Task<Term>> getBefore(final long time) {
+        final List<Task<Term>> before = new ArrayList<>();
+        for (final List<Task<Term>> l : byTime.headMap(time, false).values()) {
+            before.addAll(l);
+        }
+        return before;
+    }
+
+    private static <K> void add(final Map<K,List<Task<Term>>> index, final K key, final Task<Term> t) {
+        List<Task<Term>> l = index.get(key);
+        if (l == null) {
+            index.put(key, l = new ArrayList<>(2));
+        }
+        l.add(t);
+    }
+
+    private static <K> void remove(final Map<K,List<Task<Term>>> index, final K key, final Task<Term> t) {
+        final List<Task<Term>> l = index.get(key);
+        if (l != null) {
+            for (int i = 0; i < l.size(); i++) {
+                if (l.get(i) == t) {
+                    l.remove(i);
+                    break;
+                }
+            }
+            if (l.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private void indexAdd(final Task<Term> t) {
+        add(byKey, t.getTerm().getConceptKey(), t);
+        if (!t.sentence.isEternal()) {
+            add(byTime, t.sentence.getOccurenceTime(), t);
+        }
+    }
+
+    private void indexRemove(final Task<Term> t) {
+        remove(byKey, t.getTerm().getConceptKey(), t);
+        if (!t.sentence.isEternal()) {
+            remove(byTime, t.sentence.getOccurenceTime(), t);
+        }
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        if (byKey != null) { //called from the super constructor, before the fields are set
+            byKey.clear();
+            byTime.clear();
+        }
+    }
+
+    @Override
+    public Task<Term> take(final Sentence<Term> key) {
+        final Task<Term> t = super.take(key);
+        if (t != null) {
+            indexRemove(t);
+        }
+        return t;
+    }
+
+    @Override
+    public Task<Term> takeNext() {
+        final Task<Term> t = super.takeNext();
+        if (t != null) {
+            indexRemove(t);
+        }
+        return t;
+    }
+
+    @Override
+    protected Task<Term> addItem(final Task<Term> newItem) {
+        final Task<Term> overflow = super.addItem(newItem);
+        if (overflow != newItem) {
+            indexAdd(newItem);
+            if (overflow != null) {
+                indexRemove(overflow);
+            }
+        }
+        return overflow;
+    }
+}
@@ -0,0 +1,292 @@
+package nars.storage;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import nars.entity.Task;
+import nars.main.NAR.RuntimeParameters;
+
+/**
+ * Bounded queue of parsed input tasks, filled by any number of threads
+ * (shell, network, GUI) and drained by the thread running the memory cycle.
+ * <p>
+ * The tasks are kept in a lock-free queue; the bound is a semaphore holding
+ * one permit per free slot, so producers only block (or drop, or reject,
+ * depending on the Overflow policy) when the queue is full. A memory's queue
+ * follows the inputQueueSize and inputOverflow of its RuntimeParameters,
+ * checked whenever a task is offered; a smaller size takes effect as the
+ * queued tasks are drained.
+ */
+public class InputQueue implements Serializable {
+
+    /** what happens to a task offered while the queue is full */
+    public enum Overflow {
+        /** wait until the consumer made room */
+        BLOCK,
+        /** discard the lowest priority task, queued or offered */
+        DROP_LOWEST,
+        /** refuse the offered task */
+        REJECT
+    }
+
+    /** a semaphore whose permits can be taken away, for shrinking the queue */
+    private static class Slots extends Semaphore {
+        Slots(final int permits) {
+            super(permits);
+        }
+
+        @Override
+        public void reducePermits(final int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+
+    private final Queue<Task> tasks = new ConcurrentLinkedQueue<>();
+    private final Slots free;
+    private volatile int capacity;
+    private volatile Overflow overflow;
+    /* the parameters the capacity and policy follow, null if fixed */
+    private final RuntimeParameters param;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public InputQueue(final int capacity, final Overflow overflow) {
+        this(capacity, overflow, null);
+    }
+
+    /** a queue following the inputQueueSize and inputOverflow parameters of a memory */
+    public InputQueue(final RuntimeParameters param) {
+        this(param.inputQueueSize.get(), param.inputOverflow.get(), param);
+    }
+
+    private InputQueue(final int capacity, final Overflow overflow, final RuntimeParameters param) {
+        this.capacity = capacity;
+        this.free = new Slots(capacity);
+        this.overflow = overflow;
+        this.param = param;
+    }
+
+    /** apply changed parameters */
+    private void update() {
+        if (param == null) {
+            return;
+        }
+        overflow = param.inputOverflow.get();
+        if (param.inputQueueSize.get() != capacity) {
+            resize();
+        }
+    }
+
+    private synchronized void resize() {
+        final int c = param.inputQueueSize.get();
+        if (c > capacity) {
+            free.release(c - capacity);
+        } else if (c < capacity) {
+            free.reducePermits(capacity - c);
+        }
+        capacity = c;
+    }
+
+    /**
+     * Add a task, applying the overflow policy if the queue is full
+     *
+     * @param task The task to add
+     * @return Whether the task was queued
+     */
+    public boolean offer(final Task task) {
+        update();
+        if (!free.tryAcquire()) {
+            switch (overflow) {
+                case BLOCK:
+                    try {
+                        free.acquire();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        rejected.incrementAndGet();
+                        return false;
+                    }
+                    break;
+                case DROP_LOWEST:
+                    dropped.incrementAndGet();
+                    if (!replaceLowest(task)) {
+                        return false;
+                    }
+                    accepted.incrementAndGet();
+                    return true;
+                default:
+                    rejected.incrementAndGet();
+                    return false;
+            }
+        }
+        tasks.add(task);
+        accepted.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Add a task, waiting at most the given time for room under BLOCK; the
+     * other policies apply at once, as in offer
+     *
+     * @return Whether the task was queued; false on a timeout, which is not
+     * counted, so that the caller can try again or reject the task
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public boolean offer(final Task task, final long timeout, final TimeUnit unit) throws InterruptedException {
+        update();
+        if (overflow != Overflow.BLOCK) {
+            return offer(task);
+        }
+        if (!free.tryAcquire(timeout, unit)) {
+            return false;
+        }
+        tasks.add(task);
+        accepted.incrementAndGet();
+        return true;
+    }
+
+    /** count a task given up by its producer after a timed offer */
+    public void reject(final Task task) {
+        rejected.incrementAndGet();
+    }
+
+    /**
+     * Add the first n tasks of an array if the queue has room for all of
+     * them, taking their slots at once
+     *
+     * @return Whether the tasks were queued; if not, none was
+     */
+    public boolean offerAllAtOnce(final Task[] batch, final int n) {
+        update();
+        if (!free.tryAcquire(n)) {
+            return false;
+        }
+        for (int i = 0; i < n; i++) {
+            tasks.add(batch[i]);
+        }
+        accepted.addAndGet(n);
+        return true;
+    }
+
+    /**
+     * Add the first n tasks of an array, taking their slots at once when the
+     * queue has room for all of them, else one by one with the overflow policy
+     *
+     * @return The number of tasks queued
+     */
+    public int offerAll(final Task[] batch, final int n) {
+        if (offerAllAtOnce(batch, n)) {
+            return n;
+        }
+        int queued = 0;
+        for (int i = 0; i < n; i++) {
+            if (offer(batch[i])) {
+                queued++;
+            }
+        }
+        return queued;
+    }
+
+    /** takes the slot of the lowest priority queued task if the given one is above it */
+    private boolean replaceLowest(final Task task) {
+        while (true) {
+            Task lowest = null;
+            for (final Task t : tasks) {
+                if (lowest == null || t.getPriority() < lowest.getPriority()) {
+                    lowest = t;
+                }
+            }
+            if (lowest == null) {
+                //drained in the meantime
+                if (free.tryAcquire()) {
+                    dropped.decrementAndGet();
+                    tasks.add(task);
+                    return true;
+                }
+                continue;
+            }
+            if (lowest.getPriority() >= task.getPriority()) {
+                return false;
+            }
+            if (tasks.remove(lowest)) {
+                tasks.add(task);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Take the oldest task out of the queue; only called by the consumer
+     *
+     * @return The task, or null if the queue is empty
+     */
+    public Task poll() {
+        final Task t = tasks.poll();
+        if (t != null) {
+            free.release();
+        }
+        return t;
+    }
+
+    /** discard all queued tasks */
+    public void clear() {
+        while (poll() != null) { }
+    }
+
+    /** a copy of the queued tasks, oldest first */
+    public List<Task> toList() {
+        return new ArrayList<>(tasks);
+    }
+
+    /** number of queued tasks */
+    public int size() {
+        return capacity - free.availablePermits();
+    }
+
+    public boolean isEmpty() {
+        return tasks.isEmpty();
+    }
+
+    public boolean isFull() {
+        return free.availablePermits() <= 0;
+    }
+
+    public int getCapacity() {
+        update();
+        return capacity;
+    }
+
+    public Overflow getOverflow() {
+        update();
+        return overflow;
+    }
+
+    /** set the policy; for a memory's queue, the memory's inputOverflow parameter */
+    public void setOverflow(final Overflow overflow) {
+        if (param != null) {
+            param.inputOverflow.set(overflow);
+        }
+        this.overflow = overflow;
+    }
+
+    /** number of tasks queued so far */
+    public long getAccepted() {
+        return accepted.get();
+    }
+
+    /** number of tasks discarded by DROP_LOWEST, queued ones or offered ones */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /** number of offered tasks refused by REJECT, or given up under BLOCK */
+    public long getRejected() {
+        return rejected.get();
+    }
+}
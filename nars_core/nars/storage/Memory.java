@@ -23,6 +23,7 @@ package nars.storage;
 import nars.control.ConceptProcessing;
 import nars.io.events.Events;
 import nars.io.events.EventEmitter;
+import nars.io.events.EventEmitter.Channel;
 import java.io.Serializable;
 import java.util.ArrayDeque;
 import java.util.Arrays;
@@ -39,6 +40,7 @@ import nars.io.events.Events.ResetStart;
 import nars.io.events.Events.TaskRemove;
 import nars.control.DerivationContext;
 import nars.control.GeneralInferenceControl;
+import nars.control.ParallelInferenceControl;
 import nars.control.TemporalInferenceControl;
 import nars.plugin.mental.Emotions;
 import nars.entity.BudgetValue;
@@ -49,6 +51,7 @@ import nars.entity.Stamp;
 import nars.entity.Task;
 import nars.entity.TruthValue;
 import nars.inference.BudgetFunctions;
+import nars.inference.RuleProfiler;
 import static nars.inference.BudgetFunctions.truthToQuality;
 import nars.io.events.OutputHandler.IN;
 import nars.io.events.OutputHandler.OUT;
@@ -57,7 +60,6 @@ import nars.language.Tense;
 import nars.language.Term;
 import nars.operator.Operation;
 import nars.operator.Operator;
-import nars.language.CompoundTerm;
 import nars.language.Interval;
 import nars.main.NAR.PortableDouble;
 
@@ -83,16 +85,35 @@ public class Memory implements Serializable, Iterable<Concept> {
     public Task lastDecision = null;
     public boolean allowExecution = true;
 
-    public static long randomSeed = 1;
-    public static Random randomNumber = new Random(randomSeed);
-    public static void resetStatic() {
-        randomNumber.setSeed(randomSeed);    
+    /* Random source of this memory, reseeded on reset so that a run can be repeated */
+    private long randomSeed = 1;
+    public final Random randomNumber = new Random(randomSeed);
+    
+    public long getRandomSeed() {
+        return randomSeed;
+    }
+    
+    /** sets the seed used on reset, and reseeds the random source with it */
+    public void setRandomSeed(final long seed) {
+        randomSeed = seed;
+        randomNumber.setSeed(seed);
     }
     
     //todo make sense of this class and de-obfuscate
     public final Bag<Concept,Term> concepts;
     public transient EventEmitter event;
     
+    /* Counters, histograms and cycle profile of this memory */
+    public final transient Metrics logic = new Metrics();
+    
+    /* Time and yield of each inference rule, when enabled */
+    public final transient RuleProfiler profiler = new RuleProfiler();
+    
+    /* Channels of the events emitted many times per cycle, resolved once */
+    public final transient Channel onTaskAdd, onTaskDerive, onConceptFire, onTermLinkSelect,
+            onBeliefReason, onBeliefSelect, onTaskLinkAdd, onTaskLinkRemove, onTermLinkAdd,
+            onTermLinkRemove, onInduceSucceedingEvent, onTaskImmediateProcess, onCycleStart, onCycleEnd;
+    
     /* InnateOperator registry. Containing all registered operators of the system */
     public final HashMap<CharSequence, Operator> operators;
     
@@ -100,18 +121,27 @@ public class Memory implements Serializable, Iterable<Concept> {
     public final Bag<Task<Term>,Sentence<Term>> novelTasks;
     
     /* Input event tasks that were either input events or derived sequences*/
-    public Bag<Task<Term>,Sentence<Term>> seq_current;
+    public EventBag seq_current;
     public Bag<Task<Term>,Sentence<Term>> recent_operations;
 
     /* List of new tasks accumulated in one cycle, to be processed in the next cycle */
     public final Deque<Task> newTasks;
     
+    /* Parsed input tasks from any thread, taken into newTasks at the start of a cycle */
+    public final InputQueue input;
+    
+    /* The thread in a cycle or a run of cycles, the only one draining the input queue; null between runs */
+    private transient volatile Thread cycleThread;
+    
     /* System clock, relatively defined to guarantee the repeatability of behaviors */
-    private long cycle;
+    long cycle;
     
     /* System parameters that can be changed at runtime */
     public final RuntimeParameters param;
     
+    /* Concept firing on worker threads, created on first use when param.threads > 1 */
+    private transient ParallelInferenceControl parallel;
+    
     /* ---------- Constructor ---------- */
     /**
      * Create a new memory
@@ -119,14 +149,29 @@ public class Memory implements Serializable, Iterable<Concept> {
      * @param initialOperators - initial set of available operators; more may be added during runtime
      */
     public Memory(RuntimeParameters param, Bag<Concept,Term> concepts, Bag<Task<Term>,Sentence<Term>> novelTasks,
-            Bag<Task<Term>,Sentence<Term>> seq_current,
+            EventBag seq_current,
             Bag<Task<Term>,Sentence<Term>> recent_operations) {                
 
         this.param = param;
         this.event = new EventEmitter();
+        this.onTaskAdd = event.channel(Events.TaskAdd.class);
+        this.onTaskDerive = event.channel(Events.TaskDerive.class);
+        this.onConceptFire = event.channel(Events.ConceptFire.class);
+        this.onTermLinkSelect = event.channel(Events.TermLinkSelect.class);
+        this.onBeliefReason = event.channel(Events.BeliefReason.class);
+        this.onBeliefSelect = event.channel(Events.BeliefSelect.class);
+        this.onTaskLinkAdd = event.channel(Events.TaskLinkAdd.class);
+        this.onTaskLinkRemove = event.channel(Events.TaskLinkRemove.class);
+        this.onTermLinkAdd = event.channel(Events.TermLinkAdd.class);
+        this.onTermLinkRemove = event.channel(Events.TermLinkRemove.class);
+        this.onInduceSucceedingEvent = event.channel(Events.InduceSucceedingEvent.class);
+        this.onTaskImmediateProcess = event.channel(Events.TaskImmediateProcess.class);
+        this.onCycleStart = event.channel(Events.CycleStart.class);
+        this.onCycleEnd = event.channel(Events.CycleEnd.class);
         this.concepts = concepts;
         this.novelTasks = novelTasks;                
         this.newTasks = new ArrayDeque<>();
+        this.input = new InputQueue(param);
         this.recent_operations = recent_operations;
         this.seq_current = seq_current;
         this.operators = new HashMap<>();
@@ -139,11 +184,14 @@ public class Memory implements Serializable, Iterable<Concept> {
         concepts.clear();
         novelTasks.clear();
         newTasks.clear();    
+        input.clear();
         this.seq_current.clear();
         cycle = 0;
+        logic.reset();
+        profiler.reset();
         emotion.resetEmotions();
         this.lastDecision = null;
-        resetStatic();
+        randomNumber.setSeed(randomSeed);
         event.emit(ResetEnd.class);
     }
 
@@ -161,7 +209,13 @@ public class Memory implements Serializable, Iterable<Concept> {
      * @return a Concept or null
      */
     public Concept concept(final Term t) {
-        return concepts.get(CompoundTerm.replaceIntervals(t));
+        final Term key = t.getConceptKey();
+        final Concept c = concepts.get(key);
+        if (c == null && parallel != null && parallel.isFiring()) {
+            //out of the bag while a worker fires it
+            return parallel.firingConcept(key);
+        }
+        return c;
     }
 
     /**
@@ -182,19 +236,18 @@ public class Memory implements Serializable, Iterable<Concept> {
         if(term instanceof Interval) {
             return null;
         }
-        term = CompoundTerm.replaceIntervals(term);
+        term = term.getConceptKey();
         //see if concept is active
         Concept concept = concepts.take(term);
         if (concept == null) {                            
             //create new concept, with the applied budget
             concept = new Concept(budget, term, this);
-            //if (memory.logic!=null)
-            //    memory.logic.CONCEPT_NEW.commit(term.getComplexity());
+            logic.CONCEPT_NEW.commit(term.getComplexity());
             emit(Events.ConceptNew.class, concept);                
         }
         else if (concept!=null) {            
             //apply budget to existing concept
-            //memory.logic.CONCEPT_ACTIVATE.commit(term.getComplexity());
+            logic.CONCEPT_ACTIVATE.commit(term.getComplexity());
             BudgetFunctions.activate(concept.budget, budget, BudgetFunctions.Activating.TaskLink);            
         }
         else {
@@ -222,9 +275,13 @@ public class Memory implements Serializable, Iterable<Concept> {
      * add new task that waits to be processed in the next cycleMemory
      */
     public void addNewTask(final Task t, final String reason) {
+        if (parallel != null && parallel.isFiring()) {
+            parallel.defer(t, reason);
+            return;
+        }
         newTasks.add(t);
-      //  logic.TASK_ADD_NEW.commit(t.getPriority());
-        emit(Events.TaskAdd.class, t, reason);
+        logic.taskAdded(reason);
+        onTaskAdd.emit(t, reason);
         output(t);
     }
     
@@ -282,6 +339,7 @@ public class Memory implements Serializable, Iterable<Concept> {
     }
 
     public void removeTask(final Task task, final String reason) {        
+        logic.taskRemoved(reason);
         emit(TaskRemove.class, task, reason);
         task.end();        
     }
@@ -293,7 +351,7 @@ public class Memory implements Serializable, Iterable<Concept> {
      */
     public void executedTask(final Operation operation, TruthValue truth) {
         Task opTask = operation.getTask();
-       // logic.TASK_EXECUTED.commit(opTask.budget.getPriority());
+        logic.TASK_EXECUTED.commit(opTask.budget.getPriority());
                 
         Stamp stamp = new Stamp(this, Tense.Present); 
         Sentence sentence = new Sentence(
@@ -330,21 +388,41 @@ public class Memory implements Serializable, Iterable<Concept> {
     }
     
     public void conceptRemoved(Concept c) {
+        logic.CONCEPT_FORGET.commit();
         emit(Events.ConceptForget.class, c);
     }
     
     public void cycle(final NAR inputs) {
     
-        event.emit(Events.CycleStart.class);
-        
-        this.processNewTasks();
-    //if(noResult()) //newTasks empty
-        this.processNovelTask();
-    //if(noResult()) //newTasks empty
-        GeneralInferenceControl.selectConceptForInference(this);
+        onCycleStart.emit();
         
-        event.emit(Events.CycleEnd.class);
-        event.synch();
+        final long start = System.nanoTime();
+        final Thread previous = enterCycles();
+        try {
+            this.processInput(param.inputPerCycle.get());
+            final long inputEnd = System.nanoTime();
+            this.processNewTasks();
+            final long newTasksEnd = System.nanoTime();
+        //if(noResult()) //newTasks empty
+            this.processNovelTask();
+            final long novelTasksEnd = System.nanoTime();
+        //if(noResult()) //newTasks empty
+            final int threads = param.threads.get();
+            if (threads > 1) {
+                if (parallel == null) {
+                    parallel = new ParallelInferenceControl(this);
+                }
+                parallel.fireConcepts(threads);
+            } else {
+                GeneralInferenceControl.selectConceptForInference(this);
+            }
+            logic.cycleEnd(this, start, inputEnd, newTasksEnd, novelTasksEnd, System.nanoTime());
+            
+            onCycleEnd.emit();
+            event.synch();
+        } finally {
+            leaveCycles(previous);
+        }
         
         cycle++;
     }
@@ -365,8 +443,73 @@ public class Memory implements Serializable, Iterable<Concept> {
             TemporalInferenceControl.eventInference(task, cont);
         }
         
-        //memory.logic.TASK_IMMEDIATE_PROCESS.commit();
-        emit(Events.TaskImmediateProcess.class, task, cont);
+        logic.TASK_IMMEDIATE_PROCESS.commit();
+        onTaskImmediateProcess.emit(task, cont);
+    }
+    
+    /**
+     * Take up to the given number of tasks out of the input queue, in the
+     * order they were added
+     */
+    public void processInput(int max) {
+        Task task;
+        while (max-- > 0 && (task = input.poll()) != null) {
+            inputTask(task);
+        }
+    }
+    
+    /**
+     * Mark the calling thread as the one cycling the memory, and so draining
+     * the input queue, until leaveCycles; for a loop of cycles, so that input
+     * waits for it between two cycles too. Waits while another thread has it.
+     *
+     * @return The thread marked before, to be given to leaveCycles
+     */
+    public synchronized Thread enterCycles() {
+        final Thread current = Thread.currentThread();
+        boolean interrupted = false;
+        while (cycleThread != null && cycleThread != current) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            current.interrupt();
+        }
+        final Thread previous = cycleThread;
+        cycleThread = current;
+        return previous;
+    }
+
+    /**
+     * Mark the calling thread as the one cycling the memory if no thread is,
+     * to be left with leaveCycles(null)
+     *
+     * @return Whether the calling thread has it now
+     */
+    public synchronized boolean tryEnterCycles() {
+        if (cycleThread != null) {
+            return false;
+        }
+        cycleThread = Thread.currentThread();
+        return true;
+    }
+
+    public synchronized void leaveCycles(final Thread previous) {
+        cycleThread = previous;
+        notifyAll();
+    }
+
+    /** whether the calling thread is the one cycling the memory */
+    public boolean isCycleThread() {
+        return cycleThread == Thread.currentThread();
+    }
+
+    /** whether a thread is cycling the memory, and so draining the input queue */
+    public boolean isCycling() {
+        return cycleThread != null;
     }
     
     /**
@@ -426,11 +569,23 @@ public class Memory implements Serializable, Iterable<Concept> {
          return operators.remove(op.name());
      }
 
-    private long currentStampSerial = 0;
-    public long newStampSerial() {
+    long currentStampSerial = 0;
+    public synchronized long newStampSerial() {
         return currentStampSerial++;
     }   
 
+    /** the serial the next stamp will get */
+    public synchronized long getStampSerial() {
+        return currentStampSerial;
+    }
+
+    /** reserves n consecutive serials at once, for a batch of input tasks; returns the first */
+    public synchronized long newStampSerials(final int n) {
+        final long first = currentStampSerial;
+        currentStampSerial += n;
+        return first;
+    }
+
     /** converts durations to cycles */
     public final float cycles(PortableDouble durations) {
         return Parameters.DURATION * durations.floatValue();
@@ -0,0 +1,592 @@
+package nars.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import nars.control.DerivationContext;
+import nars.entity.BudgetValue;
+import nars.entity.Concept;
+import nars.entity.Task;
+import nars.entity.TaskLink;
+import nars.io.NarseseParser;
+import nars.io.events.EventEmitter.EventObserver;
+import nars.io.events.Events;
+import nars.language.Term;
+import nars.main.Parameters;
+
+/**
+ * Write-ahead journal of the changes to a Memory, for recovery after a crash.
+ * <p>
+ * The journal observes the memory's events and records, per cycle, the
+ * concepts created and forgotten, the tasks added to belief, desire and
+ * precondition tables, the budgets of the fired concepts and the input tasks
+ * perceived by the memory.
+ * A background thread appends the records of each cycle as one checksummed
+ * frame to the current journal file, starting a new file when it grows too
+ * large. The thread is not woken for each frame; it drains the recorded
+ * frames every WRITE_INTERVAL milliseconds, so a crash loses at most the
+ * cycles of the last interval. Every snapshotCycles cycles the journal is compacted: the memory is
+ * saved as a MemorySnapshot and the older snapshot and journal files are
+ * deleted, which bounds the time needed for a restore. So that no cycle waits
+ * for the whole memory to be encoded, the snapshot is encoded with its terms
+ * inline, a slice of the concepts at the start of each cycle, and saved by
+ * the writer thread. The frames recorded meanwhile go on to the current
+ * journal, which stays complete until the snapshot is saved, and are written
+ * again as the start of the new snapshot's journal; replaying them over the
+ * concepts encoded after their cycle adds nothing new. Each frame holds the
+ * next stamp serial, so new stamps of a restored memory do not reuse the
+ * serials of restored ones.
+ * <p>
+ * A restore loads the latest complete snapshot and applies the complete
+ * frames recorded after it. Replay does not reason again; the inputs are
+ * linked to their concepts so they get attention as before the crash.
+ */
+public class MemoryJournal implements EventObserver {
+
+    static final byte RESET = 0;
+    static final byte CONCEPT_NEW = 1;
+    static final byte CONCEPT_FORGET = 2;
+    static final byte TABLE_ADD = 3;
+    static final byte BUDGET = 4;
+    static final byte INPUT = 5;
+
+    static final byte BELIEFS = 0;
+    static final byte DESIRES = 1;
+    static final byte PRECONDITIONS = 2;
+
+    /** milliseconds between two writes of the recorded frames */
+    static final int WRITE_INTERVAL = 10;
+
+    /** the fewest concepts of a snapshot encoded per cycle */
+    static final int SNAPSHOT_MIN_CONCEPTS = 64;
+
+    /* the reason Memory gives for adding an input task */
+    private static final String PERCEIVED = "Perceived";
+
+    /* tells the writer that the frames which follow are to be written again after the next snapshot */
+    private static final Object SNAPSHOT_START = new Object();
+
+    private static final Class[] events = { Events.CycleStart.class, Events.CycleEnd.class, Events.ResetStart.class,
+        Events.ConceptNew.class, Events.ConceptForget.class, Events.ConceptFire.class, Events.TaskAdd.class,
+        Events.ConceptBeliefAdd.class, Events.ConceptGoalAdd.class, Events.EnactableExplainationAdd.class };
+
+    /** a file name: kind-generation-part */
+    static String name(final String kind, final long generation, final int part) {
+        return String.format("%s-%016d-%06d", kind, generation, part);
+    }
+
+    static long generation(final File f) {
+        return Long.parseLong(f.getName().split("-")[1]);
+    }
+
+    /** files of the given kind, in the order they were written */
+    static File[] files(final File dir, final String kind) {
+        final File[] f = dir.listFiles(new FilenameFilter() {
+            @Override public boolean accept(final File d, final String n) {
+                return n.startsWith(kind + "-") && !n.endsWith(".tmp");
+            }
+        });
+        if (f == null) {
+            return new File[0];
+        }
+        Arrays.sort(f);
+        return f;
+    }
+
+    final Memory memory;
+    final File dir;
+    final int snapshotCycles;
+    final long maxFileSize;
+
+    /* records of the current cycle, written by the thread emitting the event, under its lock */
+    private final ByteArrayOutputStream frame = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(frame);
+    private final MemorySnapshot.Writer records;
+
+    private final Queue<Object> pending = new ConcurrentLinkedQueue<>();
+    private Thread writer;
+    private volatile IOException failure;
+
+    private long generation;
+    private long lastSnapshot;
+    private int snapshotSize = 1 << 16;
+    private boolean compact = false;
+    /* the snapshot being encoded, null if none */
+    private Compaction compaction;
+    private int snapshotConcepts = 0;
+
+    /* the journal file being written, only used by the writer thread */
+    private DataOutputStream file;
+    private long fileSize;
+    private long fileGeneration;
+    private int part;
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * @param memory The memory to journal
+     * @param dir The directory for snapshot and journal files
+     * @param snapshotCycles The number of cycles between snapshots
+     * @param maxFileSize The size from which a new journal file is started
+     */
+    public MemoryJournal(final Memory memory, final File dir, final int snapshotCycles, final long maxFileSize) {
+        this.memory = memory;
+        this.dir = dir;
+        this.snapshotCycles = snapshotCycles;
+        this.maxFileSize = maxFileSize;
+        this.records = new MemorySnapshot.Writer(memory, out, true);
+    }
+
+    /**
+     * Set the number of concepts of a snapshot encoded per cycle; 0, the
+     * default, spreads them over at most half of snapshotCycles, with at
+     * least SNAPSHOT_MIN_CONCEPTS per cycle
+     */
+    public void setSnapshotConcepts(final int snapshotConcepts) {
+        this.snapshotConcepts = snapshotConcepts;
+    }
+
+    /**
+     * Save a first snapshot and start recording; the memory must not be
+     * cycled meanwhile
+     */
+    public synchronized void start() throws IOException {
+        dir.mkdirs();
+        final File[] snapshots = files(dir, "snapshot");
+        generation = snapshots.length > 0 ? generation(snapshots[snapshots.length - 1]) : 0;
+        //whatever was recorded before is part of the snapshot
+        frame.reset();
+        records.forgetTasks();
+        compaction = null;
+        final Snapshot first = new Compaction().step(Integer.MAX_VALUE);
+        save(first);
+        pending.add(first);
+        writer = new Thread(new Runnable() {
+            @Override public void run() {
+                write();
+            }
+        }, "Memory journal");
+        writer.setDaemon(true);
+        writer.start();
+        memory.event.set(this, true, events);
+    }
+
+    /** stop recording and wait until the recorded cycles are written */
+    public synchronized void stop() throws IOException {
+        if (writer == null) {
+            return;
+        }
+        memory.event.set(this, false, events);
+        pending.add(this);
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /** the exception that stopped the writer thread, or null */
+    public IOException getFailure() {
+        return failure;
+    }
+
+    /** a snapshot of a generation, encoded on the cycle thread, its data null once saved */
+    static class Snapshot {
+        final long generation;
+        byte[] data;
+
+        Snapshot(final long generation, final byte[] data) {
+            this.generation = generation;
+            this.data = data;
+        }
+    }
+
+    /**
+     * A snapshot of a new generation being encoded a slice of concepts at a
+     * time, for the writer to save and start a journal for. The concepts are
+     * those in memory when it started.
+     */
+    private class Compaction {
+        final long generation;
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(snapshotSize);
+        final DataOutputStream data = new DataOutputStream(bytes);
+        final MemorySnapshot.Writer writer = new MemorySnapshot.Writer(memory, data, true);
+        final Concept[] concepts;
+        int next = 0;
+
+        Compaction() throws IOException {
+            generation = ++MemoryJournal.this.generation;
+            lastSnapshot = memory.time();
+            final List<Concept> c = new ArrayList<>(memory.concepts.size());
+            for (final Concept concept : memory.concepts) {
+                c.add(concept);
+            }
+            concepts = c.toArray(new Concept[c.size()]);
+            writer.writeHead(concepts.length);
+        }
+
+        /**
+         * Encode up to the given number of the remaining concepts
+         *
+         * @return The snapshot once all concepts are encoded, else null
+         */
+        Snapshot step(int n) throws IOException {
+            for (; n > 0 && next < concepts.length; n--) {
+                writer.writeConcept(concepts[next]);
+                concepts[next++] = null;
+            }
+            if (next < concepts.length) {
+                return null;
+            }
+            writer.writeTail();
+            snapshotSize = bytes.size();
+            return new Snapshot(generation, bytes.toByteArray());
+        }
+    }
+
+    /** the number of concepts to encode in this cycle */
+    private int snapshotStep(final Compaction c) {
+        if (snapshotConcepts > 0) {
+            return snapshotConcepts;
+        }
+        return Math.max(SNAPSHOT_MIN_CONCEPTS, c.concepts.length * 2 / Math.max(1, snapshotCycles) + 1);
+    }
+
+    /** writes a snapshot to its file, complete or not at all */
+    private void save(final Snapshot s) throws IOException {
+        final File tmp = new File(dir, name("snapshot", s.generation, 0) + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(s.data);
+        }
+        Files.move(tmp.toPath(), new File(dir, name("snapshot", s.generation, 0)).toPath(),
+                StandardCopyOption.ATOMIC_MOVE);
+        s.data = null;
+    }
+
+    @Override
+    public void event(final Class event, final Object[] args) {
+        synchronized (frame) {
+            record(event, args);
+        }
+    }
+
+    private void record(final Class event, final Object[] args) {
+        try {
+            if (event == Events.CycleStart.class) {
+                if (compaction == null && (compact || memory.time() - lastSnapshot >= snapshotCycles)) {
+                    compact = false;
+                    if (frame.size() > 0) {
+                        //recorded between two cycles, so already part of the snapshot
+                        pending.add(new Frame(memory.time() - 1, memory.getStampSerial(), frame.toByteArray()));
+                        frame.reset();
+                        records.forgetTasks();
+                    }
+                    compaction = new Compaction();
+                    pending.add(SNAPSHOT_START);
+                }
+                if (compaction != null) {
+                    final Snapshot s = compaction.step(snapshotStep(compaction));
+                    if (s != null) {
+                        pending.add(s);
+                        compaction = null;
+                    }
+                }
+                return;
+            }
+            if (event == Events.CycleEnd.class) {
+                pending.add(new Frame(memory.time(), memory.getStampSerial(), frame.toByteArray()));
+                frame.reset();
+                //each frame is replayed by a reader of its own
+                records.forgetTasks();
+                return;
+            }
+            if (event == Events.TaskAdd.class) {
+                if (PERCEIVED.equals(args[1])) {
+                    out.writeByte(INPUT);
+                    records.writeTask((Task) args[0]);
+                }
+            } else if (event == Events.ResetStart.class) {
+                out.writeByte(RESET);
+                //a snapshot being encoded is of the memory before the reset
+                compaction = null;
+                compact = true;
+            } else if (event == Events.ConceptNew.class) {
+                final Concept c = (Concept) args[0];
+                out.writeByte(CONCEPT_NEW);
+                records.writeTerm(c.term);
+                records.writeBudget(c.budget);
+            } else if (event == Events.ConceptForget.class) {
+                out.writeByte(CONCEPT_FORGET);
+                records.writeTerm(((Concept) args[0]).term);
+            } else if (event == Events.ConceptFire.class) {
+                final Concept c = ((DerivationContext) args[0]).getCurrentConcept();
+                out.writeByte(BUDGET);
+                records.writeTerm(c.term);
+                records.writeBudget(c.budget);
+            } else {
+                out.writeByte(TABLE_ADD);
+                records.writeTerm(((Concept) args[0]).term);
+                out.writeByte(event == Events.ConceptBeliefAdd.class ? BELIEFS :
+                        event == Events.ConceptGoalAdd.class ? DESIRES : PRECONDITIONS);
+                records.writeTask((Task) args[1]);
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    /** the records of one cycle */
+    static class Frame {
+        final long cycle;
+        /* the serial of the next stamp at the end of the cycle */
+        final long serial;
+        final byte[] data;
+
+        Frame(final long cycle, final long serial, final byte[] data) {
+            this.cycle = cycle;
+            this.serial = serial;
+            this.data = data;
+        }
+    }
+
+    /** runs on the writer thread */
+    private void write() {
+        //frames of the current journal recorded while the next snapshot was encoded
+        List<Frame> retained = null;
+        try {
+            while (true) {
+                final Object next = pending.poll();
+                if (next == null) {
+                    if (file != null) {
+                        file.flush();
+                    }
+                    LockSupport.parkNanos(WRITE_INTERVAL * 1000000L);
+                    continue;
+                }
+                if (next == this) {
+                    break;
+                }
+                if (next == SNAPSHOT_START) {
+                    retained = new ArrayList<>();
+                    continue;
+                }
+                if (next instanceof Snapshot) {
+                    //compaction: start the journal of the new snapshot before saving it, drop the older files
+                    if (file != null) {
+                        file.close();
+                        file = null;
+                    }
+                    final Snapshot s = (Snapshot) next;
+                    fileGeneration = s.generation;
+                    part = 0;
+                    if (retained != null) {
+                        for (final Frame f : retained) {
+                            writeFrame(f);
+                        }
+                        retained = null;
+                    }
+                    if (file != null) {
+                        file.flush();
+                    }
+                    if (s.data != null) {
+                        save(s);
+                    }
+                    for (final String kind : new String[] { "snapshot", "journal" }) {
+                        for (final File f : files(dir, kind)) {
+                            if (generation(f) < fileGeneration) {
+                                f.delete();
+                            }
+                        }
+                    }
+                    continue;
+                }
+                final Frame f = (Frame) next;
+                writeFrame(f);
+                if (retained != null) {
+                    retained.add(f);
+                }
+            }
+            if (file != null) {
+                file.close();
+            }
+        } catch (IOException e) {
+            failure = e;
+            Logger.getLogger(MemoryJournal.class.getName()).log(Level.SEVERE, null, e);
+        }
+    }
+
+    /** append a frame to the journal of the current generation */
+    private void writeFrame(final Frame f) throws IOException {
+        if (file == null || fileSize >= maxFileSize) {
+            if (file != null) {
+                file.close();
+            }
+            file = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(
+                    new File(dir, name("journal", fileGeneration, part++)))));
+            fileSize = 0;
+        }
+        crc.reset();
+        crc.update(f.data, 0, f.data.length);
+        file.writeLong(f.cycle);
+        file.writeLong(f.serial);
+        file.writeInt(f.data.length);
+        file.write(f.data);
+        file.writeInt((int) crc.getValue());
+        fileSize += f.data.length + 24;
+    }
+
+    /* ---------- recovery ---------- */
+
+    /**
+     * Reset the memory and restore it to the last cycle journaled in the
+     * directory
+     *
+     * @return The number of cycles replayed from the journal
+     */
+    public static int restore(final Memory memory, final File dir) throws IOException {
+        final File[] snapshots = files(dir, "snapshot");
+        int s = snapshots.length - 1;
+        while (true) {
+            if (s < 0) {
+                throw new IOException("no complete snapshot in " + dir);
+            }
+            try {
+                MemorySnapshot.load(memory, snapshots[s]);
+                break;
+            } catch (IOException e) {
+                s--;
+            }
+        }
+        final long g = generation(snapshots[s]);
+        final List<File> journals = new ArrayList<>();
+        for (final File f : files(dir, "journal")) {
+            if (generation(f) == g) {
+                journals.add(f);
+            }
+        }
+
+        final NarseseParser narsese = new NarseseParser(memory);
+        final Map<String,Term> terms = new HashMap<>();
+        final CRC32 crc = new CRC32();
+        int cycles = 0;
+        for (final File f : journals) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f)))) {
+                while (true) {
+                    final long cycle, serial;
+                    final byte[] data;
+                    //a frame garbled by the crash ends the replay
+                    try {
+                        cycle = in.readLong();
+                        serial = in.readLong();
+                        final int length = in.readInt();
+                        if (length < 0 || length > f.length()) {
+                            return cycles;
+                        }
+                        data = new byte[length];
+                        in.readFully(data);
+                        crc.reset();
+                        crc.update(data, 0, data.length);
+                        if (in.readInt() != (int) crc.getValue()) {
+                            return cycles;
+                        }
+                    } catch (EOFException e) {
+                        //end of the file, or the crash cut the frame off
+                        break;
+                    }
+                    replay(memory, new DataInputStream(new ByteArrayInputStream(data)), narsese, terms);
+                    memory.cycle = cycle + 1;
+                    memory.currentStampSerial = Math.max(memory.currentStampSerial, serial);
+                    cycles++;
+                }
+            }
+        }
+        return cycles;
+    }
+
+    private static void replay(final Memory memory, final DataInputStream in, final NarseseParser narsese, final Map<String,Term> terms) throws IOException {
+        final MemorySnapshot.Reader records = new MemorySnapshot.Reader(memory, in, narsese, terms);
+        while (in.available() > 0) {
+            final byte type = in.readByte();
+            switch (type) {
+                case RESET:
+                    memory.reset();
+                    break;
+                case CONCEPT_NEW: {
+                    final Term term = records.readTerm();
+                    final BudgetValue budget = records.readBudget();
+                    if (memory.concepts.get(term) == null) {
+                        memory.concepts.putIn(new Concept(budget, term, memory));
+                    }
+                    break;
+                }
+                case CONCEPT_FORGET:
+                    memory.concepts.take(records.readTerm());
+                    break;
+                case BUDGET: {
+                    final Concept c = memory.concepts.take(records.readTerm());
+                    final BudgetValue budget = records.readBudget();
+                    if (c != null) {
+                        c.budget.setPriority(budget.getPriority());
+                        c.budget.setDurability(budget.getDurability());
+                        c.budget.setQuality(budget.getQuality());
+                        memory.concepts.putIn(c);
+                    }
+                    break;
+                }
+                case INPUT: {
+                    final Task task = records.readTask();
+                    final Concept c = memory.concept(task.getTerm());
+                    if (c != null) {
+                        c.taskLinks.putIn(new TaskLink(task, null, task.budget, Parameters.TERM_LINK_RECORD_LENGTH));
+                    }
+                    break;
+                }
+                case TABLE_ADD: {
+                    final Term term = records.readTerm();
+                    final byte table = in.readByte();
+                    final Task task = records.readTask();
+                    final Concept c = memory.concepts.get(term);
+                    if (c == null) {
+                        break;
+                    }
+                    if (table == BELIEFS) {
+                        Concept.addToTable(task, c.beliefs, Parameters.CONCEPT_BELIEFS_MAX);
+                    } else if (table == DESIRES) {
+                        Concept.addToTable(task, c.desires, Parameters.CONCEPT_GOALS_MAX);
+                    } else {
+                        Concept.addToTable(task, c.executable_preconditions, Parameters.CONCEPT_BELIEFS_MAX);
+                    }
+                    break;
+                }
+                default:
+                    throw new IOException("unknown memory journal record " + type);
+            }
+        }
+    }
+}
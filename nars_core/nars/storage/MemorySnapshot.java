@@ -0,0 +1,637 @@
+package nars.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import nars.entity.BudgetValue;
+import nars.entity.Concept;
+import nars.entity.Sentence;
+import nars.entity.Stamp;
+import nars.entity.Task;
+import nars.entity.TaskLink;
+import nars.entity.TermLink;
+import nars.entity.TruthValue;
+import nars.io.NarseseParser;
+import nars.io.Narsese.InvalidInputException;
+import nars.language.Tense;
+import nars.language.Term;
+import nars.main.Parameters;
+
+/**
+ * Binary snapshot of the contents of a Memory.
+ * <p>
+ * The file starts with the clock and counters, followed by a term dictionary
+ * holding every term once (in Narsese), and then the concepts with their
+ * belief, desire and question tables and their task and term link bags, the
+ * task bags of the memory, the pending new tasks and the queued input tasks.
+ * Terms are referred to by their dictionary index and the serial numbers of
+ * stamps are delta-encoded, all numbers as variable length integers. A task
+ * is written where it first appears and referred to by its number wherever
+ * else it appears, so a task in a table and the target of its task links are
+ * still one task once loaded.
+ * <p>
+ * Concepts are written and read one at a time, so besides the dictionary no
+ * more than one concept is held in extra memory. A snapshot can also be
+ * written with its terms inline, in Narsese where they appear, and no
+ * dictionary; then the concepts need not all be written at once, as the
+ * MemoryJournal does to spread a snapshot over several cycles. Operators, plugins and event
+ * observers belong to the NAR and are not part of a snapshot.
+ */
+public class MemorySnapshot {
+
+    /** "NARS" */
+    static final int MAGIC = 0x4E415253;
+    static final int VERSION = 3;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /* ---------- saving ---------- */
+
+    /**
+     * Write the memory to a file, replacing it if it exists
+     *
+     * @param memory The memory to save, not to be cycled meanwhile
+     * @param file The file to write
+     */
+    public static void save(final Memory memory, final File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            final DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+            new Writer(memory, out).write();
+            out.flush();
+        }
+    }
+
+    /**
+     * Write the memory to a stream, which is left open
+     *
+     * @param memory The memory to save, not to be cycled meanwhile
+     * @param stream The stream to write to
+     */
+    public static void save(final Memory memory, final OutputStream stream) throws IOException {
+        final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, BUFFER_SIZE));
+        new Writer(memory, out).write();
+        out.flush();
+    }
+
+    static class Writer {
+
+        final Memory memory;
+        final DataOutput out;
+        final Map<Term,Integer> terms = new HashMap<>();
+        final List<Term> dictionary = new ArrayList<>();
+        /* the tasks written so far, by their number */
+        final Map<Task,Integer> tasks = new IdentityHashMap<>();
+        /* whether terms are written in Narsese where they appear instead of by dictionary index */
+        final boolean inlineTerms;
+        /* the queued input tasks when the dictionary was collected, or the tail written */
+        List<Task> input;
+
+        Writer(final Memory memory, final DataOutput out) {
+            this(memory, out, false);
+        }
+
+        Writer(final Memory memory, final DataOutput out, final boolean inlineTerms) {
+            this.memory = memory;
+            this.out = out;
+            this.inlineTerms = inlineTerms;
+        }
+
+        void write() throws IOException {
+            final List<Concept> concepts = new ArrayList<>(memory.concepts.size());
+            for (final Concept c : memory.concepts) {
+                concepts.add(c);
+            }
+            writeHead(concepts.size());
+            for (final Concept c : concepts) {
+                writeConcept(c);
+            }
+            writeTail();
+        }
+
+        /** writes the clock and counters, the dictionary and the number of concepts to follow */
+        void writeHead(final int concepts) throws IOException {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeBoolean(inlineTerms);
+            writeVarLong(out, memory.cycle);
+            writeVarLong(out, memory.currentStampSerial);
+            writeVarLong(out, memory.decisionBlock);
+            out.writeFloat(memory.emotion.happy());
+            out.writeFloat(memory.emotion.busy());
+
+            if (inlineTerms) {
+                writeVarInt(out, 0);
+            } else {
+                //a copy, as producers may keep adding to the queue
+                input = memory.input.toList();
+                collectTerms();
+                writeVarInt(out, dictionary.size());
+                for (final Term t : dictionary) {
+                    writeString(out, t.toString());
+                }
+            }
+
+            writeVarInt(out, concepts);
+        }
+
+        /** writes the task bags of the memory after the concepts */
+        void writeTail() throws IOException {
+            if (input == null) {
+                input = memory.input.toList();
+            }
+            writeTasks(memory.novelTasks);
+            writeTasks(memory.seq_current);
+            writeTasks(memory.recent_operations);
+            writeTasks(memory.newTasks);
+            writeTasks(input);
+            out.writeInt(MAGIC);
+        }
+
+        void addTerm(final Term t) {
+            if (!terms.containsKey(t)) {
+                terms.put(t, dictionary.size());
+                dictionary.add(t);
+            }
+        }
+
+        void addTerms(final Sentence s) {
+            if (s != null) {
+                addTerm(s.term);
+            }
+        }
+
+        void addTerms(final Iterable<? extends Task> tasks) {
+            for (final Task t : tasks) {
+                addTerms(t.sentence);
+                addTerms(t.getParentBelief());
+                addTerms(t.getBestSolution());
+            }
+        }
+
+        void collectTerms() {
+            for (final Concept c : memory.concepts) {
+                addTerm(c.term);
+                addTerms(c.beliefs);
+                addTerms(c.desires);
+                addTerms(c.questions);
+                addTerms(c.quests);
+                addTerms(c.executable_preconditions);
+                for (final TaskLink l : c.taskLinks) {
+                    addTerms(l.targetTask.sentence);
+                    addTerms(l.targetTask.getParentBelief());
+                    addTerms(l.targetTask.getBestSolution());
+                }
+                for (final TermLink l : c.termLinks) {
+                    addTerm(l.target);
+                }
+            }
+            addTerms(memory.novelTasks);
+            addTerms(memory.seq_current);
+            addTerms(memory.recent_operations);
+            addTerms(memory.newTasks);
+            addTerms(input);
+        }
+
+        /** writes a reference to a term of the dictionary, or the term itself */
+        void writeTerm(final Term t) throws IOException {
+            if (inlineTerms) {
+                writeString(out, t.toString());
+            } else {
+                writeVarInt(out, terms.get(t));
+            }
+        }
+
+        void writeConcept(final Concept c) throws IOException {
+            writeTerm(c.term);
+            writeBudget(c.budget);
+            writeVarLong(out, c.lastForgetTime + 1);
+            out.writeBoolean(c.observable);
+
+            writeTasks(c.beliefs);
+            writeTasks(c.desires);
+            writeTasks(c.questions);
+            writeTasks(c.quests);
+            writeTasks(c.executable_preconditions);
+
+            writeVarInt(out, c.taskLinks.size());
+            for (final TaskLink l : c.taskLinks) {
+                writeTask(l.targetTask);
+                out.writeByte(l.type);
+                writeIndex(l.index);
+                writeBudget(l.budget);
+                writeVarLong(out, l.lastForgetTime + 1);
+            }
+            writeVarInt(out, c.termLinks.size());
+            for (final TermLink l : c.termLinks) {
+                writeTerm(l.target);
+                out.writeByte(l.type);
+                writeIndex(l.index);
+                writeBudget(l.budget);
+                writeVarLong(out, l.lastForgetTime + 1);
+            }
+        }
+
+        void writeTasks(final Iterable<? extends Task> tasks) throws IOException {
+            int n = 0;
+            for (final Task t : tasks) {
+                n++;
+            }
+            writeVarInt(out, n);
+            for (final Task t : tasks) {
+                writeTask(t);
+            }
+        }
+
+        /** lets the tasks written so far be written again, for a reader that did not read them */
+        void forgetTasks() {
+            tasks.clear();
+        }
+
+        /** writes a task, or a reference to it if it was written before */
+        void writeTask(final Task t) throws IOException {
+            final Integer number = tasks.get(t);
+            if (number != null) {
+                writeVarInt(out, number + 1);
+                return;
+            }
+            tasks.put(t, tasks.size());
+            writeVarInt(out, 0);
+            writeSentence(t.sentence);
+            writeBudget(t.budget);
+            writeVarLong(out, t.lastForgetTime + 1);
+            out.writeByte((t.isInput() ? 1 : 0)
+                    | (t.isElemOfSequenceBuffer() ? 2 : 0)
+                    | (t.isObservablePrediction() ? 4 : 0)
+                    | (t.getParentBelief() != null ? 8 : 0)
+                    | (t.getBestSolution() != null ? 16 : 0));
+            if (t.getParentBelief() != null) {
+                writeSentence(t.getParentBelief());
+            }
+            if (t.getBestSolution() != null) {
+                writeSentence(t.getBestSolution());
+            }
+        }
+
+        void writeSentence(final Sentence s) throws IOException {
+            writeTerm(s.term);
+            out.writeByte(s.punctuation);
+            final TruthValue truth = s.truth;
+            out.writeByte((truth != null ? 1 : 0)
+                    | (truth != null && truth.getAnalytic() ? 2 : 0)
+                    | (s.getRevisible() ? 4 : 0)
+                    | (s.producedByTemporalInduction ? 8 : 0));
+            if (truth != null) {
+                out.writeFloat(truth.getFrequency());
+                out.writeFloat(truth.getConfidence());
+            }
+            writeStamp(s.stamp);
+        }
+
+        void writeStamp(final Stamp s) throws IOException {
+            writeVarLong(out, zigZag(s.getCreationTime()));
+            writeVarLong(out, zigZag(s.getOccurrenceTime()));
+            out.writeByte(s.getTense() == null ? 0 : s.getTense().ordinal() + 1);
+            final long[] base = s.evidentialBase;
+            writeVarInt(out, base.length);
+            long previous = 0;
+            for (final long serial : base) {
+                writeVarLong(out, zigZag(serial - previous));
+                previous = serial;
+            }
+        }
+
+        void writeBudget(final BudgetValue b) throws IOException {
+            out.writeFloat(b.getPriority());
+            out.writeFloat(b.getDurability());
+            out.writeFloat(b.getQuality());
+        }
+
+        void writeIndex(final short[] index) throws IOException {
+            if (index == null) {
+                out.writeByte(-1);
+                return;
+            }
+            out.writeByte(index.length);
+            for (final short i : index) {
+                writeVarInt(out, i);
+            }
+        }
+    }
+
+    /* ---------- loading ---------- */
+
+    /**
+     * Reset the memory and fill it with the contents of a snapshot file
+     *
+     * @param memory The memory to restore into, usually of a new NAR
+     * @param file The snapshot file
+     * @param mapped Whether to map the file into memory instead of reading it through a buffer
+     */
+    public static void load(final Memory memory, final File file, final boolean mapped) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final InputStream in = mapped ?
+                    new BufferInputStream(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())) :
+                    new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE);
+            new Reader(memory, new DataInputStream(in)).read();
+        }
+    }
+
+    public static void load(final Memory memory, final File file) throws IOException {
+        load(memory, file, true);
+    }
+
+    static class Reader {
+
+        final Memory memory;
+        final DataInput in;
+        Term[] dictionary;
+        /* the parser of inline terms and the terms it parsed, by their Narsese */
+        NarseseParser narsese;
+        final Map<String,Term> names;
+        boolean inlineTerms;
+        /* the tasks read so far, by their number */
+        final List<Task> tasks = new ArrayList<>();
+
+        Reader(final Memory memory, final DataInput in) {
+            this(memory, in, null, new HashMap<String,Term>());
+        }
+
+        /** a reader of records with inline terms, sharing the parser and the terms parsed so far */
+        Reader(final Memory memory, final DataInput in, final NarseseParser narsese, final Map<String,Term> names) {
+            this.memory = memory;
+            this.in = in;
+            this.narsese = narsese;
+            this.names = names;
+            this.inlineTerms = true;
+        }
+
+        void read() throws IOException {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("not a memory snapshot");
+            }
+            final int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("unsupported memory snapshot version " + version);
+            }
+            inlineTerms = in.readBoolean();
+            memory.reset();
+            memory.cycle = readVarLong(in);
+            memory.currentStampSerial = readVarLong(in);
+            memory.decisionBlock = readVarLong(in);
+            final float happy = in.readFloat();
+            memory.emotion.set(happy, in.readFloat());
+
+            if (narsese == null) {
+                narsese = new NarseseParser(memory);
+            }
+            dictionary = new Term[readVarInt(in)];
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = parseTerm(readString(in));
+            }
+
+            for (int n = readVarInt(in); n > 0; n--) {
+                memory.concepts.putIn(readConcept());
+            }
+
+            readTasks(memory.novelTasks);
+            readTasks(memory.seq_current);
+            readTasks(memory.recent_operations);
+            for (int n = readVarInt(in); n > 0; n--) {
+                memory.newTasks.add(readTask());
+            }
+            for (int n = readVarInt(in); n > 0; n--) {
+                memory.input.offer(readTask());
+            }
+            if (in.readInt() != MAGIC) {
+                throw new IOException("memory snapshot is truncated");
+            }
+        }
+
+        Term readTerm() throws IOException {
+            if (!inlineTerms) {
+                return dictionary[readVarInt(in)];
+            }
+            final String name = readString(in);
+            Term t = names.get(name);
+            if (t == null) {
+                t = parseTerm(name);
+                names.put(name, t);
+            }
+            return t;
+        }
+
+        Term parseTerm(final String name) throws IOException {
+            try {
+                return narsese.parseTerm(name);
+            } catch (InvalidInputException ex) {
+                throw new IOException("invalid term in memory snapshot: " + name, ex);
+            }
+        }
+
+        Concept readConcept() throws IOException {
+            final Term term = readTerm();
+            final Concept c = new Concept(readBudget(), term, memory);
+            c.lastForgetTime = readVarLong(in) - 1;
+            c.observable = in.readBoolean();
+
+            readTasks(c.beliefs);
+            readTasks(c.desires);
+            readTasks(c.questions);
+            readTasks(c.quests);
+            readTasks(c.executable_preconditions);
+
+            for (int n = readVarInt(in); n > 0; n--) {
+                final Task task = readTask();
+                final short type = in.readByte();
+                final short[] index = readIndex();
+                final TaskLink l = new TaskLink(task, type, index, readBudget(), Parameters.TERM_LINK_RECORD_LENGTH);
+                l.lastForgetTime = readVarLong(in) - 1;
+                c.taskLinks.putIn(l);
+            }
+            for (int n = readVarInt(in); n > 0; n--) {
+                final Term target = readTerm();
+                final short type = in.readByte();
+                final short[] index = readIndex();
+                final TermLink l = new TermLink(target, type, index, readBudget());
+                l.lastForgetTime = readVarLong(in) - 1;
+                c.termLinks.putIn(l);
+            }
+            return c;
+        }
+
+        void readTasks(final List<Task> tasks) throws IOException {
+            for (int n = readVarInt(in); n > 0; n--) {
+                tasks.add(readTask());
+            }
+        }
+
+        void readTasks(final Bag bag) throws IOException {
+            for (int n = readVarInt(in); n > 0; n--) {
+                bag.putIn(readTask());
+            }
+        }
+
+        /** reads a task, or the one read before that is referred to */
+        Task readTask() throws IOException {
+            final int number = readVarInt(in);
+            if (number > 0) {
+                if (number > tasks.size()) {
+                    throw new IOException("reference to an unknown task in memory snapshot: " + number);
+                }
+                return tasks.get(number - 1);
+            }
+            final Sentence s = readSentence();
+            final BudgetValue budget = readBudget();
+            final long lastForgetTime = readVarLong(in) - 1;
+            final int flags = in.readByte();
+            final Sentence parentBelief = (flags & 8) != 0 ? readSentence() : null;
+            final Sentence bestSolution = (flags & 16) != 0 ? readSentence() : null;
+            final Task t = new Task(s, budget, parentBelief, bestSolution);
+            t.setInput((flags & 1) != 0);
+            t.setElemOfSequenceBuffer((flags & 2) != 0);
+            t.setObservablePrediction((flags & 4) != 0);
+            t.lastForgetTime = lastForgetTime;
+            tasks.add(t);
+            return t;
+        }
+
+        Sentence readSentence() throws IOException {
+            final Term term = readTerm();
+            final char punctuation = (char) in.readByte();
+            final int flags = in.readByte();
+            TruthValue truth = null;
+            if ((flags & 1) != 0) {
+                final float f = in.readFloat();
+                truth = new TruthValue(f, in.readFloat(), (flags & 2) != 0);
+            }
+            //the term was normalized when the sentence was first created
+            final Sentence s = new Sentence(term, punctuation, truth, readStamp(), false);
+            s.setRevisible((flags & 4) != 0);
+            s.producedByTemporalInduction = (flags & 8) != 0;
+            return s;
+        }
+
+        Stamp readStamp() throws IOException {
+            final long creationTime = unZigZag(readVarLong(in));
+            final long occurrenceTime = unZigZag(readVarLong(in));
+            final int tense = in.readByte();
+            final long[] base = new long[readVarInt(in)];
+            long previous = 0;
+            for (int i = 0; i < base.length; i++) {
+                previous += unZigZag(readVarLong(in));
+                base[i] = previous;
+            }
+            return new Stamp(base, creationTime, occurrenceTime, tense == 0 ? Tense.Eternal : Tense.values()[tense - 1]);
+        }
+
+        BudgetValue readBudget() throws IOException {
+            final float p = in.readFloat();
+            final float d = in.readFloat();
+            return new BudgetValue(p, d, in.readFloat());
+        }
+
+        short[] readIndex() throws IOException {
+            final int length = in.readByte();
+            if (length < 0) {
+                return null;
+            }
+            final short[] index = new short[length];
+            for (int i = 0; i < length; i++) {
+                index[i] = (short) readVarInt(in);
+            }
+            return index;
+        }
+    }
+
+    /** reads a mapped file */
+    static class BufferInputStream extends InputStream {
+
+        final ByteBuffer buffer;
+
+        BufferInputStream(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override public int read(final byte[] b, final int off, final int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            final int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+    }
+
+    /* ---------- encoding ---------- */
+
+    static long zigZag(final long x) {
+        return (x << 1) ^ (x >> 63);
+    }
+
+    static long unZigZag(final long x) {
+        return (x >>> 1) ^ -(x & 1);
+    }
+
+    static void writeVarLong(final DataOutput out, long x) throws IOException {
+        while ((x & ~0x7FL) != 0) {
+            out.writeByte((int) ((x & 0x7F) | 0x80));
+            x >>>= 7;
+        }
+        out.writeByte((int) x);
+    }
+
+    static long readVarLong(final DataInput in) throws IOException {
+        long x = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final byte b = in.readByte();
+            x |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return x;
+            }
+        }
+        throw new IOException("malformed variable length number");
+    }
+
+    static void writeVarInt(final DataOutput out, final int x) throws IOException {
+        writeVarLong(out, x & 0xFFFFFFFFL);
+    }
+
+    static int readVarInt(final DataInput in) throws IOException {
+        return (int) readVarLong(in);
+    }
+
+    static void writeString(final DataOutput out, final String s) throws IOException {
+        final byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, b.length);
+        out.write(b);
+    }
+
+    static String readString(final DataInput in) throws IOException {
+        final byte[] b = new byte[readVarInt(in)];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}
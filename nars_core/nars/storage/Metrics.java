@@ -0,0 +1,436 @@
+package nars.storage;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import nars.entity.TermLink;
+
+/**
+ * Counters, histograms and gauges of what a memory does, with the time each
+ * phase of a cycle took.
+ * <p>
+ * Every metric is an object with primitive fields, created once: recording
+ * is a field update, without allocation or lookup (but for the counters of
+ * tasks per add or remove reason, found in a map). The values are only
+ * collected by snapshot(), which can also be written as a CSV or JSON line
+ * every given number of cycles. Under parallel firing, worker threads update
+ * the counters without synchronization, so a few counts may be lost.
+ */
+public class Metrics {
+
+    /** counts occurrences, summing a value committed with them (ex: priority) */
+    public static class Counter {
+        public final String name;
+        long count;
+        double sum;
+
+        Counter(final String name) {
+            this.name = name;
+        }
+
+        public void commit() {
+            count++;
+        }
+
+        public void commit(final double value) {
+            count++;
+            sum += value;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMean() {
+            return count == 0 ? 0 : sum / count;
+        }
+
+        void reset() {
+            count = 0;
+            sum = 0;
+        }
+    }
+
+    /** distribution of a non-negative value, in power of two buckets */
+    public static class Histogram {
+        public final String name;
+        /* bucket i counts the values of i bits */
+        final long[] buckets = new long[65];
+        long count, sum, max;
+
+        Histogram(final String name) {
+            this.name = name;
+        }
+
+        public void record(final long value) {
+            buckets[value <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(value)]++;
+            count++;
+            sum += value;
+            if (value > max) {
+                max = value;
+            }
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        /** an upper bound of the given quantile (0..1): the top of its bucket */
+        public long getQuantile(final double q) {
+            final long rank = (long) Math.ceil(q * count);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank && seen > 0) {
+                    return Math.min(max, i == 0 ? 0 : i == 64 ? Long.MAX_VALUE : (1L << i) - 1);
+                }
+            }
+            return max;
+        }
+
+        void reset() {
+            Arrays.fill(buckets, 0);
+            count = sum = max = 0;
+        }
+    }
+
+    /** a value sampled once per cycle (ex: the size of a bag) */
+    public static class Gauge {
+        public final String name;
+        double last, sum, max;
+        long samples;
+
+        Gauge(final String name) {
+            this.name = name;
+        }
+
+        public void sample(final double value) {
+            last = value;
+            sum += value;
+            if (samples == 0 || value > max) {
+                max = value;
+            }
+            samples++;
+        }
+
+        public double getLast() {
+            return last;
+        }
+
+        public double getMean() {
+            return samples == 0 ? 0 : sum / samples;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        void reset() {
+            last = sum = max = 0;
+            samples = 0;
+        }
+    }
+
+    private final List<Counter> counters = new ArrayList<>();
+    private final List<Histogram> histograms = new ArrayList<>();
+    private final List<Gauge> gauges = new ArrayList<>();
+
+    public final Counter TASK_ADD_NEW = counter("TASK_ADD_NEW");
+    public final Counter TASK_DERIVED = counter("TASK_DERIVED");
+    public final Counter TASK_REMOVED = counter("TASK_REMOVED");
+    public final Counter TASK_EXECUTED = counter("TASK_EXECUTED");
+    public final Counter TASK_IMMEDIATE_PROCESS = counter("TASK_IMMEDIATE_PROCESS");
+    public final Counter JUDGMENT_PROCESS = counter("JUDGMENT_PROCESS");
+    public final Counter GOAL_PROCESS = counter("GOAL_PROCESS");
+    public final Counter QUESTION_PROCESS = counter("QUESTION_PROCESS");
+    public final Counter LINK_TO_TASK = counter("LINK_TO_TASK");
+    public final Counter BELIEF_REVISION = counter("BELIEF_REVISION");
+    public final Counter SOLUTION_BEST = counter("SOLUTION_BEST");
+    public final Counter ANALOGY = counter("ANALOGY");
+    public final Counter CONTRAPOSITION = counter("CONTRAPOSITION");
+    public final Counter TASKLINK_FIRE = counter("TASKLINK_FIRE");
+    public final Counter REASON = counter("REASON");
+    public final Counter CONCEPT_NEW = counter("CONCEPT_NEW");
+    public final Counter CONCEPT_ACTIVATE = counter("CONCEPT_ACTIVATE");
+    public final Counter CONCEPT_FORGET = counter("CONCEPT_FORGET");
+    /** unification attempts of this memory's inference, counted by Variables */
+    public final Counter UNIFY = counter("UNIFY");
+
+    /** nanoseconds per cycle, and per phase of it */
+    public final Histogram CYCLE_TIME = histogram("CYCLE_TIME");
+    public final Histogram INPUT_TIME = histogram("INPUT_TIME");
+    public final Histogram NEW_TASKS_TIME = histogram("NEW_TASKS_TIME");
+    public final Histogram NOVEL_TASKS_TIME = histogram("NOVEL_TASKS_TIME");
+    public final Histogram FIRE_TIME = histogram("FIRE_TIME");
+
+    public final Gauge CONCEPTS = gauge("CONCEPTS");
+    public final Gauge CONCEPT_MASS = gauge("CONCEPT_MASS");
+    public final Gauge NOVEL_TASKS = gauge("NOVEL_TASKS");
+    public final Gauge NEW_TASKS = gauge("NEW_TASKS");
+    public final Gauge INPUT_QUEUE = gauge("INPUT_QUEUE");
+
+    /* tasks added and removed per reason, in order of appearance */
+    private final ConcurrentHashMap<String, Counter> added = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> removed = new ConcurrentHashMap<>();
+    private final List<Counter> reasons = new ArrayList<>();
+
+    /* RuleTables dispatch branches, by task link type and term link type */
+    private static final int LINK_TYPES = TermLink.TEMPORAL + 1;
+    private final long[] rules = new long[LINK_TYPES * LINK_TYPES];
+    /** the (task link, term link) type pairs RuleTables.reason dispatches on */
+    public static final short[][] RULE_BRANCHES = {
+        { TermLink.SELF, TermLink.COMPONENT }, { TermLink.SELF, TermLink.COMPOUND },
+        { TermLink.SELF, TermLink.COMPONENT_STATEMENT }, { TermLink.SELF, TermLink.COMPOUND_STATEMENT },
+        { TermLink.SELF, TermLink.COMPONENT_CONDITION }, { TermLink.SELF, TermLink.COMPOUND_CONDITION },
+        { TermLink.COMPOUND, TermLink.COMPOUND }, { TermLink.COMPOUND, TermLink.COMPOUND_STATEMENT },
+        { TermLink.COMPOUND, TermLink.COMPOUND_CONDITION },
+        { TermLink.COMPOUND_STATEMENT, TermLink.COMPONENT }, { TermLink.COMPOUND_STATEMENT, TermLink.COMPOUND },
+        { TermLink.COMPOUND_STATEMENT, TermLink.COMPOUND_STATEMENT }, { TermLink.COMPOUND_STATEMENT, TermLink.COMPOUND_CONDITION },
+        { TermLink.COMPOUND_CONDITION, TermLink.COMPOUND }, { TermLink.COMPOUND_CONDITION, TermLink.COMPOUND_STATEMENT }
+    };
+    private static final String[] LINK_NAMES = { "SELF", "COMPONENT", "COMPOUND", "COMPONENT_STATEMENT",
+        "COMPOUND_STATEMENT", "COMPONENT_CONDITION", "COMPOUND_CONDITION", "7", "TRANSFORM", "TEMPORAL" };
+
+    /* where and how often to write a snapshot line */
+    private PrintWriter dump;
+    private boolean json;
+    private int dumpCycles;
+    private int dumpColumns = -1;
+
+    private Counter counter(final String name) {
+        final Counter c = new Counter(name);
+        counters.add(c);
+        return c;
+    }
+
+    private Histogram histogram(final String name) {
+        final Histogram h = new Histogram(name);
+        histograms.add(h);
+        return h;
+    }
+
+    private Gauge gauge(final String name) {
+        final Gauge g = new Gauge(name);
+        gauges.add(g);
+        return g;
+    }
+
+    /** counts a task added to the memory, and per reason */
+    public void taskAdded(final String reason) {
+        TASK_ADD_NEW.commit();
+        reason(added, "TASK_ADD.", reason).commit();
+    }
+
+    /** counts a task removed from the memory, and per reason */
+    public void taskRemoved(final String reason) {
+        TASK_REMOVED.commit();
+        reason(removed, "TASK_REMOVE.", reason).commit();
+    }
+
+    /* the counter of the reason, created on first use */
+    private Counter reason(final ConcurrentHashMap<String, Counter> map, final String prefix, final String reason) {
+        Counter c = map.get(reason);
+        if (c == null) {
+            synchronized (reasons) {
+                c = map.get(reason);
+                if (c == null) {
+                    c = new Counter(prefix + reason);
+                    map.put(reason, c);
+                    reasons.add(c);
+                }
+            }
+        }
+        return c;
+    }
+
+    /** a RuleTables.reason dispatch on the types of the task link and term link */
+    public void rule(final short taskLinkType, final short termLinkType) {
+        rules[taskLinkType * LINK_TYPES + termLinkType]++;
+    }
+
+    public long getRuleCount(final short taskLinkType, final short termLinkType) {
+        return rules[taskLinkType * LINK_TYPES + termLinkType];
+    }
+
+    /** called by the memory after a cycle, with the times its phases ended */
+    void cycleEnd(final Memory m, final long start, final long input, final long newTasks, final long novelTasks, final long end) {
+        INPUT_TIME.record(input - start);
+        NEW_TASKS_TIME.record(newTasks - input);
+        NOVEL_TASKS_TIME.record(novelTasks - newTasks);
+        FIRE_TIME.record(end - novelTasks);
+        CYCLE_TIME.record(end - start);
+
+        CONCEPTS.sample(m.concepts.size());
+        CONCEPT_MASS.sample(m.concepts.getMass());
+        NOVEL_TASKS.sample(m.novelTasks.size());
+        NEW_TASKS.sample(m.newTasks.size());
+        INPUT_QUEUE.sample(m.input.size());
+
+        if (dump != null && (m.time() + 1) % dumpCycles == 0) {
+            write(snapshot(m.time() + 1));
+        }
+    }
+
+    /**
+     * Write a snapshot every given number of cycles, as a CSV row (with a
+     * header whenever the columns change, ex: a new task reason) or a JSON
+     * object per line
+     *
+     * @param out Where to write, or null to stop
+     */
+    public void setDump(final PrintWriter out, final boolean json, final int everyCycles) {
+        this.dump = out;
+        this.json = json;
+        this.dumpCycles = Math.max(1, everyCycles);
+        this.dumpColumns = -1;
+    }
+
+    private void write(final Snapshot s) {
+        if (json) {
+            dump.println(s.toJSON());
+        } else {
+            if (s.names.length != dumpColumns) {
+                dump.println(s.toCSVHeader());
+                dumpColumns = s.names.length;
+            }
+            dump.println(s.toCSV());
+        }
+        dump.flush();
+    }
+
+    /** the values of every metric at the given time */
+    public Snapshot snapshot(final long time) {
+        final List<String> names = new ArrayList<>();
+        final List<Double> values = new ArrayList<>();
+        for (final Counter c : counters) {
+            names.add(c.name);
+            values.add((double) c.count);
+        }
+        final Counter[] r;
+        synchronized (reasons) {
+            r = reasons.toArray(new Counter[reasons.size()]);
+        }
+        for (final Counter c : r) {
+            names.add(c.name);
+            values.add((double) c.count);
+        }
+        for (final short[] b : RULE_BRANCHES) {
+            names.add("RULE." + LINK_NAMES[b[0]] + "." + LINK_NAMES[b[1]]);
+            values.add((double) getRuleCount(b[0], b[1]));
+        }
+        for (final Histogram h : histograms) {
+            names.add(h.name + ".mean");
+            values.add(h.getMean());
+            names.add(h.name + ".p50");
+            values.add((double) h.getQuantile(0.5));
+            names.add(h.name + ".p99");
+            values.add((double) h.getQuantile(0.99));
+            names.add(h.name + ".max");
+            values.add((double) h.max);
+        }
+        for (final Gauge g : gauges) {
+            names.add(g.name);
+            values.add(g.last);
+            names.add(g.name + ".mean");
+            values.add(g.getMean());
+            names.add(g.name + ".max");
+            values.add(g.max);
+        }
+        final double[] v = new double[values.size()];
+        for (int i = 0; i < v.length; i++) {
+            v[i] = values.get(i);
+        }
+        return new Snapshot(time, names.toArray(new String[names.size()]), v);
+    }
+
+    /** zero every metric, as the memory is reset */
+    public void reset() {
+        for (final Counter c : counters) {
+            c.reset();
+        }
+        synchronized (reasons) {
+            for (final Counter c : reasons) {
+                c.reset();
+            }
+        }
+        for (final Histogram h : histograms) {
+            h.reset();
+        }
+        for (final Gauge g : gauges) {
+            g.reset();
+        }
+        Arrays.fill(rules, 0);
+    }
+
+    /** the metric values at one time; counts are totals since the last reset */
+    public static class Snapshot {
+        public final long time;
+        public final String[] names;
+        public final double[] values;
+
+        Snapshot(final long time, final String[] names, final double[] values) {
+            this.time = time;
+            this.names = names;
+            this.values = values;
+        }
+
+        /** the value of the named metric, or NaN if there is none */
+        public double get(final String name) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(name)) {
+                    return values[i];
+                }
+            }
+            return Double.NaN;
+        }
+
+        public String toCSVHeader() {
+            final StringBuilder b = new StringBuilder("time");
+            for (final String n : names) {
+                b.append(',').append('"').append(n.replace("\"", "\"\"")).append('"');
+            }
+            return b.toString();
+        }
+
+        public String toCSV() {
+            final StringBuilder b = new StringBuilder().append(time);
+            for (final double v : values) {
+                b.append(',').append(format(v));
+            }
+            return b.toString();
+        }
+
+        public String toJSON() {
+            final StringBuilder b = new StringBuilder("{\"time\":").append(time);
+            for (int i = 0; i < names.length; i++) {
+                b.append(",\"").append(names[i].replace("\\", "\\\\").replace("\"", "\\\"")).append("\":").append(format(values[i]));
+            }
+            return b.append('}').toString();
+        }
+
+        static String format(final double v) {
+            return v == (long) v ? Long.toString((long) v) : Double.toString(v);
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder b = new StringBuilder("time ").append(time).append('\n');
+            for (int i = 0; i < names.length; i++) {
+                if (values[i] != 0) {
+                    b.append(names[i]).append(' ').append(format(values[i])).append('\n');
+                }
+            }
+            return b.toString();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * TaskLinkBag.java
+ *
+ * Copyright (C) 2008  Pei Wang
+ *
+ * This file is part of Open-NARS.
+ *
+ * Open-NARS is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * Open-NARS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Open-NARS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package nars.storage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import nars.entity.Task;
+import nars.entity.TaskLink;
+import nars.language.Term;
+
+/**
+ * The TaskLink bag of a Concept, which also indexes its links by the term of
+ * their task, and keeps the links to questions, goals and quests with query
+ * variables apart, so that a concept does not need to scan all of its task
+ * links on every insertion.
+ * <p>
+ * The index follows every change of the bag's contents: take, takeNext,
+ * addItem (including the item it displaces) and clear.
+ */
+public class TaskLinkBag extends ArrayBag<TaskLink,Task> {
+
+    /** task links in the bag by the term of their task */
+    private final Map<Term,List<TaskLink>> byContent = new HashMap<>();
+
+    /** task links whose task is a question, goal or quest containing a query variable */
+    private final Set<TaskLink> queryLinks = new LinkedHashSet<>();
+
+    public TaskLinkBag(int levels, int capacity) {
+        super(levels, capacity);
+    }
+
+    /**
+     * The task links whose task has the given term
+     * @param content The term of the tasks
+     * @return the links, empty if none; not to be modified
+     */
+    public List<TaskLink> getSameContent(final Term content) {
+        final List<TaskLink> l = byContent.get(content);
+        return l != null ? l : Collections.<TaskLink>emptyList();
+    }
+
+    /** the different terms of the tasks linked */
+    public Collection<Term> getContents() {
+        return byContent.keySet();
+    }
+
+    /** the links to questions, goals and quests with query variables */
+    public Collection<TaskLink> getQueryLinks() {
+        return queryLinks;
+    }
+
+    private static boolean isQueryLink(final TaskLink l) {
+        final Task t = l.getTarget();
+        return !t.sentence.isJudgment() && t.getTerm().hasVarQuery();
+    }
+
+    private void indexAdd(final TaskLink l) {
+        final Term content = l.getTerm();
+        List<TaskLink> same = byContent.get(content);
+        if (same == null) {
+            byContent.put(content, same = new ArrayList<>(2));
+        }
+        same.add(l);
+        if (isQueryLink(l)) {
+            queryLinks.add(l);
+        }
+    }
+
+    private void indexRemove(final TaskLink l) {
+        final Term content = l.getTerm();
+        final List<TaskLink> same = byContent.get(content);
+        if (same != null) {
+            for (int i = 0; i < same.size(); i++) {
+                if (same.get(i) == l) {
+                    same.remove(i);
+                    break;
+                }
+            }
+            if (same.isEmpty()) {
+                byContent.remove(content);
+            }
+        }
+        queryLinks.remove(l);
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        if (byContent != null) { //called from the super constructor, before the fields are set
+            byContent.clear();
+            queryLinks.clear();
+        }
+    }
+
+    @Override
+    public TaskLink take(final Task key) {
+        final TaskLink l = super.take(key);
+        if (l != null) {
+            indexRemove(l);
+        }
+        return l;
+    }
+
+    @Override
+    public TaskLink takeNext() {
+        final TaskLink l = super.takeNext();
+        if (l != null) {
+            indexRemove(l);
+        }
+        return l;
+    }
+
+    @Override
+    protected TaskLink addItem(final TaskLink newItem) {
+        final TaskLink overflow = super.addItem(newItem);
+        if (overflow != newItem) {
+            indexAdd(newItem);
+            if (overflow != null) {
+                indexRemove(overflow);
+            }
+        }
+        return overflow;
+    }
+}
@@ -21,6 +21,8 @@ import nars.entity.Sentence;
 import nars.entity.Task;
 import nars.gui.NARSwing;
 import nars.io.Narsese;
+import nars.io.SensorStream;
+import nars.io.Symbols;
 import nars.lab.testutils.ConceptMonitor;
 import nars.language.Term;
 import nars.operator.Operation;
@@ -51,6 +53,8 @@ public class Pong extends Frame {
             Hai(){}
             public Obj obj;
             NAR nar;
+            SensorStream sensors;
+            int goodGoal, good, middle, right, left;
             String LastInput ="";
             int nActions = 3;
             int direction = 0;
@@ -62,6 +66,16 @@ public class Pong extends Frame {
                 nar.memory.addOperator(new Left("^Left"));
                 (nar.param).noiseLevel.set(0);
                 new NARSwing(nar); 
+                sensors = new SensorStream(nar);
+                try {
+                    goodGoal = sensors.register("<{SELF} --> [good]>", Symbols.GOAL_MARK);
+                    good = sensors.register("<{SELF} --> [good]>");
+                    middle = sensors.register("<{middle} --> [on]>");
+                    right = sensors.register("<{right} --> [on]>");
+                    left = sensors.register("<{left} --> [on]>");
+                } catch (Narsese.InvalidInputException ex) {
+                    Logger.getLogger(Pong.class.getName()).log(Level.SEVERE, null, ex);
+                }
                 //nar.start(0);
                 Memory m = nar.memory;
                // m.conceptForgetDurations.setValue(1.0); //better for declarative reasoning tasks: 2
@@ -118,7 +132,7 @@ public class Pong extends Frame {
                 lastAction = 0;
                 k++;
                 if(k%4==0) {
-                    nar.addInput("<{SELF} --> [good]>! :|:"); //future extension: change to self good
+                    sensors.set(goodGoal, 1.0f); //future extension: change to self good
                     //System.out.println("food urge input");
                 }
                 //if(reward > 0) { //even more delayed reward (for the future)
@@ -185,14 +199,14 @@ public class Pong extends Frame {
                         String s = "<{SELF} --> [good]>. :|:";
                         if(!s.equals(this.LastInput)) {
                             System.out.println("good mr_nars");
-                            nar.addInput(s);
+                            sensors.set(good, 1.0f);
                             System.out.println(s);
                         }
                         this.LastInput = s;
                     } else {
                         String s = "<{middle} --> [on]>. :|:";
                         if(!s.equals(this.LastInput)) {
-                            nar.addInput(s);
+                            sensors.set(middle, 1.0f);
                         }
                         this.LastInput = s;
                     }
@@ -200,14 +214,14 @@ public class Pong extends Frame {
                     if(agent.x < ball.x) {
                         String s = "<{right} --> [on]>. :|:";
                         if(!s.equals(this.LastInput)) {
-                            nar.addInput(s);
+                            sensors.set(right, 1.0f);
                             System.out.println(s);
                         }
                         this.LastInput = s;
                     } else {
                         String s = "<{left} --> [on]>. :|:";
                         if(!s.equals(this.LastInput)) {
-                            nar.addInput(s);
+                            sensors.set(left, 1.0f);
                             System.out.println(s);
                         }
                         this.LastInput = s;
@@ -217,6 +231,7 @@ public class Pong extends Frame {
                     System.out.println("bad mr_nars");
                     nar.addInput("(--,<{SELF} --> [good]>). :|:");
                 }*/
+                sensors.submit();
                 
                 nar.cycles(10);
 
@@ -146,7 +146,7 @@ public class GlobalAnticipation implements Plugin, EventEmitter.EventObserver {
 
                 //handling of other events, seeing if they match and are right in time
                 
-                if(!Variables.hasSubstitute(Symbols.VAR_INDEPENDENT, args[i], lastEvents.get(i-off).sentence.term)) { //it didnt match, instead sth different unexpected happened
+                if(!Variables.hasSubstitute(Symbols.VAR_INDEPENDENT, args[i], lastEvents.get(i-off).sentence.term, nal.memory.randomNumber)) { //it didnt match, instead sth different unexpected happened
                     matched=false; //whether intermediate events should be tolerated or not was a important question when considering this,
                     break; //if it should be allowed, the sequential match does not matter only if the events come like predicted.
                 } else { //however I decided that sequence matters also for now, because then the more accurate hypothesis wins.
@@ -184,7 +184,7 @@ public class GlobalAnticipation implements Plugin, EventEmitter.EventObserver {
                 long occurence=lastEvents.get(args.length-off).sentence.getOccurenceTime();
                 boolean right_in_time=Math.abs(occurence-expected_time)<((double)duration)/TEMPORAL_PREDICTION_FEEDBACK_ACCURACY_DIV;
                  
-                if(right_in_time && Variables.hasSubstitute(Symbols.VAR_INDEPENDENT,imp.getPredicate(),lastEvents.get(args.length-off).sentence.term)) { //it matched and same consequence, so positive evidence
+                if(right_in_time && Variables.hasSubstitute(Symbols.VAR_INDEPENDENT,imp.getPredicate(),lastEvents.get(args.length-off).sentence.term, nal.memory.randomNumber)) { //it matched and same consequence, so positive evidence
                     //c.sentence.truth=TruthFunctions.revision(c.sentence.truth, new TruthValue(1.0f,Parameters.DEFAULT_JUDGMENT_CONFIDENCE));
                     Sentence s2=new Sentence(
                         c.sentence.term.clone(),
@@ -10,7 +10,6 @@ import nars.entity.Sentence;
 import nars.entity.Task;
 import nars.io.Narsese;
 import nars.io.Symbols;
-import nars.language.CompoundTerm;
 import nars.language.Term;
 
 /**
@@ -74,8 +73,8 @@ public class ConceptMonitor {
         Term st = stringToTerm(nar, statement);
         if(c != null && st != null) {
             for(Task t : c.executable_preconditions) {
-                if(CompoundTerm.replaceIntervals(t.getTerm()).equals(
-                        CompoundTerm.replaceIntervals(st))) {
+                if(t.getTerm().getConceptKey().equals(
+                        st.getConceptKey())) {
                     return t.sentence;
                 }
             }
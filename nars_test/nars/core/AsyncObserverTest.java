@@ -0,0 +1,135 @@
+package nars.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import nars.io.events.AsyncObserver;
+import nars.io.events.AsyncObserver.Overflow;
+import nars.io.events.EventEmitter.EventObserver;
+import nars.io.events.Events;
+import nars.io.events.OutputHandler;
+import nars.main.NAR;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Asynchronous subscribers must get the events in order, off the emitting
+ * thread, and apply their overflow policy when they fall behind
+ */
+public class AsyncObserverTest {
+
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /** records the events, after waiting for the gate to open */
+    static class Slow implements EventObserver {
+        final CountDownLatch gate;
+        final List<Object> received = new ArrayList();
+        volatile Thread thread;
+
+        Slow(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override public void event(Class event, Object[] args) {
+            try {
+                gate.await();
+            } catch (InterruptedException e) { }
+            thread = Thread.currentThread();
+            received.add(event == Events.CycleEnd.class ? "end" : args[0]);
+        }
+    }
+
+    @Test
+    public void testOrder() throws InterruptedException {
+        Slow s = new Slow(new CountDownLatch(0));
+        AsyncObserver a = new AsyncObserver(s, executor, 16, Overflow.BLOCK);
+        for (int i = 0; i < 1000; i++) {
+            a.event(Events.TaskAdd.class, new Object[] { i });
+        }
+        assertTrue(a.flush(10, TimeUnit.SECONDS));
+        assertEquals(1000, s.received.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, s.received.get(i));
+        }
+        assertEquals(1000, a.getDelivered());
+        assertEquals(0, a.getDropped());
+        assertEquals(0, a.getLag());
+        assertTrue(a.getMaxLag() <= 16);
+        assertNotSame(Thread.currentThread(), s.thread);
+    }
+
+    @Test
+    public void testDropOldest() throws InterruptedException {
+        CountDownLatch gate = new CountDownLatch(1);
+        Slow s = new Slow(gate);
+        AsyncObserver a = new AsyncObserver(s, executor, 4, Overflow.DROP_OLDEST);
+        a.event(Events.TaskAdd.class, new Object[] { 0 });
+        //wait until the first batch is being delivered
+        while (a.getLag() > 0) {
+            Thread.sleep(1);
+        }
+        for (int i = 1; i <= 10; i++) {
+            a.event(Events.TaskAdd.class, new Object[] { i });
+        }
+        assertEquals(4, a.getLag());
+        assertEquals(6, a.getDropped());
+        gate.countDown();
+        assertTrue(a.flush(10, TimeUnit.SECONDS));
+        assertEquals(Arrays.<Object>asList(0, 7, 8, 9, 10), s.received);
+    }
+
+    @Test
+    public void testCoalesce() throws InterruptedException {
+        CountDownLatch gate = new CountDownLatch(1);
+        Slow s = new Slow(gate);
+        AsyncObserver a = new AsyncObserver(s, executor, 3, Overflow.COALESCE);
+        a.event(Events.TaskAdd.class, new Object[] { 0 });
+        while (a.getLag() > 0) {
+            Thread.sleep(1);
+        }
+        a.event(Events.TaskAdd.class, new Object[] { 1 });
+        a.event(Events.CycleEnd.class, new Object[0]);
+        a.event(Events.TaskAdd.class, new Object[] { 2 });
+        a.event(Events.CycleEnd.class, new Object[0]);
+        a.event(Events.TaskAdd.class, new Object[] { 3 });
+        assertEquals(2, a.getCoalesced());
+        gate.countDown();
+        assertTrue(a.flush(10, TimeUnit.SECONDS));
+        assertEquals(Arrays.<Object>asList(0, 1, "end", 3), s.received);
+    }
+
+    @Test
+    public void testHandler() throws InterruptedException {
+        NAR n = new NAR();
+        final List<Object> out = new ArrayList();
+        OutputHandler h = new OutputHandler(n, true) {
+            @Override public void event(Class event, Object[] args) {
+                out.add(args[0]);
+            }
+        };
+        AsyncObserver a = h.async(executor, 1000, Overflow.BLOCK);
+        n.addInput("<a --> b>.");
+        n.addInput("<b --> c>.");
+        n.cycles(50);
+        assertTrue(a.flush(10, TimeUnit.SECONDS));
+        assertTrue(out.size() > 2);
+        assertEquals(out.size(), a.getDelivered());
+        h.setActive(false);
+        n.addInput("<c --> d>.");
+        n.cycles(1);
+        assertTrue(a.flush(10, TimeUnit.SECONDS));
+        assertEquals(out.size(), a.getDelivered());
+    }
+}
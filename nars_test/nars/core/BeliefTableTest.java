@@ -0,0 +1,156 @@
+package nars.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import nars.entity.BudgetValue;
+import nars.entity.Concept;
+import nars.entity.Sentence;
+import nars.entity.Stamp;
+import nars.entity.Task;
+import nars.entity.TruthValue;
+import nars.inference.LocalRules;
+import nars.io.Narsese;
+import nars.io.Symbols;
+import nars.language.Tense;
+import nars.language.Term;
+import nars.main.NAR;
+import nars.main.Parameters;
+import nars.storage.BeliefTable;
+import static nars.inference.BudgetFunctions.rankBelief;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import org.junit.Test;
+
+/**
+ * A BeliefTable must hold the entries in the order the linear insertion
+ * gave them, and selectCandidate must pick the entry a full scan picks
+ */
+public class BeliefTableTest {
+
+    /** the insertion by linear search, which BeliefTable replaces */
+    static Task addLinear(Task newTask, List<Task> table, int capacity, boolean rankTruthExpectation) {
+        Sentence newSentence = newTask.sentence;
+        float rank1 = rankBelief(newSentence, rankTruthExpectation);
+        int i;
+        for (i = 0; i < table.size(); i++) {
+            Sentence judgment2 = table.get(i).sentence;
+            if (rank1 >= rankBelief(judgment2, rankTruthExpectation)) {
+                if (newSentence.truth.equals(judgment2.truth) && newSentence.stamp.equals(judgment2.stamp, false, true, true)) {
+                    return null;
+                }
+                table.add(i, newTask);
+                break;
+            }
+        }
+        if (table.size() > capacity) {
+            return table.remove(table.size() - 1);
+        } else if (table.size() < capacity && i == table.size()) {
+            table.add(newTask);
+        }
+        return null;
+    }
+
+    static Task task(Term term, char punctuation, Random r, long serial) {
+        //coarse truth values, so that ranks and whole entries repeat
+        TruthValue truth = new TruthValue(r.nextInt(5) / 4.0f, 0.1f + r.nextInt(8) / 10.0f);
+        Stamp stamp = new Stamp(0, r.nextBoolean() ? Tense.Eternal : Tense.Present, serial, Parameters.DURATION);
+        if (!stamp.isEternal()) {
+            stamp.setOccurrenceTime(r.nextInt(50));
+        }
+        return new Task(new Sentence(term, punctuation, truth, stamp), new BudgetValue(0.5f, 0.5f, 0.5f), true);
+    }
+
+    @Test
+    public void testSameOrderAsLinear() throws Exception {
+        Term term = new Narsese(new NAR()).parseTerm("<a --> b>");
+        Random r = new Random(1);
+        for (boolean byExpectation : new boolean[] { false, true }) {
+            BeliefTable table = new BeliefTable(byExpectation);
+            List<Task> linear = new ArrayList<>();
+            for (int i = 0; i < 20000; i++) {
+                float op = r.nextFloat();
+                if (op < 0.9f) {
+                    Task t = task(term, Symbols.JUDGMENT_MARK, r, r.nextInt(40));
+                    assertSame(addLinear(t, linear, 12, byExpectation), Concept.addToTable(t, table, 12));
+                } else if (op < 0.97f && !table.isEmpty()) {
+                    int k = r.nextInt(table.size());
+                    assertSame(linear.remove(k), table.remove(k));
+                } else if (op < 0.99f && !table.isEmpty()) {
+                    Task t = table.get(r.nextInt(table.size()));
+                    linear.remove(t);
+                    table.remove(t);
+                } else {
+                    linear.clear();
+                    table.clear();
+                }
+                assertEquals(linear, table);
+
+                Task eternal = null, event = null;
+                for (Task t : linear) {
+                    if (eternal == null && t.sentence.isEternal()) {
+                        eternal = t;
+                    }
+                    if (event == null && !t.sentence.isEternal()) {
+                        event = t;
+                    }
+                }
+                assertSame(eternal, table.firstEternal());
+                assertSame(event, table.firstEvent());
+                assertEquals(linear.subList(0, Math.min(3, linear.size())), table.top(3));
+            }
+        }
+    }
+
+    @Test
+    public void testDiscountThenAdd() throws Exception {
+        NAR n = new NAR();
+        Narsese p = new Narsese(n);
+        Concept c = n.memory.conceptualize(new BudgetValue(0.5f, 0.5f, 0.5f), p.parseTerm("<a --> b>"));
+        List<Task> linear = new ArrayList<>();
+        for (String s : new String[] { "<a --> b>. %1.0;0.9%", "<a --> b>. %1.0;0.8%" }) {
+            Task t = p.parseTask(s);
+            Concept.addToTable(t, c.beliefs, Parameters.CONCEPT_BELIEFS_MAX);
+            linear.add(t);
+        }
+        //the truth is changed in place, the cached ranks with it
+        c.discountConfidence(true);
+        assertEquals(0.9f * Parameters.DISCOUNT_RATE, c.beliefs.rank(0), 0.001f);
+
+        Task t = p.parseTask("<a --> b>. %1.0;0.75%");
+        Concept.addToTable(t, c.beliefs, Parameters.CONCEPT_BELIEFS_MAX);
+        addLinear(t, linear, Parameters.CONCEPT_BELIEFS_MAX, false);
+        assertEquals(linear, c.beliefs);
+        assertSame(t, c.beliefs.get(0));
+    }
+
+    @Test
+    public void testSelectCandidate() throws Exception {
+        NAR n = new NAR();
+        Narsese p = new Narsese(n);
+        Term term = p.parseTerm("<a --> b>");
+        Concept c = n.memory.conceptualize(new BudgetValue(0.5f, 0.5f, 0.5f), term);
+        Random r = new Random(2);
+        for (int round = 0; round < 200; round++) {
+            c.beliefs.clear();
+            for (int i = 0; i < 30; i++) {
+                Concept.addToTable(task(term, Symbols.JUDGMENT_MARK, r, i), c.beliefs, Parameters.CONCEPT_BELIEFS_MAX);
+            }
+            Task query = p.parseTask(r.nextBoolean() ? "<a --> b>?" : "<a --> b>? :|:");
+            if (!query.sentence.isEternal()) {
+                query.sentence.stamp.setOccurrenceTime(r.nextInt(50));
+            }
+
+            Task best = null;
+            float bestQuality = 0;
+            for (Task t : c.beliefs) {
+                float q = LocalRules.solutionQuality(true, query, t.sentence, n.memory);
+                if (q > bestQuality) {
+                    bestQuality = q;
+                    best = t;
+                }
+            }
+            assertSame(best, c.selectCandidate(query, c.beliefs));
+        }
+    }
+}
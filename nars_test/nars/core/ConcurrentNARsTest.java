@@ -0,0 +1,77 @@
+package nars.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import nars.entity.Concept;
+import nars.main.NAR;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import org.junit.Test;
+
+/**
+ * NARs in the same JVM must not share random state, so that many of them can
+ * run at once on a thread pool, each reasoning as it would alone
+ */
+public class ConcurrentNARsTest {
+
+    static final String[] scripts = { "nal1.multistep", "nal5.19", "nal6.uncle", "nal7.18" };
+
+    /** what a NAR derived from a script, to compare runs */
+    static String run(String script, int cycles) {
+        NAR n = new NAR();
+        n.addInputFile("nal/test/" + script + ".nal");
+        n.cycles(cycles);
+        List<String> concepts = new ArrayList<>();
+        for (Concept c : n.memory) {
+            concepts.add(c.getTerm().toString());
+        }
+        Collections.sort(concepts);
+        return script + " " + n.time() + " " + n.memory.logic.TASK_DERIVED.getCount() + " " + concepts;
+    }
+
+    @Test
+    public void testRandomPerMemory() {
+        NAR a = new NAR(), b = new NAR();
+        int first = b.memory.randomNumber.nextInt();
+        b.reset();
+        a.memory.randomNumber.nextInt();
+        assertEquals(first, b.memory.randomNumber.nextInt());
+
+        a.memory.setRandomSeed(2);
+        assertNotEquals(first, a.memory.randomNumber.nextInt());
+        a.reset();
+        assertEquals(2, a.memory.getRandomSeed());
+    }
+
+    @Test
+    public void test64InParallel() throws Exception {
+        final int cycles = 200;
+        String[] expected = new String[scripts.length];
+        for (int i = 0; i < scripts.length; i++) {
+            expected[i] = run(scripts[i], cycles);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> runs = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                final String script = scripts[i % scripts.length];
+                runs.add(pool.submit(new Callable<String>() {
+                    @Override public String call() {
+                        return run(script, cycles);
+                    }
+                }));
+            }
+            for (int i = 0; i < runs.size(); i++) {
+                assertEquals(expected[i % scripts.length], runs.get(i).get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package nars.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import nars.io.events.EventEmitter;
+import nars.io.events.EventEmitter.Channel;
+import nars.io.events.EventEmitter.EventObserver;
+import nars.io.events.Events;
+import nars.main.NAR;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Events emitted through a channel or by class must reach the same
+ * observers, with the same arguments
+ */
+public class EventEmitterTest {
+
+    static class Recorder implements EventObserver {
+        final List<Object[]> events = new ArrayList();
+
+        @Override public void event(Class event, Object[] args) {
+            events.add(args);
+        }
+    }
+
+    @Test
+    public void testChannels() {
+        EventEmitter e = new EventEmitter();
+        Channel c = e.channel(Events.TaskDerive.class);
+        assertSame(c, e.channel(Events.TaskDerive.class));
+        assertTrue(c.isEmpty());
+        assertFalse(e.isActive(Events.TaskDerive.class));
+        c.emit("ignored");
+
+        Recorder a = new Recorder(), b = new Recorder();
+        e.on(Events.TaskDerive.class, a);
+        e.on(Events.TaskDerive.class, b);
+        assertTrue(e.isActive(Events.TaskDerive.class));
+        c.emit();
+        c.emit(1, 2, 3, 4);
+        e.emit(Events.TaskDerive.class, 5, 6);
+        assertEquals(3, a.events.size());
+        assertArrayEquals(new Object[0], a.events.get(0));
+        assertArrayEquals(new Object[] { 1, 2, 3, 4 }, a.events.get(1));
+        assertArrayEquals(new Object[] { 5, 6 }, b.events.get(2));
+
+        e.off(Events.TaskDerive.class, a);
+        c.emit(7);
+        assertEquals(3, a.events.size());
+        assertEquals(4, b.events.size());
+        e.off(Events.TaskDerive.class, b);
+        assertTrue(c.isEmpty());
+    }
+
+    @Test
+    public void testFailingObserver() {
+        EventEmitter e = new EventEmitter(Events.CycleEnd.class);
+        Recorder r = new Recorder();
+        e.on(Events.CycleEnd.class, new EventObserver() {
+            @Override public void event(Class event, Object[] args) {
+                throw new IllegalStateException();
+            }
+        });
+        e.on(Events.CycleEnd.class, r);
+        e.channel(Events.CycleEnd.class).emit();
+        assertEquals(1, r.events.size());
+    }
+
+    @Test
+    public void testMemoryChannels() {
+        NAR n = new NAR();
+        Recorder r = new Recorder();
+        n.on(Events.ConceptFire.class, r);
+        n.on(Events.CycleEnd.class, r);
+        n.addInput("<a --> b>.");
+        n.addInput("<b --> c>.");
+        n.cycles(10);
+        assertTrue(r.events.size() > 10);
+        assertSame(n.memory.event.channel(Events.ConceptFire.class), n.memory.onConceptFire);
+    }
+}
@@ -0,0 +1,177 @@
+package nars.core;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import nars.entity.BudgetValue;
+import nars.entity.Sentence;
+import nars.entity.Stamp;
+import nars.entity.Task;
+import nars.entity.TruthValue;
+import nars.io.Symbols;
+import nars.io.events.EventEmitter.EventObserver;
+import nars.io.events.OutputHandler.IN;
+import nars.language.Tense;
+import nars.language.Term;
+import nars.main.NAR;
+import nars.storage.InputQueue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Input tasks from several threads must all reach memory, or be counted
+ * as dropped or rejected when the input queue overflows
+ */
+public class InputQueueTest {
+
+    static Task task(NAR n, String name, float priority) {
+        Sentence s = new Sentence(Term.get(name), Symbols.JUDGMENT_MARK,
+                new TruthValue(1.0f, 0.9f), new Stamp(n.memory, Tense.Eternal));
+        return new Task(s, new BudgetValue(priority, 0.5f, 0.5f), true);
+    }
+
+    @Test
+    public void testConcurrentProducers() throws InterruptedException {
+        final NAR n = new NAR();
+        final AtomicInteger in = new AtomicInteger();
+        n.on(IN.class, new EventObserver() {
+            @Override public void event(Class event, Object[] args) {
+                in.incrementAndGet();
+            }
+        });
+        final int producers = 4, perProducer = 500;
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            final int k = p;
+            threads[p] = new Thread() {
+                @Override public void run() {
+                    for (int i = 0; i < perProducer; i++) {
+                        n.addInput("<a" + k + "_" + i + " --> b>.");
+                    }
+                }
+            };
+            threads[p].start();
+        }
+        boolean alive = true;
+        while (alive) {
+            n.cycles(1);
+            alive = false;
+            for (Thread t : threads) {
+                alive |= t.isAlive();
+            }
+        }
+        while (!n.memory.input.isEmpty()) {
+            n.cycles(1);
+        }
+        assertEquals(producers * perProducer, in.get());
+        assertEquals(producers * perProducer, n.memory.input.getAccepted());
+        assertEquals(0, n.memory.input.size());
+    }
+
+    @Test
+    public void testBlockWhileStopped() throws InterruptedException {
+        final NAR n = new NAR();
+        final InputQueue q = n.memory.input;
+        final int producers = 4, perProducer = q.getCapacity() / 2;
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            final int k = p;
+            threads[p] = new Thread() {
+                @Override public void run() {
+                    for (int i = 0; i < perProducer; i++) {
+                        n.addInput(task(n, "x" + k + "_" + i, 0.5f));
+                    }
+                }
+            };
+            threads[p].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        //nothing cycles, so the producers handed the excess over to memory
+        //one at a time instead of waiting forever or rejecting it
+        assertEquals(producers * perProducer, q.getAccepted());
+        assertEquals(0, q.getDropped() + q.getRejected());
+        assertEquals(producers * perProducer, q.size() + n.memory.newTasks.size());
+    }
+
+    @Test
+    public void testBlockWhileCycled() throws InterruptedException {
+        final NAR n = new NAR();
+        final InputQueue q = n.memory.input;
+        final int total = q.getCapacity() + 100;
+        final Thread producer = new Thread() {
+            @Override public void run() {
+                for (int i = 0; i < total; i++) {
+                    n.addInput(task(n, "x" + i, 0.5f));
+                }
+            }
+        };
+        //cycled from outside in steps, as a scheduler does
+        n.setRunning(true);
+        producer.start();
+        while (producer.isAlive()) {
+            n.cycles(1);
+        }
+        n.setRunning(false);
+        //the producer waited for the cycles to make room
+        assertEquals(total, q.getAccepted());
+        assertEquals(0, q.getDropped() + q.getRejected());
+    }
+
+    @Test
+    public void testReject() {
+        NAR n = new NAR();
+        InputQueue q = new InputQueue(2, InputQueue.Overflow.REJECT);
+        assertTrue(q.offer(task(n, "a", 0.5f)));
+        assertTrue(q.offer(task(n, "b", 0.5f)));
+        assertTrue(q.isFull());
+        assertFalse(q.offer(task(n, "c", 0.9f)));
+        assertEquals(1, q.getRejected());
+        assertEquals(2, q.size());
+    }
+
+    @Test
+    public void testMemoryParameters() {
+        NAR a = new NAR(), b = new NAR();
+        a.param.inputQueueSize.set(2);
+        a.param.inputOverflow.set(InputQueue.Overflow.REJECT);
+        InputQueue q = a.memory.input;
+        assertTrue(q.offer(task(a, "a", 0.5f)));
+        assertTrue(q.offer(task(a, "b", 0.5f)));
+        assertFalse(q.offer(task(a, "c", 0.5f)));
+        assertEquals(1, q.getRejected());
+        //the other memory keeps its own settings
+        assertEquals(InputQueue.Overflow.BLOCK, b.memory.input.getOverflow());
+        assertTrue(b.memory.input.getCapacity() > 2);
+
+        //a smaller queue takes effect as it is drained
+        a.param.inputQueueSize.set(1);
+        assertFalse(q.offer(task(a, "d", 0.5f)));
+        q.poll();
+        assertTrue(q.isFull());
+        q.poll();
+        assertTrue(q.offer(task(a, "e", 0.5f)));
+        assertTrue(q.isFull());
+        assertEquals(1, q.size());
+    }
+
+    @Test
+    public void testDropLowest() {
+        NAR n = new NAR();
+        InputQueue q = new InputQueue(2, InputQueue.Overflow.DROP_LOWEST);
+        Task high = task(n, "a", 0.8f), low = task(n, "b", 0.2f), mid = task(n, "c", 0.5f);
+        q.offer(high);
+        q.offer(low);
+        assertTrue(q.offer(mid));
+        assertFalse(q.offer(task(n, "d", 0.1f)));
+        assertEquals(2, q.getDropped());
+        assertEquals(2, q.size());
+        assertSame(high, q.poll());
+        assertSame(mid, q.poll());
+        assertNull(q.poll());
+        assertEquals(0, q.size());
+    }
+}
@@ -0,0 +1,101 @@
+package nars.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import nars.entity.Concept;
+import nars.io.KnowledgeLoader;
+import nars.io.KnowledgeLoader.Report;
+import nars.io.Narsese;
+import nars.language.Term;
+import nars.main.NAR;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Bulk loading must count every line, drop duplicates, and put the tasks into
+ * the memory without running cycles
+ */
+public class KnowledgeLoaderTest {
+
+    static File write(String... lines) throws IOException {
+        File f = File.createTempFile("knowledge", ".nal");
+        f.deleteOnExit();
+        Files.write(f.toPath(), Arrays.asList(lines), StandardCharsets.UTF_8);
+        return f;
+    }
+
+    @Test
+    public void testReports() throws IOException {
+        File a = write(
+            "//animals",
+            "<bird --> animal>.",
+            "",
+            "<robin --> bird>. %0.9;0.8%",
+            "$0.9$ <bird --> animal>.",
+            "<robin --> [flying]>?",
+            "<robin --> >.",
+            "10",
+            "''outputMustContain('<robin --> animal>.')");
+        File b = write(
+            "<robin --> bird>. %0.9;0.8%",
+            "<robin --> bird>. %0.5;0.8%",
+            "(&&,<a --> b>,<c --> d>)!",
+            "*volume=0",
+            "<a --> b>");
+
+        NAR n = new NAR();
+        List<Report> r = new KnowledgeLoader(n.memory, new ForkJoinPool(2), 4, false).load(a, b);
+
+        assertEquals(9, r.get(0).lines);
+        assertEquals(3, r.get(0).tasks);
+        assertEquals(1, r.get(0).duplicates);
+        assertEquals(4, r.get(0).skipped);
+        assertEquals(1, r.get(0).errors.size());
+        assertTrue(r.get(0).errors.get(0).startsWith("7: "));
+
+        assertEquals(5, r.get(1).lines);
+        assertEquals(2, r.get(1).tasks);
+        assertEquals(1, r.get(1).duplicates);
+        assertEquals(1, r.get(1).skipped);
+        assertEquals(1, r.get(1).errors.size());
+        assertTrue(r.get(1).errors.get(0).startsWith("5: "));
+
+        assertEquals(0, n.time());
+        assertEquals(5, n.memory.newTasks.size());
+    }
+
+    @Test
+    public void testPrefill() throws Exception {
+        File a = write(
+            "<bird --> animal>.",
+            "<robin --> bird>. %0.9;0.8%",
+            "<robin --> [flying]>!",
+            "<robin --> animal>?");
+        NAR n = new NAR();
+        Report r = new KnowledgeLoader(n.memory, true).load(a);
+        assertEquals(4, r.tasks);
+        assertEquals(0, n.time());
+
+        Narsese p = new Narsese(n);
+        Concept c = n.memory.concept(p.parseTerm("<robin --> bird>"));
+        assertNotNull(c);
+        assertEquals(1, c.beliefs.size());
+        assertEquals(0.9f, c.beliefs.get(0).sentence.truth.getFrequency(), 0.001f);
+        assertEquals(1, n.memory.concept(p.parseTerm("<robin --> [flying]>")).desires.size());
+        //the question is input as usual
+        assertEquals(1, n.memory.newTasks.size());
+
+        //the loaded knowledge is used by inference
+        n.cycles(200);
+        Term derived = p.parseTerm("<robin --> animal>");
+        assertNotNull(n.memory.concept(derived));
+        assertTrue(n.memory.concept(derived).beliefs.size() > 0);
+    }
+}
@@ -0,0 +1,145 @@
+package nars.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import nars.entity.Concept;
+import nars.main.NAR;
+import nars.storage.Memory;
+import nars.storage.MemoryJournal;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A memory restored from its journal must be at the last journaled cycle,
+ * with the same concepts and belief and desire tables
+ */
+public class MemoryJournalTest {
+
+    File dir;
+
+    @Before public void init() throws IOException {
+        dir = File.createTempFile("journal", "");
+        dir.delete();
+    }
+
+    @After public void cleanup() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    static TreeMap<String,String> tables(Memory m) {
+        TreeMap<String,String> d = new TreeMap();
+        for (Concept c : m) {
+            d.put(c.term.toString(), c.beliefs.toString() + c.desires + c.executable_preconditions);
+        }
+        return d;
+    }
+
+    NAR run(String path, int snapshotCycles, int cycles) throws IOException {
+        NAR n = new NAR();
+        n.addInputFile(path);
+        MemoryJournal j = new MemoryJournal(n.memory, dir, snapshotCycles, 4096);
+        j.start();
+        n.cycles(cycles);
+        j.stop();
+        return n;
+    }
+
+    @Test
+    public void testRestore() throws IOException {
+        NAR a = run("nal/test/nal5.18.nal", 1000, 300);
+        NAR b = new NAR();
+        assertEquals(300, MemoryJournal.restore(b.memory, dir));
+        assertEquals(a.time(), b.time());
+        assertEquals(tables(a.memory), tables(b.memory));
+        //new stamps do not reuse the serials of the restored ones
+        assertEquals(a.memory.getStampSerial(), b.memory.getStampSerial());
+
+        //the restored memory keeps reasoning
+        b.cycles(100);
+        assertEquals(a.time() + 100, b.time());
+    }
+
+    @Test
+    public void testStampSerialAfterRestore() throws IOException {
+        NAR a = new NAR();
+        MemoryJournal j = new MemoryJournal(a.memory, dir, 1000, 4096);
+        j.start();
+        //inputs after the snapshot take serials only the journal knows of
+        for (int i = 0; i < 30; i++) {
+            a.addInput("<a" + i + " --> b>.");
+            a.cycles(1);
+        }
+        j.stop();
+        NAR b = new NAR();
+        assertEquals(30, MemoryJournal.restore(b.memory, dir));
+        assertTrue(a.memory.getStampSerial() >= 30);
+        assertEquals(a.memory.getStampSerial(), b.memory.getStampSerial());
+    }
+
+    @Test
+    public void testCompaction() throws IOException {
+        NAR a = run("nal/test/nal7.0.nal", 100, 450);
+        TreeSet<String> generations = new TreeSet();
+        for (String f : dir.list()) {
+            generations.add(f.split("-")[1]);
+        }
+        assertEquals(1, generations.size());
+
+        NAR b = new NAR();
+        assertEquals(50, MemoryJournal.restore(b.memory, dir));
+        assertEquals(a.time(), b.time());
+        assertEquals(tables(a.memory), tables(b.memory));
+        assertEquals(a.memory.getStampSerial(), b.memory.getStampSerial());
+    }
+
+    @Test
+    public void testSnapshotOverSeveralCycles() throws IOException {
+        NAR a = new NAR();
+        a.addInputFile("nal/test/nal5.18.nal");
+        MemoryJournal j = new MemoryJournal(a.memory, dir, 100, 4096);
+        //the concepts change while the snapshots are encoded
+        j.setSnapshotConcepts(5);
+        j.start();
+        a.cycles(300);
+        j.stop();
+        assertTrue(a.memory.concepts.size() > 5 * 10);
+
+        NAR b = new NAR();
+        assertEquals(100, MemoryJournal.restore(b.memory, dir));
+        assertEquals(a.time(), b.time());
+        assertEquals(tables(a.memory), tables(b.memory));
+        assertEquals(a.memory.getStampSerial(), b.memory.getStampSerial());
+    }
+
+    @Test
+    public void testCrashDuringWrite() throws IOException {
+        NAR a = run("nal/test/nal2.0.nal", 1000, 200);
+        File[] journals = dir.listFiles();
+        File last = null;
+        for (File f : journals) {
+            if (f.getName().startsWith("journal") && (last == null || f.getName().compareTo(last.getName()) > 0)) {
+                last = f;
+            }
+        }
+        //cut the last frame in half
+        try (RandomAccessFile r = new RandomAccessFile(last, "rw")) {
+            r.setLength(r.length() - 3);
+        }
+        NAR b = new NAR();
+        int replayed = MemoryJournal.restore(b.memory, dir);
+        assertTrue(replayed > 0 && replayed < 200);
+        assertEquals(a.time() - 200 + replayed, b.time());
+    }
+}
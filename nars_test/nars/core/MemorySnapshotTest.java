@@ -0,0 +1,137 @@
+package nars.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import nars.entity.Concept;
+import nars.entity.Task;
+import nars.entity.TaskLink;
+import nars.entity.TermLink;
+import nars.io.Narsese;
+import nars.main.NAR;
+import nars.storage.Memory;
+import nars.storage.MemorySnapshot;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * A memory loaded from a snapshot must hold the same concepts, tables and links
+ */
+public class MemorySnapshotTest {
+
+    static void tasks(StringBuilder s, String table, List<Task> tasks) {
+        s.append(table).append(':');
+        for (Task t : tasks) {
+            s.append(' ').append(t.toStringLong()).append(t.sentence.stamp.getCreationTime());
+        }
+        s.append('\n');
+    }
+
+    /** one line per concept, sorted by term */
+    static TreeMap<String,String> describe(Memory m) {
+        TreeMap<String,String> d = new TreeMap();
+        for (Concept c : m) {
+            StringBuilder s = new StringBuilder();
+            s.append(c.budget).append('\n');
+            tasks(s, "beliefs", c.beliefs);
+            tasks(s, "desires", c.desires);
+            tasks(s, "questions", c.questions);
+            tasks(s, "quests", c.quests);
+            TreeMap<String,String> links = new TreeMap();
+            for (TaskLink l : c.taskLinks) {
+                links.put(l.targetTask.toString() + " " + l.type, l.budget.toString());
+            }
+            s.append(links).append('\n');
+            links.clear();
+            for (TermLink l : c.termLinks) {
+                links.put(l.toString(), l.budget.toString());
+            }
+            s.append(links).append('\n');
+            d.put(c.term.toString(), s.toString());
+        }
+        return d;
+    }
+
+    /** the task links whose target is a task of a table of a concept, the same instance */
+    static int sharedTasks(Memory m) {
+        Set<Task> tables = Collections.newSetFromMap(new IdentityHashMap<Task,Boolean>());
+        for (Concept c : m) {
+            tables.addAll(c.beliefs);
+            tables.addAll(c.desires);
+            tables.addAll(c.questions);
+            tables.addAll(c.quests);
+        }
+        int shared = 0;
+        for (Concept c : m) {
+            for (TaskLink l : c.taskLinks) {
+                if (tables.contains(l.targetTask)) {
+                    shared++;
+                }
+            }
+        }
+        return shared;
+    }
+
+    /** returns the number of task links to a task of a table */
+    public int testScript(String path, boolean mapped) throws Exception {
+        NAR a = new NAR();
+        a.addInputFile(path);
+        a.cycles(200);
+        //accepted input, not processed yet
+        a.memory.input.offer(new Narsese(a).parseTask("<queued --> input>."));
+
+        File f = File.createTempFile("memory", ".snapshot");
+        try {
+            MemorySnapshot.save(a.memory, f);
+            NAR b = new NAR();
+            MemorySnapshot.load(b.memory, f, mapped);
+
+            assertEquals(a.time(), b.time());
+            assertTrue(path, a.memory.concepts.size() > 0);
+            assertEquals(path, describe(a.memory), describe(b.memory));
+            assertEquals(a.memory.newTasks.size(), b.memory.newTasks.size());
+            assertEquals(a.memory.newStampSerial(), b.memory.newStampSerial());
+            assertEquals(a.memory.input.toList().toString(), b.memory.input.toList().toString());
+            int shared = sharedTasks(a.memory);
+            assertEquals(path, shared, sharedTasks(b.memory));
+
+            //the loaded memory keeps reasoning
+            b.cycles(100);
+            assertEquals(a.time() + 100, b.time());
+            return shared;
+        } finally {
+            f.delete();
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        int shared = testScript("nal/test/nal1.3.nal", true);
+        shared += testScript("nal/test/nal5.18.nal", false);
+        shared += testScript("nal/test/nal7.0.nal", true);
+        shared += testScript("nal/test/nal8.1.0.nal", false);
+        //a link and a table entry are one task, as before saving
+        assertTrue(shared > 0);
+    }
+
+    @Test
+    public void testNARFile() throws IOException {
+        NAR a = new NAR();
+        a.addInputFile("nal/test/nal2.0.nal");
+        a.cycles(100);
+        File f = File.createTempFile("memory", ".snapshot");
+        try {
+            a.SaveToFile(f.getPath());
+            NAR b = NAR.LoadFromFile(f.getPath());
+            assertEquals(describe(a.memory), describe(b.memory));
+            assertEquals(a.memory.operators.keySet(), b.memory.operators.keySet());
+        } finally {
+            f.delete();
+        }
+    }
+}
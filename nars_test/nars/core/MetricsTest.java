@@ -0,0 +1,113 @@
+package nars.core;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.concurrent.atomic.AtomicBoolean;
+import nars.entity.TermLink;
+import nars.main.NAR;
+import nars.storage.Metrics;
+import nars.storage.Metrics.Snapshot;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * The metrics of a memory must count what it did, per cycle phase, reason
+ * and rule branch, and be dumped every given number of cycles
+ */
+public class MetricsTest {
+
+    static NAR run(int cycles) {
+        NAR n = new NAR();
+        n.addInput("<bird --> animal>.");
+        n.addInput("<robin --> bird>.");
+        n.addInput("<(*,a,b) --> like>.");
+        n.addInput("<<$x --> bird> ==> <$x --> [flying]>>.");
+        n.addInput("<robin --> [flying]>?");
+        n.cycles(cycles);
+        return n;
+    }
+
+    @Test
+    public void testCounts() {
+        NAR n = run(100);
+        Metrics m = n.memory.logic;
+        assertEquals(100, m.CYCLE_TIME.getCount());
+        assertEquals(100, m.FIRE_TIME.getCount());
+        assertTrue(m.CYCLE_TIME.getMean() > 0);
+        assertTrue(m.CYCLE_TIME.getQuantile(0.5) <= m.CYCLE_TIME.getMax());
+        assertTrue(m.TASK_DERIVED.getCount() > 0);
+        assertTrue(m.TASK_ADD_NEW.getCount() >= m.TASK_DERIVED.getCount() / 2);
+        assertTrue(m.CONCEPT_NEW.getCount() > 0);
+        assertTrue(m.JUDGMENT_PROCESS.getCount() > 0);
+        assertTrue(m.REASON.getCount() > 0);
+        assertTrue(m.UNIFY.getCount() > 0);
+        assertEquals(n.memory.concepts.size(), (int) m.CONCEPTS.getLast());
+
+        long rules = 0;
+        for (short[] b : Metrics.RULE_BRANCHES) {
+            rules += m.getRuleCount(b[0], b[1]);
+        }
+        assertTrue(rules > 0);
+        assertTrue(m.getRuleCount(TermLink.COMPOUND_STATEMENT, TermLink.COMPOUND_STATEMENT) > 0);
+
+        Snapshot s = m.snapshot(n.time());
+        assertEquals(m.TASK_DERIVED.getCount(), (long) s.get("TASK_DERIVED"));
+        assertEquals(5, (long) s.get("TASK_ADD.Perceived"));
+        assertTrue(Double.isNaN(s.get("nothing")));
+
+        n.reset();
+        assertEquals(0, m.TASK_DERIVED.getCount());
+        assertEquals(0, m.CYCLE_TIME.getCount());
+        assertEquals(0, (long) m.snapshot(0).get("TASK_ADD.Perceived"));
+    }
+
+    @Test
+    public void testUnifyPerMemory() throws InterruptedException {
+        final NAR idle = new NAR();
+        final AtomicBoolean done = new AtomicBoolean();
+        Thread t = new Thread() {
+            @Override public void run() {
+                while (!done.get()) {
+                    idle.cycles(1);
+                }
+            }
+        };
+        t.start();
+        NAR n;
+        try {
+            n = run(300);
+        } finally {
+            done.set(true);
+            t.join();
+        }
+        //the unifications of the other memory, cycling at the same time, are not counted
+        assertTrue(n.memory.logic.UNIFY.getCount() > 0);
+        assertTrue(idle.memory.logic.CYCLE_TIME.getCount() > 0);
+        assertEquals(0, idle.memory.logic.UNIFY.getCount());
+    }
+
+    @Test
+    public void testDump() {
+        NAR n = new NAR();
+        StringWriter csv = new StringWriter();
+        n.memory.logic.setDump(new PrintWriter(csv), false, 10);
+        n.addInput("<bird --> animal>.");
+        n.cycles(30);
+        String[] lines = csv.toString().trim().split("\n");
+        //a header, then a row every 10 cycles
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].startsWith("time,\"TASK_ADD_NEW\""));
+        assertTrue(lines[1].startsWith("10,"));
+        assertTrue(lines[3].startsWith("30,"));
+        assertEquals(lines[0].split(",").length, lines[3].split(",").length);
+
+        StringWriter json = new StringWriter();
+        n.memory.logic.setDump(new PrintWriter(json), true, 5);
+        n.cycles(5);
+        String line = json.toString().trim();
+        assertTrue(line.startsWith("{\"time\":35,\"TASK_ADD_NEW\":"));
+        assertTrue(line.endsWith("}"));
+        assertTrue(line.contains("\"CYCLE_TIME.p99\":"));
+    }
+}
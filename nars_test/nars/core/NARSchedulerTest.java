@@ -0,0 +1,104 @@
+package nars.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import nars.io.Narsese;
+import nars.main.NAR;
+import nars.main.NARScheduler;
+import nars.main.NARScheduler.Session;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * The scheduler must run many NARs on few workers, share the workers by the
+ * sessions' budgets, and park the sessions without input until new input
+ */
+public class NARSchedulerTest {
+
+    static void waitFor(Session s, long cycles) throws InterruptedException {
+        for (int i = 0; i < 1000 && s.getCycles() < cycles; i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    static void waitParked(Session s) throws InterruptedException {
+        for (int i = 0; i < 1000 && !s.isParked(); i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void testParkAndWake() throws Exception {
+        NARScheduler scheduler = new NARScheduler(2);
+        scheduler.idleCycles = 50;
+        try {
+            List<Session> sessions = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                NAR n = new NAR();
+                n.addInput("<a" + i + " --> b>.");
+                sessions.add(scheduler.add(n, 5, 0));
+            }
+            for (Session s : sessions) {
+                waitParked(s);
+                assertTrue(s.isParked());
+                assertTrue(s.nar.isRunning());
+                assertTrue(s.getCycles() >= 50);
+                assertEquals(0, s.getCycleRate(), 0);
+            }
+
+            Session s = sessions.get(0);
+            long parkedAt = s.getCycles();
+            Thread.sleep(50);
+            assertEquals(parkedAt, s.getCycles());
+
+            //input is only queued while running, the scheduler cycles it in
+            s.nar.addInput("<b --> c>.");
+            s.nar.addInput("100");
+            assertEquals(parkedAt, s.getCycles());
+            s.wake();
+            waitFor(s, parkedAt + 50);
+            waitParked(s);
+            assertTrue(s.getCycles() >= parkedAt + 50);
+            assertTrue(s.nar.memory.concept(new Narsese(s.nar).parseTerm("<b --> c>")) != null);
+
+            s.close();
+            assertFalse(s.nar.isRunning());
+            assertEquals(31, scheduler.getSessions().size());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testBudget() throws InterruptedException {
+        NARScheduler scheduler = new NARScheduler(1);
+        scheduler.idleCycles = Long.MAX_VALUE;
+        try {
+            Session small = scheduler.add(new NAR(), 1, 0);
+            Session large = scheduler.add(new NAR(), 4, 0);
+            //the first session may run alone until the second is added
+            waitFor(large, 1);
+            long smallFrom = small.getCycles(), largeFrom = large.getCycles();
+            waitFor(small, smallFrom + 200);
+            double ratio = (double) (large.getCycles() - largeFrom) / (small.getCycles() - smallFrom);
+            assertTrue("ratio " + ratio, ratio > 2 && ratio < 8);
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testCyclePeriod() throws InterruptedException {
+        NARScheduler scheduler = new NARScheduler(1);
+        scheduler.idleCycles = Long.MAX_VALUE;
+        try {
+            Session s = scheduler.add(new NAR(), 1, 20);
+            Thread.sleep(500);
+            assertTrue(s.getCycles() + " cycles", s.getCycles() >= 5 && s.getCycles() <= 30);
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+}
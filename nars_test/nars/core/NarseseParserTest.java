@@ -0,0 +1,174 @@
+package nars.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import nars.entity.Task;
+import nars.io.Narsese;
+import nars.io.Narsese.InvalidInputException;
+import nars.io.NarseseParser;
+import nars.language.Term;
+import nars.main.NAR;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+/**
+ * NarseseParser must give the same Tasks and Terms as Narsese
+ */
+public class NarseseParserTest {
+
+    static void nalFiles(File dir, List<File> files) {
+        for (File f : dir.listFiles()) {
+            if (f.isDirectory()) {
+                nalFiles(f, files);
+            } else if (f.getName().endsWith(".nal")) {
+                files.add(f);
+            }
+        }
+    }
+
+    static String describe(Term t) {
+        return t == null ? "null" : t.getClass().getSimpleName() + " " + t;
+    }
+
+    static String describe(Task t) {
+        return t.toStringLong() + " " + t.sentence.stamp.getTense() + " " + describe(t.getTerm());
+    }
+
+    final Narsese narsese = new Narsese(new NAR());
+    final NarseseParser parser = new NarseseParser(new NAR().memory);
+
+    /** the same task from both parsers, or both reject the line */
+    boolean assertSameTask(String line) {
+        String expected, actual;
+        try {
+            expected = describe(narsese.parseTask(line));
+        } catch (Exception e) {
+            expected = "invalid";
+        }
+        try {
+            actual = describe(parser.parseTask(line));
+        } catch (Exception e) {
+            actual = "invalid";
+        }
+        assertEquals(line, expected, actual);
+        return !actual.equals("invalid");
+    }
+
+    void assertSameTerm(String term) {
+        String expected, actual;
+        try {
+            expected = describe(narsese.parseTerm(term));
+        } catch (Exception e) {
+            expected = "invalid";
+        }
+        try {
+            actual = describe(parser.parseTerm(term));
+        } catch (Exception e) {
+            actual = "invalid";
+        }
+        assertEquals(term, expected, actual);
+    }
+
+    @Test
+    public void testCorpus() throws IOException {
+        List<File> files = new ArrayList();
+        nalFiles(new File("nal"), files);
+        int parsed = 0;
+        for (File f : files) {
+            for (String line : Files.readAllLines(f.toPath(), StandardCharsets.ISO_8859_1)) {
+                line = line.trim();
+                if (!line.isEmpty() && assertSameTask(line)) {
+                    parsed++;
+                }
+            }
+        }
+        assertTrue(parsed > 500);
+    }
+
+    @Test
+    public void testTasks() {
+        String[] lines = {
+            "<a --> b>.",
+            "$0.8;0.5$ <a --> b>! %0.9;0.8%",
+            "$0.8;0.5;0.3$ <a --> b>@",
+            "<(*,a,b) --> like>. :|: %1.0%",
+            "<(&/,<a --> b>,+5,(^go,{SELF},x)) =/> <c --> d>>. :\\:",
+            "<{x, y} <-> [big , red]>?",
+            "<\"hello world\" --> [\"a:b\"]>.",
+            "(^pick,{SELF},ball)!",
+            "^pick(ball)!",
+            "<#x --> (/,open,$y,_)>. :/:",
+            "<$1 ==> <$1 --> b>>.",
+            "(--,<a --> b>).",
+            "<a {-- b>.",
+            "<a --] b>.",
+            "<p[1,2] --> q>.",
+            "<a-->b>.",
+            "<(*,a,b)-->c>.",
+            "(&&,a,b,).",
+            "(^go-to,{SELF},x)!",
+            "<(&|,<a --> b>,<c --> d>) <=> <e --> f>>.",
+            "<(a) --> b>.",
+            "<a --> b> c.",
+            "$0.5$",
+            "<a --> b>",
+            "<a --> b>. %%",
+            "<a --> b>. %1.0",
+            "<a -> b>.",
+            "(&&,,a).",
+            "(foo,a,b).",
+            "<a --> b>; ",
+            " ",
+            "",
+        };
+        for (String line : lines) {
+            assertSameTask(line);
+        }
+    }
+
+    @Test
+    public void testEmptyTask() {
+        for (String line : new String[] { "", " ", "\t \r\n" }) {
+            try {
+                parser.parseTask(line);
+                fail("parsed '" + line + "'");
+            } catch (InvalidInputException e) {
+                //expected, rather than an index out of bounds
+            }
+        }
+    }
+
+    @Test
+    public void testTerms() {
+        String[] terms = {
+            "a", " a ", "$x", "#", "+3", "<a --> b>", "<<a --> b> ==> <c <-> d>>",
+            "(&,{a},[b])", "(\\,eat,_,food)", "(/,(*,a,b),_,c)", "{a,b,a}", "[ x ]",
+            "(--,a)", "a b", "(a", "{a,b", "[a", "<a --> b", "^go()", "go(x,y)", "", "( )",
+        };
+        for (String t : terms) {
+            assertSameTerm(t);
+        }
+    }
+
+    @Test
+    public void testMemoryNotRetained() throws InterruptedException {
+        NAR n = new NAR();
+        n.addInput("<a --> b>.");
+        WeakReference<Object> memory = new WeakReference(n.memory);
+        n = null;
+        for (int i = 0; i < 20 && memory.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        //the parser of this thread must not keep the memory alive
+        assertNull(memory.get());
+    }
+}
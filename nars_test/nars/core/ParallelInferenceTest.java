@@ -0,0 +1,67 @@
+package nars.core;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import nars.entity.Task;
+import nars.io.events.EventEmitter.EventObserver;
+import nars.io.events.Events;
+import nars.lab.testutils.OutputCondition;
+import nars.main.NAR;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Runs some of the NAL1/NAL2 scripts with concepts fired on worker threads
+ */
+public class ParallelInferenceTest {
+
+    public void testScript(String path, int cycles) {
+        NAR n = new NAR();
+        n.param.threads.set(4);
+        List<OutputCondition> expects = OutputCondition.getConditions(n, NALTest.getExample(path), 0);
+        n.addInputFile(path);
+        n.cycles(cycles);
+        assertTrue(path, !expects.isEmpty());
+        for (OutputCondition e : expects) {
+            assertTrue(path + ": " + e, e.succeeded);
+        }
+    }
+
+    /** the derived inheritances between atoms, which need the beliefs of another concept */
+    static Set<String> syllogisms(int threads, int cycles) {
+        NAR n = new NAR();
+        n.param.threads.set(threads);
+        final Set<String> derived = new TreeSet<>();
+        n.on(Events.TaskDerive.class, new EventObserver() {
+            @Override public void event(Class event, Object[] args) {
+                Task t = (Task) args[0];
+                String term = t.getTerm().toString();
+                if (t.sentence.isJudgment() && term.matches("<\\w --> \\w>")) {
+                    derived.add(term);
+                }
+            }
+        });
+        n.addInput("<a --> b>.");
+        n.addInput("<b --> c>.");
+        n.addInput("<c --> d>.");
+        n.cycles(cycles);
+        return derived;
+    }
+
+    @Test public void testSameSyllogisms() {
+        Set<String> sequential = syllogisms(1, 50);
+        assertTrue(sequential.size() >= 4);
+        for (int i = 0; i < 5; i++) {
+            //with as many threads as concepts, those fired together still find each other's beliefs
+            Set<String> parallel = syllogisms(8, 50);
+            assertTrue(parallel + " misses some of " + sequential, parallel.containsAll(sequential));
+        }
+    }
+
+    @Test public void testNAL() {
+        for (String s : new String[] { "nal1.0", "nal1.1", "nal1.2", "nal1.3", "nal2.0" }) {
+            testScript("nal/test/" + s + ".nal", 500);
+        }
+    }
+}
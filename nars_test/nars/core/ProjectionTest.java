@@ -0,0 +1,92 @@
+package nars.core;
+
+import nars.entity.Sentence;
+import nars.entity.TruthValue;
+import nars.inference.TruthFunctions.EternalizedTruthValue;
+import nars.io.Narsese;
+import nars.main.NAR;
+import nars.main.Parameters;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * The cached projection and the projection into a given truth value must
+ * agree with the projection that allocates
+ */
+public class ProjectionTest {
+
+    static Sentence sentence(NAR n, String s, long occurrence) throws Exception {
+        Sentence x = new Narsese(n).parseTask(s).sentence;
+        if (!x.isEternal()) {
+            x.stamp.setOccurrenceTime(occurrence);
+        }
+        return x;
+    }
+
+    @Test
+    public void testProjectionTruthIntoHolder() throws Exception {
+        NAR n = new NAR();
+        Sentence[] sentences = {
+            sentence(n, "<a --> b>. :|: %0.8;0.9%", 10),
+            sentence(n, "<a --> b>. :|: %0.3;0.99%", 500),
+            sentence(n, "<a --> b>. %0.6;0.7%", 0)
+        };
+        long[] times = { -1, 0, 10, 11, 100, 100000, Long.MIN_VALUE };
+        TruthValue holder = new TruthValue();
+        for (Sentence s : sentences) {
+            for (long target : times) {
+                for (long now : times) {
+                    if (now == Long.MIN_VALUE) {
+                        continue;
+                    }
+                    TruthValue expected = s.projectionTruth(target, now);
+                    assertSame(holder, s.projectionTruth(target, now, holder));
+                    assertEquals(expected, holder);
+                    assertEquals(expected.getConfidence(), holder.getConfidence(), 0);
+                    assertEquals(expected.getAnalytic(), holder.getAnalytic());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCachedProjection() throws Exception {
+        NAR n = new NAR();
+        Sentence event = sentence(n, "<a --> b>. :|:", 10);
+        Sentence p = event.getProjection(20, 30);
+        assertSame(p, event.getProjection(20, 30));
+        Sentence copy = event.projection(20, 30);
+        assertNotSame(p, copy);
+        assertEquals(copy.truth, p.truth);
+        assertEquals(copy.getOccurenceTime(), p.getOccurenceTime());
+
+        //another time is projected again
+        Sentence later = event.getProjection(20, 31);
+        assertNotSame(p, later);
+        assertEquals(event.projection(20, 31).truth, later.truth);
+
+        //far enough, the eternalized truth wins
+        Sentence far = event.getProjection(1000000, 1000000);
+        assertTrue(far.isEternal());
+        assertTrue(far.truth instanceof EternalizedTruthValue);
+
+        //a changed occurrence time is not served from the cache
+        Sentence before = event.getProjection(20, 31);
+        event.stamp.setOccurrenceTime(25);
+        Sentence moved = event.getProjection(20, 31);
+        assertNotSame(before, moved);
+        assertEquals(event.projection(20, 31).truth, moved.truth);
+        assertFalse(before.truth.getConfidence() == moved.truth.getConfidence());
+
+        //nor is one made before the truth was discounted
+        event.discountConfidence();
+        Sentence discounted = event.getProjection(20, 31);
+        assertNotSame(moved, discounted);
+        assertEquals(event.projection(20, 31).truth, discounted.truth);
+        assertEquals(moved.truth.getConfidence() * Parameters.DISCOUNT_RATE, discounted.truth.getConfidence(), 0.01f);
+    }
+}
@@ -0,0 +1,69 @@
+package nars.core;
+
+import java.util.List;
+import nars.inference.RuleProfiler;
+import nars.inference.RuleProfiler.Entry;
+import nars.inference.RuleProfiler.Rule;
+import nars.main.NAR;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * The rule profiler must attribute calls, time and derived tasks to the rules
+ * applied, only while enabled, and rank them by time
+ */
+public class RuleProfilerTest {
+
+    static NAR run(boolean profile, int cycles) {
+        NAR n = new NAR();
+        n.memory.profiler.setEnabled(profile);
+        n.addInput("<bird --> animal>.");
+        n.addInput("<robin --> bird>.");
+        n.addInput("<swan --> bird>.");
+        n.addInput("<(*,a,b) --> like>.");
+        n.addInput("<<$x --> bird> ==> <$x --> [flying]>>.");
+        n.addInput("<robin --> [flying]>?");
+        n.cycles(cycles);
+        return n;
+    }
+
+    @Test
+    public void testProfile() {
+        NAR n = run(true, 200);
+        RuleProfiler p = n.memory.profiler;
+
+        Entry dispatch = p.get(Rule.DISPATCH);
+        assertTrue(dispatch.calls >= n.memory.logic.REASON.getCount());
+        Entry dedExe = p.get(Rule.DED_EXE);
+        assertTrue(dedExe.calls > 0);
+        assertTrue(dedExe.nanos > 0);
+        assertTrue(dedExe.derived > 0);
+        assertTrue(p.get(Rule.TRANSFORM_PRODUCT_IMAGE).derived > 0);
+
+        long derived = 0, discarded = 0;
+        for (Rule r : Rule.values()) {
+            derived += p.get(r).derived;
+            discarded += p.get(r).discarded;
+        }
+        assertTrue(discarded > 0);
+        assertEquals(n.memory.logic.TASK_DERIVED.getCount(), derived - discarded);
+
+        List<Entry> ranked = p.ranked();
+        for (int i = 1; i < ranked.size(); i++) {
+            assertTrue(ranked.get(i - 1).nanos >= ranked.get(i).nanos);
+        }
+        assertTrue(p.toString().contains(Rule.DED_EXE.label));
+
+        n.reset();
+        assertEquals(0, p.get(Rule.DED_EXE).calls);
+        assertEquals(0, p.ranked().size());
+    }
+
+    @Test
+    public void testDisabled() {
+        NAR n = run(false, 100);
+        assertTrue(n.memory.logic.TASK_DERIVED.getCount() > 0);
+        assertEquals(0, n.memory.profiler.ranked().size());
+    }
+}
@@ -0,0 +1,85 @@
+package nars.core;
+
+import nars.entity.Task;
+import nars.io.Narsese;
+import nars.io.SensorStream;
+import nars.io.Symbols;
+import nars.main.NAR;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * A submitted sensor event must be the task the parser makes of the same
+ * event in Narsese, and a batch must enter memory in one piece
+ */
+public class SensorStreamTest {
+
+    static void assertSameTask(Task expected, Task actual) {
+        assertEquals(expected.sentence.term, actual.sentence.term);
+        assertEquals(expected.sentence.punctuation, actual.sentence.punctuation);
+        assertEquals(expected.sentence.truth, actual.sentence.truth);
+        assertEquals(expected.budget.toString(), actual.budget.toString());
+        assertEquals(expected.sentence.stamp.getOccurrenceTime(), actual.sentence.stamp.getOccurrenceTime());
+        assertEquals(expected.sentence.stamp.getCreationTime(), actual.sentence.stamp.getCreationTime());
+        assertEquals(expected.sentence.stamp.evidentialBase.length, actual.sentence.stamp.evidentialBase.length);
+        assertTrue(actual.isInput());
+    }
+
+    @Test
+    public void testSameAsParsed() throws Exception {
+        NAR n = new NAR();
+        n.cycles(5);
+        SensorStream s = new SensorStream(n);
+        int a = s.register("<{left} --> [on]>");
+        int b = s.register("<(*,x,y) --> at>");
+        int g = s.register("<{SELF} --> [good]>", Symbols.GOAL_MARK);
+        assertEquals(3, s.size());
+
+        s.set(b, 0.25f, 0.5f);
+        s.set(a, 1.0f);
+        s.set(g, 1.0f);
+        s.set(a, 0.0f); //replaces the value set before, keeps the order
+        assertEquals(3, s.submit());
+        assertEquals(0, s.submit());
+
+        Narsese p = new Narsese(n);
+        String[] expected = { "<(*,x,y) --> at>. :|: %0.25;0.5%", "<{left} --> [on]>. :|: %0.0%", "<{SELF} --> [good]>! :|:" };
+        Task[] polled = new Task[expected.length];
+        for (int i = 0; i < expected.length; i++) {
+            Task t = polled[i] = n.memory.input.poll();
+            assertNotNull(t);
+            Task parsed = p.parseTask(expected[i]);
+            n.memory.inputTask(parsed, false);
+            n.memory.inputTask(t, false);
+            assertSameTask(parsed, t);
+            if (i > 0) {
+                assertEquals(polled[i - 1].sentence.stamp.evidentialBase[0] + 1, t.sentence.stamp.evidentialBase[0]);
+            }
+        }
+        assertTrue(n.memory.input.isEmpty());
+        assertSame(s.getTerm(a), polled[1].sentence.term);
+    }
+
+    @Test
+    public void testBatchEntersMemory() throws Exception {
+        NAR n = new NAR();
+        SensorStream s = new SensorStream(n);
+        float[] frequency = new float[64];
+        float[] confidence = new float[64];
+        for (int i = 0; i < frequency.length; i++) {
+            s.register("<s" + i + " --> [on]>");
+            frequency[i] = (i % 2 == 0) ? Float.NaN : 1.0f;
+            confidence[i] = 0.8f;
+        }
+        assertEquals(32, s.submit(frequency, confidence));
+        assertEquals(32, n.memory.input.size());
+        n.cycles(1);
+        Narsese p = new Narsese(n);
+        for (int i = 1; i < frequency.length; i += 2) {
+            assertNotNull(n.memory.concept(p.parseTerm("<s" + i + " --> [on]>")));
+        }
+    }
+}
@@ -29,6 +29,8 @@ import nars.language.Statement;
 import nars.language.Term;
 import nars.operator.Operation;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import org.junit.Test;
 
@@ -294,4 +296,34 @@ public class TermTest {
         
         
     }
+    
+    @Test public void testInternedCompoundNames() throws Exception {
+        Term a = np.parseTerm("<(*,a,b) --> (&/,c,+3,d)>");
+        Term b = np.parseTerm("<(*,a,b) --> (&/,c,+3,d)>");
+        assertNotSame(a, b);
+        assertSame(a.name(), b.name());
+        assertEquals(a, b);
+        
+        CompoundTerm copy = ((CompoundTerm)a).cloneDeep();
+        assertSame(a.name(), copy.name());
+        assertEquals(a, copy);
+        
+        //replacing the intervals of a copy must not keep the name of the original
+        Term noIntervals = CompoundTerm.replaceIntervals(a);
+        assertEquals("<(*,a,b) --> (&/,c,+1,d)>", noIntervals.toString());
+        assertTrue(!a.equals(noIntervals));
+        assertEquals("<(*,a,b) --> (&/,c,+3,d)>", a.toString());
+    }
+    
+    @Test public void testConceptKey() throws Exception {
+        Term a = np.parseTerm("(&/,<a --> b>,+5,<c --> d>)");
+        Term key = a.getConceptKey();
+        assertEquals(CompoundTerm.replaceIntervals(a), key);
+        assertEquals("(&/,<a --> b>,+1,<c --> d>)", key.toString());
+        assertSame(key, a.getConceptKey());
+        assertSame(key, key.getConceptKey());
+        
+        Term atom = np.parseTerm("a");
+        assertSame(atom, atom.getConceptKey());
+    }
 }
@@ -1,8 +1,15 @@
 package nars.core;
 
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
 import static junit.framework.TestCase.assertTrue;
+import nars.entity.Stamp;
 import static nars.entity.Stamp.toSetArray;
+import nars.language.Tense;
 import org.junit.Test;
 
 /**
@@ -30,4 +37,53 @@ public class TestStamp {
                 Arrays.hashCode(toSetArray(new long[] { 1,1,3 }))
         );    
     }
+    
+    static Stamp stamp(long serial) {
+        return new Stamp(0, Tense.Eternal, serial, 5);
+    }
+    
+    /** merges stamps of the given serials, in order */
+    static Stamp stamp(long... serials) {
+        Stamp s = stamp(serials[0]);
+        for (int i = 1; i < serials.length; i++) {
+            s = new Stamp(stamp(serials[i]), s, 0);
+        }
+        return s;
+    }
+    
+    static boolean overlapBySet(long[] a, long[] b) {
+        Set<Long> s = new HashSet();
+        for (long x : a) if (!s.add(x)) return true;
+        for (long x : b) if (!s.add(x)) return true;
+        return false;
+    }
+    
+    @Test
+    public void testOverlap() {
+        assertFalse(Stamp.baseOverlap(stamp(1, 2, 3), stamp(4, 5)));
+        assertTrue(Stamp.baseOverlap(stamp(1, 2, 3), stamp(4, 3)));
+        assertTrue(Stamp.baseOverlap(stamp(1, 2, 1), stamp(4, 5))); //cyclic in itself
+        assertTrue(stamp(7, 8, 7).evidenceIsCyclic());
+        assertFalse(stamp(7, 8, 9).evidenceIsCyclic());
+        assertFalse(Stamp.baseOverlap(stamp(1), stamp(65))); //same bit of the mask
+        assertTrue(Stamp.baseOverlap(new long[] { 1, 2 }, new long[] { 3, 1 }));
+        assertFalse(Stamp.baseOverlap(new long[] { 1, 2 }, new long[] { 3, 4 }));
+        
+        Random r = new Random(1);
+        for (int i = 0; i < 1000; i++) {
+            long[] a = new long[1 + r.nextInt(40)], b = new long[1 + r.nextInt(40)];
+            for (int j = 0; j < a.length; j++) a[j] = r.nextInt(200);
+            for (int j = 0; j < b.length; j++) b[j] = r.nextInt(200);
+            boolean expected = overlapBySet(a, b);
+            assertEquals(expected, Stamp.baseOverlap(stamp(a), stamp(b)));
+            assertEquals(expected, Stamp.baseOverlap(a, b));
+        }
+    }
+    
+    @Test
+    public void testEvidenceIncluded() {
+        assertTrue(stamp(1, 2).evidenceIncludedIn(stamp(3, 2, 1)));
+        assertFalse(stamp(1, 4).evidenceIncludedIn(stamp(3, 2, 1)));
+        assertFalse(stamp(1, 65).evidenceIncludedIn(stamp(1, 129)));
+    }
 }
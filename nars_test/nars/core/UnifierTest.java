@@ -0,0 +1,264 @@
+package nars.core;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import nars.inference.TemporalRules;
+import nars.io.Narsese;
+import nars.io.Symbols;
+import nars.language.CompoundTerm;
+import nars.language.Conjunction;
+import nars.language.Equivalence;
+import nars.language.ImageExt;
+import nars.language.ImageInt;
+import nars.language.Implication;
+import nars.language.Term;
+import nars.language.Variable;
+import nars.language.Variables;
+import nars.main.NAR;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Variables.findSubstitute and unify must find the bindings, and draw from
+ * the random source, as the unification on copied maps did
+ */
+public class UnifierTest {
+
+    /** the unification on copied maps, which the Unifier replaces */
+    static boolean findSubstituteMaps(char type, Term term1, Term term2, Map<Term, Term>[] map, boolean allowPartial, Random random) {
+        boolean term1HasVar = term1.hasVar(type);
+        if (type == Symbols.VAR_INDEPENDENT) {
+            term1HasVar |= term1.hasVarDep();
+            term1HasVar |= term1.hasVarQuery();
+        }
+        if (type == Symbols.VAR_DEPENDENT) {
+            term1HasVar |= term1.hasVarQuery();
+        }
+        final boolean term2HasVar = term2.hasVar(type);
+        final boolean term1Var = term1 instanceof Variable;
+        final boolean term2Var = term2 instanceof Variable;
+
+        if (allowPartial && term1 instanceof Conjunction && term2 instanceof Conjunction) {
+            Conjunction c1 = (Conjunction) term1;
+            Conjunction c2 = (Conjunction) term2;
+            if (c1.getTemporalOrder() == TemporalRules.ORDER_FORWARD && c2.getTemporalOrder() == TemporalRules.ORDER_FORWARD && c1.size() < c2.size()) {
+                for (int k = 0; k < (c2.term.length - c1.term.length); k++) {
+                    Map<Term, Term>[] mapk = new Map[] { new HashMap<Term, Term>(map[0]), new HashMap<Term, Term>(map[1]) };
+                    boolean succeeded = true;
+                    for (int j = k; j < k + c1.size(); j++) {
+                        Map<Term, Term>[] mapNew = new Map[] { new HashMap<Term, Term>(map[0]), new HashMap<Term, Term>(map[1]) };
+                        if (findSubstituteMaps(type, c1.term[j - k], c2.term[j], mapNew, false, random)) {
+                            mapk[0].putAll(mapNew[0]);
+                            mapk[1].putAll(mapNew[1]);
+                        } else {
+                            succeeded = false;
+                            break;
+                        }
+                    }
+                    if (succeeded) {
+                        map[0].putAll(mapk[0]);
+                        map[1].putAll(mapk[1]);
+                        return true;
+                    }
+                }
+            }
+        }
+
+        final boolean termsEqual = term1.equals(term2);
+        if (!term1Var && !term2Var && termsEqual) {
+            return true;
+        }
+        if (term1Var && term2Var && ((Variable) term1).getType() == ((Variable) term2).getType()) {
+            Variable commonVar = Variables.makeCommonVariable(term1, term2);
+            map[0].put(term1, commonVar);
+            map[1].put(term2, commonVar);
+            return true;
+        }
+        if (term1Var && Variables.allowUnification(((Variable) term1).getType(), type)) {
+            final Variable var1 = (Variable) term1;
+            Term t = map[0].get(var1);
+            if (t != null) {
+                return findSubstituteMaps(type, t, term2, map, false, random);
+            }
+            if (term2Var && Variables.allowUnification(((Variable) term2).getType(), type)) {
+                Variable commonVar = Variables.makeCommonVariable(term1, term2);
+                map[0].put(var1, commonVar);
+                map[1].put(term2, commonVar);
+            } else {
+                if (term2Var && ((((Variable) term2).getType() == Symbols.VAR_QUERY) != (var1.getType() == Symbols.VAR_QUERY))) {
+                    return false;
+                }
+                map[0].put(var1, term2);
+                if (isCommon(var1)) {
+                    map[1].put(var1, term2);
+                }
+            }
+            return true;
+        } else if (term2Var && Variables.allowUnification(((Variable) term2).getType(), type)) {
+            final Variable var2 = (Variable) term2;
+            Term t = map[1].get(var2);
+            if (t != null) {
+                return findSubstituteMaps(type, term1, t, map, false, random);
+            }
+            map[1].put(var2, term1);
+            if (isCommon(var2)) {
+                map[0].put(var2, term1);
+            }
+            return true;
+        } else if ((term1HasVar || term2HasVar) && (term1 instanceof CompoundTerm) && term1.getClass().equals(term2.getClass())) {
+            final CompoundTerm cTerm1 = (CompoundTerm) term1;
+            final CompoundTerm cTerm2 = (CompoundTerm) term2;
+            if (term1 instanceof Conjunction && (term1.getTemporalOrder() != term2.getTemporalOrder() || term1.getIsSpatial() != term2.getIsSpatial())) {
+                return false;
+            }
+            if ((term1 instanceof Implication || term1 instanceof Equivalence) && term1.getTemporalOrder() != term2.getTemporalOrder()) {
+                return false;
+            }
+            if (cTerm1.size() != cTerm2.size()) {
+                return false;
+            }
+            if ((cTerm1 instanceof ImageExt) && (((ImageExt) cTerm1).relationIndex != ((ImageExt) cTerm2).relationIndex) || (cTerm1 instanceof ImageInt) && (((ImageInt) cTerm1).relationIndex != ((ImageInt) cTerm2).relationIndex)) {
+                return false;
+            }
+            Term[] list = cTerm1.cloneTerms();
+            if (cTerm1.isCommutative()) {
+                shuffle(list, random);
+                HashSet<Integer> matchedJ = new HashSet<Integer>();
+                for (int i = 0; i < list.length; i++) {
+                    boolean succeeded = false;
+                    for (int j = 0; j < list.length; j++) {
+                        if (matchedJ.contains(j)) {
+                            continue;
+                        }
+                        Map<Term, Term>[] mapNew = new Map[] { new HashMap<Term, Term>(map[0]), new HashMap<Term, Term>(map[1]) };
+                        if (findSubstituteMaps(type, list[i].clone(), cTerm2.term[i], mapNew, false, random)) {
+                            map[0].putAll(mapNew[0]);
+                            map[1].putAll(mapNew[1]);
+                            succeeded = true;
+                            matchedJ.add(j);
+                            break;
+                        }
+                    }
+                    if (!succeeded) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            for (int i = 0; i < cTerm1.size(); i++) {
+                if (!findSubstituteMaps(type, list[i], cTerm2.term[i], map, false, random)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return termsEqual;
+    }
+
+    static boolean isCommon(Variable v) {
+        CharSequence n = v.name();
+        return n.charAt(n.length() - 1) == '$';
+    }
+
+    static void shuffle(Term[] ar, Random random) {
+        for (int i = ar.length - 1; i > 0; i--) {
+            int index = random.nextInt(i + 1);
+            Term a = ar[index];
+            ar[index] = ar[i];
+            ar[i] = a;
+        }
+    }
+
+    static Term substitute(Term t, Map<Term, Term> subs) {
+        if (subs.isEmpty()) {
+            return t;
+        }
+        Term r = ((CompoundTerm) t).applySubstitute(subs);
+        return (r == null || !r.equals(t)) ? r : t;
+    }
+
+    static final String[] leaves = { "a", "b", "c", "$x", "$y", "#x", "#y", "?q", "<a --> b>" };
+    static final String[] compounds = { "<%s --> %s>", "<%s <-> %s>", "<%s ==> %s>", "<%s =/> %s>", "(*,%s,%s)", "(&&,%s,%s)", "(&&,%s,%s,%s)", "(&/,%s,%s)", "(&/,%s,%s,%s)", "{%s,%s}", "(|,%s,%s)" };
+
+    /** a term whose shape is drawn from one source and whose atoms and variables from another */
+    static String term(Random shape, Random leaf, int depth) {
+        if (depth == 0 || shape.nextInt(4) == 0) {
+            return leaves[leaf.nextInt(leaves.length)];
+        }
+        String format = compounds[shape.nextInt(compounds.length)];
+        int n = format.split("%s", -1).length - 1;
+        Object[] args = new Object[n];
+        for (int i = 0; i < n; i++) {
+            args[i] = term(shape, leaf, depth - 1);
+        }
+        return String.format(format, args);
+    }
+
+    @Test
+    public void testSameAsCopiedMaps() throws Exception {
+        Narsese p = new Narsese(new NAR());
+        Random r = new Random(1);
+        char[] types = { Symbols.VAR_INDEPENDENT, Symbols.VAR_DEPENDENT, Symbols.VAR_QUERY };
+        int unified = 0, compared = 0;
+        for (int round = 0; round < 20000; round++) {
+            long shapeSeed = r.nextLong();
+            String s1 = term(new Random(shapeSeed), r, 3);
+            String s2 = term(new Random(shapeSeed), r, 3);
+            if (r.nextInt(4) == 0) {
+                //a forward conjunction within a longer one, for the partial matching
+                s1 = "(&/," + s1 + "," + term(r, r, 1) + ")";
+                s2 = "(&/," + term(r, r, 1) + "," + s2 + "," + term(r, r, 1) + "," + term(r, r, 1) + ")";
+            }
+            Term t1, t2;
+            try {
+                t1 = p.parseTerm(s1);
+                t2 = p.parseTerm(s2);
+            } catch (Exception e) {
+                continue;
+            }
+            if (t1 == null || t2 == null) {
+                continue;
+            }
+            char type = types[r.nextInt(types.length)];
+            boolean allowPartial = r.nextBoolean();
+            long seed = r.nextLong();
+
+            Map<Term, Term>[] expected = new Map[] { new HashMap<Term, Term>(), new HashMap<Term, Term>() };
+            Random expectedRandom = new Random(seed);
+            boolean found = findSubstituteMaps(type, t1, t2, expected, false, expectedRandom);
+            Map<Term, Term> map1 = new HashMap<>(), map2 = new HashMap<>();
+            Random random = new Random(seed);
+            assertEquals(s1 + " " + s2, found, Variables.findSubstitute(type, t1, t2, map1, map2, random));
+            assertEquals(expected[0], map1);
+            assertEquals(expected[1], map2);
+            assertEquals(expectedRandom.nextLong(), random.nextLong());
+            assertEquals(found, Variables.hasSubstitute(type, t1, t2, new Random(seed)));
+
+            if (!(t1 instanceof CompoundTerm) || !(t2 instanceof CompoundTerm)) {
+                continue;
+            }
+            expected = new Map[] { new HashMap<Term, Term>(), new HashMap<Term, Term>() };
+            expectedRandom = new Random(seed);
+            found = findSubstituteMaps(type, t1, t2, expected, allowPartial, expectedRandom);
+            Term a = found ? substitute(t1, expected[0]) : t1;
+            Term b = found ? substitute(t2, expected[1]) : t2;
+            boolean expectedUnify = found && a != null && b != null;
+            Term[] t = { t1, t2 };
+            random = new Random(seed);
+            assertEquals(s1 + " " + s2, expectedUnify, Variables.unify(type, t1, t2, t, allowPartial, random));
+            assertEquals(expectedRandom.nextLong(), random.nextLong());
+            if (expectedUnify) {
+                assertEquals(a, t[0]);
+                assertEquals(b, t[1]);
+                unified++;
+            }
+            compared++;
+        }
+        //enough of the cases unify for the comparison to mean something
+        assertTrue(compared > 5000);
+        assertTrue(unified > 500);
+    }
+}
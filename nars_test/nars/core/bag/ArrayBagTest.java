@@ -0,0 +1,90 @@
+package nars.core.bag;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import nars.perf.BagPerf.NullItem;
+import nars.storage.ArrayBag;
+import nars.storage.LevelBag;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import org.junit.Test;
+
+/**
+ * ArrayBag must select, displace and index items exactly like LevelBag
+ */
+public class ArrayBagTest {
+
+    static String key(NullItem i) {
+        return i == null ? null : i.name().toString();
+    }
+
+    public void testSameAsLevelBag(int levels, int capacity, int operations, long seed) {
+        LevelBag<NullItem,CharSequence> expected = new LevelBag(levels, capacity);
+        ArrayBag<NullItem,CharSequence> actual = new ArrayBag(levels, capacity);
+        List<NullItem> known = new ArrayList();
+        Random r = new Random(seed);
+
+        for (int i = 0; i < operations; i++) {
+            float op = r.nextFloat();
+            if (op < 0.5f) {
+                NullItem n = new NullItem(r.nextFloat() * 0.99f);
+                known.add(n);
+                assertEquals(key(expected.putIn(n)), key(actual.putIn(n)));
+            }
+            else if (op < 0.8f) {
+                NullItem e = expected.takeNext();
+                NullItem a = actual.takeNext();
+                assertEquals(key(e), key(a));
+                if (e != null && r.nextBoolean()) {
+                    assertEquals(key(expected.putIn(e)), key(actual.putIn(a)));
+                }
+            }
+            else if (!known.isEmpty()) {
+                NullItem n = known.get(r.nextInt(known.size()));
+                assertEquals(key(expected.take(n.name())), key(actual.take(n.name())));
+            }
+
+            assertEquals(expected.size(), actual.size());
+            assertEquals(expected.getMass(), actual.getMass(), 0.001f);
+        }
+
+        for (NullItem n : known) {
+            assertEquals(key(expected.get(n.name())), key(actual.get(n.name())));
+        }
+        assertEquals(expected.keySet(), actual.keySet());
+
+        actual.clear();
+        assertEquals(0, actual.size());
+        assertNull(actual.takeNext());
+    }
+
+    @Test
+    public void testSelectionOrder() {
+        testSameAsLevelBag(1, 4, 1000, 1);
+        testSameAsLevelBag(10, 10, 5000, 2);
+        testSameAsLevelBag(10, 100, 20000, 3);
+        testSameAsLevelBag(100, 1000, 20000, 4);
+    }
+
+    @Test
+    public void testReinsertKeepsIndex() {
+        ArrayBag<NullItem,CharSequence> b = new ArrayBag(4, 8);
+        NullItem[] items = new NullItem[8];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = new NullItem(0.1f * (i+1));
+            assertNull(b.putIn(items[i]));
+        }
+        for (int i = 0; i < 1000; i++) {
+            NullItem n = b.takeNext();
+            assertSame(null, b.get(n.name()));
+            assertNull(b.putIn(n));
+            assertSame(n, b.get(n.name()));
+        }
+        for (NullItem n : items) {
+            assertSame(n, b.get(n.name()));
+        }
+        assertEquals(8, b.size());
+    }
+}
@@ -2,6 +2,7 @@ package nars.core.bag;
 
 import java.util.Iterator;
 import nars.perf.BagPerf.NullItem;
+import nars.storage.ArrayBag;
 import nars.storage.Bag;
 import nars.storage.LevelBag;
 import static org.junit.Assert.assertTrue;
@@ -48,6 +49,8 @@ public class BagIteratorTest {
                 
         if (b instanceof LevelBag)
             assert(((LevelBag)b).numEmptyLevels() < L);
+        if (b instanceof ArrayBag)
+            assert(((ArrayBag)b).numEmptyLevels() < L);
         
         testIterator(b);
         
@@ -64,6 +67,7 @@ public class BagIteratorTest {
     @Test
     public void testBags() {
         testBagIterator(new LevelBag(L, L*2));
+        testBagIterator(new ArrayBag(L, L*2));
         
     }
     
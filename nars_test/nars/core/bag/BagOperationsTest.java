@@ -9,6 +9,7 @@ import nars.entity.BudgetValue;
 import nars.entity.Concept;
 import nars.entity.Item;
 import nars.language.Term;
+import nars.storage.ArrayBag;
 import nars.storage.Bag;
 import nars.storage.LevelBag;
 import static org.junit.Assert.assertEquals;
@@ -31,6 +32,7 @@ public class BagOperationsTest {
     @Test
     public void testConcept() {
         testBagSequence(new LevelBag(2, 2));    
+        testBagSequence(new ArrayBag(2, 2));
     }
     
     public static void testBagSequence(Bag b) {
@@ -76,7 +78,7 @@ public class BagOperationsTest {
         assertEquals(null, b.putIn(makeConcept("a", 0.2f)));
         assertEquals(null, b.putIn(makeConcept("b", 0.3f)));
         
-        if (b instanceof LevelBag) {
+        if ((b instanceof LevelBag) || (b instanceof ArrayBag)) {
             assertEquals("a", b.putIn(makeConcept("c", 0.1f)).name().toString()); //replaces item on level
         }
         
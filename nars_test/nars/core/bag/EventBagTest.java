@@ -0,0 +1,110 @@
+package nars.core.bag;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import nars.entity.BudgetValue;
+import nars.entity.Task;
+import nars.io.Narsese;
+import nars.language.Term;
+import nars.main.NAR;
+import nars.storage.EventBag;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * The key and time indexes of EventBag must match a scan of the bag after any operation
+ */
+public class EventBagTest {
+
+    static final String[] events = {
+        "<a --> b>. :|:", "<a --> b>! :|:", "<c --> d>. :|:", "(--,<c --> d>). :|:",
+        "(&/,<a --> b>,+3,<c --> d>). :|:", "(&/,<a --> b>,+5,<c --> d>). :|:", "<e --> f>."
+    };
+
+    static void assertIndexed(EventBag b, List<Task> all, long now) {
+        Set<Term> keys = new HashSet();
+        int events = 0;
+        for (Task t : b) {
+            keys.add(t.getTerm().getConceptKey());
+        }
+        for (Term k : keys) {
+            for (Task t : b.getSameKey(k)) {
+                assertEquals(k, t.getTerm().getConceptKey());
+                assertSame(t, b.get(t.name()));
+                events++;
+            }
+        }
+        assertEquals(b.size(), events);
+
+        for (Task x : all) {
+            Task newest = null;
+            for (Task t : b) {
+                if (t.sentence.term.equals(x.getTerm()) && t.sentence.isJudgment() && !t.sentence.isEternal()
+                        && t.sentence.getOccurenceTime() <= now
+                        && (newest == null || t.sentence.getOccurenceTime() > newest.sentence.getOccurenceTime())) {
+                    newest = t;
+                }
+            }
+            Task indexed = b.getNewest(x.getTerm(), now);
+            assertEquals(newest == null ? -1 : newest.sentence.getOccurenceTime(),
+                    indexed == null ? -1 : indexed.sentence.getOccurenceTime());
+        }
+
+        Set<Task> before = new HashSet();
+        for (Task t : b) {
+            if (!t.sentence.isEternal() && t.sentence.getOccurenceTime() < now) {
+                before.add(t);
+            }
+        }
+        List<Task<Term>> indexed = b.getBefore(now);
+        assertEquals(before, new HashSet(indexed));
+        for (int i = 1; i < indexed.size(); i++) {
+            assertTrue(indexed.get(i - 1).sentence.getOccurenceTime() <= indexed.get(i).sentence.getOccurenceTime());
+        }
+    }
+
+    @Test
+    public void testIndexFollowsBag() throws Exception {
+        NAR n = new NAR();
+        Narsese p = new Narsese(n);
+        List<Task> all = new ArrayList();
+        for (int time = 0; time < 8; time++) {
+            for (String s : events) {
+                Task t = p.parseTask(s);
+                if (!t.sentence.isEternal()) {
+                    t.sentence.stamp.setOccurrenceTime(time * 10);
+                }
+                all.add(t);
+            }
+        }
+
+        EventBag b = new EventBag(10, 20);
+        Random r = new Random(1);
+        for (int i = 0; i < 5000; i++) {
+            float op = r.nextFloat();
+            if (op < 0.5f) {
+                Task t = all.get(r.nextInt(all.size()));
+                b.putIn(new Task(t.sentence, new BudgetValue(r.nextFloat(), 0.5f, 0.5f), true));
+            }
+            else if (op < 0.8f) {
+                Task t = b.takeNext();
+                if (t != null && r.nextBoolean()) {
+                    b.putBack(t, 10, n.memory);
+                }
+            }
+            else {
+                b.take(all.get(r.nextInt(all.size())).sentence);
+            }
+            assertIndexed(b, all, r.nextInt(90));
+        }
+
+        b.clear();
+        assertIndexed(b, all, 100);
+        assertEquals(0, b.getBefore(100).size());
+    }
+}
@@ -0,0 +1,59 @@
+package nars.core.bag;
+
+import nars.main.NAR;
+import nars.perf.BagPerf.NullItem;
+import nars.storage.ArrayBag;
+import nars.storage.Memory;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Lazy forgetting decays by elapsed cycles, not by the number of putBacks
+ */
+public class LazyForgettingTest {
+
+    @Test
+    public void testDecayByElapsedCycles() {
+        NAR n = new NAR();
+        Memory m = n.memory;
+        m.param.lazyForgetting.set(true);
+        ArrayBag<NullItem,CharSequence> b = new ArrayBag(10, 10);
+
+        NullItem hot = new NullItem(0.9f);
+        NullItem cold = new NullItem(0.9f);
+        b.putIn(hot);
+        b.putIn(cold);
+        b.putBack(b.take(hot.name()), 10, m);
+        b.putBack(b.take(cold.name()), 10, m);
+        float afterFirst = hot.getPriority();
+        assertEquals(afterFirst, cold.getPriority(), 0.0001f);
+
+        //putting back again in the same cycle does not forget again
+        for (int i = 0; i < 100; i++) {
+            b.putBack(b.take(hot.name()), 10, m);
+        }
+        assertEquals(afterFirst, hot.getPriority(), 0.0001f);
+
+        //the item which was not touched is decayed for the gap when it is put back
+        n.cycles(20);
+        b.putBack(b.take(hot.name()), 10, m);
+        b.putBack(b.take(cold.name()), 10, m);
+        assertTrue(cold.getPriority() < afterFirst);
+        assertEquals(hot.getPriority(), cold.getPriority(), 0.0001f);
+    }
+
+    @Test
+    public void testEagerForgetsEveryPutBack() {
+        NAR n = new NAR();
+        n.param.lazyForgetting.set(false);
+        ArrayBag<NullItem,CharSequence> b = new ArrayBag(10, 10);
+
+        NullItem x = new NullItem(0.9f);
+        b.putIn(x);
+        b.putBack(b.take(x.name()), 10, n.memory);
+        float afterFirst = x.getPriority();
+        b.putBack(b.take(x.name()), 10, n.memory);
+        assertTrue(x.getPriority() < afterFirst);
+    }
+}
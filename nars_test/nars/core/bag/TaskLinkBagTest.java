@@ -0,0 +1,86 @@
+package nars.core.bag;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import nars.entity.BudgetValue;
+import nars.entity.Task;
+import nars.entity.TaskLink;
+import nars.io.Narsese;
+import nars.language.Term;
+import nars.main.NAR;
+import nars.main.Parameters;
+import nars.storage.TaskLinkBag;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ * The content index of TaskLinkBag must match a scan of the bag after any operation
+ */
+public class TaskLinkBagTest {
+
+    static final String[] tasks = {
+        "<a --> b>.", "<a --> b>. :|:", "<a --> b>?", "<?x --> b>?", "<a --> ?x>?",
+        "<c --> d>.", "<c --> d>!", "<?x --> d>!", "<c --> d>. :|:", "<e --> f>."
+    };
+
+    static void assertIndexed(TaskLinkBag b) {
+        Set<Term> contents = new HashSet();
+        Set<TaskLink> queries = new HashSet();
+        int links = 0;
+        for (TaskLink l : b) {
+            contents.add(l.getTerm());
+            if (!l.getTarget().sentence.isJudgment() && l.getTerm().hasVarQuery()) {
+                queries.add(l);
+            }
+        }
+        assertEquals(contents, new HashSet(b.getContents()));
+        assertEquals(queries, new HashSet(b.getQueryLinks()));
+        for (Term t : contents) {
+            for (TaskLink l : b.getSameContent(t)) {
+                assertEquals(t, l.getTerm());
+                assertEquals(l, b.get(l.name()));
+                links++;
+            }
+        }
+        assertEquals(b.size(), links);
+    }
+
+    @Test
+    public void testIndexFollowsBag() throws Exception {
+        NAR n = new NAR();
+        Narsese p = new Narsese(n);
+        List<Task> all = new ArrayList();
+        for (int i = 0; i < 5; i++) {
+            for (String s : tasks) {
+                all.add(p.parseTask(s));
+            }
+        }
+
+        TaskLinkBag b = new TaskLinkBag(10, 20);
+        Random r = new Random(1);
+        for (int i = 0; i < 5000; i++) {
+            float op = r.nextFloat();
+            if (op < 0.5f) {
+                Task t = all.get(r.nextInt(all.size()));
+                b.putIn(new TaskLink(t, null, new BudgetValue(r.nextFloat(), 0.5f, 0.5f), Parameters.TERM_LINK_RECORD_LENGTH));
+            }
+            else if (op < 0.8f) {
+                TaskLink l = b.takeNext();
+                if (l != null && r.nextBoolean()) {
+                    b.putBack(l, 10, n.memory);
+                }
+            }
+            else {
+                b.take(all.get(r.nextInt(all.size())));
+            }
+            assertIndexed(b);
+        }
+
+        b.clear();
+        assertIndexed(b);
+        assertEquals(0, b.getContents().size());
+    }
+}
@@ -0,0 +1,90 @@
+package nars.perf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import nars.core.NALTest;
+import nars.io.events.AsyncObserver;
+import nars.io.events.EventEmitter.EventObserver;
+import nars.io.events.Events;
+import nars.io.events.OutputHandler.OUT;
+import nars.main.NAR;
+import nars.main.Parameters;
+
+/**
+ * Measures cycles per second over the first scripts of the nal/test corpus
+ * with a slow observer (a client taking 20us per event, like a socket write)
+ * of the task and output events, called synchronously and through an
+ * AsyncObserver with a small buffer
+ */
+public class AsyncObserverPerf {
+
+    static final Class[] events = { Events.TaskAdd.class, OUT.class };
+    static final int scripts = 20, capacity = 128;
+
+    static final EventObserver slow = new EventObserver() {
+        @Override public void event(Class event, Object[] args) {
+            LockSupport.parkNanos(20000);
+        }
+    };
+
+    /** @param overflow null for synchronous delivery, or for no observer if not observed */
+    public static double cyclesPerSecond(final boolean observed, final AsyncObserver.Overflow overflow, final ExecutorService executor, final int cyclesPerScript, final boolean print) throws InterruptedException {
+        long time = 0, cycles = 0, dropped = 0, lag = 0;
+        List c = new ArrayList(NALTest.params()).subList(0, scripts);
+        Parameters.DEBUG = false;
+        for (Object o : c) {
+            String path = (String)((Object[])o)[0];
+            NAR n = new NAR();
+            n.addInput(NALTest.getExample(path));
+            AsyncObserver a = null;
+            if (overflow != null) {
+                a = new AsyncObserver(slow, executor, capacity, overflow);
+                n.memory.event.set(a, true, events);
+            } else if (observed) {
+                n.memory.event.set(slow, true, events);
+            }
+            long start = System.nanoTime();
+            n.cycles(cyclesPerScript);
+            time += System.nanoTime() - start;
+            cycles += cyclesPerScript;
+            if (a != null) {
+                lag = Math.max(lag, a.getMaxLag());
+                n.memory.event.set(a, false, events);
+                dropped += a.getDropped() + a.getCoalesced();
+                a.flush(1, TimeUnit.MINUTES);
+            }
+        }
+        if (overflow != null && print) {
+            System.out.println("  " + overflow + ": " + dropped + " dropped or coalesced, max lag " + lag);
+        }
+        return cycles / (time / 1.0e9);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int cycles = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        //the first round is the warmup
+        for (int round = 0; round < 2; round++) {
+            final boolean print = round > 0;
+            double none = cyclesPerSecond(false, null, executor, cycles, print);
+            double sync = cyclesPerSecond(true, null, executor, cycles, print);
+            if (print) {
+                System.out.println("observer, cycles/sec");
+                System.out.println("none, " + none);
+                System.out.println("synchronous, " + sync);
+            }
+            for (AsyncObserver.Overflow overflow : AsyncObserver.Overflow.values()) {
+                double async = cyclesPerSecond(true, overflow, executor, cycles, print);
+                if (print) {
+                    System.out.println("async " + overflow + ", " + async);
+                }
+            }
+        }
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,60 @@
+package nars.perf;
+
+import nars.entity.BudgetValue;
+import nars.io.Narsese;
+import nars.language.CompoundTerm;
+import nars.language.Term;
+import nars.main.NAR;
+import nars.storage.Memory;
+
+/**
+ * Concept lookups per second, resolving the term with replaceIntervals
+ * (a deep copy per lookup) versus the memoized Term.getConceptKey
+ */
+public class ConceptLookupPerf {
+
+    static final String[] terms = {
+        "<a --> b>",
+        "(&/,<a --> b>,+5,<c --> d>)",
+        "<(&/,<(*,SELF,{t002}) --> hold>,+3,(^go-to,{t001})) =/> <(*,SELF,{t001}) --> at>>",
+        "(&/,<{light} --> [on]>,+26,<{light} --> [on]>,+11,<{cheese} --> [here]>)",
+        "<(*,(&/,a,+2,b),c) --> (&|,d,e)>"
+    };
+
+    public static void main(String[] args) throws Exception {
+        final int lookups = 1000000;
+        final int repeats = 5, warmups = 1;
+
+        NAR n = new NAR();
+        final Memory m = n.memory;
+        Narsese p = new Narsese(n);
+        final Term[] t = new Term[terms.length];
+        for (int i = 0; i < t.length; i++) {
+            t[i] = p.parseTerm(terms[i]);
+            m.conceptualize(new BudgetValue(0.9f, 0.9f, 0.9f), t[i]);
+        }
+
+        Performance before = new Performance("replaceIntervals", repeats, warmups) {
+            @Override public void init() { }
+            @Override public void run(boolean warmup) {
+                for (int i = 0; i < lookups; i++) {
+                    if (m.concepts.get(CompoundTerm.replaceIntervals(t[i % t.length])) == null)
+                        throw new RuntimeException("missing concept");
+                }
+            }
+        };
+        Performance after = new Performance("getConceptKey", repeats, warmups) {
+            @Override public void init() { }
+            @Override public void run(boolean warmup) {
+                for (int i = 0; i < lookups; i++) {
+                    if (m.concept(t[i % t.length]) == null)
+                        throw new RuntimeException("missing concept");
+                }
+            }
+        };
+
+        System.out.println("method, lookups/sec");
+        System.out.println(before.name + ", " + (lookups / (before.getCycleTimeMS() / 1000.0)));
+        System.out.println(after.name + ", " + (lookups / (after.getCycleTimeMS() / 1000.0)));
+    }
+}
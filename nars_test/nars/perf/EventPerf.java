@@ -0,0 +1,54 @@
+package nars.perf;
+
+import nars.io.events.EventEmitter;
+import nars.io.events.EventEmitter.Channel;
+import nars.io.events.EventEmitter.EventObserver;
+import nars.io.events.Events;
+
+/**
+ * Events emitted per second by class (map lookup and varargs array) and
+ * through a resolved channel, with no observer and with one
+ */
+public class EventPerf {
+
+    static int received = 0;
+
+    public static void perf(final boolean observed, final int events) {
+        final EventEmitter e = new EventEmitter();
+        final Channel c = e.channel(Events.TaskDerive.class);
+        if (observed) {
+            e.on(Events.TaskDerive.class, new EventObserver() {
+                @Override public void event(Class event, Object[] args) {
+                    received += args.length;
+                }
+            });
+        }
+        final Object a = "a", b = "b";
+        final String state = observed ? "1 observer" : "idle";
+
+        Performance byClass = new Performance("by class, " + state, 5, 1) {
+            @Override public void init() { }
+            @Override public void run(boolean warmup) {
+                for (int i = 0; i < events; i++) {
+                    e.emit(Events.TaskDerive.class, a, b, i);
+                }
+            }
+        };
+        Performance byChannel = new Performance("channel, " + state, 5, 1) {
+            @Override public void init() { }
+            @Override public void run(boolean warmup) {
+                for (int i = 0; i < events; i++) {
+                    c.emit(a, b, i);
+                }
+            }
+        };
+        System.out.println(byClass.name + ", " + (events / (byClass.getCycleTimeMS() / 1000.0)));
+        System.out.println(byChannel.name + ", " + (events / (byChannel.getCycleTimeMS() / 1000.0)));
+    }
+
+    public static void main(String[] args) {
+        System.out.println("emit, observers, events/sec");
+        perf(false, 10000000);
+        perf(true, 10000000);
+    }
+}
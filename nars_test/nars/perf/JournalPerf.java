@@ -0,0 +1,69 @@
+package nars.perf;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import nars.core.NALTest;
+import nars.main.NAR;
+import nars.main.Parameters;
+import nars.storage.MemoryJournal;
+
+/**
+ * Measures cycles per second over the nal/test corpus with and without
+ * a MemoryJournal recording the memory
+ */
+public class JournalPerf {
+
+    public static double cyclesPerSecond(final File dir, final int cyclesPerScript, final int snapshotCycles) throws IOException {
+        long time = 0, cycles = 0;
+        Collection c = NALTest.params();
+        Parameters.DEBUG = false;
+        for (Object o : c) {
+            String path = (String)((Object[])o)[0];
+            NAR n = new NAR();
+            n.addInput(NALTest.getExample(path));
+            MemoryJournal j = dir == null ? null : new MemoryJournal(n.memory, dir, snapshotCycles, 1 << 24);
+            if (j != null) {
+                j.start();
+            }
+            //the first snapshot is taken by start, so only the cycles are timed
+            long start = System.nanoTime();
+            n.cycles(cyclesPerScript);
+            time += System.nanoTime() - start;
+            if (j != null) {
+                j.stop();
+            }
+            cycles += cyclesPerScript;
+        }
+        return cycles / (time / 1.0e9);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int cycles = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int snapshotCycles = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        File dir = File.createTempFile("journal", "");
+        dir.delete();
+
+        int repeats = 5;
+
+        //warmup
+        for (int i = 0; i < 3; i++) {
+            cyclesPerSecond(null, cycles, snapshotCycles);
+            cyclesPerSecond(dir, cycles, snapshotCycles);
+        }
+
+        double off = 0, on = 0;
+        for (int i = 0; i < repeats; i++) {
+            off += cyclesPerSecond(null, cycles, snapshotCycles) / repeats;
+            on += cyclesPerSecond(dir, cycles, snapshotCycles) / repeats;
+        }
+        System.out.println("journal, cycles/sec");
+        System.out.println("off, " + off);
+        System.out.println("on, " + on);
+        System.out.println("overhead, " + (1 - on / off) * 100 + "%");
+        for (File f : dir.listFiles()) {
+            f.delete();
+        }
+        dir.delete();
+    }
+}
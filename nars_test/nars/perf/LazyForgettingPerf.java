@@ -0,0 +1,43 @@
+package nars.perf;
+
+import java.util.Collection;
+import nars.core.NALTest;
+import nars.main.NAR;
+
+/**
+ * Compares cycle throughput over the nal/test corpus with forgetting applied
+ * on every putBack and with lazy (elapsed-cycle) forgetting (RuntimeParameters.lazyForgetting)
+ */
+public class LazyForgettingPerf {
+
+    public static double cyclesPerSecond(final boolean lazy, final int cyclesPerScript) {
+        long cycles = 0;
+        long time = 0;
+        Collection c = NALTest.params();
+        for (Object o : c) {
+            String path = (String)((Object[])o)[0];
+            NAR n = new NAR();
+            n.param.lazyForgetting.set(lazy);
+            n.addInput(NALTest.getExample(path));
+            long start = System.nanoTime();
+            n.cycles(cyclesPerScript);
+            time += System.nanoTime() - start;
+            cycles += n.memory.time();
+        }
+        return cycles / (time / 1.0e9);
+    }
+
+    public static void main(String[] args) {
+        int cycles = 1000;
+        int repeats = 3;
+
+        cyclesPerSecond(false, cycles); //warmup
+        cyclesPerSecond(true, cycles);
+
+        System.out.println("forgetting, cycles/sec");
+        for (int i = 0; i < repeats; i++) {
+            System.out.println("eager, " + cyclesPerSecond(false, cycles));
+            System.out.println("lazy, " + cyclesPerSecond(true, cycles));
+        }
+    }
+}
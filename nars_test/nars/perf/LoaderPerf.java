@@ -0,0 +1,100 @@
+package nars.perf;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import nars.io.KnowledgeLoader;
+import nars.main.NAR;
+import nars.main.Parameters;
+
+/**
+ * Lines per second loading a generated knowledge base with NAR.addInputFile
+ * and with a KnowledgeLoader on one thread and on all processors
+ */
+public class LoaderPerf {
+
+    static File knowledge(int lines) throws IOException {
+        File f = File.createTempFile("knowledge", ".nal");
+        f.deleteOnExit();
+        Random r = new Random(1);
+        try (PrintWriter out = new PrintWriter(f, "UTF-8")) {
+            for (int i = 0; i < lines; i++) {
+                switch (r.nextInt(8)) {
+                    case 0:
+                        out.println("//comment " + i);
+                        break;
+                    case 1:
+                        out.println("<(*,e" + r.nextInt(1000) + ",e" + r.nextInt(1000) + ") --> r" + r.nextInt(20) + ">. %1.00;0.90%");
+                        break;
+                    case 2:
+                        out.println("<<$x --> c" + r.nextInt(100) + "> ==> <$x --> c" + r.nextInt(100) + ">>.");
+                        break;
+                    case 3:
+                        out.println("<{e" + r.nextInt(1000) + "} --> [p" + r.nextInt(50) + "]>?");
+                        break;
+                    default:
+                        out.println("$0.50;0.80$ <e" + r.nextInt(5000) + " --> c" + r.nextInt(100) + ">. %" + r.nextInt(10) / 10.0 + ";0.90%");
+                }
+            }
+        }
+        return f;
+    }
+
+    interface Load {
+        void load(NAR n, File f) throws IOException;
+    }
+
+    static double linesPerSecond(int lines, File f, Load load, int repeats) throws IOException {
+        long time = 0;
+        for (int i = 0; i < repeats; i++) {
+            NAR n = new NAR();
+            long start = System.nanoTime();
+            load.load(n, f);
+            time += System.nanoTime() - start;
+        }
+        return (double) lines * repeats / (time / 1.0e9);
+    }
+
+    public static void main(String[] args) throws IOException {
+        final int lines = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        final int repeats = 3;
+        Parameters.DEBUG = false;
+        File f = knowledge(lines);
+
+        Load[] loads = {
+            new Load() {
+                @Override public void load(NAR n, File f) {
+                    n.addInputFile(f.getPath());
+                }
+            },
+            new Load() {
+                @Override public void load(NAR n, File f) throws IOException {
+                    new KnowledgeLoader(n.memory, new ForkJoinPool(1), 8192, false).load(f);
+                }
+            },
+            new Load() {
+                @Override public void load(NAR n, File f) throws IOException {
+                    new KnowledgeLoader(n.memory, false).load(f);
+                }
+            },
+            new Load() {
+                @Override public void load(NAR n, File f) throws IOException {
+                    new KnowledgeLoader(n.memory, true).load(f);
+                }
+            }
+        };
+        String[] names = { "NAR.addInputFile", "KnowledgeLoader 1 thread", "KnowledgeLoader", "KnowledgeLoader prefill" };
+
+        //warmup
+        for (Load l : loads) {
+            linesPerSecond(lines, f, l, 1);
+        }
+        System.out.println(Runtime.getRuntime().availableProcessors() + " processors, " + lines + " lines");
+        System.out.println("loader, lines/sec");
+        for (int i = 0; i < loads.length; i++) {
+            System.out.println(names[i] + ", " + linesPerSecond(lines, f, loads[i], repeats));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package nars.perf;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import nars.io.Narsese;
+import nars.io.NarseseParser;
+import nars.main.NAR;
+
+/**
+ * Tasks parsed per second from the lines of the nal/ corpus, with a new
+ * Narsese per line (as NAR.addInput did), one reused Narsese, and one reused
+ * NarseseParser
+ */
+public class NarsesePerf {
+
+    static void lines(File dir, Narsese narsese, List<String> lines) throws IOException {
+        for (File f : dir.listFiles()) {
+            if (f.isDirectory()) {
+                lines(f, narsese, lines);
+            } else if (f.getName().endsWith(".nal")) {
+                for (String line : Files.readAllLines(f.toPath(), StandardCharsets.ISO_8859_1)) {
+                    line = line.trim();
+                    //only the lines which are tasks
+                    try {
+                        if (!line.isEmpty() && narsese.parseTask(line) != null) {
+                            lines.add(line);
+                        }
+                    } catch (Exception e) { }
+                }
+            }
+        }
+    }
+
+    interface Parse {
+        void parse(String line) throws Narsese.InvalidInputException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        final int passes = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        final int repeats = 10, warmups = 5;
+
+        final List<String> corpus = new ArrayList();
+        final NAR n = new NAR();
+        lines(new File("nal"), new Narsese(n), corpus);
+        final String[] lines = corpus.toArray(new String[corpus.size()]);
+
+        final Narsese narsese = new Narsese(n);
+        final NarseseParser parser = new NarseseParser(n.memory);
+        String[] names = { "Narsese per line", "Narsese", "NarseseParser" };
+        Parse[] parsers = {
+            new Parse() {
+                @Override public void parse(String line) throws Narsese.InvalidInputException {
+                    new Narsese(n).parseTask(line);
+                }
+            },
+            new Parse() {
+                @Override public void parse(String line) throws Narsese.InvalidInputException {
+                    narsese.parseTask(line);
+                }
+            },
+            new Parse() {
+                @Override public void parse(String line) throws Narsese.InvalidInputException {
+                    parser.parseTask(line);
+                }
+            }
+        };
+
+        //the parsers take turns, so they see the same JIT and heap state
+        long[] time = new long[parsers.length];
+        for (int r = 0; r < warmups + repeats; r++) {
+            for (int i = 0; i < parsers.length; i++) {
+                long start = System.nanoTime();
+                for (int p = 0; p < passes; p++) {
+                    for (String l : lines) {
+                        parsers[i].parse(l);
+                    }
+                }
+                if (r >= warmups) {
+                    time[i] += System.nanoTime() - start;
+                }
+            }
+        }
+
+        System.out.println(lines.length + " tasks");
+        System.out.println("parser, tasks/sec");
+        for (int i = 0; i < parsers.length; i++) {
+            System.out.println(names[i] + ", " + ((double) repeats * passes * lines.length / (time[i] / 1.0e9)));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package nars.perf;
+
+import java.util.Collection;
+import nars.core.NALTest;
+import nars.io.events.EventEmitter.EventObserver;
+import nars.io.events.Events;
+import nars.main.NAR;
+
+/**
+ * Measures concept fires per second over the nal/test corpus
+ * for different numbers of inference threads (RuntimeParameters.threads)
+ */
+public class ParallelFirePerf {
+
+    static long fires;
+
+    public static double firesPerSecond(final int threads, final int cyclesPerScript) {
+        fires = 0;
+        long time = 0;
+
+        Collection c = NALTest.params();
+        for (Object o : c) {
+            String path = (String)((Object[])o)[0];
+            NAR n = new NAR();
+            n.param.threads.set(threads);
+            n.on(Events.ConceptFire.class, new EventObserver() {
+                @Override public void event(Class event, Object[] args) {
+                    fires++;
+                }
+            });
+            n.addInput(NALTest.getExample(path));
+            long start = System.nanoTime();
+            n.cycles(cyclesPerScript);
+            time += System.nanoTime() - start;
+        }
+        return fires / (time / 1.0e9);
+    }
+
+    public static void main(String[] args) {
+        int cycles = 1000;
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+
+        firesPerSecond(1, cycles); //warmup
+
+        System.out.println("threads, fires/sec");
+        for (int t = 1; t <= maxThreads; t *= 2) {
+            System.out.println(t + ", " + firesPerSecond(t, cycles));
+        }
+    }
+}
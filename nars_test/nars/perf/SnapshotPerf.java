@@ -0,0 +1,79 @@
+package nars.perf;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Collection;
+import nars.core.NALTest;
+import nars.main.NAR;
+import nars.main.Parameters;
+import nars.storage.Memory;
+import nars.storage.MemorySnapshot;
+
+/**
+ * Compares saving and loading a memory as a binary snapshot with Java
+ * serialization of the same memory, filled by the nal/test corpus
+ */
+public class SnapshotPerf {
+
+    public static void main(String[] args) throws Exception {
+        int cyclesPerScript = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int repeats = 5;
+
+        NAR n = new NAR();
+        Collection c = NALTest.params();
+        Parameters.DEBUG = false;
+        for (Object o : c) {
+            n.addInput(NALTest.getExample((String)((Object[])o)[0]));
+            n.cycles(cyclesPerScript);
+        }
+        System.out.println(n.memory.concepts.size() + " concepts");
+        //operators are not part of a snapshot, and some of them cannot be serialized
+        n.memory.operators.clear();
+
+        File snapshot = File.createTempFile("memory", ".snapshot");
+        File serialized = File.createTempFile("memory", ".ser");
+        try {
+            long saveSnapshot = 0, loadSnapshot = 0, loadMapped = 0, saveSerialized = 0, loadSerialized = 0;
+            for (int i = 0; i <= repeats; i++) {
+                boolean warmup = i == 0;
+
+                Memory loaded = new NAR().memory, mapped = new NAR().memory;
+                long start = System.nanoTime();
+                MemorySnapshot.save(n.memory, snapshot);
+                long t1 = System.nanoTime();
+                MemorySnapshot.load(loaded, snapshot, false);
+                long t2 = System.nanoTime();
+                MemorySnapshot.load(mapped, snapshot, true);
+                long t3 = System.nanoTime();
+                try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(serialized)))) {
+                    out.writeObject(n.memory);
+                }
+                long t4 = System.nanoTime();
+                try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(serialized)))) {
+                    Memory m = (Memory) in.readObject();
+                }
+                long t5 = System.nanoTime();
+
+                if (!warmup) {
+                    saveSnapshot += t1 - start;
+                    loadSnapshot += t2 - t1;
+                    loadMapped += t3 - t2;
+                    saveSerialized += t4 - t3;
+                    loadSerialized += t5 - t4;
+                }
+            }
+            System.out.println("format, bytes, save ms, load ms");
+            System.out.println("snapshot, " + snapshot.length() + ", " + saveSnapshot / repeats / 1.0e6 + ", " + loadSnapshot / repeats / 1.0e6);
+            System.out.println("snapshot mapped, " + snapshot.length() + ", " + saveSnapshot / repeats / 1.0e6 + ", " + loadMapped / repeats / 1.0e6);
+            System.out.println("serialization, " + serialized.length() + ", " + saveSerialized / repeats / 1.0e6 + ", " + loadSerialized / repeats / 1.0e6);
+        } finally {
+            snapshot.delete();
+            serialized.delete();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package nars.perf;
+
+import java.util.HashSet;
+import nars.entity.Stamp;
+import nars.language.Tense;
+import nars.main.Parameters;
+
+/**
+ * Evidential base overlap checks per second, with the sorted-set and mask
+ * test of Stamp.baseOverlap and with the former boxed HashSet test, at a
+ * typical base size and at Parameters.MAXIMUM_EVIDENTAL_BASE_LENGTH
+ */
+public class StampOverlapPerf {
+
+    /** the overlap test Stamp used before, for comparison */
+    static boolean baseOverlapHashSet(long[] base1, long[] base2) {
+        HashSet<Long> task_base = new HashSet<>(base1.length + base2.length);
+        for (int i = 0; i < base1.length; i++) {
+            if (!task_base.add(base1[i])) {
+                return true;
+            }
+        }
+        for (int i = 0; i < base2.length; i++) {
+            if (!task_base.add(base2[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** a stamp merged from the serials from..from+length-1 */
+    static Stamp stamp(long from, int length) {
+        Stamp s = new Stamp(0, Tense.Eternal, from, Parameters.DURATION);
+        for (long i = from + 1; i < from + length; i++) {
+            s = new Stamp(new Stamp(0, Tense.Eternal, i, Parameters.DURATION), s, 0);
+        }
+        return s;
+    }
+
+    public static void perf(final int baseLength, final int checks) {
+        //disjoint bases, the most expensive case
+        final Stamp a = stamp(1, baseLength);
+        final Stamp b = stamp(1 + baseLength, baseLength);
+
+        Performance sets = new Performance("sorted set, " + baseLength, 5, 1) {
+            @Override public void init() { }
+            @Override public void run(boolean warmup) {
+                for (int i = 0; i < checks; i++) {
+                    if (Stamp.baseOverlap(a, b)) throw new RuntimeException();
+                }
+            }
+        };
+        Performance hash = new Performance("HashSet, " + baseLength, 5, 1) {
+            @Override public void init() { }
+            @Override public void run(boolean warmup) {
+                for (int i = 0; i < checks; i++) {
+                    if (baseOverlapHashSet(a.evidentialBase, b.evidentialBase)) throw new RuntimeException();
+                }
+            }
+        };
+        System.out.println(sets.name + ", " + (checks / (sets.getCycleTimeMS() / 1000.0)));
+        System.out.println(hash.name + ", " + (checks / (hash.getCycleTimeMS() / 1000.0)));
+    }
+
+    public static void main(String[] args) {
+        System.out.println("method, base length, checks/sec");
+        perf(8, 1000000);
+        perf(Parameters.MAXIMUM_EVIDENTAL_BASE_LENGTH / 2, 100);
+    }
+}
@@ -0,0 +1,32 @@
+package nars.perf.bench;
+
+/**
+ * An operation measured by the Runner, once for each of its parameters.
+ * <p>
+ * setup prepares the state for a parameter, outside of the measurement. op
+ * is then called in timed batches, so it should do one small unit of work
+ * (a bag access, a parse, a cycle) and may leave the state changed for the
+ * next call, as long as that state stays representative. When it only stays
+ * so for a number of calls, opsPerSetup returns that number and the Runner
+ * calls setup again after as many calls, outside of the measurement. The
+ * object op returns is consumed by the Runner so the JIT cannot drop the work.
+ */
+public abstract class Benchmark {
+
+    public final String name;
+    public final String[] params;
+
+    public Benchmark(final String name, final String... params) {
+        this.name = name;
+        this.params = params;
+    }
+
+    public abstract void setup(String param) throws Exception;
+
+    public abstract Object op() throws Exception;
+
+    /** the number of op calls after which setup is called again, 0 for never */
+    public int opsPerSetup() {
+        return 0;
+    }
+}
@@ -0,0 +1,393 @@
+package nars.perf.bench;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import nars.control.DerivationContext;
+import nars.control.TemporalInferenceControl;
+import nars.entity.BudgetValue;
+import nars.entity.Concept;
+import nars.entity.Sentence;
+import nars.entity.Stamp;
+import nars.entity.Task;
+import nars.entity.TruthValue;
+import nars.io.Narsese;
+import nars.io.NarseseParser;
+import nars.io.SensorStream;
+import nars.io.Symbols;
+import nars.language.Inheritance;
+import nars.language.Product;
+import nars.language.Tense;
+import nars.language.Term;
+import nars.language.Variables;
+import nars.main.NAR;
+import nars.main.Parameters;
+import nars.perf.BagPerf.NullItem;
+import nars.storage.BeliefTable;
+import nars.storage.LevelBag;
+import nars.storage.Memory;
+
+/**
+ * The benchmarks of the inference hot paths, with the sizes they are run at
+ */
+public class InferenceBenchmarks {
+
+    static NAR nar() {
+        Parameters.DEBUG = false;
+        return new NAR();
+    }
+
+    static Term term(final NAR n, final String s) throws Narsese.InvalidInputException {
+        return new Narsese(n).parseTerm(s);
+    }
+
+    /** a product of the given number of atoms, the first one given */
+    static String product(final String first, final int size) {
+        final StringBuilder s = new StringBuilder("(*,").append(first);
+        for (int i = 1; i < size; i++) {
+            s.append(",b").append(i);
+        }
+        return s.append(')').toString();
+    }
+
+    /** an eternal stamp merged from the serials from..from+length-1 */
+    static Stamp stamp(final long from, final int length) {
+        Stamp s = new Stamp(0, Tense.Eternal, from, Parameters.DURATION);
+        for (long i = from + 1; i < from + length; i++) {
+            s = new Stamp(new Stamp(0, Tense.Eternal, i, Parameters.DURATION), s, 0);
+        }
+        return s;
+    }
+
+    /** a LevelBag filled to its capacity (the parameter) with random items */
+    abstract static class BagBenchmark extends Benchmark {
+        LevelBag<NullItem, CharSequence> bag;
+        NullItem[] items;
+        Memory memory;
+        float forgetCycles;
+        int next = 0;
+
+        BagBenchmark(final String name) {
+            super(name, "100", "1000", "10000");
+        }
+
+        @Override public void setup(final String param) {
+            final NAR n = nar();
+            memory = n.memory;
+            forgetCycles = memory.cycles(memory.param.conceptForgetDurations);
+            final int capacity = Integer.parseInt(param);
+            bag = new LevelBag<>(Parameters.CONCEPT_BAG_LEVELS, capacity);
+            items = new NullItem[capacity * 2];
+            for (int i = 0; i < items.length; i++) {
+                items[i] = new NullItem();
+                if (i < capacity) {
+                    bag.putIn(items[i]);
+                }
+            }
+        }
+    }
+
+    public static List<Benchmark> all() {
+        final List<Benchmark> b = new ArrayList<>();
+
+        b.add(new BagBenchmark("bag.put") {
+            //half of the items are outside of the bag, so some puts evict
+            @Override public Object op() {
+                final NullItem i = items[next++ % items.length];
+                bag.putIn(i);
+                return i;
+            }
+        });
+        b.add(new BagBenchmark("bag.take") {
+            @Override public Object op() {
+                final NullItem i = bag.take(items[next++ % items.length].name());
+                if (i != null) {
+                    bag.putIn(i);
+                }
+                return bag;
+            }
+        });
+        b.add(new BagBenchmark("bag.takeNext.putBack") {
+            @Override public Object op() {
+                final NullItem i = bag.takeNext();
+                bag.putBack(i, forgetCycles, memory);
+                return i;
+            }
+        });
+
+        //parameter: depth of the nested products of the subject
+        b.add(new Benchmark("narsese.parse", "1", "4", "16") {
+            Memory memory;
+            String text;
+
+            @Override public void setup(final String param) {
+                memory = nar().memory;
+                String subject = "a0";
+                for (int i = 1; i < Integer.parseInt(param); i++) {
+                    subject = "(*,a" + i + "," + subject + ")";
+                }
+                text = "$0.80;0.50$ <" + subject + " --> r>. %1.00;0.90%";
+            }
+            @Override public Object op() throws Exception {
+                return NarseseParser.parseTask(memory, text);
+            }
+        });
+
+        //parameter: number of components of the product
+        b.add(new Benchmark("term.make", "2", "8") {
+            Term[] components;
+            Term predicate;
+
+            @Override public void setup(final String param) throws Exception {
+                final NAR n = nar();
+                final Product p = (Product) term(n, product("a", Integer.parseInt(param)));
+                components = p.term;
+                predicate = term(n, "r");
+            }
+            @Override public Object op() {
+                return Inheritance.make(Product.make(components.clone()), predicate);
+            }
+        });
+        b.add(new Benchmark("term.equals", "2", "8") {
+            Term x, y;
+
+            @Override public void setup(final String param) throws Exception {
+                final NAR n = nar();
+                final String s = "<" + product("a", Integer.parseInt(param)) + " --> r>";
+                x = term(n, s);
+                y = term(n, s);
+            }
+            @Override public Object op() {
+                return x.equals(y);
+            }
+        });
+
+        //parameter: number of components of the product holding the variable
+        b.add(new Benchmark("variables.unify", "2", "8") {
+            Term x, y;
+            Random random;
+
+            @Override public void setup(final String param) throws Exception {
+                final NAR n = nar();
+                random = n.memory.randomNumber;
+                x = term(n, "<" + product("$x", Integer.parseInt(param)) + " --> r>");
+                y = term(n, "<" + product("a", Integer.parseInt(param)) + " --> r>");
+            }
+            @Override public Object op() {
+                return Variables.unify(Symbols.VAR_INDEPENDENT, x, y, new Term[] { x, y }, random);
+            }
+        });
+        b.add(new Benchmark("variables.findSubstitute", "2", "8") {
+            Term x, y;
+            Random random;
+
+            @Override public void setup(final String param) throws Exception {
+                final NAR n = nar();
+                random = n.memory.randomNumber;
+                x = term(n, "<" + product("$x", Integer.parseInt(param)) + " --> r>");
+                y = term(n, "<" + product("a", Integer.parseInt(param)) + " --> r>");
+            }
+            @Override public Object op() {
+                return Variables.findSubstitute(Symbols.VAR_INDEPENDENT, x, y, new HashMap<Term, Term>(), new HashMap<Term, Term>(), random);
+            }
+        });
+        //parameter: components of the conjunctions, tried in a random order
+        b.add(new Benchmark("variables.unifyCommutative", "2", "8") {
+            Term x, y;
+            Random random;
+
+            @Override public void setup(final String param) throws Exception {
+                final NAR n = nar();
+                random = n.memory.randomNumber;
+                final StringBuilder xs = new StringBuilder("(&&"), ys = new StringBuilder("(&&");
+                for (int i = 0; i < Integer.parseInt(param); i++) {
+                    xs.append(",<$x --> a").append(i).append('>');
+                    ys.append(",<b --> a").append(i).append('>');
+                }
+                x = term(n, xs.append(')').toString());
+                y = term(n, ys.append(')').toString());
+            }
+            @Override public Object op() {
+                return Variables.unify(Symbols.VAR_INDEPENDENT, x, y, new Term[] { x, y }, random);
+            }
+        });
+
+        //parameter: evidential base length of each premise
+        b.add(new Benchmark("stamp.merge", "8", "" + Parameters.MAXIMUM_EVIDENTAL_BASE_LENGTH / 2) {
+            Stamp x, y;
+
+            @Override public void setup(final String param) {
+                x = stamp(1, Integer.parseInt(param));
+                y = stamp(1 + Integer.parseInt(param), Integer.parseInt(param));
+            }
+            @Override public Object op() {
+                return new Stamp(x, y, 0);
+            }
+        });
+        b.add(new Benchmark("stamp.overlap", "8", "" + Parameters.MAXIMUM_EVIDENTAL_BASE_LENGTH / 2) {
+            Stamp x, y;
+
+            @Override public void setup(final String param) {
+                //disjoint bases, the most expensive case
+                x = stamp(1, Integer.parseInt(param));
+                y = stamp(1 + Integer.parseInt(param), Integer.parseInt(param));
+            }
+            @Override public Object op() {
+                return Stamp.baseOverlap(x, y);
+            }
+        });
+
+        //parameter: table capacity
+        b.add(new Benchmark("concept.addToTable", "7", "" + Parameters.CONCEPT_BELIEFS_MAX, "256") {
+            final BeliefTable table = new BeliefTable(false);
+            Task[] tasks;
+            int capacity, next = 0;
+
+            @Override public void setup(final String param) throws Exception {
+                final NAR n = nar();
+                capacity = Integer.parseInt(param);
+                final Term t = term(n, "<a --> b>");
+                final Random r = new Random(1);
+                tasks = new Task[1024];
+                for (int i = 0; i < tasks.length; i++) {
+                    final Sentence s = new Sentence(t, Symbols.JUDGMENT_MARK, new TruthValue(r.nextFloat(), 0.1f + 0.8f * r.nextFloat()), stamp(i + 1, 1));
+                    tasks[i] = new Task(s, new BudgetValue(0.5f, 0.5f, 0.5f), true);
+                }
+                table.clear();
+            }
+            @Override public Object op() {
+                return Concept.addToTable(tasks[next++ % tasks.length], table, capacity);
+            }
+        });
+
+        //parameter: number of beliefs, half of them events, asked by a question about the present
+        b.add(new Benchmark("concept.selectCandidate", "7", "" + Parameters.CONCEPT_BELIEFS_MAX, "256") {
+            Concept concept;
+            Task query;
+
+            @Override public void setup(final String param) throws Exception {
+                final NAR n = nar();
+                final Term t = term(n, "<a --> b>");
+                concept = n.memory.conceptualize(new BudgetValue(0.5f, 0.5f, 0.5f), t);
+                final int capacity = Integer.parseInt(param);
+                final Random r = new Random(1);
+                for (int i = 0; i < capacity; i++) {
+                    final Stamp s = stamp(i + 1, 1);
+                    if (i % 2 == 0) {
+                        s.setOccurrenceTime(r.nextInt(100));
+                    }
+                    final Sentence belief = new Sentence(t, Symbols.JUDGMENT_MARK, new TruthValue(r.nextFloat(), 0.1f + 0.8f * r.nextFloat()), s);
+                    Concept.addToTable(new Task(belief, new BudgetValue(0.5f, 0.5f, 0.5f), true), concept.beliefs, capacity);
+                }
+                query = new Narsese(n).parseTask("<a --> b>? :|:");
+                query.sentence.stamp.setOccurrenceTime(50);
+            }
+            @Override public Object op() {
+                return concept.selectCandidate(query, concept.beliefs);
+            }
+        });
+
+        //parameter: whether the projection is made again (copy) or taken from the belief's cache
+        b.add(new Benchmark("belief.projection", "copy", "cached") {
+            Sentence belief;
+            boolean cached;
+
+            @Override public void setup(final String param) throws Exception {
+                belief = new Narsese(nar()).parseTask("<a --> b>. :|: %0.8;0.9%").sentence;
+                belief.stamp.setOccurrenceTime(10);
+                cached = param.equals("cached");
+            }
+            @Override public Object op() {
+                return cached ? belief.getProjection(20, 30) : belief.projection(20, 30);
+            }
+        });
+
+        //parameter: the script loaded into a new NAR, cycled 100 times before the next one
+        b.add(new Benchmark("memory.cycle", "nal1.multistep.nal", "nal5.19.nal", "nal6.uncle.nal", "nal7.18.nal") {
+            NAR n;
+
+            @Override public void setup(final String param) {
+                n = nar();
+                n.addInputFile("nal/test/" + param);
+            }
+            @Override public Object op() {
+                n.cycle();
+                return n;
+            }
+            @Override public int opsPerSetup() {
+                return 100;
+            }
+        });
+
+        //parameter: number of distinct event terms; all events happen at time 0
+        b.add(new Benchmark("temporal.eventInference", "4", "32") {
+            Memory memory;
+            DerivationContext nal;
+            Term[] events;
+            int next = 0;
+
+            @Override public void setup(final String param) throws Exception {
+                final NAR n = nar();
+                memory = n.memory;
+                nal = new DerivationContext(memory);
+                events = new Term[Integer.parseInt(param)];
+                for (int i = 0; i < events.length; i++) {
+                    events[i] = term(n, "<e" + i + " --> [on]>");
+                }
+            }
+            @Override public Object op() {
+                final Sentence s = new Sentence(events[next++ % events.length], Symbols.JUDGMENT_MARK,
+                        new TruthValue(1.0f, Parameters.DEFAULT_JUDGMENT_CONFIDENCE), new Stamp(memory, Tense.Present));
+                final Task t = new Task(s, new BudgetValue(Parameters.DEFAULT_JUDGMENT_PRIORITY, Parameters.DEFAULT_JUDGMENT_DURABILITY, 0.9f), true);
+                t.setElemOfSequenceBuffer(true);
+                final boolean r = TemporalInferenceControl.eventInference(t, nal);
+                memory.newTasks.clear();
+                return r;
+            }
+        });
+
+        //parameter: number of sensor events per cycle; the queue is drained without inference
+        b.add(new Benchmark("input.narsese", "1", "64") {
+            NAR n;
+            float[] values;
+
+            @Override public void setup(final String param) {
+                n = nar();
+                values = new float[Integer.parseInt(param)];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = (i % 10) / 10.0f;
+                }
+            }
+            @Override public Object op() {
+                for (int i = 0; i < values.length; i++) {
+                    n.addInput("<s" + i + " --> [on]>. :|: %" + values[i] + ";0.9%");
+                }
+                n.memory.input.clear();
+                return n;
+            }
+        });
+        b.add(new Benchmark("input.sensorStream", "1", "64") {
+            NAR n;
+            SensorStream stream;
+            float[] values;
+
+            @Override public void setup(final String param) throws Exception {
+                n = nar();
+                stream = new SensorStream(n);
+                values = new float[Integer.parseInt(param)];
+                for (int i = 0; i < values.length; i++) {
+                    stream.register("<s" + i + " --> [on]>");
+                    values[i] = (i % 10) / 10.0f;
+                }
+            }
+            @Override public Object op() {
+                stream.submit(values, null);
+                n.memory.input.clear();
+                return n;
+            }
+        });
+
+        return b;
+    }
+}
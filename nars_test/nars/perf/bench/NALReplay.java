@@ -0,0 +1,285 @@
+package nars.perf.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import nars.lab.ioutils.ExampleFileInput;
+import nars.lab.testutils.OutputCondition;
+import nars.main.NAR;
+import nars.main.Parameters;
+
+/**
+ * Replays the nal/test scripts deterministically and checks that reasoning
+ * did not get slower, in cycles or in time.
+ * <p>
+ * Each script runs in a new NAR with the random seed reset, including the
+ * cycles it asks for, then up to the given cycles more, but only until all
+ * its output conditions are met (scripts with outputMustNotContain or
+ * expect.outEmpty run all the cycles). For each script it records the cycle
+ * of the first and of the last condition met, the cycles run, the tasks
+ * derived and the wall time, writes them as CSV, and compares them with a
+ * baseline CSV written before. A regression is a script solved in the
+ * baseline and not anymore, or solved more than the threshold percentage of
+ * cycles later, or a time per cycle, over all the scripts of the baseline,
+ * higher by more than the time threshold. Cycle counts of a seeded replay do
+ * not depend on the machine, so the baseline can be kept across releases;
+ * the time does.
+ * <p>
+ * The scripts are replayed one at a time, so that their times do not
+ * interfere; -verify replays each one twice and fails if the runs differ.
+ * Run from the project directory, ex:
+ * ant replay -Dreplay.args="-b nars_test/nars/perf/bench/nal-baseline.csv"
+ * <pre>
+ * -only regex        only replay the scripts whose file name contains a match
+ * -cycles n          maximum cycles after the script (1550, as NALTest)
+ * -seed n            random seed (1)
+ * -o file            write the runs as CSV
+ * -b file            compare with the runs of a CSV written before
+ * -threshold %       more cycles to solution reported as a regression (10)
+ * -time-threshold %  more time per cycle reported as a regression (25)
+ * -warmup n          untimed replays of all the scripts first, for the JIT (1)
+ * -verify            replay every script twice, failing if they differ
+ * </pre>
+ */
+public class NALReplay {
+
+    /** what happened replaying a script */
+    public static class Run {
+        public final String script;
+        /** whether all output conditions were met */
+        public final boolean solved;
+        /** cycle at which the first and the last output condition were met, -1 if never */
+        public final long first, solution;
+        public final long cycles, derived, nanos;
+
+        public Run(final String script, final boolean solved, final long first, final long solution, final long cycles, final long derived, final long nanos) {
+            this.script = script;
+            this.solved = solved;
+            this.first = first;
+            this.solution = solution;
+            this.cycles = cycles;
+            this.derived = derived;
+            this.nanos = nanos;
+        }
+
+        public double getMicrosPerCycle() {
+            return cycles == 0 ? 0 : nanos / 1000.0 / cycles;
+        }
+
+        /** whether the reasoning was the same, whatever the time */
+        public boolean sameReasoning(final Run r) {
+            return solved == r.solved && first == r.first && solution == r.solution && cycles == r.cycles && derived == r.derived;
+        }
+
+        String toCSV() {
+            return script + "," + solved + "," + first + "," + solution + "," + cycles + "," + derived + "," + nanos / 1000000;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-36s %-6s %8d %8d %8d %10d %8.1f", script, solved, first, solution, cycles, derived, getMicrosPerCycle());
+        }
+    }
+
+    static final String CSV_HEADER = "script,solved,first,solution,cycles,derived,ms";
+    static final String HEADER = String.format("%-36s %-6s %8s %8s %8s %10s %8s", "script", "solved", "first", "solution", "cycles", "derived", "us/cycle");
+
+    int maxCycles = 1550;
+    long seed = 1;
+    Pattern only = null;
+    String out = null, baseline = null;
+    double threshold = 10, timeThreshold = 25;
+    int warmups = 1;
+    boolean verify = false;
+
+    /** replays a script in a new NAR */
+    public Run replay(final String path) throws IOException {
+        final NAR n = new NAR();
+        n.memory.setRandomSeed(seed);
+        final String script = ExampleFileInput.load(path);
+        final List<OutputCondition> conditions = OutputCondition.getConditions(n, script, -1);
+        boolean stopEarly = !conditions.isEmpty();
+        for (final OutputCondition c : conditions) {
+            stopEarly &= c.getClass() == nars.lab.testutils.OutputContainsCondition.class;
+        }
+
+        final long start = System.nanoTime();
+        for (final String line : script.split("\n")) {
+            final String s = line.trim();
+            if (s.matches("[0-9]+")) {
+                //the cycles the script asks for
+                cycles(n, Integer.parseInt(s), stopEarly, conditions);
+            } else if (!s.isEmpty()) {
+                n.addInput(s);
+            }
+        }
+        cycles(n, maxCycles, stopEarly, conditions);
+        final long nanos = System.nanoTime() - start;
+
+        long first = -1, solution = -1;
+        for (final OutputCondition c : conditions) {
+            final long t = c.getTrueTime();
+            if (t != -1) {
+                first = first == -1 ? t : Math.min(first, t);
+                solution = Math.max(solution, t);
+            }
+        }
+        return new Run(new File(path).getName(), !conditions.isEmpty() && met(conditions), first, solution, n.time(),
+                n.memory.logic.TASK_DERIVED.getCount(), nanos);
+    }
+
+    static void cycles(final NAR n, final int cycles, final boolean stopEarly, final List<OutputCondition> conditions) {
+        for (int i = 0; i < cycles && !(stopEarly && met(conditions)); i++) {
+            n.cycles(1);
+        }
+    }
+
+    static boolean met(final List<OutputCondition> conditions) {
+        for (final OutputCondition c : conditions) {
+            if (!c.succeeded) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** the paths of the scripts NALTest runs, matching -only */
+    List<String> scripts() {
+        final List<String> scripts = new ArrayList<>();
+        for (final Object o : ExampleFileInput.getUnitTests().values()) {
+            final String path = (String) ((Object[]) o)[0];
+            if (only == null || only.matcher(new File(path).getName()).find()) {
+                scripts.add(path);
+            }
+        }
+        return scripts;
+    }
+
+    public static void write(final List<Run> runs, final File file) throws IOException {
+        try (PrintWriter w = new PrintWriter(file, "UTF-8")) {
+            w.println("# " + Runner.environment());
+            w.println(CSV_HEADER);
+            for (final Run r : runs) {
+                w.println(r.toCSV());
+            }
+        }
+    }
+
+    public static Map<String, Run> read(final File file) throws IOException {
+        final Map<String, Run> runs = new LinkedHashMap<>();
+        for (final String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+            final String[] f = line.split(",");
+            if (line.startsWith("#") || line.equals(CSV_HEADER) || f.length != 7) {
+                continue;
+            }
+            runs.put(f[0], new Run(f[0], Boolean.parseBoolean(f[1]), Long.parseLong(f[2]), Long.parseLong(f[3]),
+                    Long.parseLong(f[4]), Long.parseLong(f[5]), Long.parseLong(f[6]) * 1000000));
+        }
+        return runs;
+    }
+
+    /**
+     * Prints the scripts whose reasoning changed from the baseline, and the
+     * time per cycle if all the scripts of the baseline were replayed
+     *
+     * @return The number of regressions
+     */
+    public int compare(final List<Run> runs, final Map<String, Run> baseline) {
+        int regressions = 0;
+        long cycles = 0, nanos = 0, baseCycles = 0, baseNanos = 0;
+        System.out.println(String.format("%-36s %-6s %10s %-6s %10s", "script", "was", "solution", "now", "solution"));
+        for (final Run r : runs) {
+            final Run b = baseline.get(r.script);
+            if (b == null) {
+                continue;
+            }
+            cycles += r.cycles;
+            nanos += r.nanos;
+            baseCycles += b.cycles;
+            baseNanos += b.nanos;
+            if (r.solved == b.solved && r.solution == b.solution) {
+                continue;
+            }
+            final boolean regression = b.solved && (!r.solved || r.solution > b.solution * (1 + threshold / 100));
+            if (regression) {
+                regressions++;
+            }
+            System.out.println(String.format("%-36s %-6s %10d %-6s %10d%s", r.script, b.solved, b.solution, r.solved, r.solution,
+                    regression ? "  REGRESSION" : ""));
+        }
+        if (runs.size() != baseline.size()) {
+            //the JIT and the heap are not in the same state replaying fewer scripts
+            System.out.println("time per cycle not compared: not the scripts of the baseline");
+        } else if (cycles > 0 && baseCycles > 0 && baseNanos > 0) {
+            final double now = nanos / 1000.0 / cycles, was = baseNanos / 1000.0 / baseCycles;
+            final double change = 100 * (now / was - 1);
+            final boolean regression = change > timeThreshold;
+            if (regression) {
+                regressions++;
+            }
+            System.out.println(String.format("time per cycle: %.1f us, was %.1f us, %+.1f%%%s", now, was, change, regression ? "  REGRESSION" : ""));
+        }
+        return regressions;
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final NALReplay replay = new NALReplay();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-only": replay.only = Pattern.compile(args[++i]); break;
+                case "-cycles": replay.maxCycles = Integer.parseInt(args[++i]); break;
+                case "-seed": replay.seed = Long.parseLong(args[++i]); break;
+                case "-o": replay.out = args[++i]; break;
+                case "-b": replay.baseline = args[++i]; break;
+                case "-threshold": replay.threshold = Double.parseDouble(args[++i]); break;
+                case "-time-threshold": replay.timeThreshold = Double.parseDouble(args[++i]); break;
+                case "-warmup": replay.warmups = Integer.parseInt(args[++i]); break;
+                case "-verify": replay.verify = true; break;
+                default: throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+        Parameters.DEBUG = false;
+        Parameters.TEST_RUNNING = true;
+
+        final List<String> scripts = replay.scripts();
+        for (int i = 0; i < replay.warmups; i++) {
+            for (final String path : scripts) {
+                replay.replay(path);
+            }
+        }
+
+        int failures = 0;
+        final List<Run> runs = new ArrayList<>();
+        System.out.println(HEADER);
+        for (final String path : scripts) {
+            final Run r = replay.replay(path);
+            System.out.println(r);
+            runs.add(r);
+            if (replay.verify) {
+                final Run again = replay.replay(path);
+                if (!again.sameReasoning(r)) {
+                    System.out.println(again + "  NOT DETERMINISTIC");
+                    failures++;
+                }
+            }
+        }
+        if (replay.out != null) {
+            write(runs, new File(replay.out));
+        }
+        if (replay.baseline != null) {
+            System.out.println();
+            failures += replay.compare(runs, read(new File(replay.baseline)));
+        }
+        if (failures > 0) {
+            System.out.println(failures + " failures");
+            System.exit(1);
+        }
+    }
+}
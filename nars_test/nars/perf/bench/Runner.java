@@ -0,0 +1,327 @@
+package nars.perf.bench;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the benchmarks of InferenceBenchmarks the way JMH would: every
+ * benchmark and parameter in fresh JVMs (forks) with the arguments of this
+ * one, warmup iterations, then measured iterations of a fixed duration, each
+ * calling op in batches calibrated to take about a millisecond so the clock
+ * is rarely read. Prints the mean time per operation with its 99.9%
+ * confidence interval, writes the results as CSV, and compares them with a
+ * baseline CSV written before, failing when an operation got slower by more
+ * than the threshold and the confidence intervals.
+ * <p>
+ * Run from the project directory (the cycle benchmarks read nal/test), ex:
+ * ant bench -Dbench.args="-only bag -b nars_test/nars/perf/bench/baseline.csv"
+ * <pre>
+ * -f forks        JVMs per benchmark and parameter, 0 to run in this one (1)
+ * -wi iterations  warmup iterations per fork (3)
+ * -i iterations   measured iterations per fork (5)
+ * -t millis       duration of an iteration (500)
+ * -only regex     only run the benchmarks whose "name:param" contains a match
+ * -o file         write the results as CSV
+ * -b file         compare with the results of a CSV written before
+ * -threshold %    slowdown reported as a regression (10)
+ * </pre>
+ */
+public class Runner {
+
+    /** the measurements of a benchmark with a parameter */
+    public static class Result {
+        public final String name, param;
+        /** mean nanoseconds per operation, and the half width of its 99.9% confidence interval */
+        public final double mean, error;
+        public final int samples;
+
+        public Result(final String name, final String param, final double mean, final double error, final int samples) {
+            this.name = name;
+            this.param = param;
+            this.mean = mean;
+            this.error = error;
+            this.samples = samples;
+        }
+
+        Result(final String name, final String param, final double[] scores) {
+            this(name, param, mean(scores), error(scores), scores.length);
+        }
+
+        String key() {
+            return name + ":" + param;
+        }
+
+        String toCSV() {
+            return name + "," + param + "," + String.format("%.3f,%.3f", mean, error) + "," + samples;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-28s %-18s %14.1f +- %10.1f ns/op", name, param, mean, error);
+        }
+    }
+
+    static final String CSV_HEADER = "benchmark,param,ns_per_op,error,samples";
+
+    int forks = 1, warmups = 3, iterations = 5;
+    long millis = 500;
+    Pattern only = null;
+    String out = null, baseline = null;
+    double threshold = 10;
+
+    /*
+     * op results are compared with the volatile sink: the volatile read keeps
+     * the JIT from hoisting the loads of op, and so its work, out of the loop
+     */
+    static volatile Object sink;
+    static long hits = 0;
+    /* operations run since the last setup */
+    static long sinceSetup = 0;
+
+    /** runs n operations, returning the nanoseconds they took */
+    static long batch(final Benchmark b, final String param, final int n) throws Exception {
+        final int opsPerSetup = b.opsPerSetup();
+        if (opsPerSetup > 0) {
+            return batch(b, param, n, opsPerSetup);
+        }
+        Object r = null;
+        final long start = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            r = b.op();
+            if (r == sink) {
+                hits++;
+            }
+        }
+        final long time = System.nanoTime() - start;
+        sink = r;
+        return time;
+    }
+
+    /** runs n operations, setting up again after every opsPerSetup of them outside of the measured time */
+    static long batch(final Benchmark b, final String param, final int n, final int opsPerSetup) throws Exception {
+        Object r = null;
+        long time = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            if (sinceSetup++ == opsPerSetup) {
+                time += System.nanoTime() - start;
+                b.setup(param);
+                sinceSetup = 1;
+                start = System.nanoTime();
+            }
+            r = b.op();
+            if (r == sink) {
+                hits++;
+            }
+        }
+        time += System.nanoTime() - start;
+        sink = r;
+        return time;
+    }
+
+    /** measures a benchmark with a parameter in this JVM, returning the nanoseconds per operation of each iteration */
+    static double[] measure(final Benchmark b, final String param, final int warmups, final int iterations, final long millis) throws Exception {
+        b.setup(param);
+        sinceSetup = 0;
+        int batch = 1;
+        while (batch < (1 << 30) && batch(b, param, batch) < 1000000) {
+            batch *= 2;
+        }
+        final double[] scores = new double[iterations];
+        final long nanos = millis * 1000000;
+        for (int i = -warmups; i < iterations; i++) {
+            long ops = 0, time = 0;
+            while (time < nanos) {
+                time += batch(b, param, batch);
+                ops += batch;
+            }
+            if (i >= 0) {
+                scores[i] = (double) time / ops;
+            }
+        }
+        return scores;
+    }
+
+    /** measures a benchmark with a parameter in a new JVM */
+    double[] fork(final Benchmark b, final String param) throws IOException, InterruptedException {
+        final List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.addAll(Arrays.asList("-cp", System.getProperty("java.class.path"), Runner.class.getName(),
+                "-wi", "" + warmups, "-i", "" + iterations, "-t", "" + millis, "-run", b.name, param));
+        final Process p = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        final List<Double> scores = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.startsWith("score ")) {
+                    scores.add(Double.parseDouble(line.substring(6)));
+                }
+            }
+        }
+        if (p.waitFor() != 0 || scores.size() != iterations) {
+            throw new IOException("fork of " + b.name + ":" + param + " failed");
+        }
+        final double[] s = new double[scores.size()];
+        for (int i = 0; i < s.length; i++) {
+            s[i] = scores.get(i);
+        }
+        return s;
+    }
+
+    public List<Result> run(final List<Benchmark> benchmarks) throws Exception {
+        final List<Result> results = new ArrayList<>();
+        for (final Benchmark b : benchmarks) {
+            for (final String param : b.params) {
+                if (only != null && !only.matcher(b.name + ":" + param).find()) {
+                    continue;
+                }
+                double[] scores = new double[0];
+                for (int f = 0; f < Math.max(forks, 1); f++) {
+                    final double[] s = forks == 0 ? measure(b, param, warmups, iterations, millis) : fork(b, param);
+                    scores = Arrays.copyOf(scores, scores.length + s.length);
+                    System.arraycopy(s, 0, scores, scores.length - s.length, s.length);
+                }
+                final Result r = new Result(b.name, param, scores);
+                System.out.println(r);
+                results.add(r);
+            }
+        }
+        return results;
+    }
+
+    static double mean(final double[] x) {
+        double sum = 0;
+        for (final double v : x) {
+            sum += v;
+        }
+        return sum / x.length;
+    }
+
+    /** half width of the 99.9% confidence interval of the mean, from the normal approximation */
+    static double error(final double[] x) {
+        if (x.length < 2) {
+            return 0;
+        }
+        final double mean = mean(x);
+        double squares = 0;
+        for (final double v : x) {
+            squares += (v - mean) * (v - mean);
+        }
+        return 3.291 * Math.sqrt(squares / (x.length - 1)) / Math.sqrt(x.length);
+    }
+
+    static String environment() {
+        return Runtime.getRuntime().availableProcessors() + " processors, " + System.getProperty("java.vm.name")
+                + " " + System.getProperty("java.version");
+    }
+
+    public static void write(final List<Result> results, final File file) throws IOException {
+        try (PrintWriter w = new PrintWriter(file, "UTF-8")) {
+            w.println("# " + environment());
+            w.println(CSV_HEADER);
+            for (final Result r : results) {
+                w.println(r.toCSV());
+            }
+        }
+    }
+
+    public static Map<String, Result> read(final File file) throws IOException {
+        final Map<String, Result> results = new LinkedHashMap<>();
+        for (final String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+            final String[] f = line.split(",");
+            if (line.startsWith("#") || line.equals(CSV_HEADER) || f.length != 5) {
+                continue;
+            }
+            final Result r = new Result(f[0], f[1], Double.parseDouble(f[2]), Double.parseDouble(f[3]), Integer.parseInt(f[4]));
+            results.put(r.key(), r);
+        }
+        return results;
+    }
+
+    /**
+     * Prints how each result changed from the baseline
+     *
+     * @return The number of regressions: results slower by more than the
+     * threshold percentage and than both confidence intervals
+     */
+    public static int compare(final List<Result> results, final Map<String, Result> baseline, final double threshold) {
+        int regressions = 0;
+        System.out.println(String.format("%-28s %-18s %14s %14s %8s", "benchmark", "param", "baseline", "now", "change"));
+        for (final Result r : results) {
+            final Result b = baseline.get(r.key());
+            if (b == null) {
+                System.out.println(String.format("%-28s %-18s %14s %14.1f", r.name, r.param, "-", r.mean));
+                continue;
+            }
+            final double change = 100 * (r.mean / b.mean - 1);
+            final boolean regression = change > threshold && r.mean - r.error > b.mean + b.error;
+            if (regression) {
+                regressions++;
+            }
+            System.out.println(String.format("%-28s %-18s %14.1f %14.1f %+7.1f%%%s", r.name, r.param, b.mean, r.mean, change,
+                    regression ? "  REGRESSION" : ""));
+        }
+        return regressions;
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final Runner runner = new Runner();
+        String runName = null, runParam = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-f": runner.forks = Integer.parseInt(args[++i]); break;
+                case "-wi": runner.warmups = Integer.parseInt(args[++i]); break;
+                case "-i": runner.iterations = Integer.parseInt(args[++i]); break;
+                case "-t": runner.millis = Long.parseLong(args[++i]); break;
+                case "-only": runner.only = Pattern.compile(args[++i]); break;
+                case "-o": runner.out = args[++i]; break;
+                case "-b": runner.baseline = args[++i]; break;
+                case "-threshold": runner.threshold = Double.parseDouble(args[++i]); break;
+                case "-run": runName = args[++i]; runParam = args[++i]; break;
+                default: throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+        final List<Benchmark> benchmarks = InferenceBenchmarks.all();
+
+        if (runName != null) {
+            //in a fork
+            for (final Benchmark b : benchmarks) {
+                if (b.name.equals(runName)) {
+                    for (final double s : measure(b, runParam, runner.warmups, runner.iterations, runner.millis)) {
+                        System.out.println("score " + s);
+                    }
+                    return;
+                }
+            }
+            throw new IllegalArgumentException("unknown benchmark " + runName);
+        }
+
+        System.out.println(environment() + ", " + runner.forks + " forks, " + runner.warmups + "x"
+                + runner.millis + "ms warmup, " + runner.iterations + "x" + runner.millis + "ms measured");
+        final List<Result> results = runner.run(benchmarks);
+        if (runner.out != null) {
+            write(results, new File(runner.out));
+        }
+        if (runner.baseline != null) {
+            System.out.println();
+            final int regressions = compare(results, read(new File(runner.baseline)), runner.threshold);
+            if (regressions > 0) {
+                System.out.println(regressions + " regressions");
+                System.exit(1);
+            }
+        }
+    }
+}
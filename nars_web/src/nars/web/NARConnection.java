@@ -6,7 +6,12 @@
 
 package nars.web;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import nars.main.NAR;
+import nars.main.NARScheduler;
+import nars.io.events.AsyncObserver;
 import nars.io.events.TextOutputHandler;
 import nars.io.events.TextOutputHandler.LineOutput;
 
@@ -17,22 +22,48 @@ import nars.io.events.TextOutputHandler.LineOutput;
 abstract public class NARConnection implements LineOutput {
     public final NAR nar;
     protected final TextOutputHandler writer;
+    /** the output lines delivery, with the lag of this client */
+    public final AsyncObserver output;
+    /** the turns of the NAR on the server's workers, null until the first input */
+    private NARScheduler.Session session = null;
+    private final NARScheduler scheduler;
     int cycleIntervalMS;
     //private final TextReaction extraParser;
         
+    /** output lines buffered for a slow client before the oldest are dropped */
+    public static int OUTPUT_BUFFER = 10000;
     
-    public NARConnection(NAR nar, int cycleIntervalMS) {
+    /* writes the output of every connection, so a slow client does not hold up reasoning */
+    private static final ExecutorService writers = Executors.newCachedThreadPool(new ThreadFactory() {
+        int n = 0;
+        @Override public synchronized Thread newThread(final Runnable r) {
+            Thread t = new Thread(r, "Connection writer " + (n++));
+            t.setDaemon(true);
+            return t;
+        }
+    });
+    
+    public NARConnection(NAR nar, NARScheduler scheduler, int cycleIntervalMS) {
         this.nar = nar;
+        this.scheduler = scheduler;
         this.cycleIntervalMS = cycleIntervalMS;
              
         this.writer = new TextOutputHandler(nar, this);
+        this.output = writer.async(writers, OUTPUT_BUFFER, AsyncObserver.Overflow.DROP_OLDEST);
     }
 
     public void read(final String message) {
-        nar.addInput(message);
-                
+        //the session must be cycling before the input is queued, or a full
+        //queue under BLOCK would wait for cycles that never come
         if (!running)
             resume();
+        else
+            session.wake();
+        
+        nar.addInput(message);
+        
+        //it may have parked, with nothing to do, while the message was parsed
+        session.wake();
     }
     
     @Override
@@ -44,12 +75,19 @@ abstract public class NARConnection implements LineOutput {
     public void resume() {
         if (!running) {        
             running = true;
-            nar.start(cycleIntervalMS);
+            session = scheduler.add(nar, 1, cycleIntervalMS);
         }
     }
     public void stop() {
         running = false;
-        nar.stop();
+        if (session != null) {
+            session.close();
+        }
+    }
+    
+    /** cycles per second of the NAR, 0 while it waits for input */
+    public double getCycleRate() {
+        return session == null ? 0 : session.getCycleRate();
     }
     
     
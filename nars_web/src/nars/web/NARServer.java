@@ -7,6 +7,7 @@ import java.net.UnknownHostException;
 import java.util.HashMap;
 import java.util.Map;
 import nars.main.NAR;
+import nars.main.NARScheduler;
 import org.java_websocket.WebSocket;
 import org.java_websocket.WebSocketImpl;
 import org.java_websocket.handshake.ClientHandshake;
@@ -19,6 +20,9 @@ public class NARServer  {
     
     private static int cycleIntervalMS = 50;
     
+    /* runs the NARs of all sessions on a worker per processor */
+    final NARScheduler scheduler = new NARScheduler();
+    
     class NARSWebSocketServer extends WebSocketServer  {
 
         public NARSWebSocketServer(InetSocketAddress addr) throws UnknownHostException {
@@ -33,7 +37,7 @@ public class NARServer  {
 
             if (WEBSOCKET_DEBUG) System.out.println("Connect: " + conn.getRemoteSocketAddress().getAddress().getHostAddress());
 
-            final NARConnection n = new NARConnection(new NAR(), cycleIntervalMS) {
+            final NARConnection n = new NARConnection(new NAR(), scheduler, cycleIntervalMS) {
                 @Override public void println(String output) {
                     conn.send(output);
                 }